@@ -0,0 +1,141 @@
+package exam.bench;
+
+import exam.http.ServeurHttp;
+import exam.metrique.HistogrammeLatence;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.service.MediathequeService;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test de charge de l'API HTTP sur l'interface de bouclage : débit en
+ * requêtes par seconde et latences extrêmes, mesurées côté client.
+ * <p>
+ * Chaque client répète un parcours de guichet (emprunt, emprunts du
+ * membre, page de disponibilités, retour) sur sa propre connexion
+ * persistante, pendant une phase de chauffe puis une phase de mesure.
+ * <p>
+ * Lancement, après {@code mvn -Pbench package} :
+ * <pre>
+ * java -cp target/benchmarks.jar exam.bench.ChargeHttp [clients] [secondes] [taille]
+ * </pre>
+ */
+public final class ChargeHttp {
+
+    private static final String[] ROUTES = {
+            "POST /emprunts", "GET /membres/{id}/emprunts", "GET /oeuvres/disponibles", "POST /emprunts/{id}/retour"};
+
+    private ChargeHttp() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int secondes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int taille = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int chauffe = Math.max(1, secondes / 3);
+        // Comme Main : sans TCP_NODELAY, chaque réponse attendrait l'acquittement différé
+        if (System.getProperty(ServeurHttp.PROPRIETE_NODELAY) == null) {
+            System.setProperty(ServeurHttp.PROPRIETE_NODELAY, "true");
+        }
+
+        InMemoryOeuvreRepository oeuvres = new InMemoryOeuvreRepository();
+        InMemoryMembreRepository membres = new InMemoryMembreRepository();
+        Donnees.catalogue(oeuvres, taille);
+        Donnees.membres(membres, Math.max(clients, Donnees.nombreMembres(taille)));
+        MediathequeService service = new MediathequeService(oeuvres, membres, new InMemoryEmpruntRepository());
+
+        try (ServeurHttp serveur = ServeurHttp.demarrer(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            String base = "http://127.0.0.1:" + serveur.port();
+            System.out.printf("%d clients, %d s de chauffe puis %d s de mesure, %d œuvres%n", clients, chauffe, secondes, taille);
+            executer(base, clients, taille, chauffe, new HistogrammeLatence[ROUTES.length]);
+
+            HistogrammeLatence[] latences = new HistogrammeLatence[ROUTES.length];
+            for (int i = 0; i < latences.length; i++) {
+                latences[i] = new HistogrammeLatence();
+            }
+            long debut = System.nanoTime();
+            executer(base, clients, taille, secondes, latences);
+            double duree = (System.nanoTime() - debut) / 1e9;
+            rapporter(latences, duree);
+        }
+    }
+
+    /**
+     * Fait tourner les clients pendant une durée ; les histogrammes nuls ne sont pas remplis.
+     */
+    private static void executer(String base, int clients, int taille, int secondes, HistogrammeLatence[] latences)
+            throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(secondes);
+        int parClient = taille / clients;
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int rang = c;
+            Thread thread = new Thread(() -> {
+                SplittableRandom aleatoire = new SplittableRandom(rang);
+                long membre = rang + 1;
+                while (System.nanoTime() < fin) {
+                    long oeuvre = 1 + rang + (long) clients * aleatoire.nextInt(parClient);
+                    String reponse = envoyer(http, latences, 0, "POST", base + "/emprunts",
+                            "{\"membreId\":" + membre + ",\"oeuvreId\":" + oeuvre + "}");
+                    long emprunt = Long.parseLong(reponse.replaceAll("\\D", ""));
+                    envoyer(http, latences, 1, "GET", base + "/membres/" + membre + "/emprunts", null);
+                    envoyer(http, latences, 2, "GET", base + "/oeuvres/disponibles?limite=20&apres="
+                            + aleatoire.nextInt(taille), null);
+                    envoyer(http, latences, 3, "POST", base + "/emprunts/" + emprunt + "/retour", null);
+                }
+            }, "client-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static String envoyer(HttpClient http, HistogrammeLatence[] latences, int route,
+                                  String methode, String url, String corps) {
+        HttpRequest requete = HttpRequest.newBuilder(URI.create(url))
+                .method(methode, corps == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(corps))
+                .build();
+        long debut = System.nanoTime();
+        HttpResponse<String> reponse;
+        try {
+            reponse = http.send(requete, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            throw new IllegalStateException(methode + " " + url + " a échoué", e);
+        }
+        long duree = System.nanoTime() - debut;
+        if (reponse.statusCode() >= 300) {
+            throw new IllegalStateException(methode + " " + url + " : " + reponse.statusCode() + " " + reponse.body());
+        }
+        if (latences[route] != null) {
+            latences[route].enregistrer(duree);
+        }
+        return reponse.body();
+    }
+
+    private static void rapporter(HistogrammeLatence[] latences, double duree) {
+        long total = 0;
+        System.out.printf("%-30s %10s %9s %9s %9s %9s %9s%n", "route", "req/s", "p50 µs", "p90 µs", "p99 µs", "p99.9 µs", "max µs");
+        for (int i = 0; i < latences.length; i++) {
+            HistogrammeLatence.Repartition r = latences[i].repartition();
+            total += r.nombre();
+            System.out.printf("%-30s %10.0f %9.0f %9.0f %9.0f %9.0f %9.0f%n", ROUTES[i], r.nombre() / duree,
+                    r.quantile(0.5) / 1e3, r.quantile(0.9) / 1e3, r.quantile(0.99) / 1e3,
+                    r.quantile(0.999) / 1e3, r.maximum() / 1e3);
+        }
+        System.out.printf("%-30s %10.0f%n", "total", total / duree);
+    }
+}
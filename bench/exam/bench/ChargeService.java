@@ -0,0 +1,406 @@
+package exam.bench;
+
+import exam.domain.membre.Membre;
+import exam.metrique.HistogrammeLatence;
+import exam.metrique.MotifRefus;
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.repo.jdbc.RepositoriesJdbc;
+import exam.service.EmpruntPolicy;
+import exam.service.MediathequeService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Générateur de charge du {@link MediathequeService}, pour dimensionner
+ * le matériel : débit et latences extrêmes de chaque opération sous une
+ * charge réaliste.
+ * <p>
+ * Les repositories sont remplis de livres, de DVD et de membres, dont une
+ * part d'inactifs et une part de membres au quota, qui gardent leurs
+ * emprunts pendant toute la mesure. Chaque thread enchaîne ensuite des
+ * emprunts, des retours de ses propres emprunts, des listes d'emprunts
+ * d'un membre et des pages d'œuvres disponibles, selon un mélange donné.
+ * Les membres sont tirés uniformément ; les œuvres empruntées suivent une
+ * loi de Zipf : les titres populaires sont souvent déjà empruntés, les
+ * inactifs et les membres au quota sont refusés, et ces refus font partie
+ * de la mesure.
+ * <p>
+ * Lancement, après {@code mvn -Pbench package} :
+ * <pre>
+ * java -cp target/benchmarks.jar exam.bench.ChargeService [cle=valeur ...]
+ * </pre>
+ * Paramètres (valeur par défaut) : {@code threads} (4), {@code secondes}
+ * de mesure (10), {@code chauffe} en secondes (3), {@code livres} (60000),
+ * {@code dvd} (40000), {@code membres} (10000), exposant {@code zipf} de
+ * la popularité (1.0), part des membres {@code inactifs} (0.05) et
+ * {@code quota} (0.10), {@code mix} emprunter,rendre,lister,disponibles en
+ * poids relatifs (45,35,15,5), et {@code jdbc}, URL d'une base H2 à
+ * utiliser à la place des repositories en mémoire.
+ */
+public final class ChargeService {
+
+    private static final String[] OPERATIONS = {
+            "emprunter", "rendre", "listerEmpruntsActifsPourMembre", "disponibles (page de 20)"};
+    private static final int EMPRUNTER = 0;
+    private static final int RENDRE = 1;
+    private static final int LISTER = 2;
+    private static final int DISPONIBLES = 3;
+
+    private static final byte ORDINAIRE = 0;
+    private static final byte INACTIF = 1;
+    private static final byte AU_QUOTA = 2;
+
+    private static final int TAILLE_PAGE = 20;
+
+    private static final Map<String, String> PAR_DEFAUT = Map.of(
+            "threads", "4", "secondes", "10", "chauffe", "3",
+            "livres", "60000", "dvd", "40000", "membres", "10000",
+            "zipf", "1.0", "inactifs", "0.05", "quota", "0.10", "mix", "45,35,15,5");
+
+    private ChargeService() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parametres = parametres(args);
+        int threads = Integer.parseInt(parametres.get("threads"));
+        int secondes = Integer.parseInt(parametres.get("secondes"));
+        int chauffe = Integer.parseInt(parametres.get("chauffe"));
+        int livres = Integer.parseInt(parametres.get("livres"));
+        int dvd = Integer.parseInt(parametres.get("dvd"));
+        int nombreMembres = Integer.parseInt(parametres.get("membres"));
+        double exposant = Double.parseDouble(parametres.get("zipf"));
+        double inactifs = Double.parseDouble(parametres.get("inactifs"));
+        double quota = Double.parseDouble(parametres.get("quota"));
+        double[] mix = mix(parametres.get("mix"));
+        String jdbc = parametres.get("jdbc");
+
+        RepositoriesJdbc base = jdbc == null ? null : RepositoriesJdbc.ouvrir(jdbc);
+        try {
+            OeuvreRepository oeuvres = base == null ? new InMemoryOeuvreRepository() : base.oeuvres();
+            MembreRepository membres = base == null ? new InMemoryMembreRepository() : base.membres();
+            EmpruntRepository emprunts = base == null ? new InMemoryEmpruntRepository() : base.emprunts();
+
+            long debutRemplissage = System.nanoTime();
+            Donnees.catalogue(oeuvres, livres, dvd);
+            byte[] groupes = groupes(nombreMembres, inactifs, quota);
+            inscrire(membres, groupes);
+            MediathequeService service = base == null
+                    ? new MediathequeService(oeuvres, membres, emprunts)
+                    : new MediathequeService(oeuvres, membres, emprunts, base.generateurEmprunts());
+
+            Charge charge = new Charge(service, livres + dvd, nombreMembres, new Zipf(livres + dvd, exposant), mix);
+            Terminal[] terminaux = new Terminal[threads];
+            for (int i = 0; i < threads; i++) {
+                terminaux[i] = new Terminal(i);
+            }
+            int empruntsInitiaux = remplirQuotas(service, groupes, livres + dvd);
+            System.out.printf("%d livres, %d DVD, %d membres (%d inactifs, %d au quota, %d emprunts en cours) "
+                            + "chargés en %.1f s%n", livres, dvd, nombreMembres, compter(groupes, INACTIF),
+                    compter(groupes, AU_QUOTA), empruntsInitiaux, (System.nanoTime() - debutRemplissage) / 1e9);
+            System.out.printf("%d threads, %d s de chauffe puis %d s de mesure, popularité Zipf %.2f, mix %s%n",
+                    threads, chauffe, secondes, exposant, parametres.get("mix"));
+
+            charge.executer(terminaux, chauffe, null);
+
+            HistogrammeLatence[] latences = new HistogrammeLatence[OPERATIONS.length];
+            for (int i = 0; i < latences.length; i++) {
+                latences[i] = new HistogrammeLatence();
+            }
+            long[] refusAvant = refusParMotif(service);
+            for (Terminal terminal : terminaux) {
+                Arrays.fill(terminal.refus, 0);
+            }
+            long debut = System.nanoTime();
+            charge.executer(terminaux, secondes, latences);
+            double duree = (System.nanoTime() - debut) / 1e9;
+            rapporter(latences, terminaux, duree);
+            rapporterRefus(refusAvant, refusParMotif(service));
+        } finally {
+            if (base != null) {
+                base.close();
+            }
+        }
+    }
+
+    /**
+     * Répartit les membres entre ordinaires, inactifs et au quota (tirage à graine fixe).
+     *
+     * @return le groupe de chaque membre, indexé par identifiant (case 0 inutilisée)
+     */
+    private static byte[] groupes(int nombreMembres, double inactifs, double quota) {
+        SplittableRandom aleatoire = new SplittableRandom(3);
+        byte[] groupes = new byte[nombreMembres + 1];
+        for (int id = 1; id <= nombreMembres; id++) {
+            double tirage = aleatoire.nextDouble();
+            groupes[id] = tirage < inactifs ? INACTIF : tirage < inactifs + quota ? AU_QUOTA : ORDINAIRE;
+        }
+        return groupes;
+    }
+
+    private static void inscrire(MembreRepository membres, byte[] groupes) {
+        for (int id = 1; id < groupes.length; id++) {
+            Membre membre = new Membre(id, "Membre " + id);
+            if (groupes[id] == INACTIF) {
+                membre.desactiver();
+            }
+            membres.save(membre);
+        }
+    }
+
+    /**
+     * Fait emprunter son quota d'œuvres, tirées uniformément, à chaque membre
+     * au quota ; les terminaux ne les rendent pas, ces membres restent au quota.
+     *
+     * @return le nombre d'emprunts créés
+     */
+    private static int remplirQuotas(MediathequeService service, byte[] groupes, int nombreOeuvres) {
+        SplittableRandom aleatoire = new SplittableRandom(4);
+        int crees = 0;
+        for (int id = 1; id < groupes.length; id++) {
+            if (groupes[id] != AU_QUOTA) {
+                continue;
+            }
+            for (int i = 0; i < EmpruntPolicy.getQuotaMax(); ) {
+                try {
+                    service.emprunter(id, 1 + aleatoire.nextInt(nombreOeuvres));
+                    crees++;
+                    i++;
+                } catch (IllegalStateException e) {
+                    // Œuvre déjà empruntée : on en tire une autre
+                }
+            }
+        }
+        return crees;
+    }
+
+    private static int compter(byte[] groupes, byte groupe) {
+        int nombre = 0;
+        for (int id = 1; id < groupes.length; id++) {
+            nombre += groupes[id] == groupe ? 1 : 0;
+        }
+        return nombre;
+    }
+
+    private static Map<String, String> parametres(String[] args) {
+        Map<String, String> parametres = new HashMap<>(PAR_DEFAUT);
+        for (String arg : args) {
+            int egal = arg.indexOf('=');
+            String cle = egal < 0 ? arg : arg.substring(0, egal);
+            if (egal < 0 || !(PAR_DEFAUT.containsKey(cle) || cle.equals("jdbc"))) {
+                throw new IllegalArgumentException("Paramètre attendu sous la forme cle=valeur, parmi "
+                        + PAR_DEFAUT.keySet() + " et jdbc : " + arg);
+            }
+            parametres.put(cle, arg.substring(egal + 1));
+        }
+        return parametres;
+    }
+
+    /**
+     * @return les bornes cumulées du mélange d'opérations, entre 0 et 1
+     */
+    private static double[] mix(String valeur) {
+        String[] poids = valeur.split(",");
+        if (poids.length != OPERATIONS.length) {
+            throw new IllegalArgumentException("Le mix attend " + OPERATIONS.length + " poids : " + valeur);
+        }
+        double[] cumul = new double[poids.length];
+        double total = 0;
+        for (int i = 0; i < poids.length; i++) {
+            total += Double.parseDouble(poids[i]);
+            cumul[i] = total;
+        }
+        for (int i = 0; i < cumul.length; i++) {
+            cumul[i] /= total;
+        }
+        return cumul;
+    }
+
+    private static long[] refusParMotif(MediathequeService service) {
+        MotifRefus[] motifs = MotifRefus.values();
+        long[] nombres = new long[motifs.length];
+        for (MotifRefus motif : motifs) {
+            nombres[motif.ordinal()] = service.metriques().refus(motif).getNombre();
+        }
+        return nombres;
+    }
+
+    private static void rapporter(HistogrammeLatence[] latences, Terminal[] terminaux, double duree) {
+        long total = 0;
+        System.out.printf("%-32s %10s %7s %9s %9s %9s %9s %9s%n",
+                "opération", "appels/s", "refus", "p50 µs", "p90 µs", "p99 µs", "p99.9 µs", "max µs");
+        for (int i = 0; i < latences.length; i++) {
+            HistogrammeLatence.Repartition r = latences[i].repartition();
+            long refus = 0;
+            for (Terminal terminal : terminaux) {
+                refus += terminal.refus[i];
+            }
+            total += r.nombre();
+            System.out.printf("%-32s %10.0f %6.1f%% %9.1f %9.1f %9.1f %9.1f %9.1f%n", OPERATIONS[i], r.nombre() / duree,
+                    r.nombre() == 0 ? 0.0 : 100.0 * refus / r.nombre(), r.quantile(0.5) / 1e3, r.quantile(0.9) / 1e3,
+                    r.quantile(0.99) / 1e3, r.quantile(0.999) / 1e3, r.maximum() / 1e3);
+        }
+        System.out.printf("%-32s %10.0f%n", "total", total / duree);
+    }
+
+    private static void rapporterRefus(long[] avant, long[] apres) {
+        System.out.println("refus par motif pendant la mesure :");
+        for (MotifRefus motif : MotifRefus.values()) {
+            long nombre = apres[motif.ordinal()] - avant[motif.ordinal()];
+            if (nombre > 0) {
+                System.out.printf("  %-24s %10d%n", motif, nombre);
+            }
+        }
+    }
+
+    /**
+     * Charge commune aux terminaux : service, tirages et mélange d'opérations.
+     */
+    private static final class Charge {
+
+        private final MediathequeService service;
+        private final int nombreOeuvres;
+        private final int nombreMembres;
+        private final Zipf popularite;
+        private final double[] mix;
+
+        /**
+         * Pas premier avec le nombre d'œuvres, qui disperse les rangs de
+         * popularité sur les identifiants (sinon les titres populaires
+         * seraient tous en tête des pages de disponibilités).
+         */
+        private final long pas;
+
+        Charge(MediathequeService service, int nombreOeuvres, int nombreMembres, Zipf popularite, double[] mix) {
+            this.service = service;
+            this.nombreOeuvres = nombreOeuvres;
+            this.nombreMembres = nombreMembres;
+            this.popularite = popularite;
+            this.mix = mix;
+            long candidat = (long) (nombreOeuvres * 0.618) | 1;
+            while (pgcd(candidat, nombreOeuvres) != 1) {
+                candidat += 2;
+            }
+            this.pas = candidat;
+        }
+
+        /**
+         * Fait tourner un thread par terminal pendant une durée ; sans
+         * histogrammes (chauffe), les latences ne sont pas enregistrées.
+         */
+        void executer(Terminal[] terminaux, int secondes, HistogrammeLatence[] latences) throws InterruptedException {
+            long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(secondes);
+            List<Thread> threads = new ArrayList<>();
+            for (Terminal terminal : terminaux) {
+                Thread thread = new Thread(() -> {
+                    while (System.nanoTime() < fin) {
+                        operation(terminal, latences);
+                    }
+                }, "terminal-" + terminal.rang);
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        private void operation(Terminal terminal, HistogrammeLatence[] latences) {
+            SplittableRandom aleatoire = terminal.aleatoire;
+            int operation = 0;
+            double tirage = aleatoire.nextDouble();
+            while (tirage >= mix[operation] && operation < mix.length - 1) {
+                operation++;
+            }
+            if (operation == RENDRE && terminal.nombreEmprunts == 0) {
+                operation = EMPRUNTER;
+            }
+            long membre = 1 + aleatoire.nextInt(nombreMembres);
+
+            long debut = System.nanoTime();
+            boolean refus = false;
+            try {
+                switch (operation) {
+                    case EMPRUNTER:
+                        terminal.ajouter(service.emprunter(membre, oeuvrePopulaire(aleatoire)));
+                        break;
+                    case RENDRE:
+                        service.rendre(terminal.retirer(aleatoire.nextInt(terminal.nombreEmprunts)));
+                        break;
+                    case LISTER:
+                        service.listerEmpruntsActifsPourMembre(membre);
+                        break;
+                    default:
+                        service.disponibles(aleatoire.nextInt(nombreOeuvres), TAILLE_PAGE);
+                }
+            } catch (IllegalStateException e) {
+                refus = true;
+            }
+            long duree = System.nanoTime() - debut;
+            if (latences != null) {
+                latences[operation].enregistrer(duree);
+                if (refus) {
+                    terminal.refus[operation]++;
+                }
+            }
+        }
+
+        private long oeuvrePopulaire(SplittableRandom aleatoire) {
+            long rang = popularite.tirer(aleatoire);
+            return 1 + (rang - 1) * pas % nombreOeuvres;
+        }
+
+        private static long pgcd(long a, long b) {
+            while (b != 0) {
+                long reste = a % b;
+                a = b;
+                b = reste;
+            }
+            return a;
+        }
+    }
+
+    /**
+     * Terminal de prêt simulé par un thread : ses tirages, ses emprunts en
+     * cours (qu'il est seul à rendre) et ses refus par opération.
+     */
+    private static final class Terminal {
+
+        private final int rang;
+        private final SplittableRandom aleatoire;
+        private final long[] refus = new long[OPERATIONS.length];
+        private long[] emprunts = new long[64];
+        private int nombreEmprunts;
+
+        Terminal(int rang) {
+            this.rang = rang;
+            this.aleatoire = new SplittableRandom(100 + rang);
+        }
+
+        void ajouter(long empruntId) {
+            if (nombreEmprunts == emprunts.length) {
+                emprunts = Arrays.copyOf(emprunts, emprunts.length * 2);
+            }
+            emprunts[nombreEmprunts++] = empruntId;
+        }
+
+        /**
+         * Retire un emprunt en cours, en le remplaçant par le dernier.
+         */
+        long retirer(int index) {
+            long empruntId = emprunts[index];
+            emprunts[index] = emprunts[--nombreEmprunts];
+            return empruntId;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package exam.bench;
+
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bascule de disponibilité d'une œuvre (indisponible puis disponible) :
+ * compare-and-set de {@link Oeuvre#tenterMarquerIndisponible()} contre
+ * l'appel par réflexion des méthodes protégées qu'utilisait le service
+ * auparavant, avec recherche de la méthode à chaque appel (comme
+ * l'ancien code) ou méthode gardée en cache.
+ * <p>
+ * La variante concurrente fait basculer la même œuvre par quatre threads :
+ * les compare-and-set échouent alors en partie, comme lorsque plusieurs
+ * membres demandent la même œuvre.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisponibiliteBenchmark {
+
+    /**
+     * Œuvre propre à chaque thread.
+     */
+    @State(Scope.Thread)
+    public static class OeuvreLocale {
+        Oeuvre oeuvre;
+        Method indisponible;
+        Method disponible;
+
+        @Setup
+        public void preparer() throws ReflectiveOperationException {
+            oeuvre = new Livre(1, "Titre", "Auteur", 1);
+            indisponible = Oeuvre.class.getDeclaredMethod("marquerIndisponible");
+            indisponible.setAccessible(true);
+            disponible = Oeuvre.class.getDeclaredMethod("marquerDisponible");
+            disponible.setAccessible(true);
+        }
+    }
+
+    /**
+     * Œuvre partagée par tous les threads.
+     */
+    @State(Scope.Benchmark)
+    public static class OeuvrePartagee {
+        Oeuvre oeuvre;
+
+        @Setup
+        public void preparer() {
+            oeuvre = new Livre(1, "Titre", "Auteur", 1);
+        }
+    }
+
+    @Benchmark
+    public boolean compareAndSet(OeuvreLocale etat) {
+        return etat.oeuvre.tenterMarquerIndisponible() & etat.oeuvre.tenterMarquerDisponible();
+    }
+
+    @Benchmark
+    public void reflexionMethodeEnCache(OeuvreLocale etat) throws ReflectiveOperationException {
+        etat.indisponible.invoke(etat.oeuvre);
+        etat.disponible.invoke(etat.oeuvre);
+    }
+
+    @Benchmark
+    public void reflexionRechercheAChaqueAppel(OeuvreLocale etat) throws ReflectiveOperationException {
+        Method indisponible = Oeuvre.class.getDeclaredMethod("marquerIndisponible");
+        indisponible.setAccessible(true);
+        indisponible.invoke(etat.oeuvre);
+        Method disponible = Oeuvre.class.getDeclaredMethod("marquerDisponible");
+        disponible.setAccessible(true);
+        disponible.invoke(etat.oeuvre);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean compareAndSetConcurrent(OeuvrePartagee etat) {
+        return etat.oeuvre.tenterMarquerIndisponible() & etat.oeuvre.tenterMarquerDisponible();
+    }
+}
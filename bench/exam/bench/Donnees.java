@@ -0,0 +1,118 @@
+package exam.bench;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Jeux de données synthétiques pour les benchmarks.
+ * <p>
+ * Les contenus sont déterministes (graine fixe) : deux exécutions d'un
+ * même benchmark travaillent sur les mêmes données.
+ */
+final class Donnees {
+
+    /**
+     * Taille des lots d'écriture du catalogue et de l'historique.
+     */
+    private static final int TAILLE_LOT = 10_000;
+
+    private static final LocalDate ORIGINE = LocalDate.of(2020, 1, 1);
+
+    private static final String[] MOTS = {
+            "nuit", "ville", "guerre", "paix", "mer", "ombre", "jardin", "voyage", "histoire",
+            "secret", "royaume", "enfant", "silence", "tempête", "mémoire", "étoile"};
+
+    private Donnees() {
+    }
+
+    /**
+     * Remplit un catalogue : œuvres d'identifiants 1 à {@code nombre},
+     * une sur deux un livre, l'autre un DVD, écrites par lots.
+     */
+    static void catalogue(OeuvreRepository oeuvres, int nombre) {
+        SplittableRandom aleatoire = new SplittableRandom(1);
+        List<Oeuvre> lot = new ArrayList<>(TAILLE_LOT);
+        for (long id = 1; id <= nombre; id++) {
+            lot.add(oeuvre(id, id % 2 == 0, aleatoire));
+            if (lot.size() == TAILLE_LOT) {
+                oeuvres.saveAll(lot);
+                lot.clear();
+            }
+        }
+        oeuvres.saveAll(lot);
+    }
+
+    /**
+     * Remplit un catalogue de {@code livres} livres et {@code dvd} DVD,
+     * d'identifiants 1 à {@code livres + dvd}, les deux types étant répartis
+     * régulièrement sur les identifiants.
+     */
+    static void catalogue(OeuvreRepository oeuvres, int livres, int dvd) {
+        SplittableRandom aleatoire = new SplittableRandom(1);
+        long total = (long) livres + dvd;
+        List<Oeuvre> lot = new ArrayList<>(TAILLE_LOT);
+        for (long id = 1; id <= total; id++) {
+            boolean livre = id * livres / total > (id - 1) * livres / total;
+            lot.add(oeuvre(id, livre, aleatoire));
+            if (lot.size() == TAILLE_LOT) {
+                oeuvres.saveAll(lot);
+                lot.clear();
+            }
+        }
+        oeuvres.saveAll(lot);
+    }
+
+    private static Oeuvre oeuvre(long id, boolean livre, SplittableRandom aleatoire) {
+        String titre = MOTS[aleatoire.nextInt(MOTS.length)] + " " + MOTS[aleatoire.nextInt(MOTS.length)] + " " + id;
+        if (livre) {
+            return new Livre(id, titre, "Auteur " + (id % 5_000), (int) id);
+        }
+        return new Dvd(id, titre, "Réalisateur " + (id % 2_000), 90 + (int) (id % 60));
+    }
+
+    /**
+     * Inscrit des membres d'identifiants 1 à {@code nombre}.
+     */
+    static void membres(MembreRepository membres, int nombre) {
+        for (long id = 1; id <= nombre; id++) {
+            membres.save(new Membre(id, "Membre " + id));
+        }
+    }
+
+    /**
+     * Remplit un historique d'emprunts rendus, d'identifiants 1 à {@code nombre}.
+     */
+    static void historique(EmpruntRepository emprunts, int nombre, int nombreMembres, int nombreOeuvres) {
+        SplittableRandom aleatoire = new SplittableRandom(2);
+        List<Emprunt> lot = new ArrayList<>(TAILLE_LOT);
+        for (long id = 1; id <= nombre; id++) {
+            LocalDate date = ORIGINE.plusDays(aleatoire.nextInt(1_500));
+            Emprunt emprunt = new Emprunt(id, 1 + aleatoire.nextInt(nombreMembres), 1 + aleatoire.nextInt(nombreOeuvres), date);
+            emprunt.marquerRetour(date.plusDays(1 + aleatoire.nextInt(30)));
+            lot.add(emprunt);
+            if (lot.size() == TAILLE_LOT) {
+                emprunts.saveAll(lot);
+                lot.clear();
+            }
+        }
+        emprunts.saveAll(lot);
+    }
+
+    /**
+     * @return le nombre de membres associé à une taille de catalogue
+     */
+    static int nombreMembres(int taille) {
+        return Math.max(64, taille / 10);
+    }
+}
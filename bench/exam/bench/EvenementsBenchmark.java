@@ -0,0 +1,78 @@
+package exam.bench;
+
+import exam.evenement.BusEvenements;
+import exam.evenement.Saturation;
+import exam.evenement.TypeEvenement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de la publication d'un événement sur le {@link BusEvenements},
+ * consommé par un consommateur qui ne fait rien, selon la politique de
+ * saturation. À lancer avec {@code -prof gc} pour vérifier que la
+ * publication n'alloue rien.
+ * <p>
+ * Avec {@code ABANDONNER}, le débit des producteurs n'est pas limité par
+ * celui du consommateur : une partie des événements est abandonnée.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvenementsBenchmark {
+
+    @Param({"BLOQUER", "ABANDONNER"})
+    public Saturation saturation;
+
+    /**
+     * Nombre de consommateurs : sans consommateur, seul le coût du
+     * producteur est mesuré ; avec, sur une machine à un processeur, le
+     * temps du consommateur s'y ajoute.
+     */
+    @Param({"0", "1"})
+    public int consommateurs;
+
+    private BusEvenements bus;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        bus = new BusEvenements(1 << 16, saturation);
+        for (int i = 0; i < consommateurs; i++) {
+            bus.abonner("vide-" + i, (evenement, sequence, finDeLot) -> {
+            });
+        }
+        bus.demarrer();
+    }
+
+    @TearDown(Level.Trial)
+    public void nettoyer() {
+        bus.close();
+    }
+
+    @Benchmark
+    public boolean publier() {
+        return bus.publier(TypeEvenement.EMPRUNT_CREE, 1, 2, 3);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean publierConcurrent() {
+        return bus.publier(TypeEvenement.EMPRUNT_CREE, 1, 2, 3);
+    }
+}
@@ -0,0 +1,56 @@
+package exam.bench;
+
+import exam.repo.EmpruntRepository;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.OffHeapEmpruntRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'un historique d'emprunts volumineux pour le ramasse-miettes :
+ * durée d'un GC complet selon que l'historique est stocké dans le tas
+ * ({@link InMemoryEmpruntRepository}) ou hors tas ({@link OffHeapEmpruntRepository}).
+ * <p>
+ * Avec {@code -prof gc}, JMH indique aussi l'occupation du tas.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class HistoriqueBenchmark {
+
+    @Param({"1000000", "5000000", "10000000"})
+    public int taille;
+
+    @Param({"tas", "horsTas"})
+    public String stockage;
+
+    private EmpruntRepository emprunts;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        emprunts = stockage.equals("tas") ? new InMemoryEmpruntRepository() : new OffHeapEmpruntRepository();
+        Donnees.historique(emprunts, taille, Donnees.nombreMembres(taille), taille);
+    }
+
+    @Benchmark
+    public EmpruntRepository gcComplet() {
+        System.gc();
+        // Garde l'historique vivant pendant la collecte
+        return emprunts;
+    }
+}
@@ -0,0 +1,195 @@
+package exam.bench;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.repo.jdbc.RepositoriesJdbc;
+import exam.service.MediathequeService;
+import exam.util.IdGenerator;
+import exam.util.SeuilIdStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Repositories JDBC (base H2 embarquée, en mémoire ou sur disque) comparés
+ * aux repositories en mémoire : lecture et réécriture d'une œuvre,
+ * réécriture groupée, emprunts actifs d'un membre et, à travers le service,
+ * emprunt puis retour.
+ * <p>
+ * Le catalogue compte {@code taille} œuvres, l'historique autant d'emprunts
+ * rendus et il y a un membre pour dix œuvres.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JdbcBenchmark {
+
+    /**
+     * Nombre d'œuvres réécrites par {@link #saveAllOeuvres}.
+     */
+    private static final int TAILLE_LOT = 100;
+
+    private static final int EMPRUNTS_TEMOIN = 3;
+
+    @Param({"1000", "100000", "1000000"})
+    public int taille;
+
+    @Param({"memoire", "h2Memoire", "h2Fichier"})
+    public String stockage;
+
+    private Path dossier;
+    private RepositoriesJdbc jdbc;
+    private OeuvreRepository oeuvres;
+    private EmpruntRepository emprunts;
+    private MediathequeService service;
+    private long membreTemoin;
+
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        MembreRepository membres;
+        if (stockage.equals("memoire")) {
+            oeuvres = new InMemoryOeuvreRepository();
+            membres = new InMemoryMembreRepository();
+            emprunts = new InMemoryEmpruntRepository();
+        } else {
+            String url;
+            if (stockage.equals("h2Memoire")) {
+                url = "jdbc:h2:mem:bench" + System.nanoTime();
+            } else {
+                dossier = Files.createTempDirectory("mediatheque-jdbc");
+                url = "jdbc:h2:" + dossier.resolve("mediatheque").toAbsolutePath();
+            }
+            jdbc = RepositoriesJdbc.ouvrir(url);
+            oeuvres = jdbc.oeuvres();
+            membres = jdbc.membres();
+            emprunts = jdbc.emprunts();
+        }
+        int nombreMembres = Donnees.nombreMembres(taille);
+        Donnees.catalogue(oeuvres, taille);
+        Donnees.membres(membres, nombreMembres);
+        Donnees.historique(emprunts, taille, nombreMembres, taille);
+
+        SeuilIdStore seuil = SeuilIdStore.enMemoire();
+        seuil.enregistrer(taille + 1L);
+        service = new MediathequeService(oeuvres, membres, emprunts,
+                new IdGenerator(seuil, IdGenerator.TAILLE_BLOC_PAR_DEFAUT));
+
+        membreTemoin = nombreMembres;
+        for (int i = 0; i < EMPRUNTS_TEMOIN; i++) {
+            service.emprunter(membreTemoin, taille - i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void nettoyer() throws IOException {
+        if (jdbc != null) {
+            jdbc.close();
+        }
+        if (dossier != null) {
+            try (Stream<Path> fichiers = Files.walk(dossier)) {
+                fichiers.sorted(Comparator.reverseOrder()).forEach(fichier -> {
+                    try {
+                        Files.delete(fichier);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Tirages propres à chaque thread ; les œuvres empruntées par un thread
+     * sont disjointes de celles des autres.
+     */
+    @State(Scope.Thread)
+    public static class Tirage {
+        private SplittableRandom aleatoire;
+        private int rang;
+        private int oeuvresParThread;
+        private final List<Oeuvre> lot = new ArrayList<>(TAILLE_LOT);
+
+        @Setup(Level.Trial)
+        public void preparer(JdbcBenchmark banc, ThreadParams thread) {
+            rang = thread.getThreadIndex();
+            oeuvresParThread = (banc.taille - EMPRUNTS_TEMOIN) / thread.getThreadCount();
+            aleatoire = new SplittableRandom(rang);
+        }
+
+        long oeuvre(int nombreThreads) {
+            return 1 + rang + (long) nombreThreads * aleatoire.nextInt(oeuvresParThread);
+        }
+    }
+
+    @Benchmark
+    public Optional<Oeuvre> findByIdOeuvre(Tirage tirage) {
+        return oeuvres.findById(tirage.oeuvre(1));
+    }
+
+    @Benchmark
+    public void saveOeuvre(Tirage tirage) {
+        oeuvres.save(oeuvres.findById(tirage.oeuvre(1)).orElseThrow());
+    }
+
+    @Benchmark
+    public void saveAllOeuvres(Tirage tirage) {
+        tirage.lot.clear();
+        for (int i = 0; i < TAILLE_LOT; i++) {
+            tirage.lot.add(oeuvres.findById(tirage.oeuvre(1)).orElseThrow());
+        }
+        oeuvres.saveAll(tirage.lot);
+    }
+
+    @Benchmark
+    public List<Emprunt> findActifsByMembreId() {
+        return emprunts.findActifsByMembreId(membreTemoin);
+    }
+
+    @Benchmark
+    public long emprunterPuisRendre(Tirage tirage) {
+        long emprunt = service.emprunter(tirage.rang + 1L, tirage.oeuvre(1));
+        service.rendre(emprunt);
+        return emprunt;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long emprunterPuisRendreConcurrent(Tirage tirage) {
+        long emprunt = service.emprunter(tirage.rang + 1L, tirage.oeuvre(4));
+        service.rendre(emprunt);
+        return emprunt;
+    }
+}
@@ -0,0 +1,94 @@
+package exam.bench;
+
+import exam.metrique.HistogrammeLatence;
+import exam.metrique.MetriquesService;
+import exam.metrique.MotifRefus;
+import exam.metrique.Operation;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de la mesure des opérations du service : enregistrement d'une
+ * latence dans l'histogramme, comptage d'un refus et enveloppe complète
+ * ({@link MetriquesService#mesurer}, deux lectures d'horloge comprises),
+ * comparée à l'appel direct du même corps.
+ * <p>
+ * Les variantes {@code ...Concurrent} enregistrent depuis quatre threads
+ * dans le même histogramme.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetriquesBenchmark {
+
+    private final HistogrammeLatence histogramme = new HistogrammeLatence();
+    private final MetriquesService metriques = new MetriquesService(
+            new InMemoryOeuvreRepository(), new InMemoryMembreRepository(), new InMemoryEmpruntRepository());
+
+    /**
+     * Durée enregistrée, propre à chaque thread : varie d'un appel à l'autre
+     * sur quelques ordres de grandeur.
+     */
+    @State(Scope.Thread)
+    public static class Duree {
+        private long valeur = 1;
+
+        long suivante() {
+            valeur = valeur * 6364136223846793005L + 1442695040888963407L;
+            return (valeur >>> 44) + 100;
+        }
+    }
+
+    @Benchmark
+    public long lectureHorloge() {
+        return System.nanoTime() - System.nanoTime();
+    }
+
+    @Benchmark
+    public void enregistrerLatence(Duree duree) {
+        histogramme.enregistrer(duree.suivante());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void enregistrerLatenceConcurrent(Duree duree) {
+        histogramme.enregistrer(duree.suivante());
+    }
+
+    @Benchmark
+    public void compterRefus() {
+        metriques.compterRefus(MotifRefus.QUOTA_ATTEINT);
+    }
+
+    @Benchmark
+    public long corpsSansMesure(Duree duree) {
+        return duree.suivante();
+    }
+
+    @Benchmark
+    public Long corpsMesure(Duree duree) {
+        return metriques.mesurer(Operation.EMPRUNTER, duree::suivante);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Long corpsMesureConcurrent(Duree duree) {
+        return metriques.mesurer(Operation.EMPRUNTER, duree::suivante);
+    }
+}
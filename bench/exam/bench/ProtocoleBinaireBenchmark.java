@@ -0,0 +1,106 @@
+package exam.bench;
+
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.service.MediathequeService;
+import exam.tcp.ClientBinaire;
+import exam.tcp.ServeurBinaire;
+import exam.tcp.Statut;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit soutenu des emprunts et retours par le protocole binaire, sur
+ * l'interface de bouclage, comparé à l'appel direct du service.
+ * <p>
+ * Une opération est un emprunt ou un retour. {@code synchrone} attend
+ * chaque réponse avant la requête suivante ; {@code pipeline} envoie
+ * {@value #PROFONDEUR} emprunts (un par membre, le quota étant de trois)
+ * avant de lire leurs réponses, puis les {@value #PROFONDEUR} retours. Le
+ * serveur n'a qu'une boucle d'événements : sur une machine à un
+ * processeur, client et serveur se partagent ce processeur.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProtocoleBinaireBenchmark {
+
+    private static final int PROFONDEUR = 64;
+
+    private MediathequeService service;
+    private ServeurBinaire serveur;
+    private ClientBinaire client;
+    private final long[] emprunts = new long[PROFONDEUR];
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        InMemoryOeuvreRepository oeuvres = new InMemoryOeuvreRepository();
+        InMemoryMembreRepository membres = new InMemoryMembreRepository();
+        Donnees.catalogue(oeuvres, 1_000);
+        Donnees.membres(membres, PROFONDEUR);
+        service = new MediathequeService(oeuvres, membres, new InMemoryEmpruntRepository());
+        serveur = ServeurBinaire.demarrer(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1);
+        client = ClientBinaire.connecter(new InetSocketAddress(InetAddress.getLoopbackAddress(), serveur.port()));
+    }
+
+    @TearDown(Level.Trial)
+    public void nettoyer() {
+        client.close();
+        serveur.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void direct() {
+        service.rendre(service.emprunter(1, 1));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void synchrone() {
+        client.rendre(client.emprunter(1, 1));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * PROFONDEUR)
+    public void pipeline() {
+        for (int i = 0; i < PROFONDEUR; i++) {
+            client.demanderEmprunt(i + 1, i + 1);
+        }
+        for (int i = 0; i < PROFONDEUR; i++) {
+            exigerSucces(client.recevoir());
+            emprunts[i] = client.valeur();
+        }
+        for (int i = 0; i < PROFONDEUR; i++) {
+            client.demanderRetour(emprunts[i]);
+        }
+        for (int i = 0; i < PROFONDEUR; i++) {
+            exigerSucces(client.recevoir());
+        }
+    }
+
+    private void exigerSucces(Statut statut) {
+        if (statut != Statut.OK) {
+            throw new IllegalStateException(statut + " : " + client.message());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package exam.bench;
+
+import exam.repo.journal.ModeDurabilite;
+import exam.repo.journal.RepositoriesJournalises;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Redémarrage des repositories persistants : rechargement d'un dossier
+ * contenant {@code taille} emprunts (et un membre et une œuvre pour dix
+ * emprunts), soit depuis un instantané, soit par relecture du seul journal.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RedemarrageBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    public int taille;
+
+    @Param({"instantane", "journal"})
+    public String source;
+
+    private Path dossier;
+
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        dossier = Files.createTempDirectory("mediatheque-bench");
+        int nombre = Math.max(1, taille / 10);
+        try (RepositoriesJournalises repositories =
+                     RepositoriesJournalises.ouvrir(dossier, ModeDurabilite.ASYNCHRONE, Duration.ofMillis(10))) {
+            Donnees.catalogue(repositories.oeuvres(), nombre);
+            Donnees.membres(repositories.membres(), nombre);
+            Donnees.historique(repositories.emprunts(), taille, nombre, nombre);
+            if (source.equals("instantane")) {
+                repositories.instantane();
+            }
+        }
+    }
+
+    @Benchmark
+    public int redemarrer() {
+        try (RepositoriesJournalises repositories = RepositoriesJournalises.ouvrir(dossier)) {
+            return repositories.emprunts().countActifsByMembreId(1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void nettoyer() throws IOException {
+        try (Stream<Path> fichiers = Files.walk(dossier)) {
+            fichiers.sorted(Comparator.reverseOrder()).forEach(fichier -> {
+                try {
+                    Files.delete(fichier);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package exam.bench;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.repo.impl.OffHeapEmpruntRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * {@code findById} et {@code save} de chaque repository, sur des
+ * identifiants tirés au hasard parmi {@code taille} entités.
+ * <p>
+ * {@code save} réécrit une entité existante (même identifiant) : la taille
+ * du repository reste constante pendant la mesure. Les variantes
+ * {@code ...Concurrent} lancent quatre threads sur le même repository.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int taille;
+
+    @Param({"oeuvres", "membres", "emprunts", "empruntsHorsTas"})
+    public String repository;
+
+    private LongFunction<Optional<?>> trouver;
+    private Sauvegarde sauver;
+
+    /**
+     * Réécriture d'une entité existante du repository mesuré.
+     */
+    private interface Sauvegarde {
+        void sauver(long id);
+    }
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        switch (repository) {
+            case "oeuvres": {
+                OeuvreRepository oeuvres = new InMemoryOeuvreRepository();
+                Donnees.catalogue(oeuvres, taille);
+                Oeuvre[] entites = new Oeuvre[taille + 1];
+                oeuvres.stream().forEach(oeuvre -> entites[(int) oeuvre.getId()] = oeuvre);
+                trouver = oeuvres::findById;
+                sauver = id -> oeuvres.save(entites[(int) id]);
+                break;
+            }
+            case "membres": {
+                MembreRepository membres = new InMemoryMembreRepository();
+                Donnees.membres(membres, taille);
+                Membre[] entites = new Membre[taille + 1];
+                membres.stream().forEach(membre -> entites[(int) membre.getId()] = membre);
+                trouver = membres::findById;
+                sauver = id -> membres.save(entites[(int) id]);
+                break;
+            }
+            case "emprunts":
+            case "empruntsHorsTas": {
+                EmpruntRepository emprunts = repository.equals("emprunts")
+                        ? new InMemoryEmpruntRepository()
+                        : new OffHeapEmpruntRepository();
+                Donnees.historique(emprunts, taille, Donnees.nombreMembres(taille), taille);
+                // Le stockage hors tas retourne des copies : on réécrit une copie par emprunt
+                Emprunt[] entites = new Emprunt[taille + 1];
+                emprunts.stream().forEach(emprunt -> entites[(int) emprunt.getId()] = emprunt);
+                trouver = emprunts::findById;
+                sauver = id -> emprunts.save(entites[(int) id]);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Repository inconnu : " + repository);
+        }
+    }
+
+    /**
+     * Générateur d'identifiants propre à chaque thread.
+     */
+    @State(Scope.Thread)
+    public static class Identifiants {
+        private SplittableRandom aleatoire;
+        private int taille;
+
+        @Setup(Level.Trial)
+        public void preparer(RepositoryBenchmark banc, ThreadParams thread) {
+            aleatoire = new SplittableRandom(thread.getThreadIndex());
+            taille = banc.taille;
+        }
+
+        long suivant() {
+            return 1 + aleatoire.nextInt(taille);
+        }
+    }
+
+    @Benchmark
+    public Optional<?> findById(Identifiants ids) {
+        return trouver.apply(ids.suivant());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<?> findByIdConcurrent(Identifiants ids) {
+        return trouver.apply(ids.suivant());
+    }
+
+    @Benchmark
+    public void save(Identifiants ids) {
+        sauver.sauver(ids.suivant());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void saveConcurrent(Identifiants ids) {
+        sauver.sauver(ids.suivant());
+    }
+}
@@ -0,0 +1,166 @@
+package exam.bench;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.service.MediathequeService;
+import exam.util.IdGenerator;
+import exam.util.SeuilIdStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemins chauds de {@link MediathequeService} : emprunt et retour,
+ * liste des œuvres disponibles, emprunts actifs d'un membre.
+ * <p>
+ * Le catalogue compte {@code taille} œuvres, l'historique autant d'emprunts
+ * rendus et il y a un membre pour dix œuvres. Les variantes
+ * {@code ...Concurrent} lancent quatre threads : pour l'emprunt, ils se
+ * partagent deux membres et se disputent donc leurs verrous.
+ * {@code debitEmprunterPuisRendre} donne au contraire un membre à chaque
+ * thread et mesure le débit (cycles par seconde) ; le nombre de threads se
+ * choisit à l'exécution ({@code -t 1}, {@code -t 2}, {@code -t 4}...).
+ * <p>
+ * Chaque emprunt mesuré ajoute un emprunt à l'historique (qui n'est jamais
+ * purgé) : les itérations sont courtes pour borner sa croissance. La taille
+ * 10M demande un tas d'une dizaine de Go ({@code -jvmArgsAppend -Xmx12g}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    /**
+     * Nombre d'œuvres réservées aux emprunts actifs du membre témoin.
+     */
+    private static final int EMPRUNTS_TEMOIN = 3;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int taille;
+
+    private MediathequeService service;
+    private long membreTemoin;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        InMemoryOeuvreRepository oeuvres = new InMemoryOeuvreRepository();
+        InMemoryMembreRepository membres = new InMemoryMembreRepository();
+        InMemoryEmpruntRepository emprunts = new InMemoryEmpruntRepository();
+        int nombreMembres = Donnees.nombreMembres(taille);
+        Donnees.catalogue(oeuvres, taille);
+        Donnees.membres(membres, nombreMembres);
+        Donnees.historique(emprunts, taille, nombreMembres, taille);
+
+        // Les identifiants d'emprunt reprennent après l'historique
+        SeuilIdStore seuil = SeuilIdStore.enMemoire();
+        seuil.enregistrer(taille + 1L);
+        service = new MediathequeService(oeuvres, membres, emprunts,
+                new IdGenerator(seuil, IdGenerator.TAILLE_BLOC_PAR_DEFAUT));
+
+        // Le dernier membre garde des emprunts actifs sur les dernières œuvres
+        membreTemoin = nombreMembres;
+        for (int i = 0; i < EMPRUNTS_TEMOIN; i++) {
+            service.emprunter(membreTemoin, taille - i);
+        }
+    }
+
+    /**
+     * État propre à chaque thread : son membre et ses œuvres, disjointes
+     * de celles des autres threads (résidu de l'identifiant modulo le
+     * nombre de threads).
+     */
+    @State(Scope.Thread)
+    public static class Emprunteur {
+        private SplittableRandom aleatoire;
+        private int rang;
+        private int nombreThreads;
+        private int oeuvresParThread;
+
+        @Setup(Level.Trial)
+        public void preparer(ServiceBenchmark banc, BenchmarkParams params, ThreadParams thread) {
+            rang = thread.getThreadIndex();
+            nombreThreads = params.getThreads();
+            oeuvresParThread = (banc.taille - EMPRUNTS_TEMOIN) / nombreThreads;
+            aleatoire = new SplittableRandom(rang);
+        }
+
+        long oeuvre() {
+            return 1 + rang + (long) nombreThreads * aleatoire.nextInt(oeuvresParThread);
+        }
+    }
+
+    @Benchmark
+    public long emprunterPuisRendre(Emprunteur emprunteur) {
+        return emprunterPuisRendre(emprunteur.rang + 1L, emprunteur);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long emprunterPuisRendreConcurrent(Emprunteur emprunteur) {
+        // Deux membres pour quatre threads : au plus deux emprunts actifs chacun
+        return emprunterPuisRendre(emprunteur.rang % 2 + 1L, emprunteur);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long debitEmprunterPuisRendre(Emprunteur emprunteur) {
+        // Un membre par thread : seule la mécanique du service est partagée
+        return emprunterPuisRendre(emprunteur.rang + 1L, emprunteur);
+    }
+
+    private long emprunterPuisRendre(long membre, Emprunteur emprunteur) {
+        long emprunt = service.emprunter(membre, emprunteur.oeuvre());
+        service.rendre(emprunt);
+        return emprunt;
+    }
+
+    @Benchmark
+    public List<Oeuvre> disponibles() {
+        return service.disponibles();
+    }
+
+    @Benchmark
+    public List<Oeuvre> disponiblesPremierePage() {
+        return service.disponibles(0, 20);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Oeuvre> disponiblesPremierePageConcurrent() {
+        return service.disponibles(0, 20);
+    }
+
+    @Benchmark
+    public List<Emprunt> listerEmpruntsActifsPourMembre() {
+        return service.listerEmpruntsActifsPourMembre(membreTemoin);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Emprunt> listerEmpruntsActifsPourMembreConcurrent() {
+        return service.listerEmpruntsActifsPourMembre(membreTemoin);
+    }
+}
@@ -0,0 +1,88 @@
+package exam.bench;
+
+import java.util.SplittableRandom;
+
+/**
+ * Tirage de rangs selon une loi de Zipf : le rang {@code k} parmi
+ * {@code n} est tiré avec une probabilité proportionnelle à
+ * {@code 1 / k^exposant}.
+ * <p>
+ * Méthode de rejet-inversion de Hörmann et Derflinger : temps constant
+ * par tirage, sans table, quel que soit {@code n}. Un exposant de 1
+ * correspond à la popularité habituelle d'un catalogue (quelques titres
+ * très demandés, une longue traîne rarement empruntée).
+ */
+final class Zipf {
+
+    private final int n;
+    private final double exposant;
+    private final double hIntegraleX1;
+    private final double hIntegraleN;
+    private final double seuil;
+
+    /**
+     * @param n        nombre de rangs (> 0)
+     * @param exposant exposant de la loi (> 0)
+     */
+    Zipf(int n, double exposant) {
+        if (n <= 0 || exposant <= 0) {
+            throw new IllegalArgumentException("n et l'exposant doivent être strictement positifs");
+        }
+        this.n = n;
+        this.exposant = exposant;
+        this.hIntegraleX1 = hIntegrale(1.5) - 1.0;
+        this.hIntegraleN = hIntegrale(n + 0.5);
+        this.seuil = 2.0 - hIntegraleInverse(hIntegrale(2.5) - h(2.0));
+    }
+
+    /**
+     * @return un rang entre 1 et n, 1 étant le plus probable
+     */
+    int tirer(SplittableRandom aleatoire) {
+        while (true) {
+            double u = hIntegraleN + aleatoire.nextDouble() * (hIntegraleX1 - hIntegraleN);
+            double x = hIntegraleInverse(u);
+            int k = (int) Math.max(1, Math.min(n, Math.round(x)));
+            if (k - x <= seuil || u >= hIntegrale(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Primitive de {@link #h(double)}.
+     */
+    private double hIntegrale(double x) {
+        double logX = Math.log(x);
+        return expm1SurX((1.0 - exposant) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exposant * Math.log(x));
+    }
+
+    private double hIntegraleInverse(double x) {
+        double t = Math.max(-1.0, x * (1.0 - exposant));
+        return Math.exp(log1pSurX(t) * x);
+    }
+
+    /**
+     * {@code log1p(x) / x}, prolongée par continuité en 0.
+     */
+    private static double log1pSurX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    /**
+     * {@code expm1(x) / x}, prolongée par continuité en 0.
+     */
+    private static double expm1SurX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x / 3.0 * (1.0 + 0.25 * x));
+    }
+}
@@ -1,25 +1,65 @@
 package exam;
 
 import exam.cli.MediathequeCLI;
+import exam.http.ServeurHttp;
+import exam.recherche.MembreRepositoryIndexe;
+import exam.recherche.OeuvreRepositoryIndexe;
 import exam.repo.EmpruntRepository;
 import exam.repo.MembreRepository;
 import exam.repo.OeuvreRepository;
 import exam.repo.impl.InMemoryEmpruntRepository;
 import exam.repo.impl.InMemoryMembreRepository;
 import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.repo.journal.RepositoriesJournalises;
 import exam.service.MediathequeService;
+import exam.tcp.ServeurBinaire;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
 
 /**
  * Point d'entrée principal de l'application de médiathèque.
  * <p>
  * Initialise les repositories, le service et la CLI, puis démarre l'application.
+ * Sans argument, les données sont en mémoire et des données de test sont chargées.
+ * Avec un dossier de données en argument, l'état est journalisé sur disque
+ * et restauré au démarrage suivant.
+ * <p>
+ * Les mesures du service sont publiées en JMX, sous le domaine {@code exam}.
+ * Si la propriété système {@value #PROPRIETE_PORT_HTTP} est définie, le
+ * service est aussi exposé en HTTP/JSON sur ce port ({@link ServeurHttp}),
+ * avec la propriété {@value ServeurHttp#PROPRIETE_NODELAY} activée sauf si
+ * elle est déjà définie ;
+ * de même pour le protocole binaire des portiques et bornes de prêt
+ * ({@link ServeurBinaire}) avec la propriété {@value #PROPRIETE_PORT_TCP}.
  */
 public class Main {
 
+    /**
+     * Intervalle entre deux instantanés de l'état persistant.
+     */
+    private static final Duration PERIODE_INSTANTANES = Duration.ofMinutes(10);
+
+    /**
+     * Propriété système du port de l'API HTTP (par exemple {@code -Dmediatheque.http.port=8080}).
+     */
+    static final String PROPRIETE_PORT_HTTP = "mediatheque.http.port";
+
+    /**
+     * Propriété système du port du protocole binaire (par exemple {@code -Dmediatheque.tcp.port=7070}).
+     */
+    static final String PROPRIETE_PORT_TCP = "mediatheque.tcp.port";
+
     public static void main(String[] args) {
-        // Initialisation des repositories (implémentations en mémoire)
-        OeuvreRepository oeuvreRepository = new InMemoryOeuvreRepository();
-        MembreRepository membreRepository = new InMemoryMembreRepository();
+        if (args.length > 0) {
+            demarrerAvecPersistance(Path.of(args[0]));
+            return;
+        }
+
+        // Initialisation des repositories (implémentations en mémoire, indexées pour la recherche)
+        OeuvreRepository oeuvreRepository = new OeuvreRepositoryIndexe(new InMemoryOeuvreRepository());
+        MembreRepository membreRepository = new MembreRepositoryIndexe(new InMemoryMembreRepository());
         EmpruntRepository empruntRepository = new InMemoryEmpruntRepository();
 
         // Initialisation du service avec les repositories
@@ -29,8 +69,92 @@ public class Main {
                 empruntRepository
         );
 
-        // Création et démarrage de la CLI
-        MediathequeCLI cli = new MediathequeCLI(service);
-        cli.demarrer();
+        // Mesures du service consultables en JMX (jconsole, VisualVM...)
+        service.metriques().publier();
+
+        // Création et démarrage de la CLI, et des serveurs réseau s'ils sont demandés
+        executer(service, new MediathequeCLI(service));
+    }
+
+    /**
+     * Exécute la CLI jusqu'à sa sortie, entourée des serveurs réseau demandés,
+     * puis arrête ces serveurs.
+     */
+    private static void executer(MediathequeService service, MediathequeCLI cli) {
+        ServeurHttp http = demarrerHttp(service);
+        try {
+            ServeurBinaire tcp = demarrerTcp(service);
+            try {
+                cli.demarrer();
+            } finally {
+                if (tcp != null) {
+                    tcp.close();
+                }
+            }
+        } finally {
+            if (http != null) {
+                http.close();
+            }
+        }
+    }
+
+    /**
+     * Démarre l'API HTTP si la propriété {@value #PROPRIETE_PORT_HTTP} est définie.
+     *
+     * @return le serveur démarré, ou null
+     */
+    private static ServeurHttp demarrerHttp(MediathequeService service) {
+        Integer port = Integer.getInteger(PROPRIETE_PORT_HTTP);
+        if (port == null) {
+            return null;
+        }
+        // Avant le premier serveur du processus : le JDK ne lit cette propriété qu'une fois
+        if (System.getProperty(ServeurHttp.PROPRIETE_NODELAY) == null) {
+            System.setProperty(ServeurHttp.PROPRIETE_NODELAY, "true");
+        }
+        ServeurHttp serveur = ServeurHttp.demarrer(service, new InetSocketAddress(port));
+        System.out.println("API HTTP à l'écoute sur le port " + serveur.port());
+        return serveur;
+    }
+
+    /**
+     * Démarre le serveur du protocole binaire si la propriété {@value #PROPRIETE_PORT_TCP} est définie.
+     *
+     * @return le serveur démarré, ou null
+     */
+    private static ServeurBinaire demarrerTcp(MediathequeService service) {
+        Integer port = Integer.getInteger(PROPRIETE_PORT_TCP);
+        if (port == null) {
+            return null;
+        }
+        ServeurBinaire serveur = ServeurBinaire.demarrer(service, new InetSocketAddress(port));
+        System.out.println("Protocole binaire à l'écoute sur le port " + serveur.port());
+        return serveur;
+    }
+
+    /**
+     * Démarre l'application sur des repositories journalisés dans un dossier de données.
+     *
+     * @param dossier dossier de données (créé s'il n'existe pas)
+     */
+    private static void demarrerAvecPersistance(Path dossier) {
+        try (RepositoriesJournalises repositories = RepositoriesJournalises.ouvrir(dossier)) {
+            // Index de recherche construits depuis l'état restauré
+            MediathequeService service = new MediathequeService(
+                    new OeuvreRepositoryIndexe(repositories.oeuvres()),
+                    new MembreRepositoryIndexe(repositories.membres()),
+                    repositories.emprunts(),
+                    repositories.generateurEmprunts()
+            );
+
+            repositories.planifierInstantanes(PERIODE_INSTANTANES);
+            service.metriques().publier();
+
+            // Pas de données de test : elles écraseraient l'état restauré
+            executer(service, new MediathequeCLI(service, false));
+
+            // Instantané de fin d'exécution : le prochain démarrage n'aura rien à rejouer
+            repositories.instantane();
+        }
     }
 }
@@ -10,6 +10,8 @@ import exam.service.MediathequeService;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 /**
  * Interface en ligne de commande pour la médiathèque.
@@ -19,32 +21,61 @@ import java.util.Scanner;
  */
 public class MediathequeCLI {
 
+    /**
+     * Nombre d'œuvres affichées par page dans les listes.
+     */
+    private static final int TAILLE_PAGE = 20;
+
+    /**
+     * Plus grand numéro d'option du menu principal.
+     */
+    private static final int CHOIX_MAX = 8;
+
+    /**
+     * Nombre de propositions affichées lors d'une saisie par nom ou par titre.
+     */
+    private static final int NOMBRE_SUGGESTIONS = 10;
+
     private final MediathequeService service;
     private final Scanner scanner;
+    private final boolean donneesDeTest;
 
     /**
-     * Crée une nouvelle instance de la CLI.
+     * Crée une nouvelle instance de la CLI, qui chargera des données de test au démarrage.
      *
      * @param service le service de la médiathèque (non null)
      */
     public MediathequeCLI(MediathequeService service) {
+        this(service, true);
+    }
+
+    /**
+     * Crée une nouvelle instance de la CLI.
+     *
+     * @param service       le service de la médiathèque (non null)
+     * @param donneesDeTest true pour charger des données de test au démarrage
+     */
+    public MediathequeCLI(MediathequeService service, boolean donneesDeTest) {
         if (service == null) {
             throw new IllegalArgumentException("Le service ne peut pas être null");
         }
         this.service = service;
         this.scanner = new Scanner(System.in);
+        this.donneesDeTest = donneesDeTest;
     }
 
     /**
      * Point d'entrée principal de l'application.
-     * Initialise les données de test et lance la boucle du menu.
+     * Initialise les données de test si demandé et lance la boucle du menu.
      */
     public void demarrer() {
         System.out.println("=== Bienvenue dans la Médiathèque ===");
         System.out.println();
 
         // Initialiser les données de test
-        initialiserDonneesTest();
+        if (donneesDeTest) {
+            initialiserDonneesTest();
+        }
 
         // Boucle principale du menu
         boolean continuer = true;
@@ -72,12 +103,18 @@ public class MediathequeCLI {
                 case 6:
                     ajouterMembre();
                     break;
+                case 7:
+                    rechercherOeuvres();
+                    break;
+                case 8:
+                    rechercherTitreApproche();
+                    break;
                 case 0:
                     continuer = false;
                     System.out.println("Au revoir !");
                     break;
                 default:
-                    System.out.println("❌ Choix invalide. Veuillez choisir un nombre entre 0 et 6.");
+                    System.out.println("❌ Choix invalide. Veuillez choisir un nombre entre 0 et " + CHOIX_MAX + ".");
             }
 
             if (continuer) {
@@ -103,6 +140,8 @@ public class MediathequeCLI {
         System.out.println("║ 4. Lister les emprunts actifs     ║");
         System.out.println("║ 5. Ajouter une œuvre              ║");
         System.out.println("║ 6. Ajouter un membre              ║");
+        System.out.println("║ 7. Rechercher une œuvre           ║");
+        System.out.println("║ 8. Rechercher un titre approché   ║");
         System.out.println("║ 0. Quitter                        ║");
         System.out.println("╚════════════════════════════════════╝");
         System.out.print("Votre choix : ");
@@ -112,17 +151,17 @@ public class MediathequeCLI {
      * Lit le choix de l'utilisateur dans le menu.
      * Redemande tant que l'entrée n'est pas valide.
      *
-     * @return le choix de l'utilisateur (0-6)
+     * @return le choix de l'utilisateur (0 à CHOIX_MAX)
      */
     private int lireChoixMenu() {
         while (true) {
             try {
                 String ligne = scanner.nextLine().trim();
                 int choix = Integer.parseInt(ligne);
-                if (choix >= 0 && choix <= 6) {
+                if (choix >= 0 && choix <= CHOIX_MAX) {
                     return choix;
                 } else {
-                    System.out.print("❌ Veuillez entrer un nombre entre 0 et 6 : ");
+                    System.out.print("❌ Veuillez entrer un nombre entre 0 et " + CHOIX_MAX + " : ");
                 }
             } catch (NumberFormatException e) {
                 System.out.print("❌ Entrée invalide. Veuillez entrer un nombre : ");
@@ -132,18 +171,38 @@ public class MediathequeCLI {
 
     /**
      * Option 1 : Liste toutes les œuvres disponibles.
+     * <p>
+     * Les œuvres sont lues et affichées page par page : seule la page
+     * courante est chargée, quelle que soit la taille du catalogue.
      */
     private void listerOeuvresDisponibles() {
         try {
-            List<Oeuvre> oeuvres = service.disponibles();
-            if (oeuvres.isEmpty()) {
+            int total = service.compterDisponibles();
+            if (total == 0) {
                 System.out.println("ℹ️  Aucune œuvre disponible actuellement.");
-            } else {
-                System.out.println("📚 Œuvres disponibles (" + oeuvres.size() + ") :");
-                System.out.println();
-                for (Oeuvre oeuvre : oeuvres) {
+                return;
+            }
+
+            System.out.println("📚 Œuvres disponibles (" + total + ") :");
+            System.out.println();
+            long curseur = 0;
+            List<Oeuvre> page = service.disponibles(curseur, TAILLE_PAGE);
+            while (!page.isEmpty()) {
+                for (Oeuvre oeuvre : page) {
                     afficherOeuvre(oeuvre);
                 }
+                curseur = page.get(page.size() - 1).getId();
+                if (page.size() < TAILLE_PAGE) {
+                    break;
+                }
+                page = service.disponibles(curseur, TAILLE_PAGE);
+                if (page.isEmpty()) {
+                    break;
+                }
+                System.out.print("-- Entrée pour la page suivante, 'q' pour arrêter : ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                    break;
+                }
             }
         } catch (Exception e) {
             System.out.println("❌ Erreur lors de la récupération des œuvres : " + e.getMessage());
@@ -176,8 +235,8 @@ public class MediathequeCLI {
      */
     private void emprunterOeuvre() {
         try {
-            long membreId = lireLong("Identifiant du membre : ");
-            long oeuvreId = lireLong("Identifiant de l'œuvre : ");
+            long membreId = lireIdMembre();
+            long oeuvreId = lireIdOeuvre();
 
             long empruntId = service.emprunter(membreId, oeuvreId);
             System.out.println("✅ Emprunt créé avec succès ! ID de l'emprunt : " + empruntId);
@@ -213,7 +272,7 @@ public class MediathequeCLI {
      */
     private void listerEmpruntsActifs() {
         try {
-            long membreId = lireLong("Identifiant du membre : ");
+            long membreId = lireIdMembre();
 
             List<Emprunt> emprunts = service.listerEmpruntsActifsPourMembre(membreId);
             if (emprunts.isEmpty()) {
@@ -287,6 +346,50 @@ public class MediathequeCLI {
         }
     }
 
+    /**
+     * Option 7 : Recherche des œuvres par mots du titre, de l'auteur ou du réalisateur.
+     */
+    private void rechercherOeuvres() {
+        try {
+            String requete = lireString("Mots recherchés : ");
+
+            List<Oeuvre> resultats = service.rechercher(requete, TAILLE_PAGE);
+            if (resultats.isEmpty()) {
+                System.out.println("ℹ️  Aucune œuvre ne correspond à la recherche.");
+            } else {
+                System.out.println("🔎 Résultats (" + resultats.size() + ", les plus pertinents d'abord) :");
+                System.out.println();
+                for (Oeuvre oeuvre : resultats) {
+                    afficherOeuvre(oeuvre);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Erreur lors de la recherche : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Option 8 : Recherche des œuvres par titre approché, malgré les fautes de frappe.
+     */
+    private void rechercherTitreApproche() {
+        try {
+            String titre = lireString("Titre (même approximatif) : ");
+
+            List<Oeuvre> resultats = service.rechercherTitreApproche(titre, TAILLE_PAGE);
+            if (resultats.isEmpty()) {
+                System.out.println("ℹ️  Aucun titre proche n'a été trouvé.");
+            } else {
+                System.out.println("🔎 Titres proches (" + resultats.size() + ", les plus proches d'abord) :");
+                System.out.println();
+                for (Oeuvre oeuvre : resultats) {
+                    afficherOeuvre(oeuvre);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Erreur lors de la recherche : " + e.getMessage());
+        }
+    }
+
     /**
      * Initialise des données de test pour faciliter les tests.
      */
@@ -338,6 +441,75 @@ public class MediathequeCLI {
         }
     }
 
+    /**
+     * Lit l'identifiant d'un membre, saisi directement ou retrouvé par le début de son nom.
+     *
+     * @return l'identifiant choisi
+     */
+    private long lireIdMembre() {
+        return lireIdentifiant("Membre (identifiant ou début du nom) : ",
+                prefixe -> service.completerNomMembre(prefixe, NOMBRE_SUGGESTIONS),
+                Membre::getId, Membre::getNom);
+    }
+
+    /**
+     * Lit l'identifiant d'une œuvre, saisi directement ou retrouvé par le début de son titre.
+     *
+     * @return l'identifiant choisi
+     */
+    private long lireIdOeuvre() {
+        return lireIdentifiant("Œuvre (identifiant ou début du titre) : ",
+                prefixe -> service.completerTitre(prefixe, NOMBRE_SUGGESTIONS),
+                Oeuvre::getId, Oeuvre::getTitre);
+    }
+
+    /**
+     * Lit un identifiant, ou un début de nom complété par le service.
+     * <p>
+     * Une saisie numérique est prise comme identifiant. Sinon, une
+     * proposition unique est retenue directement ; plusieurs propositions
+     * sont numérotées et l'utilisateur choisit. Redemande tant qu'aucun
+     * élément n'est trouvé.
+     *
+     * @param prompt    le message à afficher
+     * @param completer propositions pour un début de saisie
+     * @param id        identifiant d'une proposition
+     * @param libelle   texte affiché pour une proposition
+     * @return l'identifiant choisi
+     */
+    private <T> long lireIdentifiant(String prompt, Function<String, List<T>> completer,
+                                     ToLongFunction<T> id, Function<T, String> libelle) {
+        while (true) {
+            System.out.print(prompt);
+            String ligne = scanner.nextLine().trim();
+            if (ligne.isEmpty()) {
+                continue;
+            }
+            try {
+                return Long.parseLong(ligne);
+            } catch (NumberFormatException e) {
+                // Début de nom ou de titre
+            }
+
+            List<T> propositions = completer.apply(ligne);
+            if (propositions.isEmpty()) {
+                System.out.println("❌ Aucun résultat ne commence par « " + ligne + " ».");
+            } else if (propositions.size() == 1) {
+                T choisi = propositions.get(0);
+                System.out.println("  → " + libelle.apply(choisi) + " (ID " + id.applyAsLong(choisi) + ")");
+                return id.applyAsLong(choisi);
+            } else {
+                for (int i = 0; i < propositions.size(); i++) {
+                    T proposition = propositions.get(i);
+                    System.out.println("  " + (i + 1) + ". " + libelle.apply(proposition)
+                            + " (ID " + id.applyAsLong(proposition) + ")");
+                }
+                int choix = lireInt("Votre choix (1 à " + propositions.size() + ") : ", 1, propositions.size());
+                return id.applyAsLong(propositions.get(choix - 1));
+            }
+        }
+    }
+
     /**
      * Lit un entier depuis l'entrée standard.
      * Redemande tant que l'entrée n'est pas valide ou n'est pas dans la plage.
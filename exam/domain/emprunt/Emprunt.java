@@ -8,14 +8,23 @@ import java.util.Objects;
  * <p>
  * Un emprunt lie un membre et une œuvre à une date d'emprunt.
  * La date de retour est initialement null et ne peut être fixée qu'une seule fois.
+ * <p>
+ * Les dates sont conservées en jours depuis l'epoch ; les {@link LocalDate}
+ * ne sont construites qu'à la lecture. L'historique des emprunts étant la
+ * collection la plus volumineuse, un emprunt n'occupe ainsi qu'un seul objet.
  */
 public final class Emprunt {
 
     private final long id;
     private final long idMembre;
     private final long idOeuvre;
-    private final LocalDate dateEmprunt;
-    private LocalDate dateRetour;
+    /**
+     * Valeur de {@link #jourRetour} tant que l'emprunt est actif.
+     */
+    private static final int SANS_DATE = Integer.MIN_VALUE;
+
+    private final int jourEmprunt;
+    private volatile int jourRetour;
 
     /**
      * Crée un nouvel emprunt actif.
@@ -24,7 +33,7 @@ public final class Emprunt {
      * @param idMembre   identifiant du membre > 0
      * @param idOeuvre   identifiant de l'œuvre > 0
      * @param dateEmprunt date de l'emprunt non null
-     * @throws IllegalArgumentException si un identifiant <= 0
+     * @throws IllegalArgumentException si un identifiant <= 0 ou si la date est hors limites
      * @throws NullPointerException     si dateEmprunt est null
      */
     public Emprunt(long id, long idMembre, long idOeuvre, LocalDate dateEmprunt) {
@@ -36,8 +45,8 @@ public final class Emprunt {
         this.id = id;
         this.idMembre = idMembre;
         this.idOeuvre = idOeuvre;
-        this.dateEmprunt = dateEmprunt;
-        this.dateRetour = null; // emprunt actif au départ
+        this.jourEmprunt = versJour(dateEmprunt);
+        this.jourRetour = SANS_DATE; // emprunt actif au départ
     }
 
     public long getId() {
@@ -53,18 +62,22 @@ public final class Emprunt {
     }
 
     public LocalDate getDateEmprunt() {
-        return dateEmprunt;
+        return LocalDate.ofEpochDay(jourEmprunt);
     }
 
+    /**
+     * @return la date de retour, ou null si l'emprunt est actif
+     */
     public LocalDate getDateRetour() {
-        return dateRetour;
+        int jour = jourRetour;
+        return jour == SANS_DATE ? null : LocalDate.ofEpochDay(jour);
     }
 
     /**
      * @return true si l'emprunt est actif (non retourné)
      */
     public boolean estActif() {
-        return dateRetour == null;
+        return jourRetour == SANS_DATE;
     }
 
     /**
@@ -78,14 +91,22 @@ public final class Emprunt {
      * @throws IllegalArgumentException si date null ou antérieure à la date d'emprunt
      */
     public void marquerRetour(LocalDate date) {
-        if (dateRetour != null)
+        if (jourRetour != SANS_DATE)
             throw new IllegalStateException("Retour déjà effectué");
         if (date == null)
             throw new IllegalArgumentException("La date de retour ne peut pas être null");
-        if (date.isBefore(dateEmprunt))
+        int jour = versJour(date);
+        if (jour < jourEmprunt)
             throw new IllegalArgumentException("La date de retour ne peut pas être antérieure à la date d'emprunt");
 
-        this.dateRetour = date;
+        this.jourRetour = jour;
+    }
+
+    private static int versJour(LocalDate date) {
+        long jour = date.toEpochDay();
+        if (jour <= SANS_DATE || jour > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Date hors limites : " + date);
+        return (int) jour;
     }
 
     /**
@@ -96,7 +117,7 @@ public final class Emprunt {
     @Override
     public String toString() {
         return "Emprunt{id=" + id + ", membre=" + idMembre + ", oeuvre=" + idOeuvre +
-               ", dateEmprunt=" + dateEmprunt + ", dateRetour=" + dateRetour + "}";
+               ", dateEmprunt=" + getDateEmprunt() + ", dateRetour=" + getDateRetour() + "}";
     }
 
     /**
@@ -10,7 +10,7 @@ public final class Membre {
 
     private final long id;
     private final String nom;
-    private StatutMembre statut;
+    private volatile StatutMembre statut;
 
     /**
      * Crée un nouveau membre actif.
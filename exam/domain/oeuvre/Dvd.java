@@ -5,6 +5,7 @@ package exam.domain.oeuvre;
  * <p>
  * Un DVD possède un réalisateur et une durée en minutes en plus des attributs hérités d'Oeuvre.
  * Le réalisateur ne peut pas être null ou vide, et la durée doit être strictement positive.
+ * Le réalisateur est partagé entre toutes ses œuvres.
  */
 public final class Dvd extends Oeuvre {
 
@@ -25,7 +26,7 @@ public final class Dvd extends Oeuvre {
 
         if (realisateur == null || realisateur.isBlank())
             throw new IllegalArgumentException("Le réalisateur ne peut pas être vide");
-        this.realisateur = realisateur;
+        this.realisateur = PoolChaines.partager(realisateur);
 
         if (duree <= 0)
             throw new IllegalArgumentException("La durée doit être strictement positive");
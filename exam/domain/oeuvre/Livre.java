@@ -5,6 +5,7 @@ package exam.domain.oeuvre;
  * <p>
  * Un livre possède un auteur et un ISBN en plus des attributs hérités d'Oeuvre.
  * L'auteur ne peut pas être null ou vide, et l'ISBN doit être strictement positif.
+ * L'auteur est partagé entre toutes ses œuvres.
  */
 public final class Livre extends Oeuvre {
 
@@ -25,7 +26,7 @@ public final class Livre extends Oeuvre {
 
         if (auteur == null || auteur.isBlank())
             throw new IllegalArgumentException("L'auteur ne peut pas être vide");
-        this.auteur = auteur;
+        this.auteur = PoolChaines.partager(auteur);
 
         if (isbn <= 0)
             throw new IllegalArgumentException("L'ISBN doit être strictement positif");
@@ -1,5 +1,7 @@
 package exam.domain.oeuvre;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
 
 /**
@@ -7,13 +9,27 @@ import java.util.Objects;
  * <p>
  * Une œuvre possède un identifiant unique, un titre et un état de disponibilité.
  * L'identifiant doit être strictement positif, et le titre ne peut pas être null ou vide.
- * La disponibilité est initialisée à true.
+ * La disponibilité est initialisée à true. Le titre est partagé entre les
+ * œuvres de même titre (voir {@link PoolChaines}).
+ * <p>
+ * Les changements de disponibilité sont atomiques (compare-and-set) :
+ * si plusieurs threads tentent de réserver la même œuvre, un seul réussit.
  */
 public abstract class Oeuvre {
 
+    private static final VarHandle DISPONIBLE;
+
+    static {
+        try {
+            DISPONIBLE = MethodHandles.lookup().findVarHandle(Oeuvre.class, "disponible", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final long id;
     private final String titre;
-    private boolean disponible;
+    private volatile boolean disponible;
 
     /**
      * Crée une nouvelle œuvre.
@@ -29,7 +45,7 @@ public abstract class Oeuvre {
 
         if (titre == null || titre.isBlank())
             throw new IllegalArgumentException("Le titre ne peut pas être vide");
-        this.titre = titre;
+        this.titre = PoolChaines.partager(titre);
 
         this.disponible = true; // état initial
     }
@@ -55,15 +71,36 @@ public abstract class Oeuvre {
         return disponible;
     }
 
+    /**
+     * Tente de faire passer l'œuvre de disponible à indisponible
+     * en une seule opération atomique.
+     *
+     * @return true si l'œuvre était disponible et vient d'être réservée,
+     *         false si elle était déjà indisponible
+     */
+    public boolean tenterMarquerIndisponible() {
+        return DISPONIBLE.compareAndSet(this, true, false);
+    }
+
+    /**
+     * Tente de faire passer l'œuvre d'indisponible à disponible
+     * en une seule opération atomique.
+     *
+     * @return true si l'œuvre était indisponible et vient d'être libérée,
+     *         false si elle était déjà disponible
+     */
+    public boolean tenterMarquerDisponible() {
+        return DISPONIBLE.compareAndSet(this, false, true);
+    }
+
     /**
      * Marque l'œuvre comme disponible.
      *
      * @throws IllegalStateException si l'œuvre est déjà disponible
      */
     protected void marquerDisponible() {
-        if (disponible)
+        if (!tenterMarquerDisponible())
             throw new IllegalStateException("L'œuvre est déjà disponible");
-        disponible = true;
     }
 
     /**
@@ -72,9 +109,8 @@ public abstract class Oeuvre {
      * @throws IllegalStateException si l'œuvre est déjà indisponible
      */
     protected void marquerIndisponible() {
-        if (!disponible)
+        if (!tenterMarquerIndisponible())
             throw new IllegalStateException("L'œuvre est déjà indisponible");
-        disponible = false;
     }
 
     /**
@@ -0,0 +1,26 @@
+package exam.domain.oeuvre;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour Oeuvre et ses sous-classes.
+ */
+class OeuvreTest {
+
+    @Test
+    void constructeur_quandMemeAuteurEtMemeTitre_doitPartagerLesChaines() {
+        // Arrange : Chaînes égales mais distinctes, comme après une lecture de fichier
+        String auteur1 = new String("Victor Hugo");
+        String auteur2 = new String("Victor Hugo");
+
+        // Act
+        Livre exemplaire1 = new Livre(1, new String("Les Misérables"), auteur1, 1);
+        Livre exemplaire2 = new Livre(2, new String("Les Misérables"), auteur2, 2);
+
+        // Assert
+        assertSame(exemplaire1.getAuteur(), exemplaire2.getAuteur());
+        assertSame(exemplaire1.getTitre(), exemplaire2.getTitre());
+    }
+}
@@ -0,0 +1,29 @@
+package exam.domain.oeuvre;
+
+/**
+ * Pool de chaînes partagées pour les attributs textuels des œuvres.
+ * <p>
+ * Un catalogue contient de nombreux exemplaires d'un même titre et de
+ * nombreuses œuvres d'un même auteur ou réalisateur : chaque valeur
+ * distincte n'est conservée qu'une fois, quel que soit le nombre d'œuvres
+ * qui la référencent.
+ * <p>
+ * Le pool s'appuie sur la table des chaînes de la JVM ({@link String#intern()}),
+ * concurrente et nettoyée par le ramasse-miettes : une chaîne qui n'est plus
+ * référencée par aucune œuvre n'y est pas retenue.
+ */
+final class PoolChaines {
+
+    private PoolChaines() {
+    }
+
+    /**
+     * Retourne l'exemplaire partagé d'une chaîne.
+     *
+     * @param chaine chaîne à partager (non null)
+     * @return une chaîne égale, partagée avec toutes les autres œuvres
+     */
+    static String partager(String chaine) {
+        return chaine.intern();
+    }
+}
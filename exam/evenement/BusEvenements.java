@@ -0,0 +1,338 @@
+package exam.evenement;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus d'événements du domaine, en mémoire, sur un anneau préalloué sans
+ * verrou, à la manière d'un Disruptor.
+ * <p>
+ * L'anneau compte une puissance de 2 de cases {@link Evenement}, créées une
+ * fois pour toutes. Un producteur réserve la séquence suivante par
+ * compare-and-set sur le curseur, remplit la case correspondante puis la
+ * marque publiée : la publication ne prend aucun verrou et n'alloue rien.
+ * Plusieurs producteurs peuvent publier en même temps.
+ * <p>
+ * Chaque consommateur a son thread et sa séquence (dernier événement
+ * traité). Il traite d'un coup tous les événements publiés depuis son
+ * dernier passage et ne libère leurs cases qu'à la fin du lot. Un
+ * consommateur sans travail s'endort ; le producteur qui publie le réveille.
+ * <p>
+ * Une case n'est réutilisée qu'une fois traitée par tous les consommateurs.
+ * Quand le plus lent a un tour de retard, le producteur applique la
+ * politique de {@link Saturation} choisie à la construction.
+ * <p>
+ * Cycle de vie : {@link #abonner} les consommateurs, {@link #demarrer()}
+ * leurs threads, publier, puis {@link #close()}, qui laisse les
+ * consommateurs terminer les événements déjà publiés.
+ */
+public final class BusEvenements implements BusEvenementsMBean, AutoCloseable {
+
+    /**
+     * Attentes actives d'un consommateur avant de s'endormir.
+     */
+    private static final int ATTENTES_ACTIVES = 64;
+
+    /**
+     * Sommeil d'un producteur bloqué par un anneau plein.
+     */
+    private static final long SOMMEIL_SATURATION_NANOS = 50_000;
+
+    private final Evenement[] anneau;
+    private final int masque;
+    private final Saturation saturation;
+
+    /**
+     * Dernière séquence réservée par un producteur.
+     */
+    private final Sequence curseur = new Sequence(-1);
+
+    /**
+     * Séquence publiée dans chaque case (-1 tant que la case n'a pas servi).
+     */
+    private final AtomicLongArray publiees;
+
+    /**
+     * Dernier minimum connu des séquences des consommateurs : évite de les
+     * relire toutes à chaque réservation.
+     */
+    private final Sequence minimumConsomme = new Sequence(-1);
+
+    private volatile Abonne[] abonnes = new Abonne[0];
+    private volatile boolean demarre;
+    private volatile boolean ferme;
+
+    private final LongAdder abandonnes = new LongAdder();
+    private final LongAdder erreurs = new LongAdder();
+
+    /**
+     * Crée un bus arrêté, sans consommateur.
+     *
+     * @param capacite   nombre de cases de l'anneau (puissance de 2)
+     * @param saturation conduite des producteurs quand l'anneau est plein (non null)
+     * @throws IllegalArgumentException si capacite n'est pas une puissance de 2
+     *                                  strictement positive ou si saturation est null
+     */
+    public BusEvenements(int capacite, Saturation saturation) {
+        if (capacite <= 0 || Integer.bitCount(capacite) != 1)
+            throw new IllegalArgumentException("La capacité doit être une puissance de 2 strictement positive");
+        if (saturation == null)
+            throw new IllegalArgumentException("La politique de saturation ne peut pas être null");
+        this.anneau = new Evenement[capacite];
+        for (int i = 0; i < capacite; i++) {
+            anneau[i] = new Evenement();
+        }
+        this.masque = capacite - 1;
+        this.saturation = saturation;
+        this.publiees = new AtomicLongArray(capacite);
+        for (int i = 0; i < capacite; i++) {
+            publiees.set(i, -1);
+        }
+    }
+
+    /**
+     * Ajoute un consommateur, qui recevra tous les événements publiés
+     * depuis la création du bus.
+     *
+     * @param nom          nom du consommateur, repris dans celui de son thread (non null)
+     * @param consommateur consommateur (non null)
+     * @throws IllegalArgumentException si nom ou consommateur est null
+     * @throws IllegalStateException    si le bus est déjà démarré
+     */
+    public synchronized void abonner(String nom, ConsommateurEvenements consommateur) {
+        if (nom == null || consommateur == null)
+            throw new IllegalArgumentException("Le nom et le consommateur ne peuvent pas être null");
+        if (demarre)
+            throw new IllegalStateException("Les consommateurs s'abonnent avant le démarrage du bus");
+        Abonne[] actuels = abonnes;
+        Abonne[] nouveaux = Arrays.copyOf(actuels, actuels.length + 1);
+        nouveaux[actuels.length] = new Abonne(nom, consommateur);
+        abonnes = nouveaux;
+    }
+
+    /**
+     * Démarre le thread de chaque consommateur. Sans effet si le bus est déjà démarré.
+     *
+     * @throws IllegalStateException si le bus est fermé
+     */
+    public synchronized void demarrer() {
+        if (ferme)
+            throw new IllegalStateException("Le bus est fermé");
+        if (demarre) {
+            return;
+        }
+        demarre = true;
+        for (Abonne abonne : abonnes) {
+            abonne.thread.start();
+        }
+    }
+
+    /**
+     * Publie un événement.
+     * <p>
+     * Sans verrou ni allocation. Si l'anneau est plein, attend ou abandonne
+     * l'événement selon la politique de saturation du bus. Les événements
+     * d'un même producteur sont reçus dans leur ordre de publication.
+     *
+     * @param type      type de l'événement (non null)
+     * @param empruntId identifiant de l'emprunt, ou 0
+     * @param membreId  identifiant du membre, ou 0
+     * @param oeuvreId  identifiant de l'œuvre, ou 0
+     * @return vrai si l'événement a été publié, faux s'il a été abandonné
+     *         (anneau plein et politique {@link Saturation#ABANDONNER}, ou bus fermé)
+     * @throws IllegalArgumentException si type est null
+     */
+    public boolean publier(TypeEvenement type, long empruntId, long membreId, long oeuvreId) {
+        if (type == null)
+            throw new IllegalArgumentException("Le type d'événement ne peut pas être null");
+        long sequence = reserver();
+        if (sequence < 0) {
+            abandonnes.increment();
+            return false;
+        }
+        int indice = (int) sequence & masque;
+        anneau[indice].remplir(type, empruntId, membreId, oeuvreId, System.currentTimeMillis());
+        // Écriture volatile : ordonnée avant la lecture des drapeaux de sommeil ci-dessous
+        publiees.set(indice, sequence);
+        for (Abonne abonne : abonnes) {
+            abonne.reveiller();
+        }
+        return true;
+    }
+
+    /**
+     * Réserve la séquence suivante.
+     *
+     * @return la séquence, ou -1 si l'événement est abandonné
+     */
+    private long reserver() {
+        while (true) {
+            if (ferme) {
+                return -1;
+            }
+            long courante = curseur.get();
+            long suivante = courante + 1;
+            long caseReutilisee = suivante - anneau.length;
+            if (caseReutilisee > minimumConsomme.get()) {
+                long minimum = minimumConsomme(courante);
+                minimumConsomme.set(minimum);
+                if (caseReutilisee > minimum) {
+                    if (saturation == Saturation.ABANDONNER) {
+                        return -1;
+                    }
+                    LockSupport.parkNanos(SOMMEIL_SATURATION_NANOS);
+                    continue;
+                }
+            }
+            if (curseur.compareAndSet(courante, suivante)) {
+                return suivante;
+            }
+        }
+    }
+
+    /**
+     * Plus petite séquence traitée par les consommateurs, ou {@code defaut} sans consommateur.
+     */
+    private long minimumConsomme(long defaut) {
+        long minimum = defaut;
+        for (Abonne abonne : abonnes) {
+            minimum = Math.min(minimum, abonne.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Ferme le bus : les publications suivantes sont abandonnées, les
+     * consommateurs traitent les événements déjà publiés puis s'arrêtent.
+     * Un événement publié pendant la fermeture peut ne pas être traité.
+     *
+     * @throws IllegalStateException si le thread est interrompu pendant l'attente
+     */
+    @Override
+    public void close() {
+        Abonne[] arretes;
+        synchronized (this) {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            arretes = demarre ? abonnes : new Abonne[0];
+        }
+        for (Abonne abonne : arretes) {
+            LockSupport.unpark(abonne.thread);
+        }
+        try {
+            for (Abonne abonne : arretes) {
+                abonne.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompu pendant l'arrêt des consommateurs", e);
+        }
+    }
+
+    @Override
+    public long getNombrePublies() {
+        return curseur.get() + 1;
+    }
+
+    @Override
+    public long getNombreAbandonnes() {
+        return abandonnes.sum();
+    }
+
+    @Override
+    public long getNombreErreurs() {
+        return erreurs.sum();
+    }
+
+    /**
+     * @return le nombre d'événements publiés que le consommateur le plus lent n'a pas encore traités
+     */
+    @Override
+    public long getRetard() {
+        long curseurActuel = curseur.get();
+        return curseurActuel - minimumConsomme(curseurActuel);
+    }
+
+    @Override
+    public int getCapacite() {
+        return anneau.length;
+    }
+
+    /**
+     * Consommateur abonné : sa séquence et son thread.
+     */
+    private final class Abonne implements Runnable {
+        final Sequence sequence = new Sequence(-1);
+        final ConsommateurEvenements consommateur;
+        final Thread thread;
+        final AtomicBoolean endormi = new AtomicBoolean();
+
+        Abonne(String nom, ConsommateurEvenements consommateur) {
+            this.consommateur = consommateur;
+            this.thread = new Thread(this, "evenements-" + nom);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long suivante = 0;
+            int attentes = 0;
+            while (true) {
+                long disponible = dernierePubliee(suivante);
+                if (disponible >= suivante) {
+                    for (long s = suivante; s <= disponible; s++) {
+                        try {
+                            consommateur.traiter(anneau[(int) s & masque], s, s == disponible);
+                        } catch (RuntimeException e) {
+                            // Comptée seulement : un consommateur en échec permanent ne doit pas inonder les journaux
+                            erreurs.increment();
+                        }
+                    }
+                    sequence.set(disponible);
+                    suivante = disponible + 1;
+                    attentes = 0;
+                } else if (ferme) {
+                    return;
+                } else if (attentes++ < ATTENTES_ACTIVES) {
+                    Thread.onSpinWait();
+                } else {
+                    endormi.set(true);
+                    // Relecture après le drapeau : une publication concurrente voit le drapeau ou est vue ici
+                    if (dernierePubliee(suivante) < suivante && !ferme) {
+                        LockSupport.park(this);
+                    }
+                    endormi.set(false);
+                }
+            }
+        }
+
+        /**
+         * Réveille le consommateur s'il dort ; seul le premier producteur
+         * qui le trouve endormi paie le réveil.
+         */
+        void reveiller() {
+            if (endormi.get() && endormi.compareAndSet(true, false)) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        /**
+         * Dernière séquence d'une suite ininterrompue d'événements publiés à
+         * partir de {@code depuis}, ou {@code depuis - 1} si le premier ne
+         * l'est pas encore (réservé mais en cours d'écriture).
+         */
+        private long dernierePubliee(long depuis) {
+            long reservee = curseur.get();
+            long s = depuis;
+            while (s <= reservee && publiees.get((int) s & masque) == s) {
+                s++;
+            }
+            return s - 1;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package exam.evenement;
+
+/**
+ * Vue JMX d'un {@link BusEvenements}.
+ */
+public interface BusEvenementsMBean {
+
+    long getNombrePublies();
+
+    long getNombreAbandonnes();
+
+    long getNombreErreurs();
+
+    long getRetard();
+
+    int getCapacite();
+}
@@ -0,0 +1,108 @@
+package exam.evenement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests du bus d'événements : publication concurrente, traitement par lots
+ * et politiques de saturation.
+ */
+class BusEvenementsTest {
+
+    @Test
+    void publier_depuisPlusieursThreads_chaqueConsommateurRecoitToutDansLOrdreDeChaqueProducteur() throws Exception {
+        // Arrange : Un anneau plus petit que le volume publié, deux consommateurs
+        int producteurs = 4;
+        int parProducteur = 20_000;
+        long[][] derniers = new long[2][producteurs];
+        int[] recus = new int[2];
+        int[] lots = new int[2];
+        boolean[] desordre = new boolean[2];
+        BusEvenements bus = new BusEvenements(256, Saturation.BLOQUER);
+        for (int c = 0; c < 2; c++) {
+            int consommateur = c;
+            bus.abonner("consommateur-" + c, (evenement, sequence, finDeLot) -> {
+                int producteur = (int) evenement.getMembreId();
+                if (evenement.getEmpruntId() != derniers[consommateur][producteur] + 1) {
+                    desordre[consommateur] = true;
+                }
+                derniers[consommateur][producteur] = evenement.getEmpruntId();
+                recus[consommateur]++;
+                if (finDeLot) {
+                    lots[consommateur]++;
+                }
+            });
+        }
+        bus.demarrer();
+
+        // Act
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producteurs; p++) {
+            int producteur = p;
+            Thread thread = new Thread(() -> {
+                for (long n = 1; n <= parProducteur; n++) {
+                    assertTrue(bus.publier(TypeEvenement.EMPRUNT_CREE, n, producteur, 1));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        bus.close();
+
+        // Assert : Rien de perdu, ordre de chaque producteur respecté
+        for (int c = 0; c < 2; c++) {
+            assertEquals(producteurs * parProducteur, recus[c]);
+            assertFalse(desordre[c]);
+            assertTrue(lots[c] <= recus[c]);
+        }
+        assertEquals(producteurs * parProducteur, bus.getNombrePublies());
+        assertEquals(0, bus.getNombreAbandonnes());
+        assertEquals(0, bus.getRetard());
+    }
+
+    @Test
+    void publier_quandLAnneauEstPleinEtPolitiqueAbandonner_doitAbandonnerSansBloquer() throws Exception {
+        // Arrange : Un consommateur bloqué sur le premier événement
+        CountDownLatch premierRecu = new CountDownLatch(1);
+        CountDownLatch liberation = new CountDownLatch(1);
+        List<Long> recus = new ArrayList<>();
+        BusEvenements bus = new BusEvenements(8, Saturation.ABANDONNER);
+        bus.abonner("lent", (evenement, sequence, finDeLot) -> {
+            recus.add(evenement.getOeuvreId());
+            premierRecu.countDown();
+            try {
+                liberation.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        bus.demarrer();
+        assertTrue(bus.publier(TypeEvenement.OEUVRE_AJOUTEE, 0, 0, 1));
+        assertTrue(premierRecu.await(5, TimeUnit.SECONDS));
+
+        // Act : Le premier événement occupe encore sa case
+        int publies = 1;
+        for (long id = 2; id <= 20; id++) {
+            if (bus.publier(TypeEvenement.OEUVRE_AJOUTEE, 0, 0, id)) {
+                publies++;
+            }
+        }
+        liberation.countDown();
+        bus.close();
+
+        // Assert
+        assertEquals(8, publies);
+        assertEquals(12, bus.getNombreAbandonnes());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), recus);
+        assertFalse(bus.publier(TypeEvenement.OEUVRE_AJOUTEE, 0, 0, 21));
+    }
+}
@@ -0,0 +1,26 @@
+package exam.evenement;
+
+/**
+ * Consommateur des événements d'un {@link BusEvenements}, appelé sur son
+ * propre thread, dans l'ordre de publication.
+ * <p>
+ * Les événements arrivent par lots : tous ceux publiés pendant le
+ * traitement du lot précédent. Un consommateur qui regroupe ses écritures
+ * (base de données, fichier d'audit) les envoie sur {@code finDeLot}.
+ */
+@FunctionalInterface
+public interface ConsommateurEvenements {
+
+    /**
+     * Traite un événement.
+     * <p>
+     * Une exception levée ici est comptée ({@link BusEvenements#getNombreErreurs()})
+     * et n'interrompt pas le consommateur ; le bus ne l'affiche ni ne la
+     * journalise, c'est au consommateur de tracer ses échecs s'il le souhaite.
+     *
+     * @param evenement événement, valable pendant l'appel seulement
+     * @param sequence  numéro de l'événement, croissant à partir de 0
+     * @param finDeLot  vrai pour le dernier événement disponible du lot
+     */
+    void traiter(Evenement evenement, long sequence, boolean finDeLot);
+}
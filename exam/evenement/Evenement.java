@@ -0,0 +1,58 @@
+package exam.evenement;
+
+/**
+ * Événement du domaine, tel qu'il est lu par un consommateur.
+ * <p>
+ * Les événements sont des cases préallouées du {@link BusEvenements},
+ * réutilisées à chaque tour de l'anneau : un consommateur ne doit pas
+ * conserver la référence reçue au-delà de l'appel de
+ * {@link ConsommateurEvenements#traiter}, mais en copier les champs.
+ * Les identifiants non renseignés pour un type valent 0.
+ */
+public final class Evenement {
+
+    private TypeEvenement type;
+    private long empruntId;
+    private long membreId;
+    private long oeuvreId;
+    private long horodatage;
+
+    Evenement() {
+    }
+
+    void remplir(TypeEvenement type, long empruntId, long membreId, long oeuvreId, long horodatage) {
+        this.type = type;
+        this.empruntId = empruntId;
+        this.membreId = membreId;
+        this.oeuvreId = oeuvreId;
+        this.horodatage = horodatage;
+    }
+
+    public TypeEvenement getType() {
+        return type;
+    }
+
+    public long getEmpruntId() {
+        return empruntId;
+    }
+
+    public long getMembreId() {
+        return membreId;
+    }
+
+    public long getOeuvreId() {
+        return oeuvreId;
+    }
+
+    /**
+     * @return l'instant de publication, en millisecondes depuis l'époque Unix
+     */
+    public long getHorodatage() {
+        return horodatage;
+    }
+
+    @Override
+    public String toString() {
+        return type + "{emprunt=" + empruntId + ", membre=" + membreId + ", oeuvre=" + oeuvreId + "}";
+    }
+}
@@ -0,0 +1,22 @@
+package exam.evenement;
+
+/**
+ * Conduite d'un producteur quand l'anneau du {@link BusEvenements} est plein,
+ * c'est-à-dire quand le consommateur le plus lent a autant de retard que
+ * l'anneau compte de cases.
+ */
+public enum Saturation {
+
+    /**
+     * Le producteur attend qu'une case se libère : aucun événement n'est
+     * perdu, mais les opérations du service ralentissent au rythme du
+     * consommateur le plus lent.
+     */
+    BLOQUER,
+
+    /**
+     * L'événement est abandonné et compté ({@link BusEvenements#getNombreAbandonnes()}) :
+     * la latence du service est préservée, au prix d'événements perdus.
+     */
+    ABANDONNER
+}
@@ -0,0 +1,51 @@
+package exam.evenement;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Compteur de séquence isolé sur sa propre ligne de cache : les champs de
+ * remplissage qui l'entourent évitent que l'écriture du curseur par les
+ * producteurs invalide la ligne de la séquence d'un consommateur, et
+ * inversement (faux partage).
+ */
+final class Sequence extends SequenceValeur {
+
+    @SuppressWarnings("unused")
+    private long p11, p12, p13, p14, p15, p16, p17;
+
+    private static final VarHandle VALEUR;
+
+    static {
+        try {
+            VALEUR = MethodHandles.lookup().findVarHandle(SequenceValeur.class, "valeur", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    Sequence(long initiale) {
+        valeur = initiale;
+    }
+
+    long get() {
+        return valeur;
+    }
+
+    void set(long nouvelle) {
+        valeur = nouvelle;
+    }
+
+    boolean compareAndSet(long attendue, long nouvelle) {
+        return VALEUR.compareAndSet(this, attendue, nouvelle);
+    }
+}
+
+abstract class SequenceRemplissage {
+    @SuppressWarnings("unused")
+    private long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SequenceValeur extends SequenceRemplissage {
+    volatile long valeur;
+}
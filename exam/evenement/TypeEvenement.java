@@ -0,0 +1,27 @@
+package exam.evenement;
+
+/**
+ * Types d'événements publiés par le service de la médiathèque.
+ */
+public enum TypeEvenement {
+
+    /**
+     * Un emprunt a été enregistré : emprunt, membre et œuvre renseignés.
+     */
+    EMPRUNT_CREE,
+
+    /**
+     * Un emprunt a été retourné : emprunt, membre et œuvre renseignés.
+     */
+    EMPRUNT_RENDU,
+
+    /**
+     * Une œuvre a été ajoutée ou remplacée : seule l'œuvre est renseignée.
+     */
+    OEUVRE_AJOUTEE,
+
+    /**
+     * Un membre a été ajouté ou remplacé : seul le membre est renseigné.
+     */
+    MEMBRE_AJOUTE
+}
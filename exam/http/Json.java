@@ -0,0 +1,443 @@
+package exam.http;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Codec JSON de l'API HTTP, écrit à la main pour n'ajouter aucune dépendance.
+ * <p>
+ * Écriture : représentations des œuvres (livres et DVD, distingués par le
+ * champ {@code type}), des membres et des emprunts, directement dans un
+ * {@link StringBuilder}. Lecture : analyseur complet de JSON (RFC 8259)
+ * qui produit des {@link Map}, {@link List}, {@link String}, {@link Long}
+ * (nombres entiers), {@link Double}, {@link Boolean} ou {@code null}, puis
+ * conversion des objets reçus en œuvres et membres.
+ */
+final class Json {
+
+    static final String LIVRE = "LIVRE";
+    static final String DVD = "DVD";
+
+    /**
+     * Profondeur d'imbrication maximale acceptée à la lecture.
+     */
+    private static final int PROFONDEUR_MAX = 32;
+
+    private Json() {
+    }
+
+    // ========== Écriture ==========
+
+    static void ecrire(StringBuilder json, Oeuvre oeuvre) {
+        json.append("{\"id\":").append(oeuvre.getId());
+        if (oeuvre instanceof Livre) {
+            Livre livre = (Livre) oeuvre;
+            json.append(",\"type\":\"").append(LIVRE).append("\",\"titre\":");
+            ecrireChaine(json, livre.getTitre());
+            json.append(",\"auteur\":");
+            ecrireChaine(json, livre.getAuteur());
+            json.append(",\"isbn\":").append(livre.getIsbn());
+        } else if (oeuvre instanceof Dvd) {
+            Dvd dvd = (Dvd) oeuvre;
+            json.append(",\"type\":\"").append(DVD).append("\",\"titre\":");
+            ecrireChaine(json, dvd.getTitre());
+            json.append(",\"realisateur\":");
+            ecrireChaine(json, dvd.getRealisateur());
+            json.append(",\"duree\":").append(dvd.getDuree());
+        } else {
+            throw new IllegalArgumentException("Type d'œuvre non pris en charge : " + oeuvre.getClass().getName());
+        }
+        json.append(",\"disponible\":").append(oeuvre.isDisponible()).append('}');
+    }
+
+    static void ecrire(StringBuilder json, Membre membre) {
+        json.append("{\"id\":").append(membre.getId()).append(",\"nom\":");
+        ecrireChaine(json, membre.getNom());
+        json.append(",\"actif\":").append(membre.estActif()).append('}');
+    }
+
+    static void ecrire(StringBuilder json, Emprunt emprunt) {
+        json.append("{\"id\":").append(emprunt.getId())
+                .append(",\"membreId\":").append(emprunt.getIdMembre())
+                .append(",\"oeuvreId\":").append(emprunt.getIdOeuvre())
+                .append(",\"dateEmprunt\":\"").append(emprunt.getDateEmprunt()).append('"')
+                .append(",\"dateRetour\":");
+        if (emprunt.getDateRetour() == null) {
+            json.append("null");
+        } else {
+            json.append('"').append(emprunt.getDateRetour()).append('"');
+        }
+        json.append('}');
+    }
+
+    /**
+     * Écrit un tableau JSON, chaque élément par {@code ecriture}.
+     */
+    static <T> void ecrireListe(StringBuilder json, List<T> elements, BiConsumer<StringBuilder, T> ecriture) {
+        json.append('[');
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            ecriture.accept(json, elements.get(i));
+        }
+        json.append(']');
+    }
+
+    /**
+     * Écrit une chaîne entre guillemets, en échappant les guillemets, les
+     * barres obliques inverses et les caractères de contrôle.
+     */
+    static void ecrireChaine(StringBuilder json, String chaine) {
+        json.append('"');
+        for (int i = 0; i < chaine.length(); i++) {
+            char c = chaine.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    // ========== Lecture ==========
+
+    /**
+     * Analyse un document JSON.
+     *
+     * @param texte document (non null)
+     * @return la valeur lue
+     * @throws IllegalArgumentException si le document est mal formé
+     */
+    static Object lire(String texte) {
+        Analyseur analyseur = new Analyseur(texte);
+        Object valeur = analyseur.valeur(0);
+        analyseur.espaces();
+        if (analyseur.position < texte.length()) {
+            throw analyseur.erreur("fin de document attendue");
+        }
+        return valeur;
+    }
+
+    /**
+     * Analyse un document JSON qui doit être un objet.
+     *
+     * @throws IllegalArgumentException si le document est mal formé ou n'est pas un objet
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> lireObjet(String texte) {
+        Object valeur = lire(texte);
+        if (!(valeur instanceof Map)) {
+            throw new IllegalArgumentException("Un objet JSON est attendu");
+        }
+        return (Map<String, Object>) valeur;
+    }
+
+    /**
+     * Construit une œuvre à partir de sa représentation JSON, disponible.
+     *
+     * @throws IllegalArgumentException si un champ manque, a un mauvais type
+     *                                  ou si le type d'œuvre est inconnu
+     */
+    static Oeuvre oeuvre(Map<String, Object> objet) {
+        String type = chaine(objet, "type");
+        long id = entier(objet, "id");
+        String titre = chaine(objet, "titre");
+        if (LIVRE.equals(type)) {
+            return new Livre(id, titre, chaine(objet, "auteur"), Math.toIntExact(entier(objet, "isbn")));
+        }
+        if (DVD.equals(type)) {
+            return new Dvd(id, titre, chaine(objet, "realisateur"), Math.toIntExact(entier(objet, "duree")));
+        }
+        throw new IllegalArgumentException("Type d'œuvre inconnu : " + type);
+    }
+
+    /**
+     * Construit un membre à partir de sa représentation JSON ; le champ
+     * {@code actif} est facultatif (vrai par défaut).
+     *
+     * @throws IllegalArgumentException si un champ manque ou a un mauvais type
+     */
+    static Membre membre(Map<String, Object> objet) {
+        Membre membre = new Membre(entier(objet, "id"), chaine(objet, "nom"));
+        Object actif = objet.get("actif");
+        if (actif != null && !(actif instanceof Boolean)) {
+            throw new IllegalArgumentException("Le champ actif doit être un booléen");
+        }
+        if (Boolean.FALSE.equals(actif)) {
+            membre.desactiver();
+        }
+        return membre;
+    }
+
+    /**
+     * @throws IllegalArgumentException si le champ manque ou n'est pas un nombre entier
+     */
+    static long entier(Map<String, Object> objet, String cle) {
+        Object valeur = objet.get(cle);
+        if (!(valeur instanceof Long)) {
+            throw new IllegalArgumentException("Le champ " + cle + " doit être un nombre entier");
+        }
+        return (Long) valeur;
+    }
+
+    /**
+     * @throws IllegalArgumentException si le champ manque ou n'est pas une chaîne
+     */
+    static String chaine(Map<String, Object> objet, String cle) {
+        Object valeur = objet.get(cle);
+        if (!(valeur instanceof String)) {
+            throw new IllegalArgumentException("Le champ " + cle + " doit être une chaîne");
+        }
+        return (String) valeur;
+    }
+
+    /**
+     * Analyseur descendant récursif d'un document JSON.
+     */
+    private static final class Analyseur {
+        private final String texte;
+        private int position;
+
+        Analyseur(String texte) {
+            this.texte = texte;
+        }
+
+        Object valeur(int profondeur) {
+            if (profondeur > PROFONDEUR_MAX) {
+                throw erreur("imbrication trop profonde");
+            }
+            espaces();
+            if (position >= texte.length()) {
+                throw erreur("valeur attendue");
+            }
+            char c = texte.charAt(position);
+            switch (c) {
+                case '{':
+                    return objet(profondeur);
+                case '[':
+                    return tableau(profondeur);
+                case '"':
+                    return chaine();
+                case 't':
+                    return mot("true", Boolean.TRUE);
+                case 'f':
+                    return mot("false", Boolean.FALSE);
+                case 'n':
+                    return mot("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return nombre();
+                    }
+                    throw erreur("caractère inattendu '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> objet(int profondeur) {
+            Map<String, Object> objet = new LinkedHashMap<>();
+            position++;
+            espaces();
+            if (suivantEst('}')) {
+                return objet;
+            }
+            while (true) {
+                espaces();
+                if (position >= texte.length() || texte.charAt(position) != '"') {
+                    throw erreur("nom de champ attendu");
+                }
+                String cle = chaine();
+                espaces();
+                attendre(':');
+                objet.put(cle, valeur(profondeur + 1));
+                espaces();
+                if (suivantEst('}')) {
+                    return objet;
+                }
+                attendre(',');
+            }
+        }
+
+        private List<Object> tableau(int profondeur) {
+            List<Object> tableau = new ArrayList<>();
+            position++;
+            espaces();
+            if (suivantEst(']')) {
+                return tableau;
+            }
+            while (true) {
+                tableau.add(valeur(profondeur + 1));
+                espaces();
+                if (suivantEst(']')) {
+                    return tableau;
+                }
+                attendre(',');
+            }
+        }
+
+        private String chaine() {
+            position++;
+            StringBuilder chaine = new StringBuilder();
+            while (true) {
+                if (position >= texte.length()) {
+                    throw erreur("chaîne non terminée");
+                }
+                char c = texte.charAt(position++);
+                if (c == '"') {
+                    return chaine.toString();
+                }
+                if (c < 0x20) {
+                    throw erreur("caractère de contrôle dans une chaîne");
+                }
+                if (c != '\\') {
+                    chaine.append(c);
+                    continue;
+                }
+                if (position >= texte.length()) {
+                    throw erreur("échappement non terminé");
+                }
+                char e = texte.charAt(position++);
+                switch (e) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        chaine.append(e);
+                        break;
+                    case 'b':
+                        chaine.append('\b');
+                        break;
+                    case 'f':
+                        chaine.append('\f');
+                        break;
+                    case 'n':
+                        chaine.append('\n');
+                        break;
+                    case 'r':
+                        chaine.append('\r');
+                        break;
+                    case 't':
+                        chaine.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > texte.length()) {
+                            throw erreur("échappement unicode incomplet");
+                        }
+                        try {
+                            chaine.append((char) Integer.parseInt(texte.substring(position, position + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw erreur("échappement unicode invalide");
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        throw erreur("échappement invalide '\\" + e + "'");
+                }
+            }
+        }
+
+        private Object nombre() {
+            int debut = position;
+            suivantEst('-');
+            if (!chiffres()) {
+                throw erreur("chiffre attendu");
+            }
+            boolean entier = true;
+            if (suivantEst('.')) {
+                entier = false;
+                if (!chiffres()) {
+                    throw erreur("chiffre attendu après la virgule");
+                }
+            }
+            if (position < texte.length() && (texte.charAt(position) == 'e' || texte.charAt(position) == 'E')) {
+                entier = false;
+                position++;
+                if (!suivantEst('+')) {
+                    suivantEst('-');
+                }
+                if (!chiffres()) {
+                    throw erreur("chiffre attendu dans l'exposant");
+                }
+            }
+            String nombre = texte.substring(debut, position);
+            if (entier) {
+                try {
+                    return Long.parseLong(nombre);
+                } catch (NumberFormatException e) {
+                    throw erreur("nombre entier hors limites");
+                }
+            }
+            return Double.parseDouble(nombre);
+        }
+
+        private boolean chiffres() {
+            int debut = position;
+            while (position < texte.length() && texte.charAt(position) >= '0' && texte.charAt(position) <= '9') {
+                position++;
+            }
+            return position > debut;
+        }
+
+        private Object mot(String mot, Object valeur) {
+            if (!texte.startsWith(mot, position)) {
+                throw erreur(mot + " attendu");
+            }
+            position += mot.length();
+            return valeur;
+        }
+
+        void espaces() {
+            while (position < texte.length()) {
+                char c = texte.charAt(position);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        private boolean suivantEst(char c) {
+            if (position < texte.length() && texte.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void attendre(char c) {
+            if (!suivantEst(c)) {
+                throw erreur("'" + c + "' attendu");
+            }
+        }
+
+        IllegalArgumentException erreur(String message) {
+            return new IllegalArgumentException("JSON invalide à la position " + position + " : " + message);
+        }
+    }
+}
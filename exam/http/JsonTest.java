@@ -0,0 +1,84 @@
+package exam.http;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires du codec JSON de l'API HTTP.
+ */
+class JsonTest {
+
+    @Test
+    void ecrirePuisLire_doitRestituerLivresDvdEtMembres() {
+        // Arrange : Des textes à échapper
+        Livre livre = new Livre(1, "Le \"Petit\" Prince\n", "Antoine de Saint-Exupéry", 2070612759);
+        Dvd dvd = new Dvd(2, "Amélie \\ Paris", "Jean-Pierre Jeunet", 122);
+        dvd.tenterMarquerIndisponible();
+        Membre membre = new Membre(3, "Chloé Bernard");
+        membre.desactiver();
+
+        // Act
+        StringBuilder json = new StringBuilder();
+        Json.ecrireListe(json, List.<Oeuvre>of(livre, dvd), Json::ecrire);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> oeuvres = (List<Map<String, Object>>) Json.lire(json.toString());
+        StringBuilder jsonMembre = new StringBuilder();
+        Json.ecrire(jsonMembre, membre);
+        Membre relu = Json.membre(Json.lireObjet(jsonMembre.toString()));
+
+        // Assert
+        Livre livreRelu = (Livre) Json.oeuvre(oeuvres.get(0));
+        assertEquals(livre.getTitre(), livreRelu.getTitre());
+        assertEquals(livre.getAuteur(), livreRelu.getAuteur());
+        assertEquals(livre.getIsbn(), livreRelu.getIsbn());
+        Dvd dvdRelu = (Dvd) Json.oeuvre(oeuvres.get(1));
+        assertEquals("Amélie \\ Paris", dvdRelu.getTitre());
+        assertEquals(122, dvdRelu.getDuree());
+        assertEquals(false, oeuvres.get(1).get("disponible"));
+        assertEquals("Chloé Bernard", relu.getNom());
+        assertFalse(relu.estActif());
+    }
+
+    @Test
+    void ecrire_emprunt_doitProduireDatesIsoEtRetourNull() {
+        // Arrange
+        Emprunt emprunt = new Emprunt(7, 1, 2, LocalDate.of(2024, 3, 1));
+
+        // Act
+        StringBuilder json = new StringBuilder();
+        Json.ecrire(json, emprunt);
+
+        // Assert
+        assertEquals("{\"id\":7,\"membreId\":1,\"oeuvreId\":2,\"dateEmprunt\":\"2024-03-01\",\"dateRetour\":null}",
+                json.toString());
+    }
+
+    @Test
+    void lire_doitAnalyserTousLesTypesEtRefuserLesDocumentsMalFormes() {
+        // Act
+        Map<String, Object> objet = Json.lireObjet(
+                " {\"a\": [1, -2.5e1, true, false, null], \"b\": {\"c\": \"\\u00e9\\t\"}, \"d\": \"\"} ");
+
+        // Assert
+        assertEquals(List.of(1L, -25.0, true, false), ((List<?>) objet.get("a")).subList(0, 4));
+        assertNull(((List<?>) objet.get("a")).get(4));
+        assertEquals(Map.of("c", "é\t"), objet.get("b"));
+        assertEquals("", objet.get("d"));
+        for (String invalide : List.of("", "{", "{\"a\":}", "[1,]", "{\"a\":1}x", "\"non terminée",
+                "01x", "{a:1}", "[1 2]", "tru", "\"\\x\"")) {
+            assertThrows(IllegalArgumentException.class, () -> Json.lire(invalide), invalide);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Json.lireObjet("[]"));
+        assertThrows(IllegalArgumentException.class, () -> Json.entier(Map.of("id", "1"), "id"));
+    }
+}
@@ -0,0 +1,301 @@
+package exam.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.service.MediathequeService;
+import exam.util.ThreadsVirtuels;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Serveur HTTP/JSON embarqué, qui expose le {@link MediathequeService}
+ * aux bornes et au catalogue web.
+ * <p>
+ * Routes :
+ * <ul>
+ *   <li>{@code POST /emprunts} {@code {"membreId":1,"oeuvreId":2}} : emprunte
+ *       une œuvre, répond 201 {@code {"empruntId":...}}</li>
+ *   <li>{@code POST /emprunts/<id>/retour} : rend un emprunt, répond 204</li>
+ *   <li>{@code GET /oeuvres/disponibles?apres=<id>&limite=<n>} : page d'œuvres
+ *       disponibles (pagination à curseur, 100 par défaut, 1 000 au plus)</li>
+ *   <li>{@code GET /membres/<id>/emprunts} : emprunts actifs d'un membre</li>
+ *   <li>{@code POST /oeuvres} et {@code POST /membres} : ajout d'une œuvre
+ *       ou d'un membre, dans la représentation JSON de {@link Json}</li>
+ * </ul>
+ * Un argument invalide répond 400, un refus métier 409, toujours avec un
+ * corps {@code {"erreur":"..."}}.
+ * <p>
+ * Le serveur est celui du JDK ({@code com.sun.net.httpserver}) : les
+ * connexions restent ouvertes entre deux requêtes (HTTP/1.1 keep-alive)
+ * et chaque requête est traitée sur son propre thread virtuel, à partir
+ * de Java 21 ; sur Java 17, les requêtes se partagent un pool borné de
+ * threads de plateforme (voir {@link ThreadsVirtuels}).
+ * <p>
+ * Ce serveur écrit l'en-tête et le corps d'une réponse séparément : avec
+ * l'algorithme de Nagle, le corps attendrait l'acquittement différé du
+ * client (~40 ms par réponse). La JVM doit donc être lancée avec
+ * {@code -D}{@value #PROPRIETE_NODELAY}{@code =true}, comme le fait
+ * {@code Main}. Cette propriété vaut pour tous les serveurs HTTP du JDK
+ * du processus et n'est lue qu'une fois, à la création du premier : le
+ * serveur ne la modifie pas lui-même.
+ */
+public final class ServeurHttp implements AutoCloseable {
+
+    private static final int LIMITE_PAR_DEFAUT = 100;
+    private static final int LIMITE_MAX = 1_000;
+
+    /**
+     * Taille maximale d'un corps de requête, en octets.
+     */
+    private static final int CORPS_MAX = 64 * 1024;
+
+    private static final String TYPE_JSON = "application/json; charset=utf-8";
+
+    /**
+     * Propriété système du serveur du JDK qui désactive l'algorithme de
+     * Nagle (TCP_NODELAY) sur ses connexions, à définir au lancement.
+     */
+    public static final String PROPRIETE_NODELAY = "sun.net.httpserver.nodelay";
+
+    private final MediathequeService service;
+    private final HttpServer serveur;
+    private final ExecutorService executeur;
+
+    private ServeurHttp(MediathequeService service, HttpServer serveur, ExecutorService executeur) {
+        this.service = service;
+        this.serveur = serveur;
+        this.executeur = executeur;
+    }
+
+    /**
+     * Démarre un serveur.
+     *
+     * @param service service exposé (non null)
+     * @param adresse adresse d'écoute ; port 0 pour un port libre choisi par le système
+     * @return le serveur démarré
+     * @throws IllegalArgumentException si service ou adresse est null
+     * @throws UncheckedIOException     si l'adresse ne peut pas être ouverte
+     */
+    public static ServeurHttp demarrer(MediathequeService service, InetSocketAddress adresse) {
+        if (service == null || adresse == null)
+            throw new IllegalArgumentException("Le service et l'adresse ne peuvent pas être null");
+        HttpServer serveur;
+        try {
+            serveur = HttpServer.create(adresse, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'écouter sur " + adresse, e);
+        }
+        ExecutorService executeur = ThreadsVirtuels.executeurParTache("http");
+        ServeurHttp serveurHttp = new ServeurHttp(service, serveur, executeur);
+        serveur.createContext("/", serveurHttp::traiter);
+        serveur.setExecutor(executeur);
+        serveur.start();
+        return serveurHttp;
+    }
+
+    /**
+     * @return le port d'écoute
+     */
+    public int port() {
+        return serveur.getAddress().getPort();
+    }
+
+    /**
+     * Arrête le serveur : les connexions sont fermées, les requêtes en cours abandonnées.
+     */
+    @Override
+    public void close() {
+        serveur.stop(0);
+        executeur.shutdownNow();
+    }
+
+    private void traiter(HttpExchange echange) throws IOException {
+        try (echange) {
+            Reponse reponse;
+            try {
+                reponse = router(echange);
+            } catch (MethodeNonAutorisee e) {
+                reponse = Reponse.erreur(405, "Méthode attendue : " + e.autorisee);
+                echange.getResponseHeaders().set("Allow", e.autorisee);
+            } catch (IllegalArgumentException e) {
+                reponse = Reponse.erreur(400, e.getMessage());
+            } catch (IllegalStateException e) {
+                reponse = Reponse.erreur(409, e.getMessage());
+            } catch (RuntimeException e) {
+                reponse = Reponse.erreur(500, "Erreur interne");
+            }
+            // Un corps de requête non consommé avant la réponse (route sans corps,
+            // erreur) ferait fermer la connexion au lieu de la garder ouverte
+            echange.getRequestBody().close();
+            envoyer(echange, reponse);
+        }
+    }
+
+    private Reponse router(HttpExchange echange) throws IOException {
+        String methode = echange.getRequestMethod();
+        String[] segments = segments(echange.getRequestURI().getPath());
+
+        if (segments.length == 1 && segments[0].equals("emprunts")) {
+            exigerMethode(methode, "POST");
+            Map<String, Object> demande = Json.lireObjet(corps(echange));
+            long empruntId = service.emprunter(Json.entier(demande, "membreId"), Json.entier(demande, "oeuvreId"));
+            return new Reponse(201, "{\"empruntId\":" + empruntId + "}");
+        }
+        if (segments.length == 3 && segments[0].equals("emprunts") && segments[2].equals("retour")) {
+            exigerMethode(methode, "POST");
+            service.rendre(identifiant(segments[1]));
+            return new Reponse(204, null);
+        }
+        if (segments.length == 2 && segments[0].equals("oeuvres") && segments[1].equals("disponibles")) {
+            exigerMethode(methode, "GET");
+            Map<String, String> parametres = parametres(echange.getRequestURI().getRawQuery());
+            long apres = parametre(parametres, "apres", 0);
+            int limite = (int) Math.min(parametre(parametres, "limite", LIMITE_PAR_DEFAUT), LIMITE_MAX);
+            List<Oeuvre> page = service.disponibles(apres, limite);
+            StringBuilder json = new StringBuilder(page.size() * 128 + 2);
+            Json.ecrireListe(json, page, Json::ecrire);
+            return new Reponse(200, json.toString());
+        }
+        if (segments.length == 3 && segments[0].equals("membres") && segments[2].equals("emprunts")) {
+            exigerMethode(methode, "GET");
+            List<Emprunt> emprunts = service.listerEmpruntsActifsPourMembre(identifiant(segments[1]));
+            StringBuilder json = new StringBuilder(emprunts.size() * 112 + 2);
+            Json.ecrireListe(json, emprunts, Json::ecrire);
+            return new Reponse(200, json.toString());
+        }
+        if (segments.length == 1 && segments[0].equals("oeuvres")) {
+            exigerMethode(methode, "POST");
+            Oeuvre oeuvre = Json.oeuvre(Json.lireObjet(corps(echange)));
+            service.ajouterOeuvre(oeuvre);
+            StringBuilder json = new StringBuilder();
+            Json.ecrire(json, oeuvre);
+            return new Reponse(201, json.toString());
+        }
+        if (segments.length == 1 && segments[0].equals("membres")) {
+            exigerMethode(methode, "POST");
+            Membre membre = Json.membre(Json.lireObjet(corps(echange)));
+            service.ajouterMembre(membre);
+            StringBuilder json = new StringBuilder();
+            Json.ecrire(json, membre);
+            return new Reponse(201, json.toString());
+        }
+        return Reponse.erreur(404, "Ressource inconnue : " + echange.getRequestURI().getPath());
+    }
+
+    private static String[] segments(String chemin) {
+        String nettoye = chemin.startsWith("/") ? chemin.substring(1) : chemin;
+        if (nettoye.endsWith("/")) {
+            nettoye = nettoye.substring(0, nettoye.length() - 1);
+        }
+        return nettoye.isEmpty() ? new String[0] : nettoye.split("/");
+    }
+
+    private static Map<String, String> parametres(String requete) {
+        Map<String, String> parametres = new HashMap<>();
+        if (requete == null || requete.isEmpty()) {
+            return parametres;
+        }
+        for (String paire : requete.split("&")) {
+            int egal = paire.indexOf('=');
+            String cle = egal < 0 ? paire : paire.substring(0, egal);
+            String valeur = egal < 0 ? "" : paire.substring(egal + 1);
+            parametres.put(URLDecoder.decode(cle, StandardCharsets.UTF_8), URLDecoder.decode(valeur, StandardCharsets.UTF_8));
+        }
+        return parametres;
+    }
+
+    private static long parametre(Map<String, String> parametres, String cle, long defaut) {
+        String valeur = parametres.get(cle);
+        if (valeur == null) {
+            return defaut;
+        }
+        try {
+            return Long.parseLong(valeur);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Paramètre " + cle + " invalide : " + valeur);
+        }
+    }
+
+    private static long identifiant(String segment) {
+        try {
+            return Long.parseLong(segment);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Identifiant invalide : " + segment);
+        }
+    }
+
+    private static void exigerMethode(String recue, String attendue) {
+        if (!recue.equals(attendue)) {
+            throw new MethodeNonAutorisee(attendue);
+        }
+    }
+
+    /**
+     * Lit le corps de la requête, au plus {@link #CORPS_MAX} octets.
+     */
+    private static String corps(HttpExchange echange) throws IOException {
+        try (InputStream entree = echange.getRequestBody()) {
+            byte[] octets = entree.readNBytes(CORPS_MAX + 1);
+            if (octets.length > CORPS_MAX) {
+                throw new IllegalArgumentException("Corps de requête trop volumineux");
+            }
+            return new String(octets, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void envoyer(HttpExchange echange, Reponse reponse) throws IOException {
+        if (reponse.corps == null) {
+            echange.sendResponseHeaders(reponse.statut, -1);
+            return;
+        }
+        byte[] octets = reponse.corps.getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().set("Content-Type", TYPE_JSON);
+        echange.sendResponseHeaders(reponse.statut, octets.length);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            sortie.write(octets);
+        }
+    }
+
+    /**
+     * Méthode HTTP non prise en charge par une route existante (405).
+     */
+    private static final class MethodeNonAutorisee extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final String autorisee;
+
+        MethodeNonAutorisee(String autorisee) {
+            super(null, null, false, false);
+            this.autorisee = autorisee;
+        }
+    }
+
+    private static final class Reponse {
+        final int statut;
+        final String corps;
+
+        Reponse(int statut, String corps) {
+            this.statut = statut;
+            this.corps = corps;
+        }
+
+        static Reponse erreur(int statut, String message) {
+            StringBuilder json = new StringBuilder("{\"erreur\":");
+            Json.ecrireChaine(json, message == null ? "" : message);
+            return new Reponse(statut, json.append('}').toString());
+        }
+    }
+}
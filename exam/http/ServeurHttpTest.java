@@ -0,0 +1,96 @@
+package exam.http;
+
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Livre;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.service.MediathequeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de l'API HTTP sur l'interface de bouclage : parcours d'un emprunt
+ * et codes d'erreur.
+ */
+class ServeurHttpTest {
+
+    private ServeurHttp serveur;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        MediathequeService service = new MediathequeService(
+                new InMemoryOeuvreRepository(), new InMemoryMembreRepository(), new InMemoryEmpruntRepository());
+        service.ajouterMembre(new Membre(1, "Alice Martin"));
+        service.ajouterOeuvre(new Livre(1, "Dune", "Frank Herbert", 2070368229));
+        serveur = ServeurHttp.demarrer(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        serveur.close();
+    }
+
+    private HttpResponse<String> envoyer(String methode, String chemin, String corps) throws Exception {
+        HttpRequest requete = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + serveur.port() + chemin))
+                .method(methode, corps == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(corps))
+                .build();
+        return client.send(requete, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void emprunterListerPuisRendre_doitSuivreLeParcoursComplet() throws Exception {
+        // Act & Assert : Ajout d'une œuvre
+        HttpResponse<String> ajout = envoyer("POST", "/oeuvres",
+                "{\"type\":\"DVD\",\"id\":2,\"titre\":\"Inception\",\"realisateur\":\"Christopher Nolan\",\"duree\":148}");
+        assertEquals(201, ajout.statusCode());
+
+        // Act & Assert : Emprunt
+        HttpResponse<String> emprunt = envoyer("POST", "/emprunts", "{\"membreId\":1,\"oeuvreId\":2}");
+        assertEquals(201, emprunt.statusCode());
+        assertEquals("application/json; charset=utf-8", emprunt.headers().firstValue("Content-Type").orElseThrow());
+        long empruntId = Json.entier(Json.lireObjet(emprunt.body()), "empruntId");
+
+        // Act & Assert : Disponibilités et emprunts du membre
+        List<?> disponibles = (List<?>) Json.lire(envoyer("GET", "/oeuvres/disponibles?limite=10", null).body());
+        assertEquals(1, disponibles.size());
+        assertEquals(1L, ((Map<?, ?>) disponibles.get(0)).get("id"));
+        List<?> emprunts = (List<?>) Json.lire(envoyer("GET", "/membres/1/emprunts", null).body());
+        assertEquals(empruntId, ((Map<?, ?>) emprunts.get(0)).get("id"));
+
+        // Act & Assert : Retour, puis double retour refusé
+        assertEquals(204, envoyer("POST", "/emprunts/" + empruntId + "/retour", null).statusCode());
+        HttpResponse<String> doubleRetour = envoyer("POST", "/emprunts/" + empruntId + "/retour", null);
+        assertEquals(409, doubleRetour.statusCode());
+        assertTrue(Json.chaine(Json.lireObjet(doubleRetour.body()), "erreur").contains("déjà été retourné"));
+        assertEquals(2, ((List<?>) Json.lire(envoyer("GET", "/oeuvres/disponibles", null).body())).size());
+    }
+
+    @Test
+    void requetesInvalides_doiventRecevoirLeCodeAdapte() throws Exception {
+        // Act & Assert
+        assertEquals(400, envoyer("POST", "/emprunts", "{\"membreId\":1}").statusCode());
+        assertEquals(400, envoyer("POST", "/emprunts", "{pas du json").statusCode());
+        assertEquals(400, envoyer("GET", "/membres/abc/emprunts", null).statusCode());
+        assertEquals(400, envoyer("GET", "/membres/0/emprunts", null).statusCode());
+        assertEquals(409, envoyer("POST", "/emprunts", "{\"membreId\":99,\"oeuvreId\":1}").statusCode());
+        assertEquals(404, envoyer("GET", "/inconnu", null).statusCode());
+        HttpResponse<String> mauvaiseMethode = envoyer("GET", "/emprunts", null);
+        assertEquals(405, mauvaiseMethode.statusCode());
+        assertEquals("POST", mauvaiseMethode.headers().firstValue("Allow").orElseThrow());
+    }
+}
@@ -0,0 +1,23 @@
+package exam.metrique;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur sans verrou, publiable en JMX.
+ */
+public final class Compteur implements CompteurMBean {
+
+    private final LongAdder nombre = new LongAdder();
+
+    /**
+     * Ajoute une occurrence.
+     */
+    public void incrementer() {
+        nombre.increment();
+    }
+
+    @Override
+    public long getNombre() {
+        return nombre.sum();
+    }
+}
@@ -0,0 +1,9 @@
+package exam.metrique;
+
+/**
+ * Vue JMX d'un {@link Compteur}.
+ */
+public interface CompteurMBean {
+
+    long getNombre();
+}
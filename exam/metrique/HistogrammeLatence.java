@@ -0,0 +1,194 @@
+package exam.metrique;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de latences, enregistrées en nanosecondes, à la manière
+ * d'un HdrHistogram.
+ * <p>
+ * Les valeurs sont rangées dans des cases log-linéaires : chaque puissance
+ * de 2 est découpée en 32 cases de même largeur, ce qui borne l'erreur
+ * relative d'une valeur lue à 1/32 (environ 3 %) sur toute la plage, de la
+ * nanoseconde à 2^40 ns (environ 18 minutes ; au-delà, les valeurs sont
+ * comptées dans la dernière case).
+ * <p>
+ * L'enregistrement est sans verrou ni allocation : un calcul d'indice et
+ * un incrément atomique. Pour limiter la contention, les compteurs sont
+ * répartis en bandes et chaque thread incrémente la bande désignée par
+ * son empreinte. La lecture ({@link #repartition()}) additionne les bandes ;
+ * elle peut voir un enregistrement concurrent dans certaines cases et pas
+ * encore dans d'autres, sans jamais bloquer les écrivains.
+ */
+public final class HistogrammeLatence {
+
+    /**
+     * Bits de précision : 2^5 = 32 cases par puissance de 2.
+     */
+    private static final int BITS_PRECISION = 5;
+    private static final int CASES_PAR_PUISSANCE = 1 << BITS_PRECISION;
+
+    /**
+     * Valeurs enregistrables : [0, 2^BITS_VALEUR[.
+     */
+    private static final int BITS_VALEUR = 40;
+    private static final long VALEUR_MAX = (1L << BITS_VALEUR) - 1;
+
+    static final int NOMBRE_CASES = (BITS_VALEUR - BITS_PRECISION + 1) << BITS_PRECISION;
+
+    private static final int NOMBRE_BANDES = nombreBandes();
+
+    private final AtomicLongArray comptes = new AtomicLongArray(NOMBRE_BANDES * NOMBRE_CASES);
+
+    /**
+     * Enregistre une latence.
+     *
+     * @param nanos durée en nanosecondes (une valeur négative compte pour 0)
+     */
+    public void enregistrer(long nanos) {
+        int h = Thread.currentThread().hashCode();
+        int bande = (h ^ (h >>> 16)) & (NOMBRE_BANDES - 1);
+        comptes.getAndIncrement(bande * NOMBRE_CASES + indice(nanos));
+    }
+
+    /**
+     * Retourne la répartition des latences enregistrées jusqu'ici.
+     *
+     * @return une copie figée des compteurs
+     */
+    public Repartition repartition() {
+        long[] total = new long[NOMBRE_CASES];
+        for (int bande = 0; bande < NOMBRE_BANDES; bande++) {
+            int debut = bande * NOMBRE_CASES;
+            for (int i = 0; i < NOMBRE_CASES; i++) {
+                total[i] += comptes.get(debut + i);
+            }
+        }
+        return new Repartition(total);
+    }
+
+    /**
+     * Case d'une valeur : la valeur elle-même en dessous de 32, sinon
+     * l'ordre de grandeur puis les 5 bits qui suivent le bit de poids fort.
+     */
+    static int indice(long valeur) {
+        long v = Math.min(Math.max(valeur, 0), VALEUR_MAX);
+        if (v < CASES_PAR_PUISSANCE) {
+            return (int) v;
+        }
+        int exposant = 63 - Long.numberOfLeadingZeros(v);
+        int decalage = exposant - BITS_PRECISION;
+        return ((decalage + 1) << BITS_PRECISION) + (int) (v >>> decalage) - CASES_PAR_PUISSANCE;
+    }
+
+    /**
+     * Plus petite valeur rangée dans une case.
+     */
+    static long borneInferieure(int indice) {
+        if (indice < CASES_PAR_PUISSANCE) {
+            return indice;
+        }
+        int decalage = (indice >>> BITS_PRECISION) - 1;
+        return (long) (CASES_PAR_PUISSANCE + (indice & (CASES_PAR_PUISSANCE - 1))) << decalage;
+    }
+
+    /**
+     * Plus grande valeur rangée dans une case.
+     */
+    static long borneSuperieure(int indice) {
+        if (indice < CASES_PAR_PUISSANCE) {
+            return indice;
+        }
+        int decalage = (indice >>> BITS_PRECISION) - 1;
+        return borneInferieure(indice) + (1L << decalage) - 1;
+    }
+
+    /**
+     * Nombre de bandes : une puissance de 2 proche du nombre de processeurs, au plus 8.
+     */
+    private static int nombreBandes() {
+        int processeurs = Runtime.getRuntime().availableProcessors();
+        return Math.min(8, Integer.highestOneBit(Math.max(1, processeurs * 2 - 1)));
+    }
+
+    /**
+     * Répartition figée des latences d'un histogramme.
+     * <p>
+     * Les valeurs retournées sont celles des bornes de cases : une latence
+     * lue est au plus 1/32 au-dessus de la latence réelle.
+     */
+    public static final class Repartition {
+
+        private final long[] comptes;
+        private final long nombre;
+
+        private Repartition(long[] comptes) {
+            this.comptes = comptes;
+            long somme = 0;
+            for (long compte : comptes) {
+                somme += compte;
+            }
+            this.nombre = somme;
+        }
+
+        /**
+         * @return nombre de latences enregistrées
+         */
+        public long nombre() {
+            return nombre;
+        }
+
+        /**
+         * Retourne la latence sous laquelle se trouve une proportion donnée
+         * des enregistrements (par exemple 0,99 pour le 99e centile).
+         *
+         * @param proportion proportion dans [0, 1]
+         * @return la latence en nanosecondes (0 si rien n'a été enregistré)
+         * @throws IllegalArgumentException si la proportion est hors de [0, 1]
+         */
+        public long quantile(double proportion) {
+            if (!(proportion >= 0 && proportion <= 1)) {
+                throw new IllegalArgumentException("La proportion doit être comprise entre 0 et 1");
+            }
+            if (nombre == 0) {
+                return 0;
+            }
+            long rang = Math.max(1, (long) Math.ceil(proportion * nombre));
+            long cumul = 0;
+            for (int i = 0; i < comptes.length; i++) {
+                cumul += comptes[i];
+                if (cumul >= rang) {
+                    return borneSuperieure(i);
+                }
+            }
+            return maximum();
+        }
+
+        /**
+         * @return la plus grande latence enregistrée (borne de sa case), 0 si aucune
+         */
+        public long maximum() {
+            for (int i = comptes.length - 1; i >= 0; i--) {
+                if (comptes[i] != 0) {
+                    return borneSuperieure(i);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return la latence moyenne, estimée au milieu de chaque case (0 si aucune)
+         */
+        public double moyenne() {
+            if (nombre == 0) {
+                return 0;
+            }
+            double somme = 0;
+            for (int i = 0; i < comptes.length; i++) {
+                if (comptes[i] != 0) {
+                    somme += comptes[i] * ((borneInferieure(i) + borneSuperieure(i)) / 2.0);
+                }
+            }
+            return somme / nombre;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package exam.metrique;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour HistogrammeLatence.
+ */
+class HistogrammeLatenceTest {
+
+    @Test
+    void indice_doitRangerChaqueValeurEntreLesBornesDeSaCase() {
+        // Arrange
+        SplittableRandom aleatoire = new SplittableRandom(7);
+
+        for (int n = 0; n < 100_000; n++) {
+            long valeur = aleatoire.nextLong(1L << aleatoire.nextInt(1, 41));
+
+            // Act
+            int indice = HistogrammeLatence.indice(valeur);
+
+            // Assert : Case valide, bornes encadrantes, largeur au plus 1/32 de la valeur
+            assertTrue(indice >= 0 && indice < HistogrammeLatence.NOMBRE_CASES);
+            long inferieure = HistogrammeLatence.borneInferieure(indice);
+            long superieure = HistogrammeLatence.borneSuperieure(indice);
+            assertTrue(inferieure <= valeur && valeur <= superieure, "valeur " + valeur);
+            assertTrue(superieure - inferieure <= valeur / 32, "valeur " + valeur);
+        }
+        assertEquals(HistogrammeLatence.NOMBRE_CASES - 1, HistogrammeLatence.indice(Long.MAX_VALUE));
+        assertEquals(0, HistogrammeLatence.indice(-5));
+    }
+
+    @Test
+    void quantile_doitApprocherLeQuantileExactAUnTrenteDeuxiemePres() throws InterruptedException {
+        // Arrange : Latences log-normales, enregistrées par quatre threads
+        HistogrammeLatence histogramme = new HistogrammeLatence();
+        int parThread = 50_000;
+        long[] valeurs = new long[4 * parThread];
+        SplittableRandom aleatoire = new SplittableRandom(11);
+        for (int i = 0; i < valeurs.length; i++) {
+            valeurs[i] = (long) Math.exp(8 + 2 * aleatoire.nextDouble() * aleatoire.nextDouble() * 3);
+        }
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int debut = t * parThread;
+            threads[t] = new Thread(() -> {
+                for (int i = debut; i < debut + parThread; i++) {
+                    histogramme.enregistrer(valeurs[i]);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Act
+        HistogrammeLatence.Repartition repartition = histogramme.repartition();
+
+        // Assert
+        Arrays.sort(valeurs);
+        assertEquals(valeurs.length, repartition.nombre());
+        for (double proportion : new double[]{0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = valeurs[(int) Math.ceil(proportion * valeurs.length) - 1];
+            long lu = repartition.quantile(proportion);
+            assertTrue(lu >= exact && lu <= exact + exact / 32, proportion + " : " + lu + " pour " + exact);
+        }
+        assertEquals(valeurs[valeurs.length - 1], repartition.maximum(), valeurs[valeurs.length - 1] / 32.0);
+    }
+}
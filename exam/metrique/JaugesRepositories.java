@@ -0,0 +1,41 @@
+package exam.metrique;
+
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+
+/**
+ * Taille des repositories du service, lue à chaque consultation.
+ */
+public final class JaugesRepositories implements JaugesRepositoriesMBean {
+
+    private final OeuvreRepository oeuvres;
+    private final MembreRepository membres;
+    private final EmpruntRepository emprunts;
+
+    JaugesRepositories(OeuvreRepository oeuvres, MembreRepository membres, EmpruntRepository emprunts) {
+        this.oeuvres = oeuvres;
+        this.membres = membres;
+        this.emprunts = emprunts;
+    }
+
+    @Override
+    public int getNombreOeuvres() {
+        return oeuvres.count();
+    }
+
+    @Override
+    public int getNombreOeuvresDisponibles() {
+        return oeuvres.countDisponibles();
+    }
+
+    @Override
+    public int getNombreMembres() {
+        return membres.count();
+    }
+
+    @Override
+    public int getNombreEmprunts() {
+        return emprunts.count();
+    }
+}
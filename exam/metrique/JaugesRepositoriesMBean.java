@@ -0,0 +1,15 @@
+package exam.metrique;
+
+/**
+ * Vue JMX de la taille des repositories, lue à chaque consultation.
+ */
+public interface JaugesRepositoriesMBean {
+
+    int getNombreOeuvres();
+
+    int getNombreOeuvresDisponibles();
+
+    int getNombreMembres();
+
+    int getNombreEmprunts();
+}
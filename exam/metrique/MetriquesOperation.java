@@ -0,0 +1,115 @@
+package exam.metrique;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures d'une opération : histogramme des latences de tous les appels
+ * et compteurs par issue (refus, argument invalide, erreur).
+ * <p>
+ * Les succès ne sont pas comptés à part : ce sont les appels de
+ * l'histogramme moins les échecs. Un appel réussi ne coûte ainsi qu'un
+ * incrément atomique.
+ */
+public final class MetriquesOperation implements MetriquesOperationMBean {
+
+    private final HistogrammeLatence latences = new HistogrammeLatence();
+    private final LongAdder refus = new LongAdder();
+    private final LongAdder argumentsInvalides = new LongAdder();
+    private final LongAdder erreurs = new LongAdder();
+
+    /**
+     * Enregistre un appel réussi.
+     *
+     * @param nanos durée de l'appel
+     */
+    public void succes(long nanos) {
+        latences.enregistrer(nanos);
+    }
+
+    /**
+     * Enregistre un appel terminé par une exception, classée selon son type.
+     *
+     * @param nanos durée de l'appel
+     * @param e     exception levée
+     */
+    public void echec(long nanos, RuntimeException e) {
+        latences.enregistrer(nanos);
+        if (e instanceof IllegalStateException) {
+            refus.increment();
+        } else if (e instanceof IllegalArgumentException) {
+            argumentsInvalides.increment();
+        } else {
+            erreurs.increment();
+        }
+    }
+
+    /**
+     * @return l'histogramme des latences de tous les appels
+     */
+    public HistogrammeLatence latences() {
+        return latences;
+    }
+
+    @Override
+    public long getNombreAppels() {
+        return latences.repartition().nombre();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Lu pendant des appels concurrents, peut inclure un échec dont le
+     * compteur n'est pas encore incrémenté.
+     */
+    @Override
+    public long getNombreSucces() {
+        // Échecs lus avant les appels : chaque échec compté figure déjà dans l'histogramme
+        long echecs = refus.sum() + argumentsInvalides.sum() + erreurs.sum();
+        return getNombreAppels() - echecs;
+    }
+
+    @Override
+    public long getNombreRefus() {
+        return refus.sum();
+    }
+
+    @Override
+    public long getNombreArgumentsInvalides() {
+        return argumentsInvalides.sum();
+    }
+
+    @Override
+    public long getNombreErreurs() {
+        return erreurs.sum();
+    }
+
+    @Override
+    public long getLatenceP50Ns() {
+        return latences.repartition().quantile(0.5);
+    }
+
+    @Override
+    public long getLatenceP90Ns() {
+        return latences.repartition().quantile(0.9);
+    }
+
+    @Override
+    public long getLatenceP99Ns() {
+        return latences.repartition().quantile(0.99);
+    }
+
+    @Override
+    public long getLatenceP999Ns() {
+        return latences.repartition().quantile(0.999);
+    }
+
+    @Override
+    public long getLatenceMaxNs() {
+        return latences.repartition().maximum();
+    }
+
+    @Override
+    public double getLatenceMoyenneNs() {
+        return latences.repartition().moyenne();
+    }
+}
@@ -0,0 +1,39 @@
+package exam.metrique;
+
+/**
+ * Vue JMX des mesures d'une opération : nombre d'appels par issue et
+ * latences en nanosecondes (bornes de cases, erreur relative au plus 1/32).
+ */
+public interface MetriquesOperationMBean {
+
+    long getNombreAppels();
+
+    long getNombreSucces();
+
+    /**
+     * @return appels terminés par une {@link IllegalStateException} (refus métier)
+     */
+    long getNombreRefus();
+
+    /**
+     * @return appels terminés par une {@link IllegalArgumentException}
+     */
+    long getNombreArgumentsInvalides();
+
+    /**
+     * @return appels terminés par une autre exception
+     */
+    long getNombreErreurs();
+
+    long getLatenceP50Ns();
+
+    long getLatenceP90Ns();
+
+    long getLatenceP99Ns();
+
+    long getLatenceP999Ns();
+
+    long getLatenceMaxNs();
+
+    double getLatenceMoyenneNs();
+}
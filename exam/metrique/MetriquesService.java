@@ -0,0 +1,172 @@
+package exam.metrique;
+
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Mesures du service de la médiathèque : latences et issues de chaque
+ * opération, nombre de refus par motif et taille des repositories.
+ * <p>
+ * Les mesures sont toujours enregistrées ; {@link #publier()} les expose
+ * en plus dans le serveur MBean de la plateforme, sous les noms :
+ * <ul>
+ *   <li>{@code exam:type=MediathequeService,operation=<méthode>}</li>
+ *   <li>{@code exam:type=MediathequeService,refus=<MOTIF>}</li>
+ *   <li>{@code exam:type=MediathequeService,name=Repositories}</li>
+ * </ul>
+ */
+public final class MetriquesService {
+
+    private static final String PREFIXE = "exam:type=MediathequeService,";
+
+    private final MetriquesOperation[] operations = new MetriquesOperation[Operation.values().length];
+    private final Compteur[] refus = new Compteur[MotifRefus.values().length];
+    private final JaugesRepositories jauges;
+
+    /**
+     * Noms publiés ; protégé par le moniteur de l'instance.
+     */
+    private final List<ObjectName> publies = new ArrayList<>();
+
+    /**
+     * Crée les mesures d'un service.
+     *
+     * @param oeuvres  repository des œuvres du service
+     * @param membres  repository des membres du service
+     * @param emprunts repository des emprunts du service
+     */
+    public MetriquesService(OeuvreRepository oeuvres, MembreRepository membres, EmpruntRepository emprunts) {
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new MetriquesOperation();
+        }
+        for (int i = 0; i < refus.length; i++) {
+            refus[i] = new Compteur();
+        }
+        this.jauges = new JaugesRepositories(oeuvres, membres, emprunts);
+    }
+
+    /**
+     * Exécute le corps d'une opération en mesurant sa durée et son issue.
+     *
+     * @param operation opération mesurée
+     * @param corps     corps de l'opération
+     * @return le résultat du corps
+     */
+    public <T> T mesurer(Operation operation, Supplier<T> corps) {
+        MetriquesOperation metriques = operations[operation.ordinal()];
+        long debut = System.nanoTime();
+        try {
+            T resultat = corps.get();
+            metriques.succes(System.nanoTime() - debut);
+            return resultat;
+        } catch (RuntimeException e) {
+            metriques.echec(System.nanoTime() - debut, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Exécute le corps d'une opération sans résultat en mesurant sa durée et son issue.
+     *
+     * @param operation opération mesurée
+     * @param corps     corps de l'opération
+     */
+    public void executer(Operation operation, Runnable corps) {
+        MetriquesOperation metriques = operations[operation.ordinal()];
+        long debut = System.nanoTime();
+        try {
+            corps.run();
+            metriques.succes(System.nanoTime() - debut);
+        } catch (RuntimeException e) {
+            metriques.echec(System.nanoTime() - debut, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Compte un refus.
+     *
+     * @param motif motif du refus
+     */
+    public void compterRefus(MotifRefus motif) {
+        refus[motif.ordinal()].incrementer();
+    }
+
+    /**
+     * @return les mesures d'une opération
+     */
+    public MetriquesOperation operation(Operation operation) {
+        return operations[operation.ordinal()];
+    }
+
+    /**
+     * @return le compteur des refus d'un motif
+     */
+    public Compteur refus(MotifRefus motif) {
+        return refus[motif.ordinal()];
+    }
+
+    /**
+     * @return la taille des repositories
+     */
+    public JaugesRepositories jauges() {
+        return jauges;
+    }
+
+    /**
+     * Publie les mesures dans le serveur MBean de la plateforme.
+     * Sans effet si elles sont déjà publiées.
+     *
+     * @throws IllegalStateException si les noms sont déjà pris (par exemple
+     *                               par les mesures d'un autre service)
+     */
+    public synchronized void publier() {
+        if (!publies.isEmpty()) {
+            return;
+        }
+        MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Operation operation : Operation.values()) {
+                enregistrer(serveur, "operation=" + operation.nom(), operations[operation.ordinal()]);
+            }
+            for (MotifRefus motif : MotifRefus.values()) {
+                enregistrer(serveur, "refus=" + motif.name(), refus[motif.ordinal()]);
+            }
+            enregistrer(serveur, "name=Repositories", jauges);
+        } catch (JMException e) {
+            retirer();
+            throw new IllegalStateException("Impossible de publier les mesures du service", e);
+        }
+    }
+
+    private void enregistrer(MBeanServer serveur, String cle, Object mbean) throws JMException {
+        ObjectName nom = new ObjectName(PREFIXE + cle);
+        serveur.registerMBean(mbean, nom);
+        publies.add(nom);
+    }
+
+    /**
+     * Retire les mesures du serveur MBean de la plateforme ; elles
+     * continuent d'être enregistrées.
+     */
+    public synchronized void retirer() {
+        MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName nom : publies) {
+            try {
+                serveur.unregisterMBean(nom);
+            } catch (JMException e) {
+                // Déjà retiré par un tiers : rien à faire
+            }
+        }
+        publies.clear();
+    }
+}
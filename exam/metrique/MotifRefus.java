@@ -0,0 +1,26 @@
+package exam.metrique;
+
+/**
+ * Motifs de refus d'une opération de la médiathèque.
+ * <p>
+ * Les refus des opérations unitaires sont signalés par une
+ * {@link IllegalStateException} ; ceux des opérations en lot par un
+ * résultat en échec pour l'élément concerné.
+ */
+public enum MotifRefus {
+
+    MEMBRE_INEXISTANT,
+    MEMBRE_INACTIF,
+    OEUVRE_INEXISTANTE,
+    OEUVRE_INDISPONIBLE,
+    OEUVRE_DEJA_DISPONIBLE,
+    QUOTA_ATTEINT,
+    EMPRUNT_INEXISTANT,
+    EMPRUNT_DEJA_RETOURNE,
+
+    /**
+     * Identifiant nul ou négatif dans un lot (hors lot, l'appel est rejeté
+     * par une {@link IllegalArgumentException}).
+     */
+    IDENTIFIANT_INVALIDE
+}
@@ -0,0 +1,36 @@
+package exam.metrique;
+
+/**
+ * Opérations publiques du service de la médiathèque, mesurées une à une.
+ */
+public enum Operation {
+
+    RECHERCHER("rechercher"),
+    RECHERCHER_TITRE_APPROCHE("rechercherTitreApproche"),
+    COMPLETER_TITRE("completerTitre"),
+    COMPLETER_NOM_MEMBRE("completerNomMembre"),
+    DISPONIBLES("disponibles"),
+    DISPONIBLES_PAGE("disponiblesPage"),
+    COMPTER_DISPONIBLES("compterDisponibles"),
+    EST_DISPONIBLE("estDisponible"),
+    EMPRUNTER("emprunter"),
+    RENDRE("rendre"),
+    EMPRUNTER_EN_LOT("emprunterEnLot"),
+    RENDRE_EN_LOT("rendreEnLot"),
+    LISTER_EMPRUNTS_ACTIFS("listerEmpruntsActifsPourMembre"),
+    AJOUTER_OEUVRE("ajouterOeuvre"),
+    AJOUTER_MEMBRE("ajouterMembre");
+
+    private final String nom;
+
+    Operation(String nom) {
+        this.nom = nom;
+    }
+
+    /**
+     * @return le nom de la méthode du service, utilisé dans le nom JMX
+     */
+    public String nom() {
+        return nom;
+    }
+}
@@ -0,0 +1,502 @@
+package exam.recherche;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Arbre radix (trie compressé) de clés textuelles, chacune associée à
+ * des documents.
+ * <p>
+ * Chaque arête porte une suite de caractères ; les clés qui partagent un
+ * préfixe partagent son chemin. La recherche approchée simule un automate
+ * de Levenshtein en descendant l'arbre : une ligne de distances d'édition
+ * est calculée par caractère parcouru et une branche est abandonnée dès
+ * que toutes les distances de sa ligne dépassent la tolérance. Le préfixe
+ * commun n'est ainsi évalué qu'une fois, et seules les branches proches
+ * de la clé recherchée sont visitées. Pour une tolérance k, seules les
+ * 2k + 1 cellules de la diagonale d'une ligne peuvent rester sous la
+ * tolérance : les autres ne sont pas calculées.
+ * <p>
+ * La complétion d'un préfixe propose d'abord les clés les plus courtes
+ * (les plus proches du préfixe saisi), puis par identifiant croissant.
+ * Tout nœud dont le sous-arbre compte plus de {@value #COMPLETIONS_MAX}
+ * documents garde ses {@value #COMPLETIONS_MAX} meilleures complétions,
+ * tenues à jour à chaque ajout ou retrait : une complétion lit au plus
+ * une de ces listes ou un petit sous-arbre, quelle que soit la taille
+ * de l'arbre.
+ * <p>
+ * Les lectures peuvent être concurrentes ; les mises à jour sont exclusives.
+ */
+final class ArbreRadix {
+
+    /**
+     * Nombre maximal de complétions retournées pour un préfixe.
+     */
+    static final int COMPLETIONS_MAX = 16;
+
+    private final StampedLock verrou = new StampedLock();
+    private final Noeud racine = new Noeud("");
+
+    /**
+     * Associe un document à une clé.
+     *
+     * @param cle clé (non vide)
+     * @param id  identifiant du document
+     */
+    void ajouter(String cle, long id) {
+        long tampon = verrou.writeLock();
+        try {
+            List<Noeud> chemin = new ArrayList<>();
+            Noeud noeud = racine;
+            chemin.add(noeud);
+            int position = 0;
+            while (position < cle.length()) {
+                int indice = noeud.indiceEnfant(cle.charAt(position));
+                if (indice < 0) {
+                    Noeud feuille = new Noeud(cle.substring(position));
+                    noeud.insererEnfant(-indice - 1, feuille);
+                    noeud = feuille;
+                    chemin.add(noeud);
+                    break;
+                }
+                Noeud enfant = noeud.enfants[indice];
+                int commun = prefixeCommun(enfant.etiquette, cle, position);
+                if (commun < enfant.etiquette.length()) {
+                    // Scission de l'arête au point de divergence : même sous-arbre, mêmes complétions
+                    Noeud intermediaire = new Noeud(enfant.etiquette.substring(0, commun));
+                    enfant.etiquette = enfant.etiquette.substring(commun);
+                    intermediaire.insererEnfant(0, enfant);
+                    intermediaire.nombreDocuments = enfant.nombreDocuments;
+                    intermediaire.meilleurs = enfant.meilleurs == null ? null : enfant.meilleurs.copie();
+                    noeud.enfants[indice] = intermediaire;
+                    enfant = intermediaire;
+                }
+                noeud = enfant;
+                chemin.add(noeud);
+                position += commun;
+            }
+            if (!noeud.ajouterId(id)) {
+                return;
+            }
+
+            // Mise à jour des complétions, des feuilles vers la racine
+            int profondeur = cle.length();
+            for (int i = chemin.size() - 1; i >= 0; i--) {
+                Noeud surChemin = chemin.get(i);
+                surChemin.nombreDocuments++;
+                if (surChemin.meilleurs != null) {
+                    surChemin.meilleurs.proposer(cle.length(), id);
+                } else if (surChemin.nombreDocuments > COMPLETIONS_MAX) {
+                    surChemin.meilleurs = new Completions();
+                    contenu(surChemin, profondeur, surChemin.meilleurs);
+                }
+                profondeur -= surChemin.etiquette.length();
+            }
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    /**
+     * Dissocie un document d'une clé ; les nœuds devenus inutiles sont
+     * supprimés ou fusionnés avec leur unique enfant.
+     *
+     * @param cle clé avec laquelle le document a été ajouté
+     * @param id  identifiant du document
+     */
+    void retirer(String cle, long id) {
+        long tampon = verrou.writeLock();
+        try {
+            if (retirer(racine, cle, 0, id)) {
+                retirerCompletion(racine, 0, id);
+            }
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    /**
+     * @return true si le document était associé à la clé
+     */
+    private static boolean retirer(Noeud noeud, String cle, int position, long id) {
+        if (position == cle.length()) {
+            return noeud.retirerId(id);
+        }
+        int indice = noeud.indiceEnfant(cle.charAt(position));
+        if (indice < 0) {
+            return false;
+        }
+        Noeud enfant = noeud.enfants[indice];
+        if (!cle.startsWith(enfant.etiquette, position)) {
+            return false;
+        }
+        int profondeur = position + enfant.etiquette.length();
+        if (!retirer(enfant, cle, profondeur, id)) {
+            return false;
+        }
+        retirerCompletion(enfant, profondeur, id);
+        if (enfant.nombreIds == 0 && enfant.nombreEnfants == 0) {
+            noeud.supprimerEnfant(indice);
+        } else if (enfant.nombreIds == 0 && enfant.nombreEnfants == 1) {
+            Noeud petitEnfant = enfant.enfants[0];
+            petitEnfant.etiquette = enfant.etiquette + petitEnfant.etiquette;
+            noeud.enfants[indice] = petitEnfant;
+        }
+        return true;
+    }
+
+    /**
+     * Tient à jour les complétions d'un nœud après le retrait d'un document
+     * de son sous-arbre (ceux de ses enfants étant déjà à jour).
+     */
+    private static void retirerCompletion(Noeud noeud, int profondeur, long id) {
+        noeud.nombreDocuments--;
+        if (noeud.nombreDocuments <= COMPLETIONS_MAX) {
+            noeud.meilleurs = null;
+        } else if (noeud.meilleurs.contient(id)) {
+            noeud.meilleurs = new Completions();
+            contenu(noeud, profondeur, noeud.meilleurs);
+        }
+    }
+
+    /**
+     * Retourne les meilleures complétions d'un préfixe : documents dont la
+     * clé commence par le préfixe, clés les plus courtes d'abord, puis par
+     * identifiant croissant.
+     *
+     * @param prefixe préfixe saisi (non vide)
+     * @param limite  nombre maximal de résultats (plafonné à {@value #COMPLETIONS_MAX})
+     * @return les identifiants (un document associé à plusieurs clés
+     * complétant le préfixe peut apparaître plusieurs fois)
+     */
+    long[] completer(String prefixe, int limite) {
+        long tampon = verrou.readLock();
+        try {
+            Noeud noeud = racine;
+            int position = 0;
+            while (position < prefixe.length()) {
+                int indice = noeud.indiceEnfant(prefixe.charAt(position));
+                if (indice < 0) {
+                    return new long[0];
+                }
+                Noeud enfant = noeud.enfants[indice];
+                int commun = prefixeCommun(enfant.etiquette, prefixe, position);
+                if (position + commun < prefixe.length() && commun < enfant.etiquette.length()) {
+                    return new long[0];
+                }
+                noeud = enfant;
+                position += enfant.etiquette.length();
+            }
+            Completions completions = new Completions();
+            collecter(noeud, position, completions);
+            return Arrays.copyOf(completions.ids, Math.min(limite, completions.taille));
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * Propose les complétions d'un sous-arbre : celles gardées par le nœud
+     * s'il en a, sinon son contenu (moins de {@value #COMPLETIONS_MAX} documents).
+     *
+     * @param profondeur longueur de la clé qui aboutit au nœud
+     */
+    private static void collecter(Noeud noeud, int profondeur, Completions completions) {
+        if (noeud.meilleurs != null) {
+            for (int i = 0; i < noeud.meilleurs.taille; i++) {
+                completions.proposer(noeud.meilleurs.longueurs[i], noeud.meilleurs.ids[i]);
+            }
+        } else {
+            contenu(noeud, profondeur, completions);
+        }
+    }
+
+    /**
+     * Propose les documents du nœud puis les complétions de ses enfants.
+     */
+    private static void contenu(Noeud noeud, int profondeur, Completions completions) {
+        for (int i = 0; i < noeud.nombreIds; i++) {
+            completions.proposer(profondeur, noeud.ids[i]);
+        }
+        for (int e = 0; e < noeud.nombreEnfants; e++) {
+            Noeud enfant = noeud.enfants[e];
+            collecter(enfant, profondeur + enfant.etiquette.length(), completions);
+        }
+    }
+
+    /**
+     * Recherche les documents dont la clé est à une distance d'édition
+     * (Levenshtein) d'au plus {@code tolerance} de la clé recherchée.
+     *
+     * @param cle       clé recherchée
+     * @param tolerance distance d'édition maximale
+     * @param limite    nombre maximal de résultats
+     * @return les identifiants, des plus proches aux plus éloignés,
+     * puis par identifiant croissant
+     */
+    long[] rechercherApproche(String cle, int tolerance, int limite) {
+        long tampon = verrou.readLock();
+        try {
+            Recherche recherche = new Recherche(cle, tolerance);
+            int[] premiereLigne = new int[cle.length() + 1];
+            for (int i = 0; i < premiereLigne.length; i++) {
+                premiereLigne[i] = Math.min(i, tolerance + 1);
+            }
+            recherche.parcourir(racine, premiereLigne, 0);
+
+            List<long[]> trouves = recherche.trouves;
+            trouves.sort(Comparator.<long[]>comparingLong(trouve -> trouve[0]).thenComparingLong(trouve -> trouve[1]));
+            long[] ids = new long[Math.min(limite, trouves.size())];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = trouves.get(i)[1];
+            }
+            return ids;
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    private static int prefixeCommun(String etiquette, String cle, int position) {
+        int longueur = Math.min(etiquette.length(), cle.length() - position);
+        int commun = 0;
+        while (commun < longueur && etiquette.charAt(commun) == cle.charAt(position + commun)) {
+            commun++;
+        }
+        return commun;
+    }
+
+    /**
+     * État d'une recherche approchée : la clé, la tolérance, les lignes de
+     * distances par profondeur (réutilisées d'une branche à l'autre) et
+     * les documents trouvés ({distance, id}).
+     * <p>
+     * Les distances sont plafonnées à {@code tolerance + 1} ; dans une
+     * ligne de profondeur n, seules les cellules d'indice compris entre
+     * {@code n - tolerance - 1} et {@code n + tolerance + 1} sont à jour.
+     */
+    private static final class Recherche {
+        final String cle;
+        final int tolerance;
+        final List<int[]> lignes = new ArrayList<>();
+        final List<long[]> trouves = new ArrayList<>();
+
+        Recherche(String cle, int tolerance) {
+            this.cle = cle;
+            this.tolerance = tolerance;
+        }
+
+        /**
+         * @param ligne      distances entre le préfixe du nœud et chaque préfixe de la clé
+         * @param profondeur nombre de caractères du préfixe du nœud
+         */
+        void parcourir(Noeud noeud, int[] ligne, int profondeur) {
+            int distance = Math.abs(cle.length() - profondeur) <= tolerance ? ligne[cle.length()] : tolerance + 1;
+            if (distance <= tolerance) {
+                for (int i = 0; i < noeud.nombreIds; i++) {
+                    trouves.add(new long[]{distance, noeud.ids[i]});
+                }
+            }
+            for (int e = 0; e < noeud.nombreEnfants; e++) {
+                // Le premier caractère est lu dans le parent : un enfant écarté n'est pas chargé
+                int niveau = profondeur + 1;
+                int[] courante = ligne(niveau);
+                if (!avancer(ligne, courante, niveau, noeud.premiers[e])) {
+                    continue;
+                }
+                Noeud enfant = noeud.enfants[e];
+                boolean prometteur = true;
+                for (int c = 1; c < enfant.etiquette.length() && prometteur; c++) {
+                    int[] suivante = ligne(++niveau);
+                    prometteur = avancer(courante, suivante, niveau, enfant.etiquette.charAt(c));
+                    courante = suivante;
+                }
+                if (prometteur) {
+                    parcourir(enfant, courante, niveau);
+                }
+            }
+        }
+
+        /**
+         * Calcule la ligne de profondeur {@code niveau} après un caractère,
+         * limitée à la bande diagonale.
+         *
+         * @return false si toutes les distances dépassent la tolérance
+         */
+        private boolean avancer(int[] precedente, int[] suivante, int niveau, char caractere) {
+            int plafond = tolerance + 1;
+            int debut = Math.max(1, niveau - tolerance);
+            int fin = Math.min(cle.length(), niveau + tolerance);
+            suivante[0] = Math.min(precedente[0] + 1, plafond);
+            if (debut > 1) {
+                suivante[debut - 1] = plafond;
+            }
+            int minimum = suivante[0];
+            for (int i = debut; i <= fin; i++) {
+                int cout = cle.charAt(i - 1) == caractere ? 0 : 1;
+                int valeur = Math.min(Math.min(precedente[i] + 1, suivante[i - 1] + 1), precedente[i - 1] + cout);
+                suivante[i] = Math.min(valeur, plafond);
+                minimum = Math.min(minimum, suivante[i]);
+            }
+            if (fin < cle.length()) {
+                suivante[fin + 1] = plafond;
+            }
+            return minimum <= tolerance;
+        }
+
+        private int[] ligne(int niveau) {
+            while (lignes.size() < niveau) {
+                lignes.add(new int[cle.length() + 1]);
+            }
+            return lignes.get(niveau - 1);
+        }
+    }
+
+    /**
+     * Meilleures complétions, triées par longueur de clé puis identifiant,
+     * au plus {@value #COMPLETIONS_MAX}.
+     */
+    private static final class Completions {
+        final int[] longueurs = new int[COMPLETIONS_MAX];
+        final long[] ids = new long[COMPLETIONS_MAX];
+        int taille;
+
+        void proposer(int longueur, long id) {
+            int position = taille;
+            while (position > 0 && (longueur < longueurs[position - 1]
+                    || (longueur == longueurs[position - 1] && id < ids[position - 1]))) {
+                position--;
+            }
+            if (position == COMPLETIONS_MAX) {
+                return;
+            }
+            int aDecaler = Math.min(taille, COMPLETIONS_MAX - 1) - position;
+            System.arraycopy(longueurs, position, longueurs, position + 1, aDecaler);
+            System.arraycopy(ids, position, ids, position + 1, aDecaler);
+            longueurs[position] = longueur;
+            ids[position] = id;
+            taille = Math.min(taille + 1, COMPLETIONS_MAX);
+        }
+
+        boolean contient(long id) {
+            for (int i = 0; i < taille; i++) {
+                if (ids[i] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Completions copie() {
+            Completions copie = new Completions();
+            System.arraycopy(longueurs, 0, copie.longueurs, 0, taille);
+            System.arraycopy(ids, 0, copie.ids, 0, taille);
+            copie.taille = taille;
+            return copie;
+        }
+    }
+
+    /**
+     * Nœud de l'arbre : l'étiquette de l'arête qui y mène, ses documents
+     * et ses enfants, triés par premier caractère.
+     */
+    private static final class Noeud {
+        String etiquette;
+        long[] ids;
+        int nombreIds;
+        /**
+         * Premier caractère de l'étiquette de chaque enfant, contigu pour
+         * la recherche binaire et le parcours.
+         */
+        char[] premiers;
+        Noeud[] enfants;
+        int nombreEnfants;
+        /**
+         * Nombre de documents du sous-arbre (une clé par document et par association).
+         */
+        int nombreDocuments;
+        /**
+         * Meilleures complétions du sous-arbre, null s'il compte au plus
+         * {@value #COMPLETIONS_MAX} documents.
+         */
+        Completions meilleurs;
+
+        Noeud(String etiquette) {
+            this.etiquette = etiquette;
+        }
+
+        /**
+         * @return l'indice de l'enfant, ou {@code -(point d'insertion) - 1}
+         */
+        int indiceEnfant(char premier) {
+            int bas = 0;
+            int haut = nombreEnfants - 1;
+            while (bas <= haut) {
+                int milieu = (bas + haut) >>> 1;
+                char c = premiers[milieu];
+                if (c < premier) {
+                    bas = milieu + 1;
+                } else if (c > premier) {
+                    haut = milieu - 1;
+                } else {
+                    return milieu;
+                }
+            }
+            return -bas - 1;
+        }
+
+        void insererEnfant(int indice, Noeud enfant) {
+            if (enfants == null) {
+                premiers = new char[2];
+                enfants = new Noeud[2];
+            } else if (nombreEnfants == enfants.length) {
+                premiers = Arrays.copyOf(premiers, nombreEnfants * 2);
+                enfants = Arrays.copyOf(enfants, nombreEnfants * 2);
+            }
+            System.arraycopy(premiers, indice, premiers, indice + 1, nombreEnfants - indice);
+            System.arraycopy(enfants, indice, enfants, indice + 1, nombreEnfants - indice);
+            premiers[indice] = enfant.etiquette.charAt(0);
+            enfants[indice] = enfant;
+            nombreEnfants++;
+        }
+
+        void supprimerEnfant(int indice) {
+            System.arraycopy(premiers, indice + 1, premiers, indice, nombreEnfants - indice - 1);
+            System.arraycopy(enfants, indice + 1, enfants, indice, nombreEnfants - indice - 1);
+            enfants[--nombreEnfants] = null;
+        }
+
+        /**
+         * @return false si le document était déjà associé au nœud
+         */
+        boolean ajouterId(long id) {
+            for (int i = 0; i < nombreIds; i++) {
+                if (ids[i] == id) {
+                    return false;
+                }
+            }
+            if (ids == null) {
+                ids = new long[1];
+            } else if (nombreIds == ids.length) {
+                ids = Arrays.copyOf(ids, nombreIds * 2);
+            }
+            ids[nombreIds++] = id;
+            return true;
+        }
+
+        /**
+         * @return false si le document n'était pas associé au nœud
+         */
+        boolean retirerId(long id) {
+            for (int i = 0; i < nombreIds; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--nombreIds];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package exam.recherche;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour ArbreRadix : comparaison avec un parcours exhaustif
+ * après des ajouts et retraits aléatoires.
+ */
+class ArbreRadixTest {
+
+    @Test
+    void completerEtRechercherApproche_apresAjoutsEtRetraits_doiventEgalerUnParcoursExhaustif() {
+        // Arrange : Clés courtes sur un petit alphabet, pour multiplier scissions et fusions
+        Random aleatoire = new Random(42);
+        ArbreRadix arbre = new ArbreRadix();
+        Map<Long, String> cles = new HashMap<>();
+        for (long id = 1; id <= 3_000; id++) {
+            String cle = cleAleatoire(aleatoire);
+            arbre.ajouter(cle, id);
+            cles.put(id, cle);
+        }
+
+        // Act : Retrait d'un tiers des documents
+        for (long id = 1; id <= 3_000; id += 3) {
+            arbre.retirer(cles.remove(id), id);
+        }
+
+        // Assert
+        for (String prefixe : List.of("a", "ab", "b a", "ca", "cab", "d")) {
+            List<Long> attendus = cles.entrySet().stream()
+                    .filter(entree -> entree.getValue().startsWith(prefixe))
+                    .sorted(Comparator.comparingInt((Map.Entry<Long, String> entree) -> entree.getValue().length())
+                            .thenComparingLong(Map.Entry::getKey))
+                    .limit(ArbreRadix.COMPLETIONS_MAX)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            assertEquals(attendus, liste(arbre.completer(prefixe, ArbreRadix.COMPLETIONS_MAX)), prefixe);
+        }
+        for (String cle : List.of("abc", "ba cd", "dddd")) {
+            List<Long> attendus = cles.entrySet().stream()
+                    .filter(entree -> distance(cle, entree.getValue()) <= 1)
+                    .sorted(Comparator.comparingInt((Map.Entry<Long, String> entree) -> distance(cle, entree.getValue()))
+                            .thenComparingLong(Map.Entry::getKey))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            assertEquals(attendus, liste(arbre.rechercherApproche(cle, 1, Integer.MAX_VALUE)), cle);
+        }
+    }
+
+    private static String cleAleatoire(Random aleatoire) {
+        StringBuilder cle = new StringBuilder();
+        int longueur = 1 + aleatoire.nextInt(6);
+        for (int i = 0; i < longueur; i++) {
+            cle.append(" abcd".charAt(i == 0 || i == longueur - 1 ? 1 + aleatoire.nextInt(4) : aleatoire.nextInt(5)));
+        }
+        return cle.toString();
+    }
+
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                d[i][j] = i == 0 ? j : j == 0 ? i : Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1),
+                        d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static List<Long> liste(long[] ids) {
+        List<Long> liste = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            liste.add(id);
+        }
+        return liste;
+    }
+}
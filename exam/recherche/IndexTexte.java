@@ -0,0 +1,317 @@
+package exam.recherche;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Index inversé : pour chaque terme, les documents qui le contiennent
+ * et le poids du terme dans chacun.
+ * <p>
+ * Une requête ne retient que les documents contenant tous ses termes.
+ * Elle parcourt la liste du terme le plus rare et vérifie les autres par
+ * accès direct : son coût dépend du nombre de documents candidats, pas de
+ * la taille de l'index. Les résultats sont classés par pertinence :
+ * somme, pour chaque terme, de son poids dans le document multiplié par
+ * sa rareté ({@code ln(1 + N / df)}).
+ * <p>
+ * Chaque terme présent dans plus de {@value #SEUIL_MEILLEURS} documents
+ * garde en outre ses {@value #MEILLEURS} documents de plus fort poids :
+ * une requête d'un seul mot, même très fréquent, est servie sans
+ * parcourir sa liste.
+ * <p>
+ * Les lectures peuvent être concurrentes ; les mises à jour sont exclusives.
+ */
+final class IndexTexte {
+
+    /**
+     * Nombre de documents de plus fort poids conservés par terme.
+     */
+    static final int MEILLEURS = 64;
+
+    /**
+     * Taille de liste à partir de laquelle les meilleurs documents sont
+     * tenus à jour ; en deçà, le parcours de la liste est déjà rapide.
+     */
+    static final int SEUIL_MEILLEURS = 1024;
+
+    private final StampedLock verrou = new StampedLock();
+    private final Map<String, Postings> postingsParTerme = new HashMap<>();
+    private int nombreDocuments;
+
+    /**
+     * Ajoute un document à l'index.
+     *
+     * @param id            identifiant du document (strictement positif)
+     * @param poidsParTerme poids de chaque terme du document (non vide)
+     */
+    void ajouter(long id, Map<String, Integer> poidsParTerme) {
+        long tampon = verrou.writeLock();
+        try {
+            for (Map.Entry<String, Integer> entree : poidsParTerme.entrySet()) {
+                postingsParTerme.computeIfAbsent(entree.getKey(), terme -> new Postings())
+                        .ajouter(id, entree.getValue());
+            }
+            nombreDocuments++;
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    /**
+     * Retire un document de l'index.
+     *
+     * @param id     identifiant du document
+     * @param termes termes avec lesquels le document a été ajouté
+     */
+    void retirer(long id, Collection<String> termes) {
+        long tampon = verrou.writeLock();
+        try {
+            for (String terme : termes) {
+                Postings postings = postingsParTerme.get(terme);
+                if (postings != null && postings.retirer(id) && postings.taille == 0) {
+                    postingsParTerme.remove(terme);
+                }
+            }
+            nombreDocuments--;
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    /**
+     * Recherche les documents contenant tous les termes.
+     *
+     * @param termes termes de la requête (non vide, sans doublon)
+     * @param limite nombre maximal de résultats
+     * @return les identifiants, du plus pertinent au moins pertinent
+     */
+    long[] rechercher(List<String> termes, int limite) {
+        long tampon = verrou.readLock();
+        try {
+            Postings[] listes = new Postings[termes.size()];
+            for (int i = 0; i < listes.length; i++) {
+                listes[i] = postingsParTerme.get(termes.get(i));
+                if (listes[i] == null) {
+                    return new long[0];
+                }
+            }
+            if (listes.length == 1 && limite <= MEILLEURS && listes[0].meilleursIds != null) {
+                // Un seul terme : le classement ne dépend que du poids
+                return Arrays.copyOf(listes[0].meilleursIds, Math.min(limite, listes[0].nombreMeilleurs));
+            }
+            Arrays.sort(listes, Comparator.comparingInt(postings -> postings.taille));
+            double[] rarete = new double[listes.length];
+            for (int i = 0; i < listes.length; i++) {
+                rarete[i] = Math.log(1 + (double) nombreDocuments / listes[i].taille);
+            }
+
+            // Tas des meilleurs candidats : le moins pertinent en tête
+            PriorityQueue<Candidat> meilleurs = new PriorityQueue<>(limite + 1, Candidat.ORDRE.reversed());
+            Postings plusRare = listes[0];
+            for (int caseIndex = 0; caseIndex < plusRare.ids.length; caseIndex++) {
+                long id = plusRare.ids[caseIndex];
+                if (id == 0) {
+                    continue;
+                }
+                double score = rarete[0] * plusRare.poids[caseIndex];
+                for (int i = 1; i < listes.length && score >= 0; i++) {
+                    int poids = listes[i].poids(id);
+                    score = poids == 0 ? -1 : score + rarete[i] * poids;
+                }
+                if (score < 0) {
+                    continue;
+                }
+                Candidat candidat = new Candidat(id, score);
+                if (meilleurs.size() < limite) {
+                    meilleurs.add(candidat);
+                } else if (Candidat.ORDRE.compare(candidat, meilleurs.peek()) < 0) {
+                    meilleurs.poll();
+                    meilleurs.add(candidat);
+                }
+            }
+
+            List<Candidat> tries = new ArrayList<>(meilleurs);
+            tries.sort(Candidat.ORDRE);
+            long[] ids = new long[tries.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = tries.get(i).id;
+            }
+            return ids;
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * Document candidat et son score.
+     */
+    private static final class Candidat {
+        /**
+         * Score décroissant, puis identifiant croissant.
+         */
+        static final Comparator<Candidat> ORDRE = Comparator.comparingDouble((Candidat c) -> -c.score)
+                .thenComparingLong(c -> c.id);
+
+        final long id;
+        final double score;
+
+        Candidat(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Liste des documents d'un terme : table de hachage primitive
+     * identifiant → poids, en adressage ouvert (0 = case libre), et, pour
+     * les listes longues, les documents de plus fort poids, triés par poids
+     * décroissant puis identifiant croissant.
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private byte[] poids = new byte[4];
+        private int taille;
+
+        /**
+         * Null tant que la liste n'a pas dépassé {@link #SEUIL_MEILLEURS}.
+         */
+        private long[] meilleursIds;
+        private byte[] meilleursPoids;
+        private int nombreMeilleurs;
+
+        void ajouter(long id, int poidsTerme) {
+            if ((taille + 1) * 3 > ids.length * 2) {
+                agrandir();
+            }
+            int caseIndex = chercher(ids, id);
+            boolean remplacement = ids[caseIndex] != 0;
+            if (!remplacement) {
+                taille++;
+            }
+            ids[caseIndex] = id;
+            poids[caseIndex] = (byte) Math.min(poidsTerme, Byte.MAX_VALUE);
+            if (meilleursIds == null) {
+                if (taille > SEUIL_MEILLEURS) {
+                    meilleursIds = new long[MEILLEURS];
+                    meilleursPoids = new byte[MEILLEURS];
+                    reconstruireMeilleurs();
+                }
+            } else if (remplacement) {
+                reconstruireMeilleurs();
+            } else {
+                proposerMeilleur(id, poids[caseIndex]);
+            }
+        }
+
+        /**
+         * Insère un document parmi les meilleurs s'il y a sa place.
+         */
+        private void proposerMeilleur(long id, byte poidsTerme) {
+            int position = nombreMeilleurs;
+            while (position > 0 && avant(id, poidsTerme, meilleursIds[position - 1], meilleursPoids[position - 1])) {
+                position--;
+            }
+            if (position == MEILLEURS) {
+                return;
+            }
+            int aDecaler = Math.min(nombreMeilleurs, MEILLEURS - 1) - position;
+            System.arraycopy(meilleursIds, position, meilleursIds, position + 1, aDecaler);
+            System.arraycopy(meilleursPoids, position, meilleursPoids, position + 1, aDecaler);
+            meilleursIds[position] = id;
+            meilleursPoids[position] = poidsTerme;
+            nombreMeilleurs = Math.min(nombreMeilleurs + 1, MEILLEURS);
+        }
+
+        private static boolean avant(long id, byte poidsTerme, long autreId, byte autrePoids) {
+            return poidsTerme > autrePoids || (poidsTerme == autrePoids && id < autreId);
+        }
+
+        /**
+         * Recalcule les meilleurs documents par parcours complet
+         * (après le retrait ou la modification de l'un d'eux).
+         */
+        private void reconstruireMeilleurs() {
+            nombreMeilleurs = 0;
+            for (int caseIndex = 0; caseIndex < ids.length; caseIndex++) {
+                if (ids[caseIndex] != 0) {
+                    proposerMeilleur(ids[caseIndex], poids[caseIndex]);
+                }
+            }
+        }
+
+        int poids(long id) {
+            int caseIndex = chercher(ids, id);
+            return ids[caseIndex] == 0 ? 0 : poids[caseIndex];
+        }
+
+        /**
+         * Retire un identifiant en décalant les entrées suivantes de la
+         * séquence de sondage, pour ne pas laisser de trou.
+         */
+        boolean retirer(long id) {
+            int caseIndex = chercher(ids, id);
+            if (ids[caseIndex] == 0) {
+                return false;
+            }
+            int masque = ids.length - 1;
+            int libre = caseIndex;
+            for (int suivante = (libre + 1) & masque; ids[suivante] != 0; suivante = (suivante + 1) & masque) {
+                int ideale = melanger(ids[suivante]) & masque;
+                // L'entrée peut combler le trou si sa case idéale n'est pas entre le trou et elle
+                if (((suivante - ideale) & masque) >= ((suivante - libre) & masque)) {
+                    ids[libre] = ids[suivante];
+                    poids[libre] = poids[suivante];
+                    libre = suivante;
+                }
+            }
+            ids[libre] = 0;
+            poids[libre] = 0;
+            taille--;
+            for (int i = 0; meilleursIds != null && i < nombreMeilleurs; i++) {
+                if (meilleursIds[i] == id) {
+                    reconstruireMeilleurs();
+                    break;
+                }
+            }
+            return true;
+        }
+
+        private void agrandir() {
+            long[] anciensIds = ids;
+            byte[] anciensPoids = poids;
+            ids = new long[anciensIds.length * 2];
+            poids = new byte[anciensIds.length * 2];
+            for (int i = 0; i < anciensIds.length; i++) {
+                if (anciensIds[i] != 0) {
+                    int caseIndex = chercher(ids, anciensIds[i]);
+                    ids[caseIndex] = anciensIds[i];
+                    poids[caseIndex] = anciensPoids[i];
+                }
+            }
+        }
+
+        /**
+         * @return la case de l'identifiant, ou la case libre où l'insérer
+         */
+        private static int chercher(long[] ids, long id) {
+            int masque = ids.length - 1;
+            int caseIndex = melanger(id) & masque;
+            while (ids[caseIndex] != 0 && ids[caseIndex] != id) {
+                caseIndex = (caseIndex + 1) & masque;
+            }
+            return caseIndex;
+        }
+
+        private static int melanger(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package exam.recherche;
+
+import exam.domain.membre.Membre;
+import exam.repo.MembreRepository;
+import exam.util.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Décorateur d'un {@link MembreRepository} qui tient à jour un arbre radix
+ * des noms normalisés, pour la complétion des noms de membres.
+ * <p>
+ * Chaque nom est indexé à partir de chacun de ses mots : « mar » complète
+ * aussi bien « Martine Petit » que « Alice Martin ». Les membres déjà
+ * présents dans le repository décoré sont indexés à la construction ;
+ * chaque {@link #save(Membre)} qui change le nom met ensuite l'index à jour.
+ * Le nom sauvegardé est comparé à celui de la dernière version indexée du
+ * membre, sans relire le repository décoré.
+ */
+public class MembreRepositoryIndexe implements MembreRepository {
+
+    private final MembreRepository delegue;
+    private final ArbreRadix noms = new ArbreRadix();
+
+    /**
+     * Dernière version indexée de chaque membre, dont le nom est immuable.
+     */
+    private final LongObjectMap<Membre> indexes = new LongObjectMap<>();
+
+    /**
+     * Verrou des changements de nom : l'index et le repository décoré
+     * restent alignés si le même membre est remplacé par deux threads.
+     */
+    private final ReentrantLock verrouNoms = new ReentrantLock();
+
+    /**
+     * Décore un repository et indexe son contenu actuel.
+     *
+     * @param delegue repository décoré (non null)
+     * @throws IllegalArgumentException si delegue est null
+     */
+    public MembreRepositoryIndexe(MembreRepository delegue) {
+        if (delegue == null)
+            throw new IllegalArgumentException("Le repository ne peut pas être null");
+        this.delegue = delegue;
+        try (Stream<Membre> membres = delegue.stream()) {
+            membres.forEach(this::indexer);
+        }
+    }
+
+    /**
+     * Propose les membres dont un mot du nom commence par une saisie
+     * partielle, noms les plus courts d'abord.
+     *
+     * @param prefixe début du nom (non null)
+     * @param limite  nombre maximal de résultats (strictement positif,
+     *                plafonné à {@value ArbreRadix#COMPLETIONS_MAX})
+     * @return les membres trouvés (jamais null, non modifiable)
+     * @throws IllegalArgumentException si prefixe est null ou limite <= 0
+     */
+    public List<Membre> completerNom(String prefixe, int limite) {
+        if (prefixe == null)
+            throw new IllegalArgumentException("Le préfixe ne peut pas être null");
+        if (limite <= 0)
+            throw new IllegalArgumentException("La limite doit être strictement positive");
+
+        String cle = Normalisation.prefixe(prefixe);
+        if (cle.isEmpty()) {
+            return List.of();
+        }
+        // Un membre peut compléter le préfixe par plusieurs de ses mots
+        Set<Long> ids = new LinkedHashSet<>();
+        for (long id : noms.completer(cle, ArbreRadix.COMPLETIONS_MAX)) {
+            ids.add(id);
+        }
+        List<Membre> resultats = new ArrayList<>(Math.min(limite, ids.size()));
+        for (long id : ids) {
+            if (resultats.size() == limite) {
+                break;
+            }
+            delegue.findById(id).ifPresent(resultats::add);
+        }
+        return List.copyOf(resultats);
+    }
+
+    @Override
+    public Optional<Membre> findById(long id) {
+        return delegue.findById(id);
+    }
+
+    @Override
+    public List<Membre> findAll() {
+        return delegue.findAll();
+    }
+
+    @Override
+    public List<Membre> findPage(long apresId, int limite) {
+        return delegue.findPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Membre> stream() {
+        return delegue.stream();
+    }
+
+    @Override
+    public int count() {
+        return delegue.count();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * L'index est mis à jour si le membre est nouveau ou si son nom a changé.
+     */
+    @Override
+    public void save(Membre membre) {
+        if (membre == null) {
+            throw new IllegalArgumentException("Le membre ne peut pas être null");
+        }
+        Membre precedent = indexes.get(membre.getId());
+        if (memeNom(precedent, membre)) {
+            delegue.save(membre);
+            return;
+        }
+        verrouNoms.lock();
+        try {
+            precedent = indexes.get(membre.getId());
+            delegue.save(membre);
+            if (!memeNom(precedent, membre)) {
+                desindexer(precedent);
+                indexer(membre);
+            }
+        } finally {
+            verrouNoms.unlock();
+        }
+    }
+
+    private void indexer(Membre membre) {
+        indexes.put(membre.getId(), membre);
+        for (String cle : cles(membre)) {
+            noms.ajouter(cle, membre.getId());
+        }
+    }
+
+    private void desindexer(Membre membre) {
+        if (membre == null) {
+            return;
+        }
+        for (String cle : cles(membre)) {
+            noms.retirer(cle, membre.getId());
+        }
+    }
+
+    /**
+     * @return le nom normalisé à partir de chacun de ses mots
+     * ({@code "alice martin"}, {@code "martin"})
+     */
+    private static List<String> cles(Membre membre) {
+        List<String> termes = Normalisation.termes(membre.getNom());
+        List<String> cles = new ArrayList<>(termes.size());
+        for (int i = 0; i < termes.size(); i++) {
+            cles.add(String.join(" ", termes.subList(i, termes.size())));
+        }
+        return cles;
+    }
+
+    /**
+     * @return true si les deux membres ont le même nom
+     * (le premier pouvant être absent)
+     */
+    private static boolean memeNom(Membre precedent, Membre membre) {
+        return precedent == membre
+                || (precedent != null && precedent.getNom().equals(membre.getNom()));
+    }
+}
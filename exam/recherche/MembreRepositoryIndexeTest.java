@@ -0,0 +1,55 @@
+package exam.recherche;
+
+import exam.domain.membre.Membre;
+import exam.repo.impl.InMemoryMembreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour MembreRepositoryIndexe : complétion des noms.
+ */
+class MembreRepositoryIndexeTest {
+
+    private MembreRepositoryIndexe repository;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryMembreRepository stockage = new InMemoryMembreRepository();
+        stockage.save(new Membre(1, "Alice Martin"));
+        repository = new MembreRepositoryIndexe(stockage);
+        repository.save(new Membre(2, "Martine Petit"));
+        repository.save(new Membre(3, "Hélène Marchand"));
+        repository.save(new Membre(4, "Bob Dupont"));
+    }
+
+    @Test
+    void completerNom_doitProposerLesNomsDontUnMotCommenceParLaSaisie() {
+        // Act & Assert : Noms les plus courts d'abord
+        assertEquals(List.of(1L, 3L, 2L), ids(repository.completerNom("mar", 10)));
+        assertEquals(List.of(1L, 2L), ids(repository.completerNom("MART", 10)));
+        assertEquals(List.of(3L), ids(repository.completerNom("helene m", 10)));
+        assertEquals(List.of(1L), ids(repository.completerNom("mar", 1)));
+        assertTrue(repository.completerNom("z", 10).isEmpty());
+    }
+
+    @Test
+    void save_quandNomModifie_doitMettreAJourLaCompletion() {
+        // Act
+        repository.save(new Membre(4, "Bob Martinez"));
+        repository.save(new Membre(1, "Alice Durand"));
+
+        // Assert : « martinez » est plus court que « martine petit »
+        assertEquals(List.of(4L, 2L), ids(repository.completerNom("martin", 10)));
+        assertEquals(List.of(1L), ids(repository.completerNom("d", 10)));
+        assertTrue(repository.completerNom("dupont", 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<Membre> membres) {
+        return membres.stream().map(Membre::getId).collect(Collectors.toList());
+    }
+}
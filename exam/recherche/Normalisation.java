@@ -0,0 +1,115 @@
+package exam.recherche;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation des textes du catalogue pour la recherche.
+ * <p>
+ * Les accents et la casse sont supprimés ({@code "Misérables"} et
+ * {@code "MISERABLES"} deviennent {@code "miserables"}), les ligatures
+ * françaises sont développées ({@code "œuvre"} devient {@code "oeuvre"})
+ * et toute ponctuation, apostrophes comprises, sépare les mots.
+ * La même normalisation est appliquée aux textes indexés et aux requêtes.
+ */
+public final class Normalisation {
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^a-z0-9]+");
+
+    /**
+     * Mots trop fréquents pour discriminer une œuvre (après normalisation).
+     */
+    private static final Set<String> MOTS_VIDES = Set.of(
+            "a", "au", "aux", "d", "de", "des", "du", "en", "et", "l", "la", "le", "les",
+            "ou", "s", "sur", "the", "un", "une");
+
+    private Normalisation() {
+    }
+
+    /**
+     * Normalise un texte : sans accents, en minuscules, mots séparés par une espace.
+     *
+     * @param texte texte à normaliser (non null)
+     * @return le texte normalisé (éventuellement vide)
+     */
+    public static String normaliser(String texte) {
+        String sansLigatures = texte.replace("œ", "oe").replace("Œ", "OE")
+                .replace("æ", "ae").replace("Æ", "AE");
+        String decompose = Normalizer.normalize(sansLigatures, Normalizer.Form.NFD);
+        String sansAccents = DIACRITIQUES.matcher(decompose).replaceAll("");
+        return SEPARATEURS.matcher(sansAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Découpe un texte en termes de recherche : mots normalisés, sans mots
+     * vides, ramenés au singulier par suppression d'un {@code s} ou d'un
+     * {@code x} final ({@code "anneaux"} et {@code "anneau"} donnent le même terme).
+     *
+     * @param texte texte à découper (non null)
+     * @return les termes, dans l'ordre du texte (avec répétitions)
+     */
+    public static List<String> termes(String texte) {
+        String normalise = normaliser(texte);
+        List<String> termes = new ArrayList<>();
+        if (normalise.isEmpty()) {
+            return termes;
+        }
+        for (String mot : normalise.split(" ")) {
+            if (!MOTS_VIDES.contains(mot)) {
+                termes.add(singulier(mot));
+            }
+        }
+        return termes;
+    }
+
+    /**
+     * Réduit un texte à une clé de comparaison : ses termes, séparés par
+     * une espace ({@code "Le Seigneur des Anneaux"} donne {@code "seigneur anneau"}).
+     *
+     * @param texte texte à réduire (non null)
+     * @return la clé (vide si le texte n'a aucun terme)
+     */
+    public static String cle(String texte) {
+        return String.join(" ", termes(texte));
+    }
+
+    /**
+     * Réduit un début de saisie à un préfixe de clé (voir {@link #cle(String)}).
+     * <p>
+     * Le dernier mot, s'il n'est pas suivi d'un séparateur, est en cours de
+     * frappe : il est gardé même s'il ressemble à un mot vide
+     * ({@code "le"} peut être le début de {@code "legende"}).
+     *
+     * @param saisie début de saisie (non null)
+     * @return le préfixe (vide si la saisie n'a aucun terme)
+     */
+    public static String prefixe(String saisie) {
+        String normalise = normaliser(saisie);
+        if (normalise.isEmpty()) {
+            return normalise;
+        }
+        boolean motEnCours = Character.isLetterOrDigit(saisie.charAt(saisie.length() - 1));
+        String[] mots = normalise.split(" ");
+        List<String> termes = new ArrayList<>(mots.length);
+        for (int i = 0; i < mots.length; i++) {
+            boolean dernier = i == mots.length - 1;
+            if ((dernier && motEnCours) || !MOTS_VIDES.contains(mots[i])) {
+                termes.add(singulier(mots[i]));
+            }
+        }
+        return String.join(" ", termes);
+    }
+
+    private static String singulier(String mot) {
+        int longueur = mot.length();
+        if (longueur > 3 && (mot.charAt(longueur - 1) == 's' || mot.charAt(longueur - 1) == 'x')) {
+            return mot.substring(0, longueur - 1);
+        }
+        return mot;
+    }
+}
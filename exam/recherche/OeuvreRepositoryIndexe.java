@@ -0,0 +1,348 @@
+package exam.recherche;
+
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.OeuvreRepository;
+import exam.util.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Décorateur d'un {@link OeuvreRepository} qui tient à jour un index de
+ * recherche plein texte sur le titre, l'auteur (livres) et le réalisateur (DVD),
+ * et un arbre radix des titres normalisés pour la recherche approchée et
+ * la complétion.
+ * <p>
+ * Les œuvres déjà présentes dans le repository décoré sont indexées à la
+ * construction ; chaque {@link #save(Oeuvre)} met ensuite l'index à jour.
+ * Une sauvegarde qui ne change pas le texte de l'œuvre (changement de
+ * disponibilité lors d'un emprunt) ne touche pas à l'index, et ne relit pas
+ * le repository décoré : le texte est comparé à celui de la dernière
+ * version indexée de l'œuvre. Les écritures faites directement sur le
+ * repository décoré ne sont pas indexées.
+ * <p>
+ * Les mots du titre pèsent davantage que ceux de l'auteur ou du réalisateur.
+ */
+public class OeuvreRepositoryIndexe implements OeuvreRepository {
+
+    private static final int POIDS_TITRE = 3;
+    private static final int POIDS_CREATEUR = 1;
+
+    /**
+     * Longueur de titre normalisé jusqu'à laquelle une seule faute est tolérée.
+     */
+    private static final int LONGUEUR_UNE_FAUTE = 5;
+    private static final int FAUTES_MAX = 2;
+
+    private final OeuvreRepository delegue;
+    private final IndexTexte index = new IndexTexte();
+    private final ArbreRadix titres = new ArbreRadix();
+
+    /**
+     * Dernière version indexée de chaque œuvre, dont le texte est immuable.
+     */
+    private final LongObjectMap<Oeuvre> indexees = new LongObjectMap<>();
+
+    /**
+     * Verrou des changements de texte : l'index et le repository décoré
+     * restent alignés si la même œuvre est remplacée par deux threads.
+     */
+    private final ReentrantLock verrouTexte = new ReentrantLock();
+
+    /**
+     * Décore un repository et indexe son contenu actuel.
+     *
+     * @param delegue repository décoré (non null)
+     * @throws IllegalArgumentException si delegue est null
+     */
+    public OeuvreRepositoryIndexe(OeuvreRepository delegue) {
+        if (delegue == null)
+            throw new IllegalArgumentException("Le repository ne peut pas être null");
+        this.delegue = delegue;
+        try (Stream<Oeuvre> oeuvres = delegue.stream()) {
+            oeuvres.forEach(this::indexer);
+        }
+    }
+
+    /**
+     * Recherche des œuvres par mots du titre, de l'auteur ou du réalisateur.
+     * <p>
+     * Les accents, la casse, la ponctuation et les mots vides de la requête
+     * sont ignorés ; toutes les œuvres retournées contiennent tous les mots
+     * restants, classées de la plus pertinente à la moins pertinente.
+     *
+     * @param requete mots recherchés (non null)
+     * @param limite  nombre maximal de résultats (strictement positif)
+     * @return les œuvres trouvées (jamais null, non modifiable)
+     * @throws IllegalArgumentException si requete est null ou limite <= 0
+     */
+    public List<Oeuvre> rechercher(String requete, int limite) {
+        if (requete == null)
+            throw new IllegalArgumentException("La requête ne peut pas être null");
+        if (limite <= 0)
+            throw new IllegalArgumentException("La limite doit être strictement positive");
+
+        List<String> termes = new ArrayList<>(new LinkedHashSet<>(Normalisation.termes(requete)));
+        if (termes.isEmpty()) {
+            return List.of();
+        }
+        return charger(index.rechercher(termes, limite));
+    }
+
+    private List<Oeuvre> charger(long[] ids) {
+        List<Oeuvre> resultats = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            delegue.findById(id).ifPresent(resultats::add);
+        }
+        return List.copyOf(resultats);
+    }
+
+    /**
+     * Recherche des œuvres par titre approché, en tolérant des fautes de
+     * frappe : une faute (lettre ajoutée, manquante ou remplacée) pour un
+     * titre court, deux au-delà de {@value #LONGUEUR_UNE_FAUTE} caractères.
+     * <p>
+     * Les titres sont comparés une fois normalisés (sans accents, casse,
+     * ponctuation ni mots vides) : « seigneur des aneaux » trouve
+     * « Le Seigneur des Anneaux ».
+     *
+     * @param titre  titre recherché (non null)
+     * @param limite nombre maximal de résultats (strictement positif)
+     * @return les œuvres trouvées, des plus proches aux plus éloignées
+     * (jamais null, non modifiable)
+     * @throws IllegalArgumentException si titre est null ou limite <= 0
+     */
+    public List<Oeuvre> rechercherTitreApproche(String titre, int limite) {
+        if (titre == null)
+            throw new IllegalArgumentException("Le titre ne peut pas être null");
+        if (limite <= 0)
+            throw new IllegalArgumentException("La limite doit être strictement positive");
+
+        String cle = Normalisation.cle(titre);
+        if (cle.isEmpty()) {
+            return List.of();
+        }
+        int tolerance = cle.length() <= LONGUEUR_UNE_FAUTE ? 1 : FAUTES_MAX;
+        return charger(titres.rechercherApproche(cle, tolerance, limite));
+    }
+
+    /**
+     * Propose les œuvres dont le titre commence par une saisie partielle,
+     * titres les plus courts d'abord.
+     * <p>
+     * La saisie est normalisée comme les titres (sans accents, casse,
+     * ponctuation ni mots vides) : « le seigneur des an » complète
+     * « Le Seigneur des Anneaux ».
+     *
+     * @param prefixe début du titre (non null)
+     * @param limite  nombre maximal de résultats (strictement positif,
+     *                plafonné à {@value ArbreRadix#COMPLETIONS_MAX})
+     * @return les œuvres trouvées (jamais null, non modifiable)
+     * @throws IllegalArgumentException si prefixe est null ou limite <= 0
+     */
+    public List<Oeuvre> completerTitre(String prefixe, int limite) {
+        if (prefixe == null)
+            throw new IllegalArgumentException("Le préfixe ne peut pas être null");
+        if (limite <= 0)
+            throw new IllegalArgumentException("La limite doit être strictement positive");
+
+        String cle = Normalisation.prefixe(prefixe);
+        if (cle.isEmpty()) {
+            return List.of();
+        }
+        return charger(titres.completer(cle, limite));
+    }
+
+    @Override
+    public Optional<Oeuvre> findById(long id) {
+        return delegue.findById(id);
+    }
+
+    @Override
+    public List<Oeuvre> findAll() {
+        return delegue.findAll();
+    }
+
+    @Override
+    public List<Oeuvre> findPage(long apresId, int limite) {
+        return delegue.findPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Oeuvre> stream() {
+        return delegue.stream();
+    }
+
+    @Override
+    public int count() {
+        return delegue.count();
+    }
+
+    @Override
+    public List<Oeuvre> findDisponibles() {
+        return delegue.findDisponibles();
+    }
+
+    @Override
+    public int countDisponibles() {
+        return delegue.countDisponibles();
+    }
+
+    @Override
+    public List<Oeuvre> findDisponiblesPage(long apresId, int limite) {
+        return delegue.findDisponiblesPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Oeuvre> streamDisponibles() {
+        return delegue.streamDisponibles();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * L'index est mis à jour si l'œuvre est nouvelle ou si son texte a changé.
+     */
+    @Override
+    public void save(Oeuvre oeuvre) {
+        if (oeuvre == null) {
+            throw new IllegalArgumentException("L'œuvre ne peut pas être null");
+        }
+        Oeuvre precedente = indexees.get(oeuvre.getId());
+        if (memeTexte(precedente, oeuvre)) {
+            delegue.save(oeuvre);
+            return;
+        }
+        verrouTexte.lock();
+        try {
+            precedente = indexees.get(oeuvre.getId());
+            delegue.save(oeuvre);
+            if (!memeTexte(precedente, oeuvre)) {
+                desindexer(precedente);
+                indexer(oeuvre);
+            }
+        } finally {
+            verrouTexte.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Délègue l'écriture groupée au repository décoré, puis indexe les
+     * œuvres dont le texte a changé.
+     */
+    @Override
+    public void saveAll(Collection<Oeuvre> oeuvres) {
+        if (oeuvres == null) {
+            throw new IllegalArgumentException("La collection d'œuvres ne peut pas être null");
+        }
+        List<Oeuvre> aIndexer = new ArrayList<>();
+        for (Oeuvre oeuvre : oeuvres) {
+            if (oeuvre == null) {
+                throw new IllegalArgumentException("L'œuvre ne peut pas être null");
+            }
+            if (!memeTexte(indexees.get(oeuvre.getId()), oeuvre)) {
+                aIndexer.add(oeuvre);
+            }
+        }
+        if (aIndexer.isEmpty()) {
+            delegue.saveAll(oeuvres);
+            return;
+        }
+        verrouTexte.lock();
+        try {
+            List<Oeuvre> precedentes = new ArrayList<>(aIndexer.size());
+            for (Oeuvre oeuvre : aIndexer) {
+                precedentes.add(indexees.get(oeuvre.getId()));
+            }
+            delegue.saveAll(oeuvres);
+            for (int i = 0; i < aIndexer.size(); i++) {
+                Oeuvre precedente = precedentes.get(i);
+                if (!memeTexte(precedente, aIndexer.get(i))) {
+                    desindexer(precedente);
+                    indexer(aIndexer.get(i));
+                }
+            }
+        } finally {
+            verrouTexte.unlock();
+        }
+    }
+
+    private void indexer(Oeuvre oeuvre) {
+        indexees.put(oeuvre.getId(), oeuvre);
+        Map<String, Integer> poids = poidsParTerme(oeuvre);
+        if (!poids.isEmpty()) {
+            index.ajouter(oeuvre.getId(), poids);
+        }
+        String cle = Normalisation.cle(oeuvre.getTitre());
+        if (!cle.isEmpty()) {
+            titres.ajouter(cle, oeuvre.getId());
+        }
+    }
+
+    private void desindexer(Oeuvre oeuvre) {
+        if (oeuvre == null) {
+            return;
+        }
+        Map<String, Integer> poids = poidsParTerme(oeuvre);
+        if (!poids.isEmpty()) {
+            index.retirer(oeuvre.getId(), poids.keySet());
+        }
+        String cle = Normalisation.cle(oeuvre.getTitre());
+        if (!cle.isEmpty()) {
+            titres.retirer(cle, oeuvre.getId());
+        }
+    }
+
+    /**
+     * Calcule le poids de chaque terme d'une œuvre : somme des poids des
+     * champs où il apparaît, par occurrence.
+     */
+    private static Map<String, Integer> poidsParTerme(Oeuvre oeuvre) {
+        Map<String, Integer> poids = new HashMap<>();
+        for (String terme : Normalisation.termes(oeuvre.getTitre())) {
+            poids.merge(terme, POIDS_TITRE, Integer::sum);
+        }
+        String createur = createur(oeuvre);
+        if (createur != null) {
+            for (String terme : Normalisation.termes(createur)) {
+                poids.merge(terme, POIDS_CREATEUR, Integer::sum);
+            }
+        }
+        return poids;
+    }
+
+    private static String createur(Oeuvre oeuvre) {
+        if (oeuvre instanceof Livre) {
+            return ((Livre) oeuvre).getAuteur();
+        }
+        if (oeuvre instanceof Dvd) {
+            return ((Dvd) oeuvre).getRealisateur();
+        }
+        return null;
+    }
+
+    /**
+     * @return true si les deux œuvres ont le même texte indexé
+     * (la première pouvant être absente)
+     */
+    private static boolean memeTexte(Oeuvre precedente, Oeuvre oeuvre) {
+        if (precedente == oeuvre) {
+            return true;
+        }
+        return precedente != null
+                && precedente.getTitre().equals(oeuvre.getTitre())
+                && Objects.equals(createur(precedente), createur(oeuvre));
+    }
+}
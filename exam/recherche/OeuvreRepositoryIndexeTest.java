@@ -0,0 +1,160 @@
+package exam.recherche;
+
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour OeuvreRepositoryIndexe : normalisation des
+ * requêtes, classement, recherche approchée et mise à jour incrémentale
+ * des index.
+ */
+class OeuvreRepositoryIndexeTest {
+
+    private InMemoryOeuvreRepository stockage;
+    private OeuvreRepositoryIndexe repository;
+
+    @BeforeEach
+    void setUp() {
+        stockage = new InMemoryOeuvreRepository();
+        // Œuvre présente avant la décoration : indexée à la construction
+        stockage.save(new Livre(1, "Les Misérables", "Victor Hugo", 1));
+        repository = new OeuvreRepositoryIndexe(stockage);
+        repository.save(new Livre(2, "Le Seigneur des Anneaux", "J.R.R. Tolkien", 2));
+        repository.save(new Livre(3, "Notre-Dame de Paris", "Victor Hugo", 3));
+        repository.save(new Dvd(4, "Victor Victoria", "Blake Edwards", 134));
+        repository.save(new Livre(5, "L'Œuvre", "Émile Zola", 5));
+    }
+
+    @Test
+    void rechercher_doitIgnorerAccentsCasseEtPluriels() {
+        // Act & Assert
+        assertEquals(List.of(1L), ids(repository.rechercher("MISERABLE", 10)));
+        assertEquals(List.of(2L), ids(repository.rechercher("seigneur anneau", 10)));
+        assertEquals(List.of(5L), ids(repository.rechercher("oeuvre zola", 10)));
+        assertEquals(List.of(5L), ids(repository.rechercher("emile", 10)));
+    }
+
+    @Test
+    void rechercher_quandMotDansTitreEtChezAuteur_doitClasserLeTitreEnPremier() {
+        // Act
+        List<Long> resultats = ids(repository.rechercher("Victor", 10));
+
+        // Assert : Le DVD a "Victor" dans son titre, les livres dans leur auteur
+        assertEquals(List.of(4L, 1L, 3L), resultats);
+        assertEquals(List.of(4L), ids(repository.rechercher("Victor", 1)));
+    }
+
+    @Test
+    void rechercher_doitExigerTousLesMots() {
+        // Act & Assert
+        assertEquals(List.of(3L), ids(repository.rechercher("hugo paris", 10)));
+        assertTrue(repository.rechercher("hugo anneaux", 10).isEmpty());
+        assertTrue(repository.rechercher("le de la", 10).isEmpty());
+    }
+
+    @Test
+    void save_quandTexteModifie_doitMettreAJourLIndex() {
+        // Arrange : Un emprunt sauvegarde la même œuvre sans changer son texte
+        Oeuvre oeuvre = repository.findById(2).orElseThrow();
+        oeuvre.tenterMarquerIndisponible();
+        repository.save(oeuvre);
+
+        // Act : Remplacement par une œuvre de titre différent
+        repository.save(new Livre(3, "Les Contemplations", "Victor Hugo", 3));
+
+        // Assert
+        assertEquals(List.of(2L), ids(repository.rechercher("anneaux", 10)));
+        assertTrue(repository.rechercher("notre dame", 10).isEmpty());
+        assertEquals(List.of(3L), ids(repository.rechercher("contemplation", 10)));
+        assertEquals(List.of(1L, 3L), ids(repository.rechercher("hugo", 10)));
+    }
+
+    @Test
+    void save_quandTexteInchange_neDoitPasRelireLeRepositoryDecore() {
+        // Arrange : Un repository décoré qui compte ses lectures par identifiant
+        int[] lectures = new int[1];
+        InMemoryOeuvreRepository compteur = new InMemoryOeuvreRepository() {
+            @Override
+            public Optional<Oeuvre> findById(long id) {
+                lectures[0]++;
+                return super.findById(id);
+            }
+        };
+        compteur.save(new Livre(1, "Dune", "Frank Herbert", 1));
+        OeuvreRepositoryIndexe indexe = new OeuvreRepositoryIndexe(compteur);
+        Oeuvre chargee = indexe.findById(1).orElseThrow();
+        lectures[0] = 0;
+
+        // Act : Emprunt puis retour d'une autre instance de la même œuvre
+        Livre copie = new Livre(1, "Dune", "Frank Herbert", 1);
+        chargee.tenterMarquerIndisponible();
+        indexe.save(chargee);
+        indexe.save(copie);
+
+        // Assert
+        assertEquals(0, lectures[0]);
+        assertEquals(List.of(1L), ids(indexe.rechercher("dune", 10)));
+    }
+
+    @Test
+    void rechercher_quandMotTresFrequent_doitGarderLeClassementApresModification() {
+        // Arrange : 2 000 œuvres contenant "roman", dont deux dans leur titre
+        OeuvreRepositoryIndexe catalogue = new OeuvreRepositoryIndexe(new InMemoryOeuvreRepository());
+        for (long id = 1; id <= 2_000; id++) {
+            String titre = id == 700 || id == 1_400 ? "Roman " + id : "Récit " + id;
+            catalogue.save(new Livre(id, titre, "Collectif Roman", 1));
+        }
+
+        // Act
+        List<Long> avant = ids(catalogue.rechercher("roman", 3));
+        catalogue.save(new Livre(700, "Récit 700", "Anonyme", 1));
+        List<Long> apres = ids(catalogue.rechercher("roman", 3));
+
+        // Assert
+        assertEquals(List.of(700L, 1_400L, 1L), avant);
+        assertEquals(List.of(1_400L, 1L, 2L), apres);
+    }
+
+    @Test
+    void rechercherTitreApproche_doitTolererLesFautesDeFrappe() {
+        // Act & Assert
+        assertEquals(List.of(2L), ids(repository.rechercherTitreApproche("Seigneur des Aneaux", 10)));
+        assertEquals(List.of(1L), ids(repository.rechercherTitreApproche("les miserabels", 10)));
+        assertEquals(List.of(5L), ids(repository.rechercherTitreApproche("oevre", 10)));
+        // Trois fautes : au-delà de la tolérance
+        assertTrue(repository.rechercherTitreApproche("Notre-Dome de Pares!!x", 10).isEmpty());
+        assertTrue(repository.rechercherTitreApproche("Victor Hugo", 10).isEmpty());
+    }
+
+    @Test
+    void rechercherTitreApproche_doitClasserParDistancePuisSuivreLesModifications() {
+        // Arrange : Deux œuvres de même titre et un titre voisin
+        repository.save(new Dvd(6, "Dune", "David Lynch", 137));
+        repository.save(new Dvd(7, "Dune", "Denis Villeneuve", 155));
+        repository.save(new Livre(8, "June", "Inconnu", 1));
+
+        // Act
+        List<Long> avant = ids(repository.rechercherTitreApproche("dune", 10));
+        repository.save(new Dvd(7, "Dune : Deuxième partie", "Denis Villeneuve", 166));
+        List<Long> apres = ids(repository.rechercherTitreApproche("dune", 10));
+
+        // Assert
+        assertEquals(List.of(6L, 7L, 8L), avant);
+        assertEquals(List.of(6L, 8L), apres);
+        assertEquals(List.of(7L), ids(repository.rechercherTitreApproche("dune deuxieme partei", 10)));
+    }
+
+    private static List<Long> ids(List<Oeuvre> oeuvres) {
+        return oeuvres.stream().map(Oeuvre::getId).collect(Collectors.toList());
+    }
+}
@@ -1,8 +1,10 @@
 package exam.repo;
 
 import exam.domain.emprunt.Emprunt;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository des emprunts de la médiathèque.
@@ -29,6 +31,44 @@ public interface EmpruntRepository {
      */
     List<Emprunt> findAll();
 
+    /**
+     * Retourne une page de tous les emprunts, par pagination à curseur.
+     * <p>
+     * Les éléments sont parcourus dans un ordre stable défini par
+     * l'implémentation ; le curseur est l'identifiant du dernier élément
+     * de la page précédente. Contrairement à {@link #findAll()}, seule
+     * la page demandée est copiée.
+     *
+     * @param apresId identifiant du dernier élément reçu, ou 0 pour la première page
+     * @param limite  nombre maximal d'éléments de la page (strictement positif)
+     * @return la page (jamais null, non modifiable, vide après le dernier élément)
+     * @throws IllegalArgumentException si apresId < 0 ou limite <= 0
+     */
+    List<Emprunt> findPage(long apresId, int limite);
+
+    /**
+     * Parcourt tous les emprunts sans les copier.
+     * <p>
+     * Le flux est paresseux et faiblement cohérent : il reflète les
+     * modifications concurrentes effectuées pendant le parcours, sans
+     * jamais lever d'exception à cause d'elles.
+     *
+     * @return flux de tous les emprunts (jamais null)
+     */
+    Stream<Emprunt> stream();
+
+    /**
+     * Retourne le nombre d'emprunts enregistrés.
+     * <p>
+     * Par défaut, parcourt le repository ; les implémentations en mémoire
+     * répondent en temps constant.
+     *
+     * @return nombre d'emprunts (positif ou nul)
+     */
+    default int count() {
+        return Math.toIntExact(stream().count());
+    }
+
     /**
      * Retourne les emprunts actifs d'un membre (dateRetour est null).
      *
@@ -37,6 +77,19 @@ public interface EmpruntRepository {
      */
     List<Emprunt> findActifsByMembreId(long membreId);
 
+    /**
+     * Retourne le nombre d'emprunts actifs d'un membre.
+     * <p>
+     * Équivaut à {@code findActifsByMembreId(membreId).size()} ; les
+     * implémentations peuvent la redéfinir pour éviter de construire la liste.
+     *
+     * @param membreId identifiant du membre (strictement positif)
+     * @return nombre d'emprunts actifs du membre (positif ou nul)
+     */
+    default int countActifsByMembreId(long membreId) {
+        return findActifsByMembreId(membreId).size();
+    }
+
     /**
      * Sauvegarde un emprunt dans le repository.
      * <p>
@@ -51,5 +104,25 @@ public interface EmpruntRepository {
      * @throws IllegalArgumentException si l'emprunt est null
      */
     void save(Emprunt emprunt);
+
+    /**
+     * Sauvegarde plusieurs emprunts en une seule opération.
+     * <p>
+     * Chaque emprunt suit le même comportement de remplacement que
+     * {@link #save(Emprunt)}. L'implémentation par défaut appelle
+     * {@code save} pour chaque élément ; une implémentation persistante
+     * peut la redéfinir pour regrouper les écritures.
+     *
+     * @param emprunts emprunts à sauvegarder (non null, sans élément null)
+     * @throws IllegalArgumentException si la collection ou l'un de ses éléments est null
+     */
+    default void saveAll(Collection<Emprunt> emprunts) {
+        if (emprunts == null) {
+            throw new IllegalArgumentException("La collection d'emprunts ne peut pas être null");
+        }
+        for (Emprunt emprunt : emprunts) {
+            save(emprunt);
+        }
+    }
 }
 
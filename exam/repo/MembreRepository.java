@@ -3,6 +3,7 @@ package exam.repo;
 import exam.domain.membre.Membre;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository des membres de la médiathèque.
@@ -29,6 +30,44 @@ public interface MembreRepository {
      */
     List<Membre> findAll();
 
+    /**
+     * Retourne une page de tous les membres, par pagination à curseur.
+     * <p>
+     * Les éléments sont parcourus dans un ordre stable défini par
+     * l'implémentation ; le curseur est l'identifiant du dernier élément
+     * de la page précédente. Contrairement à {@link #findAll()}, seule
+     * la page demandée est copiée.
+     *
+     * @param apresId identifiant du dernier élément reçu, ou 0 pour la première page
+     * @param limite  nombre maximal d'éléments de la page (strictement positif)
+     * @return la page (jamais null, non modifiable, vide après le dernier élément)
+     * @throws IllegalArgumentException si apresId < 0 ou limite <= 0
+     */
+    List<Membre> findPage(long apresId, int limite);
+
+    /**
+     * Parcourt tous les membres sans les copier.
+     * <p>
+     * Le flux est paresseux et faiblement cohérent : il reflète les
+     * modifications concurrentes effectuées pendant le parcours, sans
+     * jamais lever d'exception à cause d'elles.
+     *
+     * @return flux de tous les membres (jamais null)
+     */
+    Stream<Membre> stream();
+
+    /**
+     * Retourne le nombre de membres enregistrés.
+     * <p>
+     * Par défaut, parcourt le repository ; les implémentations en mémoire
+     * répondent en temps constant.
+     *
+     * @return nombre de membres (positif ou nul)
+     */
+    default int count() {
+        return Math.toIntExact(stream().count());
+    }
+
     /**
      * Sauvegarde un membre dans le repository.
      * <p>
@@ -1,8 +1,10 @@
 package exam.repo;
 
 import exam.domain.oeuvre.Oeuvre;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository des œuvres de la médiathèque.
@@ -33,6 +35,44 @@ public interface OeuvreRepository {
      */
     List<Oeuvre> findAll();
 
+    /**
+     * Retourne une page de toutes les œuvres, par pagination à curseur.
+     * <p>
+     * Les éléments sont parcourus dans un ordre stable défini par
+     * l'implémentation ; le curseur est l'identifiant du dernier élément
+     * de la page précédente. Contrairement à {@link #findAll()}, seule
+     * la page demandée est copiée.
+     *
+     * @param apresId identifiant du dernier élément reçu, ou 0 pour la première page
+     * @param limite  nombre maximal d'éléments de la page (strictement positif)
+     * @return la page (jamais null, non modifiable, vide après le dernier élément)
+     * @throws IllegalArgumentException si apresId < 0 ou limite <= 0
+     */
+    List<Oeuvre> findPage(long apresId, int limite);
+
+    /**
+     * Parcourt toutes les œuvres sans les copier.
+     * <p>
+     * Le flux est paresseux et faiblement cohérent : il reflète les
+     * modifications concurrentes effectuées pendant le parcours, sans
+     * jamais lever d'exception à cause d'elles.
+     *
+     * @return flux de toutes les œuvres (jamais null)
+     */
+    Stream<Oeuvre> stream();
+
+    /**
+     * Retourne le nombre d'œuvres enregistrées.
+     * <p>
+     * Par défaut, parcourt le repository ; les implémentations en mémoire
+     * répondent en temps constant.
+     *
+     * @return nombre d'œuvres (positif ou nul)
+     */
+    default int count() {
+        return Math.toIntExact(stream().count());
+    }
+
     /**
      * Retourne uniquement les œuvres disponibles (disponible=true).
      *
@@ -40,6 +80,36 @@ public interface OeuvreRepository {
      */
     List<Oeuvre> findDisponibles();
 
+    /**
+     * Retourne le nombre d'œuvres disponibles (disponible=true).
+     * <p>
+     * Équivaut à {@code findDisponibles().size()} sans construire la liste.
+     *
+     * @return nombre d'œuvres disponibles (positif ou nul)
+     */
+    int countDisponibles();
+
+    /**
+     * Retourne une page d'œuvres disponibles, par pagination à curseur.
+     * <p>
+     * Même contrat que {@link #findPage(long, int)}, restreint aux œuvres
+     * disponibles et dans le même ordre : un même curseur peut servir aux
+     * deux parcours.
+     *
+     * @param apresId identifiant de la dernière œuvre reçue, ou 0 pour la première page
+     * @param limite  nombre maximal d'œuvres de la page (strictement positif)
+     * @return la page (jamais null, non modifiable)
+     * @throws IllegalArgumentException si apresId < 0 ou limite <= 0
+     */
+    List<Oeuvre> findDisponiblesPage(long apresId, int limite);
+
+    /**
+     * Parcourt les œuvres disponibles sans les copier.
+     *
+     * @return flux paresseux des œuvres disponibles (jamais null)
+     */
+    Stream<Oeuvre> streamDisponibles();
+
     /**
      * Sauvegarde une œuvre dans le repository.
      * <p>
@@ -54,5 +124,25 @@ public interface OeuvreRepository {
      * @throws IllegalArgumentException si l'œuvre est null
      */
     void save(Oeuvre oeuvre);
+
+    /**
+     * Sauvegarde plusieurs œuvres en une seule opération.
+     * <p>
+     * Chaque œuvre suit le même comportement de remplacement que
+     * {@link #save(Oeuvre)}. L'implémentation par défaut appelle
+     * {@code save} pour chaque élément ; une implémentation persistante
+     * peut la redéfinir pour regrouper les écritures.
+     *
+     * @param oeuvres œuvres à sauvegarder (non null, sans élément null)
+     * @throws IllegalArgumentException si la collection ou l'un de ses éléments est null
+     */
+    default void saveAll(Collection<Oeuvre> oeuvres) {
+        if (oeuvres == null) {
+            throw new IllegalArgumentException("La collection d'œuvres ne peut pas être null");
+        }
+        for (Oeuvre oeuvre : oeuvres) {
+            save(oeuvre);
+        }
+    }
 }
 
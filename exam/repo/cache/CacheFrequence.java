@@ -0,0 +1,258 @@
+package exam.repo.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Cache borné de valeurs indexées par identifiant, à politique W-TinyLFU.
+ * <p>
+ * Les entrées se répartissent en trois listes LRU :
+ * <ul>
+ *   <li>une <i>fenêtre</i> (1 % de la capacité) qui accueille toute nouvelle
+ *       entrée, pour absorber les rafales d'accès récents ;</li>
+ *   <li>une zone <i>probatoire</i>, où arrivent les entrées sorties de la
+ *       fenêtre et admises dans l'espace principal ;</li>
+ *   <li>une zone <i>protégée</i> (80 % de l'espace principal), réservée aux
+ *       entrées relues depuis leur admission.</li>
+ * </ul>
+ * Quand l'espace principal est plein, l'entrée qui sort de la fenêtre n'y
+ * est admise que si sa fréquence d'accès récente ({@link EsquisseFrequences})
+ * dépasse celle de la plus ancienne entrée probatoire, qu'elle remplace :
+ * un parcours ponctuel de nombreuses clés froides ne chasse donc pas les
+ * entrées populaires.
+ * <p>
+ * La lecture d'une entrée présente est sans verrou. La mise à jour de la
+ * politique (fréquence et position dans les listes) se fait sous un verrou,
+ * seulement s'il est libre : sous contention, certains accès ne sont pas
+ * comptés, ce qui ne change que la précision de la politique.
+ *
+ * @param <V> type des valeurs
+ */
+final class CacheFrequence<V> {
+
+    private static final int FENETRE = 0;
+    private static final int PROBATOIRE = 1;
+    private static final int PROTEGEE = 2;
+
+    private static final class Entree<V> {
+        final long cle;
+        volatile V valeur;
+        int zone;
+        Entree<V> precedente;
+        Entree<V> suivante;
+
+        Entree(long cle, V valeur) {
+            this.cle = cle;
+            this.valeur = valeur;
+        }
+    }
+
+    /**
+     * Liste doublement chaînée circulaire, de la plus ancienne entrée
+     * ({@code sentinelle.suivante}) à la plus récente.
+     */
+    private static final class Liste<V> {
+        final Entree<V> sentinelle = new Entree<>(0, null);
+        int taille;
+
+        Liste() {
+            sentinelle.precedente = sentinelle;
+            sentinelle.suivante = sentinelle;
+        }
+
+        void ajouter(Entree<V> entree) {
+            entree.precedente = sentinelle.precedente;
+            entree.suivante = sentinelle;
+            sentinelle.precedente.suivante = entree;
+            sentinelle.precedente = entree;
+            taille++;
+        }
+
+        void retirer(Entree<V> entree) {
+            entree.precedente.suivante = entree.suivante;
+            entree.suivante.precedente = entree.precedente;
+            entree.precedente = null;
+            entree.suivante = null;
+            taille--;
+        }
+
+        void rafraichir(Entree<V> entree) {
+            retirer(entree);
+            ajouter(entree);
+        }
+
+        Entree<V> plusAncienne() {
+            return taille == 0 ? null : sentinelle.suivante;
+        }
+    }
+
+    private final int capacite;
+    private final int capaciteFenetre;
+    private final int capaciteProtegee;
+
+    private final ConcurrentHashMap<Long, Entree<V>> entrees;
+    private final EsquisseFrequences frequences;
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Liste<V> fenetre = new Liste<>();
+    private final Liste<V> probatoire = new Liste<>();
+    private final Liste<V> protegee = new Liste<>();
+
+    /**
+     * Nombre d'écritures : un chargement commencé avant une écriture
+     * n'entre pas dans le cache, il pourrait y déposer une valeur périmée.
+     */
+    private final LongAdder ecritures = new LongAdder();
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final StatistiquesCache statistiques;
+
+    /**
+     * @param capacite nombre maximal d'entrées (strictement positif)
+     * @throws IllegalArgumentException si capacite <= 0
+     */
+    CacheFrequence(int capacite) {
+        if (capacite <= 0)
+            throw new IllegalArgumentException("La capacité du cache doit être strictement positive");
+        this.capacite = capacite;
+        this.capaciteFenetre = Math.max(1, capacite / 100);
+        this.capaciteProtegee = (int) ((capacite - capaciteFenetre) * 0.8);
+        this.entrees = new ConcurrentHashMap<>(Math.min(capacite, 1 << 16));
+        this.frequences = new EsquisseFrequences(capacite);
+        this.statistiques = new StatistiquesCache(entrees::size, capacite, succes, echecs, evictions);
+    }
+
+    /**
+     * Retourne la valeur d'une clé, chargée par {@code chargement} si elle
+     * n'est pas en cache. Une valeur absente ({@code null}) n'est pas retenue.
+     *
+     * @param cle        clé recherchée
+     * @param chargement lecture de la valeur dans le stockage
+     * @return la valeur, ou null si le stockage n'en a pas
+     */
+    V obtenir(long cle, LongFunction<V> chargement) {
+        Entree<V> entree = entrees.get(cle);
+        if (entree != null) {
+            succes.increment();
+            if (verrou.tryLock()) {
+                try {
+                    acceder(entree);
+                } finally {
+                    verrou.unlock();
+                }
+            }
+            return entree.valeur;
+        }
+        echecs.increment();
+        long ecrituresAvant = ecritures.sum();
+        V valeur = chargement.apply(cle);
+        if (valeur != null) {
+            inserer(cle, valeur, ecrituresAvant);
+        }
+        return valeur;
+    }
+
+    /**
+     * Remplace la valeur d'une clé en cache après son écriture dans le
+     * stockage ; sans effet si la clé n'est pas en cache.
+     */
+    void mettreAJour(long cle, V valeur) {
+        ecritures.increment();
+        Entree<V> entree = entrees.get(cle);
+        if (entree != null) {
+            entree.valeur = valeur;
+        }
+    }
+
+    /**
+     * @return les compteurs du cache
+     */
+    StatistiquesCache statistiques() {
+        return statistiques;
+    }
+
+    private void inserer(long cle, V valeur, long ecrituresAvant) {
+        verrou.lock();
+        try {
+            frequences.incrementer(cle);
+            if (ecritures.sum() != ecrituresAvant || entrees.containsKey(cle)) {
+                return;
+            }
+            Entree<V> entree = new Entree<>(cle, valeur);
+            entree.zone = FENETRE;
+            entrees.put(cle, entree);
+            fenetre.ajouter(entree);
+            if (fenetre.taille > capaciteFenetre) {
+                Entree<V> candidate = fenetre.plusAncienne();
+                fenetre.retirer(candidate);
+                admettre(candidate);
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Fait entrer dans l'espace principal une entrée sortie de la fenêtre,
+     * en évinçant la candidate ou la plus ancienne entrée probatoire si
+     * l'espace est plein.
+     */
+    private void admettre(Entree<V> candidate) {
+        int capacitePrincipale = capacite - capaciteFenetre;
+        if (probatoire.taille + protegee.taille < capacitePrincipale) {
+            candidate.zone = PROBATOIRE;
+            probatoire.ajouter(candidate);
+            return;
+        }
+        Entree<V> victime = probatoire.plusAncienne();
+        if (victime == null) {
+            victime = protegee.plusAncienne();
+        }
+        if (victime == null || frequences.frequence(candidate.cle) <= frequences.frequence(victime.cle)) {
+            evincer(candidate);
+            return;
+        }
+        (victime.zone == PROBATOIRE ? probatoire : protegee).retirer(victime);
+        evincer(victime);
+        candidate.zone = PROBATOIRE;
+        probatoire.ajouter(candidate);
+    }
+
+    private void evincer(Entree<V> entree) {
+        entrees.remove(entree.cle, entree);
+        evictions.increment();
+    }
+
+    /**
+     * Compte un accès à une entrée présente et la fait avancer dans sa
+     * liste ; une entrée probatoire relue passe en zone protégée.
+     */
+    private void acceder(Entree<V> entree) {
+        frequences.incrementer(entree.cle);
+        if (entree.precedente == null) {
+            return; // Évincée entre la lecture et la prise du verrou
+        }
+        switch (entree.zone) {
+            case FENETRE:
+                fenetre.rafraichir(entree);
+                break;
+            case PROBATOIRE:
+                probatoire.retirer(entree);
+                entree.zone = PROTEGEE;
+                protegee.ajouter(entree);
+                if (protegee.taille > capaciteProtegee) {
+                    Entree<V> retrogradee = protegee.plusAncienne();
+                    protegee.retirer(retrogradee);
+                    retrogradee.zone = PROBATOIRE;
+                    probatoire.ajouter(retrogradee);
+                }
+                break;
+            default:
+                protegee.rafraichir(entree);
+                break;
+        }
+    }
+}
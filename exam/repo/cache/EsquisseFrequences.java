@@ -0,0 +1,98 @@
+package exam.repo.cache;
+
+/**
+ * Estimation compacte de la fréquence d'accès récente des clés
+ * (count-min sketch à compteurs de 4 bits, comme dans TinyLFU).
+ * <p>
+ * Chaque clé incrémente quatre compteurs, choisis par quatre fonctions de
+ * hachage ; sa fréquence estimée est le plus petit des quatre, qui ne
+ * sous-estime jamais et surestime rarement. Les compteurs plafonnent à 15.
+ * Après un nombre d'incréments égal à dix fois la capacité, tous les
+ * compteurs sont divisés par deux : les fréquences anciennes s'effacent
+ * et une clé autrefois populaire ne reste pas indéfiniment en cache.
+ * <p>
+ * Non synchronisée : l'appelant sérialise les accès.
+ */
+final class EsquisseFrequences {
+
+    private static final long MASQUE_MOITIE = 0x7777_7777_7777_7777L;
+    private static final long[] SEMENCES = {
+            0x9E37_79B9_7F4A_7C15L, 0xC2B2_AE3D_27D4_EB4FL, 0x1656_67B1_9E37_79F9L, 0xD6E8_FEB8_6659_FD93L};
+
+    /**
+     * 16 compteurs de 4 bits par case, 4 par fonction de hachage.
+     */
+    private final long[] table;
+    private final int masque;
+    private final int seuilVieillissement;
+    private int increments;
+
+    /**
+     * @param capacite nombre d'entrées du cache (strictement positif)
+     */
+    EsquisseFrequences(int capacite) {
+        int taille = Integer.highestOneBit(Math.max(16, capacite) - 1) << 1;
+        this.table = new long[taille];
+        this.masque = taille - 1;
+        this.seuilVieillissement = 10 * Math.max(16, capacite);
+    }
+
+    /**
+     * @return la fréquence estimée d'une clé, de 0 à 15
+     */
+    int frequence(long cle) {
+        int frequence = 15;
+        for (int k = 0; k < 4; k++) {
+            long empreinte = melanger(cle, k);
+            frequence = Math.min(frequence, (int) (table[indice(empreinte)] >>> decalage(empreinte, k)) & 0xF);
+        }
+        return frequence;
+    }
+
+    /**
+     * Enregistre un accès à une clé.
+     */
+    void incrementer(long cle) {
+        boolean incremente = false;
+        for (int k = 0; k < 4; k++) {
+            long empreinte = melanger(cle, k);
+            int i = indice(empreinte);
+            int decalage = decalage(empreinte, k);
+            if (((table[i] >>> decalage) & 0xF) < 15) {
+                table[i] += 1L << decalage;
+                incremente = true;
+            }
+        }
+        if (incremente && ++increments >= seuilVieillissement) {
+            vieillir();
+        }
+    }
+
+    /**
+     * Divise tous les compteurs par deux.
+     */
+    private void vieillir() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & MASQUE_MOITIE;
+        }
+        increments /= 2;
+    }
+
+    private int indice(long empreinte) {
+        return (int) (empreinte >>> 32) & masque;
+    }
+
+    /**
+     * Position, en bits, du compteur de la fonction {@code k} dans sa case :
+     * l'un des quatre compteurs réservés à cette fonction.
+     */
+    private static int decalage(long empreinte, int k) {
+        return ((k << 2) + (int) (empreinte & 3)) << 2;
+    }
+
+    private static long melanger(long cle, int k) {
+        long h = (cle + SEMENCES[k]) * 0xBF58_476D_1CE4_E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return h ^ (h >>> 31);
+    }
+}
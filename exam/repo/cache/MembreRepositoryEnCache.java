@@ -0,0 +1,77 @@
+package exam.repo.cache;
+
+import exam.domain.membre.Membre;
+import exam.repo.MembreRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Décorateur d'un {@link MembreRepository} qui garde en mémoire un nombre
+ * borné de membres lus par identifiant, choisis par fréquence d'accès
+ * récente ({@link CacheFrequence}).
+ * <p>
+ * Les sauvegardes sont transmises au repository décoré puis remplacent le
+ * membre en cache. Seul {@link #findById(long)} passe par le cache.
+ */
+public class MembreRepositoryEnCache implements MembreRepository {
+
+    private final MembreRepository delegue;
+    private final CacheFrequence<Membre> cache;
+    private final LongFunction<Membre> chargement;
+
+    /**
+     * Décore un repository.
+     *
+     * @param delegue  repository décoré (non null)
+     * @param capacite nombre maximal de membres en cache (strictement positif)
+     * @throws IllegalArgumentException si delegue est null ou capacite <= 0
+     */
+    public MembreRepositoryEnCache(MembreRepository delegue, int capacite) {
+        if (delegue == null)
+            throw new IllegalArgumentException("Le repository ne peut pas être null");
+        this.delegue = delegue;
+        this.cache = new CacheFrequence<>(capacite);
+        this.chargement = id -> delegue.findById(id).orElse(null);
+    }
+
+    /**
+     * @return les compteurs du cache (succès, échecs, évictions)
+     */
+    public StatistiquesCache statistiques() {
+        return cache.statistiques();
+    }
+
+    @Override
+    public Optional<Membre> findById(long id) {
+        return Optional.ofNullable(cache.obtenir(id, chargement));
+    }
+
+    @Override
+    public List<Membre> findAll() {
+        return delegue.findAll();
+    }
+
+    @Override
+    public List<Membre> findPage(long apresId, int limite) {
+        return delegue.findPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Membre> stream() {
+        return delegue.stream();
+    }
+
+    @Override
+    public int count() {
+        return delegue.count();
+    }
+
+    @Override
+    public void save(Membre membre) {
+        delegue.save(membre);
+        cache.mettreAJour(membre.getId(), membre);
+    }
+}
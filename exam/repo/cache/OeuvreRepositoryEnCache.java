@@ -0,0 +1,113 @@
+package exam.repo.cache;
+
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.OeuvreRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Décorateur d'un {@link OeuvreRepository} qui garde en mémoire un nombre
+ * borné d'œuvres lues par identifiant, pour épargner au repository décoré
+ * (une base de données, par exemple) les lectures des titres populaires.
+ * <p>
+ * Les œuvres retenues sont choisies par fréquence d'accès récente
+ * ({@link CacheFrequence}). Les sauvegardes sont transmises au repository
+ * décoré puis remplacent l'œuvre en cache : une œuvre lue après une
+ * sauvegarde est celle qui a été sauvegardée, la même instance, ce dont
+ * dépend la réservation par compare-and-set du service. Les écritures
+ * faites directement sur le repository décoré ne sont pas vues.
+ * <p>
+ * Seul {@link #findById(long)} passe par le cache ; les listes, pages et
+ * comptages sont lus dans le repository décoré.
+ */
+public class OeuvreRepositoryEnCache implements OeuvreRepository {
+
+    private final OeuvreRepository delegue;
+    private final CacheFrequence<Oeuvre> cache;
+    private final LongFunction<Oeuvre> chargement;
+
+    /**
+     * Décore un repository.
+     *
+     * @param delegue  repository décoré (non null)
+     * @param capacite nombre maximal d'œuvres en cache (strictement positif)
+     * @throws IllegalArgumentException si delegue est null ou capacite <= 0
+     */
+    public OeuvreRepositoryEnCache(OeuvreRepository delegue, int capacite) {
+        if (delegue == null)
+            throw new IllegalArgumentException("Le repository ne peut pas être null");
+        this.delegue = delegue;
+        this.cache = new CacheFrequence<>(capacite);
+        this.chargement = id -> delegue.findById(id).orElse(null);
+    }
+
+    /**
+     * @return les compteurs du cache (succès, échecs, évictions)
+     */
+    public StatistiquesCache statistiques() {
+        return cache.statistiques();
+    }
+
+    @Override
+    public Optional<Oeuvre> findById(long id) {
+        return Optional.ofNullable(cache.obtenir(id, chargement));
+    }
+
+    @Override
+    public List<Oeuvre> findAll() {
+        return delegue.findAll();
+    }
+
+    @Override
+    public List<Oeuvre> findPage(long apresId, int limite) {
+        return delegue.findPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Oeuvre> stream() {
+        return delegue.stream();
+    }
+
+    @Override
+    public int count() {
+        return delegue.count();
+    }
+
+    @Override
+    public List<Oeuvre> findDisponibles() {
+        return delegue.findDisponibles();
+    }
+
+    @Override
+    public int countDisponibles() {
+        return delegue.countDisponibles();
+    }
+
+    @Override
+    public List<Oeuvre> findDisponiblesPage(long apresId, int limite) {
+        return delegue.findDisponiblesPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Oeuvre> streamDisponibles() {
+        return delegue.streamDisponibles();
+    }
+
+    @Override
+    public void save(Oeuvre oeuvre) {
+        delegue.save(oeuvre);
+        cache.mettreAJour(oeuvre.getId(), oeuvre);
+    }
+
+    @Override
+    public void saveAll(Collection<Oeuvre> oeuvres) {
+        delegue.saveAll(oeuvres);
+        for (Oeuvre oeuvre : oeuvres) {
+            cache.mettreAJour(oeuvre.getId(), oeuvre);
+        }
+    }
+}
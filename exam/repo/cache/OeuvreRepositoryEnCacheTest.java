@@ -0,0 +1,93 @@
+package exam.repo.cache;
+
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests du cache des œuvres : rétention des œuvres populaires face à un
+ * parcours de clés froides, sauvegardes répercutées et compteurs.
+ */
+class OeuvreRepositoryEnCacheTest {
+
+    /**
+     * Stockage qui compte les lectures par identifiant qu'il reçoit.
+     */
+    private static final class StockageCompte extends InMemoryOeuvreRepository {
+        int lectures;
+
+        @Override
+        public Optional<Oeuvre> findById(long id) {
+            lectures++;
+            return super.findById(id);
+        }
+    }
+
+    private StockageCompte stockage;
+    private OeuvreRepositoryEnCache repository;
+
+    @BeforeEach
+    void setUp() {
+        stockage = new StockageCompte();
+        for (long id = 1; id <= 5_000; id++) {
+            stockage.save(new Livre(id, "Titre " + id, "Auteur", (int) id));
+        }
+        repository = new OeuvreRepositoryEnCache(stockage, 100);
+    }
+
+    @Test
+    void findById_quandUnEnsemblePopulaireAlterneAvecUnParcours_doitServirLEnsembleSansLireLeStockage() {
+        // Arrange : 20 œuvres populaires relues entre des lots de 100 œuvres
+        // lues une seule fois, de quoi chasser tout le cache d'une politique LRU
+        long froide = 100;
+        for (int tour = 0; tour < 40; tour++) {
+            for (long id = 1; id <= 20; id++) {
+                repository.findById(id);
+            }
+            for (int i = 0; i < 100; i++) {
+                repository.findById(++froide);
+            }
+        }
+        stockage.lectures = 0;
+
+        // Act
+        for (int tour = 0; tour < 10; tour++) {
+            for (long id = 1; id <= 20; id++) {
+                assertEquals(id, repository.findById(id).orElseThrow().getId());
+            }
+        }
+
+        // Assert : Aucune lecture n'a atteint le stockage
+        assertEquals(0, stockage.lectures);
+        StatistiquesCache statistiques = repository.statistiques();
+        assertTrue(statistiques.getTaille() <= 100);
+        assertTrue(statistiques.getNombreEvictions() > 0);
+    }
+
+    @Test
+    void save_quandLOeuvreEstEnCache_doitServirLInstanceSauvegardee() {
+        // Arrange
+        repository.findById(1);
+        Livre remplacante = new Livre(1, "Nouveau titre", "Autre auteur", 1);
+
+        // Act
+        repository.save(remplacante);
+        Oeuvre lue = repository.findById(1).orElseThrow();
+
+        // Assert : Même instance, lue sans passer par le stockage
+        assertSame(remplacante, lue);
+        assertSame(remplacante, stockage.findById(1).orElseThrow());
+        assertEquals(2, stockage.lectures);
+        assertTrue(repository.findById(9_999).isEmpty());
+        StatistiquesCache statistiques = repository.statistiques();
+        assertEquals(1, statistiques.getNombreSucces());
+        assertEquals(2, statistiques.getNombreEchecs());
+        assertEquals(1.0 / 3, statistiques.getTauxSucces(), 1e-9);
+    }
+}
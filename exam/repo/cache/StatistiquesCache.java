@@ -0,0 +1,63 @@
+package exam.repo.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Compteurs d'un cache de repository, lus à chaque consultation et
+ * publiables en JMX.
+ * <p>
+ * Un succès est une lecture par identifiant servie par le cache, un échec
+ * une lecture transmise au repository décoré.
+ */
+public final class StatistiquesCache implements StatistiquesCacheMBean {
+
+    private final IntSupplier taille;
+    private final int capacite;
+    private final LongAdder succes;
+    private final LongAdder echecs;
+    private final LongAdder evictions;
+
+    StatistiquesCache(IntSupplier taille, int capacite, LongAdder succes, LongAdder echecs, LongAdder evictions) {
+        this.taille = taille;
+        this.capacite = capacite;
+        this.succes = succes;
+        this.echecs = echecs;
+        this.evictions = evictions;
+    }
+
+    @Override
+    public long getNombreSucces() {
+        return succes.sum();
+    }
+
+    @Override
+    public long getNombreEchecs() {
+        return echecs.sum();
+    }
+
+    /**
+     * @return la part des lectures servies par le cache, dans [0, 1] (0 si aucune lecture)
+     */
+    @Override
+    public double getTauxSucces() {
+        long servies = succes.sum();
+        long total = servies + echecs.sum();
+        return total == 0 ? 0 : (double) servies / total;
+    }
+
+    @Override
+    public long getNombreEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public int getTaille() {
+        return taille.getAsInt();
+    }
+
+    @Override
+    public int getCapacite() {
+        return capacite;
+    }
+}
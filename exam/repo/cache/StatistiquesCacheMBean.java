@@ -0,0 +1,19 @@
+package exam.repo.cache;
+
+/**
+ * Vue JMX des {@link StatistiquesCache} d'un cache de repository.
+ */
+public interface StatistiquesCacheMBean {
+
+    long getNombreSucces();
+
+    long getNombreEchecs();
+
+    double getTauxSucces();
+
+    long getNombreEvictions();
+
+    int getTaille();
+
+    int getCapacite();
+}
@@ -0,0 +1,56 @@
+package exam.repo.impl;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble d'identifiants {@code long} lisible par identifiant croissant,
+ * dans un tableau primitif : huit octets par identifiant, sans
+ * encapsulation dans un {@link Long} ni nœud de liste à enjambements.
+ * <p>
+ * Les identifiants sont ajoutés à la fin du tableau. Tant qu'ils arrivent
+ * dans l'ordre croissant (cas habituel d'un catalogue numéroté), le
+ * tableau reste trié ; sinon il n'est trié qu'à la lecture suivante.
+ * Chaque identifiant ne doit être ajouté qu'une fois.
+ * <p>
+ * Les accès sont synchronisés : les ajouts ne concernent que les nouvelles
+ * entités et les lectures servent la pagination, hors des chemins chauds.
+ */
+final class IdentifiantsTries {
+
+    private long[] ids = new long[16];
+    private int taille;
+    private boolean trie = true;
+
+    /**
+     * Ajoute un identifiant absent de l'ensemble.
+     *
+     * @param id identifiant
+     */
+    synchronized void ajouter(long id) {
+        if (taille == ids.length) {
+            ids = Arrays.copyOf(ids, taille + (taille >> 1));
+        }
+        if (taille > 0 && id < ids[taille - 1]) {
+            trie = false;
+        }
+        ids[taille++] = id;
+    }
+
+    /**
+     * Retourne les identifiants qui suivent un curseur, par ordre croissant.
+     *
+     * @param apresId curseur exclusif
+     * @param limite  nombre maximal d'identifiants (strictement positif)
+     * @return au plus {@code limite} identifiants strictement supérieurs à {@code apresId}
+     */
+    synchronized long[] suivants(long apresId, int limite) {
+        if (!trie) {
+            Arrays.sort(ids, 0, taille);
+            trie = true;
+        }
+        int debut = Arrays.binarySearch(ids, 0, taille, apresId);
+        debut = debut >= 0 ? debut + 1 : -debut - 1;
+        int fin = (int) Math.min(taille, (long) debut + limite);
+        return Arrays.copyOfRange(ids, debut, fin);
+    }
+}
@@ -2,30 +2,55 @@ package exam.repo.impl;
 
 import exam.domain.emprunt.Emprunt;
 import exam.repo.EmpruntRepository;
+import exam.util.LongObjectMap;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implémentation en mémoire du {@link EmpruntRepository}.
  * <p>
- * Les emprunts sont stockés dans une {@link Map} où la clé est l'identifiant
- * de l'emprunt et la valeur est l'emprunt lui-même.
+ * Les emprunts sont stockés dans une {@link LongObjectMap} où la clé est
+ * l'identifiant de l'emprunt et la valeur est l'emprunt lui-même : pas
+ * d'encapsulation de la clé, et une recherche sans allocation. La
+ * pagination par curseur suit l'ordre d'insertion.
+ * <p>
+ * Un index secondaire associe à chaque membre les identifiants de ses
+ * emprunts actifs et leur nombre, afin que {@link #findActifsByMembreId(long)}
+ * ne parcoure pas tout l'historique des emprunts et que
+ * {@link #countActifsByMembreId(long)} s'exécute en temps constant, sans
+ * allocation : cet index est lui aussi une {@link LongObjectMap}.
  * <p>
  * Cette implémentation est utilisée à des fins pédagogiques
- * et ne repose sur aucune persistance externe. Aucune synchronisation
- * n'est effectuée (contexte mono-thread assumé).
+ * et ne repose sur aucune persistance externe. Elle peut être utilisée
+ * par plusieurs threads : les structures internes sont concurrentes.
  */
 public class InMemoryEmpruntRepository implements EmpruntRepository {
 
     /**
-     * Structure de stockage interne : Map<Long, Emprunt>.
-     * La clé est l'identifiant de l'emprunt.
+     * Structure de stockage interne : LongObjectMap<Emprunt>, dans l'ordre d'insertion.
+     * La clé est l'identifiant, sans encapsulation dans un {@link Long}.
+     */
+    private final LongObjectMap<Emprunt> emprunts = new LongObjectMap<>();
+
+    /**
+     * Index secondaire : identifiant du membre vers ses emprunts actifs,
+     * sans encapsulation de l'identifiant dans un {@link Long}.
+     * <p>
+     * L'entrée d'un membre est créée à son premier emprunt et conservée
+     * ensuite, même vide : au plus une par membre. Un emprunt retourné via
+     * {@link Emprunt#marquerRetour} sans être sauvegardé à nouveau reste
+     * dans l'index ; il est écarté à la prochaine lecture de l'index pour
+     * ce membre.
      */
-    private final Map<Long, Emprunt> emprunts = new HashMap<>();
+    private final LongObjectMap<ActifsMembre> actifsParMembre = new LongObjectMap<>();
 
     /**
      * {@inheritDoc}
@@ -47,7 +72,32 @@ public class InMemoryEmpruntRepository implements EmpruntRepository {
      */
     @Override
     public List<Emprunt> findAll() {
-        return List.copyOf(emprunts.values());
+        return emprunts.valeurs().collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les emprunts sont parcourus dans l'ordre de leur première sauvegarde.
+     */
+    @Override
+    public List<Emprunt> findPage(long apresId, int limite) {
+        return Pagination.page(emprunts, apresId, limite);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les emprunts sont parcourus dans l'ordre de leur première sauvegarde.
+     */
+    @Override
+    public Stream<Emprunt> stream() {
+        return emprunts.valeurs();
+    }
+
+    @Override
+    public int count() {
+        return emprunts.size();
     }
 
     /**
@@ -55,16 +105,44 @@ public class InMemoryEmpruntRepository implements EmpruntRepository {
      * <p>
      * Retourne une liste non modifiable contenant uniquement les emprunts
      * actifs (dateRetour est null) du membre spécifié.
+     * <p>
+     * Le coût est proportionnel au nombre d'emprunts actifs du membre,
+     * et non à la taille de l'historique.
      */
     @Override
     public List<Emprunt> findActifsByMembreId(long membreId) {
-        return emprunts.values().stream()
-                .filter(emprunt -> emprunt.getIdMembre() == membreId)
-                .filter(Emprunt::estActif)
-                .collect(Collectors.collectingAndThen(
-                        Collectors.toList(),
-                        List::copyOf
-                ));
+        ActifsMembre actifsMembre = actifsParMembre.get(membreId);
+        if (actifsMembre == null) {
+            return List.of();
+        }
+
+        List<Emprunt> actifs = new ArrayList<>(actifsMembre.nombre.get());
+        Iterator<Long> iterator = actifsMembre.ids.iterator();
+        while (iterator.hasNext()) {
+            Long empruntId = iterator.next();
+            Emprunt emprunt = emprunts.get(empruntId);
+            if (emprunt != null && emprunt.estActif()) {
+                actifs.add(emprunt);
+            } else {
+                // Emprunt retourné depuis son dernier enregistrement
+                actifsMembre.retirer(empruntId);
+            }
+        }
+        return List.copyOf(actifs);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Lit le compteur atomique du membre : temps constant, sans parcours
+     * ni construction de liste. Le compteur reflète l'état des emprunts
+     * lors de leur dernier enregistrement ; un retour doit donc être
+     * suivi d'un appel à {@link #save(Emprunt)}, comme le fait le service.
+     */
+    @Override
+    public int countActifsByMembreId(long membreId) {
+        ActifsMembre actifsMembre = actifsParMembre.get(membreId);
+        return actifsMembre == null ? 0 : actifsMembre.nombre.get();
     }
 
     /**
@@ -75,6 +153,9 @@ public class InMemoryEmpruntRepository implements EmpruntRepository {
      * remplacé par le nouvel emprunt. Aucune fusion ou mise à jour
      * partielle n'est effectuée. L'ancienne valeur est simplement
      * écrasée par la nouvelle.
+     * <p>
+     * L'index et le compteur des emprunts actifs du membre sont mis à jour
+     * en conséquence.
      *
      * @throws IllegalArgumentException si l'emprunt est null
      */
@@ -84,6 +165,73 @@ public class InMemoryEmpruntRepository implements EmpruntRepository {
             throw new IllegalArgumentException("L'emprunt ne peut pas être null");
         }
         // Si l'identifiant existe déjà, l'ancienne valeur est remplacée
-        emprunts.put(emprunt.getId(), emprunt);
+        Emprunt precedent = emprunts.put(emprunt.getId(), emprunt);
+        if (precedent != null && precedent.getIdMembre() != emprunt.getIdMembre()) {
+            retirerDeLIndex(precedent.getIdMembre(), precedent.getId());
+        }
+
+        if (emprunt.estActif()) {
+            actifs(emprunt.getIdMembre()).ajouter(emprunt.getId());
+        } else {
+            retirerDeLIndex(emprunt.getIdMembre(), emprunt.getId());
+        }
+    }
+
+    /**
+     * Retire un emprunt de l'index des emprunts actifs d'un membre.
+     *
+     * @param membreId  identifiant du membre
+     * @param empruntId identifiant de l'emprunt
+     */
+    private void retirerDeLIndex(long membreId, long empruntId) {
+        ActifsMembre actifsMembre = actifsParMembre.get(membreId);
+        if (actifsMembre != null) {
+            actifsMembre.retirer(empruntId);
+        }
+    }
+
+    /**
+     * Retourne l'entrée d'index d'un membre, en la créant au besoin.
+     *
+     * @param membreId identifiant du membre
+     * @return l'entrée du membre (jamais null)
+     */
+    private ActifsMembre actifs(long membreId) {
+        ActifsMembre actifsMembre = actifsParMembre.get(membreId);
+        if (actifsMembre != null) {
+            return actifsMembre;
+        }
+        // Double vérification : une seule entrée par membre, même en concurrence
+        synchronized (actifsParMembre) {
+            actifsMembre = actifsParMembre.get(membreId);
+            if (actifsMembre == null) {
+                actifsMembre = new ActifsMembre();
+                actifsParMembre.put(membreId, actifsMembre);
+            }
+            return actifsMembre;
+        }
+    }
+
+    /**
+     * Emprunts actifs d'un membre : identifiants et compteur.
+     * <p>
+     * Le compteur n'évolue qu'en fonction du résultat des ajouts et retraits
+     * dans l'ensemble, et reste donc égal à sa taille.
+     */
+    private static final class ActifsMembre {
+        private final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger nombre = new AtomicInteger();
+
+        private void ajouter(long empruntId) {
+            if (ids.add(empruntId)) {
+                nombre.incrementAndGet();
+            }
+        }
+
+        private void retirer(long empruntId) {
+            if (ids.remove(empruntId)) {
+                nombre.decrementAndGet();
+            }
+        }
     }
 }
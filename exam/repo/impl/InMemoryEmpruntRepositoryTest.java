@@ -0,0 +1,135 @@
+package exam.repo.impl;
+
+import exam.domain.emprunt.Emprunt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour InMemoryEmpruntRepository.
+ * <p>
+ * Vérifie que l'index des emprunts actifs par membre reste cohérent
+ * avec l'état des emprunts.
+ */
+class InMemoryEmpruntRepositoryTest {
+
+    private InMemoryEmpruntRepository repository;
+    private LocalDate aujourdhui;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryEmpruntRepository();
+        aujourdhui = LocalDate.now();
+    }
+
+    @Test
+    void findActifsByMembreId_quandAucunEmprunt_doitRetournerListeVide() {
+        // Act
+        List<Emprunt> actifs = repository.findActifsByMembreId(1);
+
+        // Assert
+        assertTrue(actifs.isEmpty());
+    }
+
+    @Test
+    void findActifsByMembreId_doitRetournerUniquementLesEmpruntsDuMembre() {
+        // Arrange
+        repository.save(new Emprunt(1, 1, 10, aujourdhui));
+        repository.save(new Emprunt(2, 2, 11, aujourdhui));
+        repository.save(new Emprunt(3, 1, 12, aujourdhui));
+
+        // Act
+        List<Emprunt> actifs = repository.findActifsByMembreId(1);
+
+        // Assert
+        assertEquals(2, actifs.size());
+        assertTrue(actifs.stream().allMatch(e -> e.getIdMembre() == 1));
+    }
+
+    @Test
+    void findActifsByMembreId_quandRetourSauvegarde_doitExclureLEmprunt() {
+        // Arrange
+        Emprunt emprunt = new Emprunt(1, 1, 10, aujourdhui);
+        repository.save(emprunt);
+
+        // Act
+        emprunt.marquerRetour(aujourdhui);
+        repository.save(emprunt);
+
+        // Assert
+        assertTrue(repository.findActifsByMembreId(1).isEmpty());
+        assertEquals(0, repository.countActifsByMembreId(1));
+        assertTrue(repository.findById(1).isPresent());
+    }
+
+    @Test
+    void countActifsByMembreId_doitSuivreEnregistrementsEtRetours() {
+        // Arrange
+        Emprunt emprunt1 = new Emprunt(1, 1, 10, aujourdhui);
+        Emprunt emprunt2 = new Emprunt(2, 1, 11, aujourdhui);
+        repository.save(emprunt1);
+        repository.save(emprunt2);
+        repository.save(emprunt2); // Réenregistrement : pas de double comptage
+        repository.save(new Emprunt(3, 2, 12, aujourdhui));
+
+        // Act & Assert
+        assertEquals(2, repository.countActifsByMembreId(1));
+        assertEquals(1, repository.countActifsByMembreId(2));
+
+        emprunt1.marquerRetour(aujourdhui);
+        repository.save(emprunt1);
+        assertEquals(1, repository.countActifsByMembreId(1));
+        assertEquals(0, repository.countActifsByMembreId(99));
+    }
+
+    @Test
+    void findActifsByMembreId_quandRetourNonSauvegarde_doitExclureLEmprunt() {
+        // Arrange
+        Emprunt emprunt = new Emprunt(1, 1, 10, aujourdhui);
+        repository.save(emprunt);
+
+        // Act : Retour marqué sur l'entité sans nouvel appel à save
+        emprunt.marquerRetour(aujourdhui);
+
+        // Assert
+        assertTrue(repository.findActifsByMembreId(1).isEmpty());
+    }
+
+    @Test
+    void findPage_doitParcourirLesEmpruntsParCurseur() {
+        // Arrange
+        for (long id = 1; id <= 5; id++) {
+            repository.save(new Emprunt(id, 1, 10 + id, aujourdhui));
+        }
+
+        // Act
+        List<Emprunt> page1 = repository.findPage(0, 2);
+        List<Emprunt> page2 = repository.findPage(page1.get(1).getId(), 2);
+        List<Emprunt> page3 = repository.findPage(page2.get(1).getId(), 2);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), page1.stream().map(Emprunt::getId).collect(Collectors.toList()));
+        assertEquals(List.of(3L, 4L), page2.stream().map(Emprunt::getId).collect(Collectors.toList()));
+        assertEquals(List.of(5L), page3.stream().map(Emprunt::getId).collect(Collectors.toList()));
+        assertTrue(repository.findPage(5, 2).isEmpty());
+        assertEquals(5, repository.stream().count());
+    }
+
+    @Test
+    void save_quandRemplacementAvecAutreMembre_doitMettreAJourLIndex() {
+        // Arrange
+        repository.save(new Emprunt(1, 1, 10, aujourdhui));
+
+        // Act : Même identifiant, autre membre
+        repository.save(new Emprunt(1, 2, 10, aujourdhui));
+
+        // Assert
+        assertTrue(repository.findActifsByMembreId(1).isEmpty());
+        assertEquals(1, repository.findActifsByMembreId(2).size());
+    }
+}
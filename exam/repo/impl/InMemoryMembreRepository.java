@@ -2,29 +2,32 @@ package exam.repo.impl;
 
 import exam.domain.membre.Membre;
 import exam.repo.MembreRepository;
+import exam.util.LongObjectMap;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implémentation en mémoire du {@link MembreRepository}.
  * <p>
- * Les membres sont stockés dans une {@link Map} où la clé est l'identifiant
- * du membre et la valeur est le membre lui-même.
+ * Les membres sont stockés dans une {@link LongObjectMap} où la clé est
+ * l'identifiant du membre et la valeur est le membre lui-même : pas
+ * d'encapsulation de la clé, et une recherche sans allocation. La
+ * pagination par curseur suit l'ordre d'insertion.
  * <p>
  * Cette implémentation est destinée aux tests et à l'usage pédagogique,
- * sans persistance externe. Aucune synchronisation n'est effectuée
- * (contexte mono-thread assumé).
+ * sans persistance externe. Elle peut être utilisée par plusieurs
+ * threads : le stockage interne est concurrent.
  */
 public class InMemoryMembreRepository implements MembreRepository {
 
     /**
-     * Structure de stockage interne : Map<Long, Membre>.
-     * La clé est l'identifiant du membre.
+     * Structure de stockage interne : LongObjectMap<Membre>, dans l'ordre d'insertion.
+     * La clé est l'identifiant, sans encapsulation dans un {@link Long}.
      */
-    private final Map<Long, Membre> membres = new HashMap<>();
+    private final LongObjectMap<Membre> membres = new LongObjectMap<>();
 
     /**
      * {@inheritDoc}
@@ -46,7 +49,32 @@ public class InMemoryMembreRepository implements MembreRepository {
      */
     @Override
     public List<Membre> findAll() {
-        return List.copyOf(membres.values());
+        return membres.valeurs().collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les membres sont parcourus dans l'ordre de leur première sauvegarde.
+     */
+    @Override
+    public List<Membre> findPage(long apresId, int limite) {
+        return Pagination.page(membres, apresId, limite);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les membres sont parcourus dans l'ordre de leur première sauvegarde.
+     */
+    @Override
+    public Stream<Membre> stream() {
+        return membres.valeurs();
+    }
+
+    @Override
+    public int count() {
+        return membres.size();
     }
 
     /**
@@ -2,30 +2,61 @@ package exam.repo.impl;
 
 import exam.domain.oeuvre.Oeuvre;
 import exam.repo.OeuvreRepository;
+import exam.util.LongObjectMap;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implémentation en mémoire du {@link OeuvreRepository}.
  * <p>
- * Les œuvres sont stockées dans une {@link Map} où la clé est l'identifiant
- * de l'œuvre et la valeur est l'œuvre elle-même.
+ * Les œuvres sont stockées dans une {@link LongObjectMap} où la clé est
+ * l'identifiant de l'œuvre et la valeur est l'œuvre elle-même : pas
+ * d'encapsulation de la clé, et une recherche sans allocation. La
+ * pagination par curseur suit l'ordre des identifiants, comme celle des
+ * œuvres disponibles : un tableau primitif des identifiants
+ * ({@link IdentifiantsTries}), complété à la première sauvegarde de chaque
+ * œuvre seulement, sert de curseur.
+ * <p>
+ * Un index de disponibilité contient uniquement les œuvres disponibles.
+ * Il est tenu à jour par {@link #save(Oeuvre)} : toute modification de
+ * {@link Oeuvre#isDisponible()} doit donc être suivie d'une sauvegarde,
+ * comme le fait le service lors d'un emprunt ou d'un retour.
  * <p>
  * Cette implémentation est destinée aux tests et à la démonstration,
- * sans persistance externe. Aucune synchronisation n'est effectuée
- * (contexte mono-thread assumé).
+ * sans persistance externe. Elle peut être utilisée par plusieurs
+ * threads : les structures internes sont concurrentes.
  */
 public class InMemoryOeuvreRepository implements OeuvreRepository {
 
     /**
-     * Structure de stockage interne : Map<Long, Oeuvre>.
-     * La clé est l'identifiant de l'œuvre.
+     * Structure de stockage interne : LongObjectMap<Oeuvre>, dans l'ordre d'insertion.
+     * La clé est l'identifiant, sans encapsulation dans un {@link Long}.
+     */
+    private final LongObjectMap<Oeuvre> oeuvres = new LongObjectMap<>();
+
+    /**
+     * Identifiants de toutes les œuvres, triés à la lecture, pour {@link #findPage(long, int)}.
+     * Une sauvegarde qui remplace une œuvre existante n'y touche pas.
+     */
+    private final IdentifiantsTries ids = new IdentifiantsTries();
+
+    /**
+     * Index de disponibilité : uniquement les œuvres disponibles,
+     * triées par identifiant.
      */
-    private final Map<Long, Oeuvre> oeuvres = new HashMap<>();
+    private final NavigableMap<Long, Oeuvre> disponibles = new ConcurrentSkipListMap<>();
+
+    /**
+     * Taille de l'index de disponibilité ({@link ConcurrentSkipListMap#size()}
+     * parcourt toute la map).
+     */
+    private final AtomicInteger nombreDisponibles = new AtomicInteger();
 
     /**
      * {@inheritDoc}
@@ -47,7 +78,33 @@ public class InMemoryOeuvreRepository implements OeuvreRepository {
      */
     @Override
     public List<Oeuvre> findAll() {
-        return List.copyOf(oeuvres.values());
+        return oeuvres.valeurs().collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les œuvres sont parcourues par identifiant croissant, dans le même
+     * ordre que {@link #findDisponiblesPage(long, int)}.
+     */
+    @Override
+    public List<Oeuvre> findPage(long apresId, int limite) {
+        return Pagination.page(ids, oeuvres, apresId, limite);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les œuvres sont parcourues dans l'ordre de leur première sauvegarde.
+     */
+    @Override
+    public Stream<Oeuvre> stream() {
+        return oeuvres.valeurs();
+    }
+
+    @Override
+    public int count() {
+        return oeuvres.size();
     }
 
     /**
@@ -55,15 +112,45 @@ public class InMemoryOeuvreRepository implements OeuvreRepository {
      * <p>
      * Retourne une liste non modifiable contenant uniquement les œuvres
      * dont la méthode {@link Oeuvre#isDisponible()} retourne true.
+     * <p>
+     * La liste est construite à partir de l'index de disponibilité :
+     * le coût dépend du nombre d'œuvres disponibles, pas de la taille
+     * du catalogue.
      */
     @Override
     public List<Oeuvre> findDisponibles() {
-        return oeuvres.values().stream()
-                .filter(Oeuvre::isDisponible)
-                .collect(Collectors.collectingAndThen(
-                        Collectors.toList(),
-                        List::copyOf
-                ));
+        return List.copyOf(disponibles.values());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Temps constant : lit la taille de l'index de disponibilité.
+     */
+    @Override
+    public int countDisponibles() {
+        return nombreDisponibles.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * La page est lue directement dans l'index de disponibilité,
+     * par identifiant croissant.
+     */
+    @Override
+    public List<Oeuvre> findDisponiblesPage(long apresId, int limite) {
+        return Pagination.page(disponibles, apresId, limite);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Le flux est lu directement dans l'index de disponibilité.
+     */
+    @Override
+    public Stream<Oeuvre> streamDisponibles() {
+        return disponibles.values().stream();
     }
 
     /**
@@ -74,6 +161,9 @@ public class InMemoryOeuvreRepository implements OeuvreRepository {
      * remplacée par la nouvelle œuvre. Aucune fusion ou mise à jour
      * partielle n'est effectuée. L'ancienne valeur est simplement
      * écrasée par la nouvelle.
+     * <p>
+     * L'index de disponibilité est mis à jour selon
+     * {@link Oeuvre#isDisponible()} au moment de la sauvegarde.
      *
      * @throws IllegalArgumentException si l'œuvre est null
      */
@@ -83,6 +173,23 @@ public class InMemoryOeuvreRepository implements OeuvreRepository {
             throw new IllegalArgumentException("L'œuvre ne peut pas être null");
         }
         // Si l'identifiant existe déjà, l'ancienne valeur est remplacée
-        oeuvres.put(oeuvre.getId(), oeuvre);
+        if (oeuvres.put(oeuvre.getId(), oeuvre) == null) {
+            ids.ajouter(oeuvre.getId());
+        }
+
+        // La disponibilité peut changer pendant la mise à jour de l'index
+        // (changement atomique par un autre thread) : on recommence tant que
+        // l'index ne reflète pas l'état courant de l'œuvre.
+        boolean disponible;
+        do {
+            disponible = oeuvre.isDisponible();
+            if (disponible) {
+                if (disponibles.put(oeuvre.getId(), oeuvre) == null) {
+                    nombreDisponibles.incrementAndGet();
+                }
+            } else if (disponibles.remove(oeuvre.getId()) != null) {
+                nombreDisponibles.decrementAndGet();
+            }
+        } while (disponible != oeuvre.isDisponible());
     }
 }
@@ -0,0 +1,53 @@
+package exam.repo.impl;
+
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour InMemoryOeuvreRepository.
+ * <p>
+ * Vérifie que les deux paginations par curseur suivent le même ordre.
+ */
+class InMemoryOeuvreRepositoryTest {
+
+    private InMemoryOeuvreRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryOeuvreRepository();
+    }
+
+    @Test
+    void findPage_quandSauvegardesDansLeDesordre_doitParcourirParIdentifiantCroissant() {
+        // Arrange : Ordre d'insertion différent de l'ordre des identifiants
+        for (long id : new long[]{4, 1, 5, 3, 2}) {
+            repository.save(new Livre(id, "Livre " + id, "Auteur", 1000 + (int) id));
+        }
+        Oeuvre empruntee = repository.findById(3).orElseThrow();
+        empruntee.tenterMarquerIndisponible();
+        repository.save(empruntee);
+
+        // Act
+        List<Oeuvre> page1 = repository.findPage(0, 2);
+        List<Oeuvre> page2 = repository.findPage(page1.get(1).getId(), 2);
+        List<Oeuvre> page3 = repository.findPage(page2.get(1).getId(), 2);
+
+        // Assert : Même ordre et même curseur que les œuvres disponibles
+        assertEquals(List.of(1L, 2L), ids(page1));
+        assertEquals(List.of(3L, 4L), ids(page2));
+        assertEquals(List.of(5L), ids(page3));
+        assertEquals(List.of(4L, 5L), ids(repository.findDisponiblesPage(2, 10)));
+        assertEquals(List.of(4L, 5L), ids(repository.findPage(3, 10)));
+    }
+
+    private static List<Long> ids(List<Oeuvre> oeuvres) {
+        return oeuvres.stream().map(Oeuvre::getId).collect(Collectors.toList());
+    }
+}
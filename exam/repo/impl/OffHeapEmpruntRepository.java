@@ -0,0 +1,443 @@
+package exam.repo.impl;
+
+import exam.domain.emprunt.Emprunt;
+import exam.repo.EmpruntRepository;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Implémentation du {@link EmpruntRepository} en colonnes hors tas.
+ * <p>
+ * Les emprunts ne sont pas conservés sous forme d'objets : chacun occupe
+ * une ligne de colonnes primitives (identifiant, membre, œuvre, dates en
+ * jours depuis l'epoch) dans des blocs de mémoire directe, soit 32 octets
+ * par emprunt plus l'index, contre plusieurs objets sur le tas pour
+ * {@link InMemoryEmpruntRepository}. Le ramasse-miettes n'a donc rien
+ * à parcourir, quelle que soit la taille de l'historique.
+ * <p>
+ * Les méthodes de lecture construisent à la demande des {@link Emprunt}
+ * indépendants du repository : modifier l'objet retourné (par exemple
+ * {@link Emprunt#marquerRetour}) n'a d'effet qu'après {@link #save(Emprunt)}.
+ * <p>
+ * Les lignes sont parcourues dans l'ordre d'insertion (ordre stable pour
+ * la pagination). Les écritures sont sérialisées par un verrou ; la
+ * recherche par identifiant se fait en lecture optimiste, sans verrou
+ * tant qu'aucune écriture n'est concurrente. Un index en mémoire (sur le
+ * tas) associe à chaque membre ses emprunts actifs, peu nombreux par rapport
+ * à l'historique.
+ * <p>
+ * La mémoire directe est limitée par {@code -XX:MaxDirectMemorySize}
+ * (par défaut, la taille maximale du tas).
+ */
+public class OffHeapEmpruntRepository implements EmpruntRepository {
+
+    private static final int BITS_LIGNES_PAR_BLOC = 16;
+    private static final int LIGNES_PAR_BLOC = 1 << BITS_LIGNES_PAR_BLOC;
+    private static final int MASQUE_LIGNE = LIGNES_PAR_BLOC - 1;
+
+    // Disposition d'un bloc : une colonne après l'autre
+    private static final int COLONNE_ID = 0;
+    private static final int COLONNE_MEMBRE = COLONNE_ID + Long.BYTES * LIGNES_PAR_BLOC;
+    private static final int COLONNE_OEUVRE = COLONNE_MEMBRE + Long.BYTES * LIGNES_PAR_BLOC;
+    private static final int COLONNE_DATE_EMPRUNT = COLONNE_OEUVRE + Long.BYTES * LIGNES_PAR_BLOC;
+    private static final int COLONNE_DATE_RETOUR = COLONNE_DATE_EMPRUNT + Integer.BYTES * LIGNES_PAR_BLOC;
+    private static final int TAILLE_BLOC = COLONNE_DATE_RETOUR + Integer.BYTES * LIGNES_PAR_BLOC;
+
+    /**
+     * Date de retour encodée pour un emprunt actif.
+     */
+    private static final int SANS_DATE = Integer.MIN_VALUE;
+
+    private static final int CAPACITE_INDEX_INITIALE = 1 << 16;
+
+    private final StampedLock verrou = new StampedLock();
+
+    /**
+     * Blocs de colonnes ; le tableau est remplacé (jamais modifié) quand un bloc est ajouté.
+     */
+    private ByteBuffer[] blocs = new ByteBuffer[0];
+
+    /**
+     * Nombre de lignes écrites ; publié après l'écriture complète d'une ligne.
+     */
+    private volatile int nombreLignes;
+
+    /**
+     * Index par identifiant, en adressage ouvert : chaque case contient
+     * le numéro de ligne + 1 (0 = case libre). L'identifiant est relu
+     * dans la colonne, ce qui limite l'index à 4 octets par case.
+     */
+    private ByteBuffer index = ByteBuffer.allocateDirect(CAPACITE_INDEX_INITIALE * Integer.BYTES);
+
+    /**
+     * Emprunts actifs par membre (identifiants), protégé par le verrou.
+     */
+    private final Map<Long, Set<Long>> actifsParMembre = new HashMap<>();
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Retourne une vue construite à partir des colonnes : une nouvelle
+     * instance à chaque appel.
+     */
+    @Override
+    public Optional<Emprunt> findById(long id) {
+        long tampon = verrou.tryOptimisticRead();
+        Optional<Emprunt> resultat = lireParId(id);
+        if (verrou.validate(tampon)) {
+            return resultat;
+        }
+        tampon = verrou.readLock();
+        try {
+            return lireParId(id);
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * Lit l'emprunt d'identifiant donné. En lecture optimiste, le résultat
+     * n'a de sens que si le tampon est encore valide.
+     */
+    private Optional<Emprunt> lireParId(long id) {
+        ByteBuffer[] blocsLus = blocs;
+        ByteBuffer indexLu = index;
+        int ligne = chercherLigne(id, blocsLus, indexLu);
+        if (ligne < 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(lireLigne(blocsLus, ligne));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Retourne une liste non modifiable de vues de tous les emprunts.
+     */
+    @Override
+    public List<Emprunt> findAll() {
+        try (Stream<Emprunt> flux = stream()) {
+            return flux.collect(Collectors.toUnmodifiableList());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les emprunts sont parcourus dans l'ordre d'insertion. Un curseur
+     * qui ne correspond à aucun emprunt donne une page vide.
+     */
+    @Override
+    public List<Emprunt> findPage(long apresId, int limite) {
+        Pagination.valider(apresId, limite);
+        long tampon = verrou.readLock();
+        try {
+            int debut = 0;
+            if (apresId > 0) {
+                int ligne = chercherLigne(apresId, blocs, index);
+                if (ligne < 0) {
+                    return List.of();
+                }
+                debut = ligne + 1;
+            }
+            int fin = (int) Math.min(nombreLignes, (long) debut + limite);
+            List<Emprunt> page = new ArrayList<>(Math.max(0, fin - debut));
+            for (int ligne = debut; ligne < fin; ligne++) {
+                page.add(lireLigne(blocs, ligne));
+            }
+            return List.copyOf(page);
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les emprunts sont parcourus dans l'ordre d'insertion ; les lignes
+     * ajoutées pendant le parcours sont incluses.
+     */
+    @Override
+    public Stream<Emprunt> stream() {
+        return IntStream.iterate(0, ligne -> ligne < nombreLignes, ligne -> ligne + 1)
+                .mapToObj(this::lireLigneCoherente);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Une ligne par emprunt : lit le nombre de lignes publiées.
+     */
+    @Override
+    public int count() {
+        return nombreLignes;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Le coût est proportionnel au nombre d'emprunts actifs du membre,
+     * et non à la taille de l'historique.
+     */
+    @Override
+    public List<Emprunt> findActifsByMembreId(long membreId) {
+        long tampon = verrou.readLock();
+        try {
+            Set<Long> ids = actifsParMembre.get(membreId);
+            if (ids == null) {
+                return List.of();
+            }
+            List<Emprunt> actifs = new ArrayList<>(ids.size());
+            for (long id : ids) {
+                actifs.add(lireLigne(blocs, chercherLigne(id, blocs, index)));
+            }
+            return List.copyOf(actifs);
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Temps constant : lit la taille de l'index du membre.
+     */
+    @Override
+    public int countActifsByMembreId(long membreId) {
+        long tampon = verrou.readLock();
+        try {
+            Set<Long> ids = actifsParMembre.get(membreId);
+            return ids == null ? 0 : ids.size();
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * <b>Comportement de remplacement :</b> si un emprunt avec le même
+     * identifiant existe déjà, sa ligne est réécrite avec l'état du nouvel
+     * emprunt ; sinon une ligne est ajoutée.
+     *
+     * @throws IllegalArgumentException si l'emprunt est null
+     */
+    @Override
+    public void save(Emprunt emprunt) {
+        if (emprunt == null) {
+            throw new IllegalArgumentException("L'emprunt ne peut pas être null");
+        }
+        long tampon = verrou.writeLock();
+        try {
+            enregistrer(emprunt);
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Le verrou d'écriture n'est pris qu'une fois pour tout le lot.
+     */
+    @Override
+    public void saveAll(Collection<Emprunt> lot) {
+        if (lot == null) {
+            throw new IllegalArgumentException("La collection d'emprunts ne peut pas être null");
+        }
+        for (Emprunt emprunt : lot) {
+            if (emprunt == null) {
+                throw new IllegalArgumentException("L'emprunt ne peut pas être null");
+            }
+        }
+        long tampon = verrou.writeLock();
+        try {
+            for (Emprunt emprunt : lot) {
+                enregistrer(emprunt);
+            }
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    /**
+     * @return la mémoire directe occupée par les colonnes et l'index, en octets
+     */
+    public long tailleHorsTas() {
+        long tampon = verrou.readLock();
+        try {
+            return (long) blocs.length * TAILLE_BLOC + index.capacity();
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * Écrit un emprunt, sous le verrou d'écriture.
+     */
+    private void enregistrer(Emprunt emprunt) {
+        long id = emprunt.getId();
+        int ligne = chercherLigne(id, blocs, index);
+        if (ligne >= 0) {
+            ByteBuffer bloc = blocs[ligne >>> BITS_LIGNES_PAR_BLOC];
+            int position = ligne & MASQUE_LIGNE;
+            long ancienMembre = bloc.getLong(COLONNE_MEMBRE + position * Long.BYTES);
+            if (ancienMembre != emprunt.getIdMembre()) {
+                retirerActif(ancienMembre, id);
+            }
+            ecrireLigne(bloc, position, emprunt);
+        } else {
+            ligne = nombreLignes;
+            if ((ligne >>> BITS_LIGNES_PAR_BLOC) == blocs.length) {
+                ByteBuffer[] agrandi = Arrays.copyOf(blocs, blocs.length + 1);
+                agrandi[blocs.length] = ByteBuffer.allocateDirect(TAILLE_BLOC);
+                blocs = agrandi;
+            }
+            ecrireLigne(blocs[ligne >>> BITS_LIGNES_PAR_BLOC], ligne & MASQUE_LIGNE, emprunt);
+            if ((long) (ligne + 1) * 4 > (long) capaciteIndex() * 3) {
+                reconstruireIndex(capaciteIndex() * 2, ligne);
+            }
+            insererDansIndex(index, id, ligne);
+            nombreLignes = ligne + 1;
+        }
+
+        if (emprunt.estActif()) {
+            actifsParMembre.computeIfAbsent(emprunt.getIdMembre(), membreId -> new HashSet<>()).add(id);
+        } else {
+            retirerActif(emprunt.getIdMembre(), id);
+        }
+    }
+
+    private void retirerActif(long membreId, long empruntId) {
+        Set<Long> ids = actifsParMembre.get(membreId);
+        if (ids != null && ids.remove(empruntId) && ids.isEmpty()) {
+            actifsParMembre.remove(membreId);
+        }
+    }
+
+    private static void ecrireLigne(ByteBuffer bloc, int position, Emprunt emprunt) {
+        LocalDate dateRetour = emprunt.getDateRetour();
+        bloc.putLong(COLONNE_ID + position * Long.BYTES, emprunt.getId());
+        bloc.putLong(COLONNE_MEMBRE + position * Long.BYTES, emprunt.getIdMembre());
+        bloc.putLong(COLONNE_OEUVRE + position * Long.BYTES, emprunt.getIdOeuvre());
+        bloc.putInt(COLONNE_DATE_EMPRUNT + position * Integer.BYTES,
+                Math.toIntExact(emprunt.getDateEmprunt().toEpochDay()));
+        bloc.putInt(COLONNE_DATE_RETOUR + position * Integer.BYTES,
+                dateRetour == null ? SANS_DATE : Math.toIntExact(dateRetour.toEpochDay()));
+    }
+
+    /**
+     * Lit une ligne en lecture optimiste, avec repli sur le verrou de lecture.
+     */
+    private Emprunt lireLigneCoherente(int ligne) {
+        long tampon = verrou.tryOptimisticRead();
+        Emprunt emprunt = lireLigne(blocs, ligne);
+        if (emprunt != null && verrou.validate(tampon)) {
+            return emprunt;
+        }
+        tampon = verrou.readLock();
+        try {
+            return lireLigne(blocs, ligne);
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * Construit la vue d'une ligne.
+     *
+     * @return l'emprunt, ou null si les valeurs lues sont incohérentes
+     * (lecture optimiste concurrente d'une écriture)
+     */
+    private static Emprunt lireLigne(ByteBuffer[] blocsLus, int ligne) {
+        int numeroBloc = ligne >>> BITS_LIGNES_PAR_BLOC;
+        if (numeroBloc >= blocsLus.length) {
+            return null;
+        }
+        ByteBuffer bloc = blocsLus[numeroBloc];
+        int position = ligne & MASQUE_LIGNE;
+        long id = bloc.getLong(COLONNE_ID + position * Long.BYTES);
+        long membre = bloc.getLong(COLONNE_MEMBRE + position * Long.BYTES);
+        long oeuvre = bloc.getLong(COLONNE_OEUVRE + position * Long.BYTES);
+        int dateEmprunt = bloc.getInt(COLONNE_DATE_EMPRUNT + position * Integer.BYTES);
+        int dateRetour = bloc.getInt(COLONNE_DATE_RETOUR + position * Integer.BYTES);
+        if (id <= 0 || membre <= 0 || oeuvre <= 0 || (dateRetour != SANS_DATE && dateRetour < dateEmprunt)) {
+            return null;
+        }
+
+        Emprunt emprunt = new Emprunt(id, membre, oeuvre, LocalDate.ofEpochDay(dateEmprunt));
+        if (dateRetour != SANS_DATE) {
+            emprunt.marquerRetour(LocalDate.ofEpochDay(dateRetour));
+        }
+        return emprunt;
+    }
+
+    /**
+     * Cherche la ligne d'un identifiant.
+     *
+     * @return le numéro de ligne, ou -1 si l'identifiant est absent
+     */
+    private static int chercherLigne(long id, ByteBuffer[] blocsLus, ByteBuffer indexLu) {
+        int masque = indexLu.capacity() / Integer.BYTES - 1;
+        for (int caseIndex = melanger(id) & masque; ; caseIndex = (caseIndex + 1) & masque) {
+            int valeur = indexLu.getInt(caseIndex * Integer.BYTES);
+            if (valeur == 0) {
+                return -1;
+            }
+            int ligne = valeur - 1;
+            int numeroBloc = ligne >>> BITS_LIGNES_PAR_BLOC;
+            if (numeroBloc >= blocsLus.length) {
+                return -1; // lecture optimiste incohérente, revalidée par l'appelant
+            }
+            if (blocsLus[numeroBloc].getLong(COLONNE_ID + (ligne & MASQUE_LIGNE) * Long.BYTES) == id) {
+                return ligne;
+            }
+        }
+    }
+
+    private void insererDansIndex(ByteBuffer cible, long id, int ligne) {
+        int masque = cible.capacity() / Integer.BYTES - 1;
+        int caseIndex = melanger(id) & masque;
+        while (cible.getInt(caseIndex * Integer.BYTES) != 0) {
+            caseIndex = (caseIndex + 1) & masque;
+        }
+        cible.putInt(caseIndex * Integer.BYTES, ligne + 1);
+    }
+
+    /**
+     * Remplace l'index par un index plus grand contenant les lignes existantes.
+     *
+     * @param nombre nombre de lignes à réindexer
+     */
+    private void reconstruireIndex(int capacite, int nombre) {
+        ByteBuffer nouvelIndex = ByteBuffer.allocateDirect(capacite * Integer.BYTES);
+        for (int ligne = 0; ligne < nombre; ligne++) {
+            long id = blocs[ligne >>> BITS_LIGNES_PAR_BLOC].getLong(COLONNE_ID + (ligne & MASQUE_LIGNE) * Long.BYTES);
+            insererDansIndex(nouvelIndex, id, ligne);
+        }
+        index = nouvelIndex;
+    }
+
+    private int capaciteIndex() {
+        return index.capacity() / Integer.BYTES;
+    }
+
+    private static int melanger(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+}
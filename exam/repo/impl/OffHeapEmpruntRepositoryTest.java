@@ -0,0 +1,126 @@
+package exam.repo.impl;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Livre;
+import exam.service.MediathequeService;
+import exam.service.ResultatOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour OffHeapEmpruntRepository.
+ * <p>
+ * Vérifie la restitution des colonnes sous forme de vues, la mise à jour
+ * en place, l'index des emprunts actifs et la croissance au-delà d'un bloc.
+ */
+class OffHeapEmpruntRepositoryTest {
+
+    private OffHeapEmpruntRepository repository;
+    private LocalDate aujourdhui;
+
+    @BeforeEach
+    void setUp() {
+        repository = new OffHeapEmpruntRepository();
+        aujourdhui = LocalDate.now();
+    }
+
+    @Test
+    void findById_doitRestituerTousLesChamps() {
+        // Arrange
+        Emprunt emprunt = new Emprunt(7, 3, 42, aujourdhui.minusDays(10));
+        emprunt.marquerRetour(aujourdhui);
+        repository.save(emprunt);
+
+        // Act
+        Emprunt lu = repository.findById(7).orElseThrow();
+
+        // Assert
+        assertEquals(3, lu.getIdMembre());
+        assertEquals(42, lu.getIdOeuvre());
+        assertEquals(aujourdhui.minusDays(10), lu.getDateEmprunt());
+        assertEquals(aujourdhui, lu.getDateRetour());
+        assertTrue(repository.findById(8).isEmpty());
+    }
+
+    @Test
+    void findById_quandVueModifieeSansSauvegarde_neDoitPasChangerLeRepository() {
+        // Arrange
+        repository.save(new Emprunt(1, 1, 10, aujourdhui));
+
+        // Act
+        repository.findById(1).orElseThrow().marquerRetour(aujourdhui);
+
+        // Assert
+        assertTrue(repository.findById(1).orElseThrow().estActif());
+        assertEquals(1, repository.countActifsByMembreId(1));
+    }
+
+    @Test
+    void save_quandRetourSauvegarde_doitMettreAJourLaLigneEtLIndex() {
+        // Arrange
+        repository.save(new Emprunt(1, 1, 10, aujourdhui));
+        repository.save(new Emprunt(2, 1, 11, aujourdhui));
+        Emprunt vue = repository.findById(1).orElseThrow();
+        vue.marquerRetour(aujourdhui);
+
+        // Act
+        repository.save(vue);
+
+        // Assert
+        assertFalse(repository.findById(1).orElseThrow().estActif());
+        List<Emprunt> actifs = repository.findActifsByMembreId(1);
+        assertEquals(List.of(2L), actifs.stream().map(Emprunt::getId).collect(Collectors.toList()));
+        assertEquals(1, repository.countActifsByMembreId(1));
+        assertEquals(2, repository.findAll().size());
+    }
+
+    @Test
+    void save_auDelaDUnBloc_doitConserverTousLesEmpruntsEtPaginerDansLOrdreDInsertion() {
+        // Arrange : Plus d'un bloc de lignes, identifiants non triés
+        int nombre = 200_000;
+        for (int i = nombre; i >= 1; i--) {
+            repository.save(new Emprunt(i, 1 + i % 1000, 1 + i % 5000, aujourdhui));
+        }
+
+        // Act
+        List<Emprunt> premiere = repository.findPage(0, 3);
+        List<Emprunt> seconde = repository.findPage(premiere.get(2).getId(), 3);
+
+        // Assert
+        assertEquals(nombre, repository.stream().count());
+        assertEquals(nombre, repository.findById(nombre).orElseThrow().getId());
+        assertEquals(1 + 123_456 % 1000, repository.findById(123_456).orElseThrow().getIdMembre());
+        assertEquals(List.of(200_000L, 199_999L, 199_998L),
+                premiere.stream().map(Emprunt::getId).collect(Collectors.toList()));
+        assertEquals(List.of(199_997L, 199_996L, 199_995L),
+                seconde.stream().map(Emprunt::getId).collect(Collectors.toList()));
+        assertEquals(nombre / 1000, repository.countActifsByMembreId(1));
+    }
+
+    @Test
+    void rendreEnLot_quandMemeEmpruntDemandeDeuxFois_doitRefuserLeSecondRetour() {
+        // Arrange : Service sur le repository hors tas, qui retourne des copies
+        MediathequeService service = new MediathequeService(
+                new InMemoryOeuvreRepository(), new InMemoryMembreRepository(), repository);
+        service.ajouterMembre(new Membre(1, "Alice Martin"));
+        service.ajouterOeuvre(new Livre(1, "Dune", "Frank Herbert", 226623320));
+        long empruntId = service.emprunter(1, 1);
+
+        // Act
+        List<ResultatOperation> resultats = service.rendreEnLot(List.of(empruntId, empruntId));
+
+        // Assert
+        assertTrue(resultats.get(0).estSucces());
+        assertFalse(resultats.get(1).estSucces());
+        assertFalse(repository.findById(empruntId).orElseThrow().estActif());
+        assertThrows(IllegalStateException.class, () -> service.rendre(empruntId));
+        assertEquals(1, service.compterDisponibles());
+    }
+}
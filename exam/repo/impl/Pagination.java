@@ -0,0 +1,105 @@
+package exam.repo.impl;
+
+import exam.util.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * Outils de pagination par curseur partagés par les repositories en mémoire.
+ * <p>
+ * Une page contient au plus {@code limite} éléments qui suivent le curseur
+ * {@code apresId} (identifiant du dernier élément reçu) : par identifiant
+ * croissant pour une map triée ou une {@link LongObjectMap} accompagnée de
+ * ses identifiants triés, dans l'ordre d'insertion pour une
+ * {@link LongObjectMap} seule. Seuls les éléments de la page sont parcourus
+ * et copiés.
+ */
+final class Pagination {
+
+    private Pagination() {
+    }
+
+    /**
+     * Vérifie les paramètres d'une requête paginée.
+     *
+     * @param apresId curseur (identifiant du dernier élément reçu, 0 pour la première page)
+     * @param limite  nombre maximal d'éléments
+     * @throws IllegalArgumentException si apresId < 0 ou limite <= 0
+     */
+    static void valider(long apresId, int limite) {
+        if (apresId < 0)
+            throw new IllegalArgumentException("Le curseur ne peut pas être négatif");
+        if (limite <= 0)
+            throw new IllegalArgumentException("La limite doit être strictement positive");
+    }
+
+    /**
+     * Extrait une page d'une map triée par identifiant.
+     *
+     * @param valeurs map triée par identifiant
+     * @param apresId curseur exclusif
+     * @param limite  nombre maximal d'éléments
+     * @return la page (non modifiable, jamais null)
+     */
+    static <T> List<T> page(NavigableMap<Long, T> valeurs, long apresId, int limite) {
+        valider(apresId, limite);
+        List<T> page = new ArrayList<>(Math.min(limite, 256));
+        Iterator<T> iterator = valeurs.tailMap(apresId, false).values().iterator();
+        while (page.size() < limite && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return List.copyOf(page);
+    }
+
+    /**
+     * Extrait une page d'une {@link LongObjectMap}, par identifiant croissant.
+     *
+     * @param ids     identifiants des éléments de la map
+     * @param valeurs map des éléments
+     * @param apresId curseur exclusif
+     * @param limite  nombre maximal d'éléments
+     * @return la page (non modifiable, jamais null)
+     */
+    static <T> List<T> page(IdentifiantsTries ids, LongObjectMap<T> valeurs, long apresId, int limite) {
+        valider(apresId, limite);
+        long[] suivants = ids.suivants(apresId, limite);
+        List<T> page = new ArrayList<>(suivants.length);
+        for (long id : suivants) {
+            T valeur = valeurs.get(id);
+            if (valeur != null) {
+                page.add(valeur);
+            }
+        }
+        return List.copyOf(page);
+    }
+
+    /**
+     * Extrait une page d'une {@link LongObjectMap}, dans l'ordre d'insertion.
+     * Un curseur absent de la map donne une page vide.
+     *
+     * @param valeurs map des éléments
+     * @param apresId curseur exclusif
+     * @param limite  nombre maximal d'éléments
+     * @return la page (non modifiable, jamais null)
+     */
+    static <T> List<T> page(LongObjectMap<T> valeurs, long apresId, int limite) {
+        valider(apresId, limite);
+        int debut = 0;
+        if (apresId > 0) {
+            int position = valeurs.position(apresId);
+            if (position < 0) {
+                return List.of();
+            }
+            debut = position + 1;
+        }
+        int fin = (int) Math.min(valeurs.size(), (long) debut + limite);
+        List<T> page = new ArrayList<>(Math.max(0, fin - debut));
+        for (int position = debut; position < fin; position++) {
+            page.add(valeurs.valeurA(position));
+        }
+        return List.copyOf(page);
+    }
+}
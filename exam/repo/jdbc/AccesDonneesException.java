@@ -0,0 +1,18 @@
+package exam.repo.jdbc;
+
+import java.sql.SQLException;
+
+/**
+ * Échec d'un accès à la base de données d'un repository JDBC.
+ * <p>
+ * Les interfaces des repositories ne déclarent pas d'exception contrôlée :
+ * les {@link SQLException} sont transmises enveloppées dans cette exception.
+ */
+public class AccesDonneesException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AccesDonneesException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,122 @@
+package exam.repo.jdbc;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Ensemble fixe de sessions partagées par les repositories JDBC.
+ * <p>
+ * Chaque travail emprunte une session libre (en attendant qu'une se libère
+ * au besoin), l'utilise seul puis la rend : les requêtes préparées d'une
+ * session sont ainsi réutilisées sans synchronisation. Un travail ne doit
+ * pas appeler un autre repository, qui attendrait une seconde session.
+ */
+final class Connexions {
+
+    /**
+     * Travail exécuté sur une session.
+     */
+    interface Travail<T> {
+        T executer(Session session) throws SQLException;
+    }
+
+    private final BlockingQueue<Session> libres;
+    private final List<Session> toutes;
+
+    private Connexions(List<Session> sessions) {
+        this.toutes = sessions;
+        this.libres = new ArrayBlockingQueue<>(sessions.size(), false, sessions);
+    }
+
+    /**
+     * Ouvre {@code nombre} connexions vers une base.
+     *
+     * @throws AccesDonneesException si une connexion ne peut pas être ouverte
+     */
+    static Connexions ouvrir(String url, int nombre) {
+        List<Session> sessions = new ArrayList<>(nombre);
+        try {
+            for (int i = 0; i < nombre; i++) {
+                sessions.add(new Session(DriverManager.getConnection(url)));
+            }
+        } catch (SQLException e) {
+            for (Session session : sessions) {
+                fermerSansErreur(session);
+            }
+            throw new AccesDonneesException("Impossible de se connecter à " + url, e);
+        }
+        return new Connexions(sessions);
+    }
+
+    /**
+     * Exécute un travail en validation automatique : chaque requête est
+     * validée dès son exécution.
+     */
+    <T> T executer(Travail<T> travail) {
+        Session session = prendre();
+        try {
+            return travail.executer(session);
+        } catch (SQLException e) {
+            throw new AccesDonneesException("Échec de l'accès aux données", e);
+        } finally {
+            libres.add(session);
+        }
+    }
+
+    /**
+     * Exécute un travail dans une transaction, validée s'il se termine
+     * normalement et annulée sinon.
+     */
+    <T> T transaction(Travail<T> travail) {
+        Session session = prendre();
+        try {
+            Connection connexion = session.connexion();
+            connexion.setAutoCommit(false);
+            try {
+                T resultat = travail.executer(session);
+                connexion.commit();
+                return resultat;
+            } catch (SQLException | RuntimeException e) {
+                connexion.rollback();
+                throw e;
+            } finally {
+                connexion.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new AccesDonneesException("Échec de la transaction", e);
+        } finally {
+            libres.add(session);
+        }
+    }
+
+    private Session prendre() {
+        try {
+            return libres.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccesDonneesException("Interrompu en attente d'une connexion", e);
+        }
+    }
+
+    /**
+     * Ferme toutes les connexions. Les travaux en cours doivent être terminés.
+     */
+    void fermer() {
+        for (Session session : toutes) {
+            fermerSansErreur(session);
+        }
+    }
+
+    private static void fermerSansErreur(Session session) {
+        try {
+            session.fermer();
+        } catch (SQLException e) {
+            // Connexion déjà inutilisable : rien de plus à libérer
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package exam.repo.jdbc;
+
+import exam.domain.emprunt.Emprunt;
+import exam.repo.EmpruntRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link EmpruntRepository} adossé à la table {@code emprunt}.
+ * <p>
+ * Les emprunts actifs d'un membre sont lus par l'index
+ * {@code (id_membre, date_retour)} : la requête ne parcourt que les
+ * emprunts de ce membre, sans balayer l'historique. Chaque lecture
+ * construit une nouvelle instance ; le service relit l'emprunt sous
+ * verrou avant de le rendre.
+ */
+final class JdbcEmpruntRepository implements EmpruntRepository {
+
+    private static final String SELECTION =
+            "SELECT id, id_membre, id_oeuvre, date_emprunt, date_retour FROM emprunt";
+    private static final String PAR_ID = SELECTION + " WHERE id = ?";
+    private static final String TOUS = SELECTION + " ORDER BY id";
+    private static final String PAGE = SELECTION + " WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+    private static final String ACTIFS_MEMBRE =
+            SELECTION + " WHERE id_membre = ? AND date_retour IS NULL ORDER BY id";
+    private static final String COMPTE_ACTIFS_MEMBRE =
+            "SELECT COUNT(*) FROM emprunt WHERE id_membre = ? AND date_retour IS NULL";
+    private static final String COMPTE = "SELECT COUNT(*) FROM emprunt";
+    private static final String ENREGISTREMENT =
+            "MERGE INTO emprunt (id, id_membre, id_oeuvre, date_emprunt, date_retour) KEY (id) VALUES (?, ?, ?, ?, ?)";
+
+    private final Connexions connexions;
+
+    JdbcEmpruntRepository(Connexions connexions) {
+        this.connexions = connexions;
+    }
+
+    @Override
+    public Optional<Emprunt> findById(long id) {
+        List<Emprunt> lus = connexions.executer(session -> {
+            PreparedStatement requete = session.requete(PAR_ID);
+            requete.setLong(1, id);
+            return lire(requete);
+        });
+        return lus.stream().findFirst();
+    }
+
+    @Override
+    public List<Emprunt> findAll() {
+        return connexions.executer(session -> lire(session.requete(TOUS)));
+    }
+
+    @Override
+    public List<Emprunt> findPage(long apresId, int limite) {
+        Pages.valider(apresId, limite);
+        return connexions.executer(session -> {
+            PreparedStatement requete = session.requete(PAGE);
+            requete.setLong(1, apresId);
+            requete.setInt(2, limite);
+            return lire(requete);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les emprunts sont lus par pages, par identifiant croissant.
+     */
+    @Override
+    public Stream<Emprunt> stream() {
+        return Pages.parcourir(this::findPage, Emprunt::getId);
+    }
+
+    @Override
+    public int count() {
+        return connexions.executer(session -> {
+            try (ResultSet resultat = session.requete(COMPTE).executeQuery()) {
+                resultat.next();
+                return resultat.getInt(1);
+            }
+        });
+    }
+
+    @Override
+    public List<Emprunt> findActifsByMembreId(long membreId) {
+        return connexions.executer(session -> {
+            PreparedStatement requete = session.requete(ACTIFS_MEMBRE);
+            requete.setLong(1, membreId);
+            return lire(requete);
+        });
+    }
+
+    @Override
+    public int countActifsByMembreId(long membreId) {
+        return connexions.executer(session -> {
+            PreparedStatement requete = session.requete(COMPTE_ACTIFS_MEMBRE);
+            requete.setLong(1, membreId);
+            try (ResultSet resultat = requete.executeQuery()) {
+                resultat.next();
+                return resultat.getInt(1);
+            }
+        });
+    }
+
+    @Override
+    public void save(Emprunt emprunt) {
+        if (emprunt == null) {
+            throw new IllegalArgumentException("L'emprunt ne peut pas être null");
+        }
+        connexions.executer(session -> {
+            PreparedStatement requete = session.requete(ENREGISTREMENT);
+            lier(requete, emprunt);
+            return requete.executeUpdate();
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les emprunts sont envoyés par lots de requêtes ({@code addBatch}),
+     * dans une seule transaction.
+     */
+    @Override
+    public void saveAll(Collection<Emprunt> emprunts) {
+        if (emprunts == null) {
+            throw new IllegalArgumentException("La collection d'emprunts ne peut pas être null");
+        }
+        for (Emprunt emprunt : emprunts) {
+            if (emprunt == null) {
+                throw new IllegalArgumentException("L'emprunt ne peut pas être null");
+            }
+        }
+        if (emprunts.isEmpty()) {
+            return;
+        }
+        connexions.transaction(session -> {
+            PreparedStatement requete = session.requete(ENREGISTREMENT);
+            int enAttente = 0;
+            for (Emprunt emprunt : emprunts) {
+                lier(requete, emprunt);
+                requete.addBatch();
+                if (++enAttente == RepositoriesJdbc.TAILLE_LOT) {
+                    requete.executeBatch();
+                    enAttente = 0;
+                }
+            }
+            if (enAttente > 0) {
+                requete.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    private static void lier(PreparedStatement requete, Emprunt emprunt) throws SQLException {
+        requete.setLong(1, emprunt.getId());
+        requete.setLong(2, emprunt.getIdMembre());
+        requete.setLong(3, emprunt.getIdOeuvre());
+        requete.setObject(4, emprunt.getDateEmprunt());
+        if (emprunt.getDateRetour() == null) {
+            requete.setNull(5, Types.DATE);
+        } else {
+            requete.setObject(5, emprunt.getDateRetour());
+        }
+    }
+
+    private static List<Emprunt> lire(PreparedStatement requete) throws SQLException {
+        List<Emprunt> emprunts = new ArrayList<>();
+        try (ResultSet resultat = requete.executeQuery()) {
+            while (resultat.next()) {
+                Emprunt emprunt = new Emprunt(resultat.getLong(1), resultat.getLong(2), resultat.getLong(3),
+                        resultat.getObject(4, LocalDate.class));
+                LocalDate dateRetour = resultat.getObject(5, LocalDate.class);
+                if (dateRetour != null) {
+                    emprunt.marquerRetour(dateRetour);
+                }
+                emprunts.add(emprunt);
+            }
+        }
+        return List.copyOf(emprunts);
+    }
+}
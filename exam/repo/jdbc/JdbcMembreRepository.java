@@ -0,0 +1,112 @@
+package exam.repo.jdbc;
+
+import exam.domain.membre.Membre;
+import exam.repo.MembreRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link MembreRepository} adossé à la table {@code membre}.
+ * <p>
+ * Chaque lecture construit une nouvelle instance : un changement de statut
+ * n'est visible des autres lecteurs qu'une fois le membre sauvegardé.
+ */
+final class JdbcMembreRepository implements MembreRepository {
+
+    private static final String SELECTION = "SELECT id, nom, actif FROM membre";
+    private static final String PAR_ID = SELECTION + " WHERE id = ?";
+    private static final String TOUS = SELECTION + " ORDER BY id";
+    private static final String PAGE = SELECTION + " WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+    private static final String COMPTE = "SELECT COUNT(*) FROM membre";
+    private static final String ENREGISTREMENT = "MERGE INTO membre (id, nom, actif) KEY (id) VALUES (?, ?, ?)";
+
+    private final Connexions connexions;
+
+    JdbcMembreRepository(Connexions connexions) {
+        this.connexions = connexions;
+    }
+
+    @Override
+    public Optional<Membre> findById(long id) {
+        List<Membre> lus = connexions.executer(session -> {
+            PreparedStatement requete = session.requete(PAR_ID);
+            requete.setLong(1, id);
+            return lire(requete);
+        });
+        return lus.stream().findFirst();
+    }
+
+    @Override
+    public List<Membre> findAll() {
+        return connexions.executer(session -> lire(session.requete(TOUS)));
+    }
+
+    @Override
+    public List<Membre> findPage(long apresId, int limite) {
+        Pages.valider(apresId, limite);
+        return connexions.executer(session -> {
+            PreparedStatement requete = session.requete(PAGE);
+            requete.setLong(1, apresId);
+            requete.setInt(2, limite);
+            return lire(requete);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les membres sont lus par pages, par identifiant croissant.
+     */
+    @Override
+    public Stream<Membre> stream() {
+        return Pages.parcourir(this::findPage, Membre::getId);
+    }
+
+    @Override
+    public int count() {
+        return connexions.executer(session -> {
+            try (ResultSet resultat = session.requete(COMPTE).executeQuery()) {
+                resultat.next();
+                return resultat.getInt(1);
+            }
+        });
+    }
+
+    @Override
+    public void save(Membre membre) {
+        if (membre == null) {
+            throw new IllegalArgumentException("Le membre ne peut pas être null");
+        }
+        connexions.executer(session -> {
+            PreparedStatement requete = session.requete(ENREGISTREMENT);
+            lier(requete, membre);
+            return requete.executeUpdate();
+        });
+    }
+
+    private static void lier(PreparedStatement requete, Membre membre) throws SQLException {
+        requete.setLong(1, membre.getId());
+        requete.setString(2, membre.getNom());
+        requete.setBoolean(3, membre.estActif());
+    }
+
+    private static List<Membre> lire(PreparedStatement requete) throws SQLException {
+        List<Membre> membres = new ArrayList<>();
+        try (ResultSet resultat = requete.executeQuery()) {
+            while (resultat.next()) {
+                Membre membre = new Membre(resultat.getLong(1), resultat.getString(2));
+                if (!resultat.getBoolean(3)) {
+                    membre.desactiver();
+                }
+                membres.add(membre);
+            }
+        }
+        return List.copyOf(membres);
+    }
+}
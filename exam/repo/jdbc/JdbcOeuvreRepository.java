@@ -0,0 +1,359 @@
+package exam.repo.jdbc;
+
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.OeuvreRepository;
+import exam.util.StripedLock;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * {@link OeuvreRepository} adossé à une table {@code oeuvre} unique pour
+ * toute la hiérarchie : une colonne {@code type} distingue les livres des
+ * DVD, les colonnes propres à l'autre type restent nulles.
+ * <p>
+ * Le service réserve une œuvre par compare-and-set sur l'instance elle-même :
+ * deux lectures concurrentes d'une même œuvre doivent donc retourner la
+ * même instance, comme en mémoire. Les œuvres lues passent par une table
+ * d'identité à références faibles : tant qu'une instance est utilisée,
+ * toute lecture de la même œuvre la retourne ; une fois libérée, la
+ * lecture suivante la reconstruit à partir de la base. Ce repository doit
+ * donc être le seul à écrire dans sa table.
+ * <p>
+ * Plusieurs connexions écrivent en parallèle : sans précaution, une
+ * sauvegarde qui a lu la disponibilité d'une œuvre pourrait être validée
+ * après celle d'un autre thread qui l'a changée entre-temps, et la ligne
+ * contredirait l'instance. Les sauvegardes d'une même œuvre sont donc
+ * sérialisées par un verrou réparti par identifiant, tenu de la lecture
+ * de l'état de l'œuvre jusqu'à l'exécution de la requête : la dernière
+ * requête exécutée porte toujours le dernier état lu.
+ */
+final class JdbcOeuvreRepository implements OeuvreRepository {
+
+    private static final String LIVRE = "LIVRE";
+    private static final String DVD = "DVD";
+
+    private static final String SELECTION =
+            "SELECT id, type, titre, auteur, isbn, realisateur, duree, disponible FROM oeuvre";
+    private static final String PAR_ID = SELECTION + " WHERE id = ?";
+    private static final String TOUTES = SELECTION + " ORDER BY id";
+    private static final String PAGE = SELECTION + " WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+    private static final String DISPONIBLES = SELECTION + " WHERE disponible ORDER BY id";
+    private static final String PAGE_DISPONIBLES =
+            SELECTION + " WHERE disponible AND id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+    private static final String COMPTE = "SELECT COUNT(*) FROM oeuvre";
+    private static final String COMPTE_DISPONIBLES = "SELECT COUNT(*) FROM oeuvre WHERE disponible";
+    private static final String ENREGISTREMENT =
+            "MERGE INTO oeuvre (id, type, titre, auteur, isbn, realisateur, duree, disponible) "
+                    + "KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int NOMBRE_VERROUS = 64;
+
+    private final Connexions connexions;
+
+    /**
+     * Verrous des sauvegardes, par identifiant d'œuvre.
+     */
+    private final StripedLock verrous = new StripedLock(NOMBRE_VERROUS);
+
+    /**
+     * Table d'identité : instance en cours d'utilisation de chaque œuvre.
+     */
+    private final ConcurrentHashMap<Long, Instance> instances = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Oeuvre> liberees = new ReferenceQueue<>();
+
+    /**
+     * Référence faible vers l'instance d'une œuvre, qui retient son identifiant
+     * pour retirer l'entrée de la table une fois l'instance libérée.
+     */
+    private static final class Instance extends WeakReference<Oeuvre> {
+        final long id;
+
+        Instance(Oeuvre oeuvre, ReferenceQueue<Oeuvre> file) {
+            super(oeuvre, file);
+            this.id = oeuvre.getId();
+        }
+    }
+
+    JdbcOeuvreRepository(Connexions connexions) {
+        this.connexions = connexions;
+    }
+
+    @Override
+    public Optional<Oeuvre> findById(long id) {
+        Oeuvre enCours = instanceEnCours(id);
+        if (enCours != null) {
+            return Optional.of(enCours);
+        }
+        List<Oeuvre> lues = connexions.executer(session -> {
+            PreparedStatement requete = session.requete(PAR_ID);
+            requete.setLong(1, id);
+            return lire(requete);
+        });
+        return lues.stream().findFirst();
+    }
+
+    @Override
+    public List<Oeuvre> findAll() {
+        return connexions.executer(session -> lire(session.requete(TOUTES)));
+    }
+
+    @Override
+    public List<Oeuvre> findPage(long apresId, int limite) {
+        Pages.valider(apresId, limite);
+        return connexions.executer(session -> {
+            PreparedStatement requete = session.requete(PAGE);
+            requete.setLong(1, apresId);
+            requete.setInt(2, limite);
+            return lire(requete);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les œuvres sont lues par pages, par identifiant croissant.
+     */
+    @Override
+    public Stream<Oeuvre> stream() {
+        return Pages.parcourir(this::findPage, Oeuvre::getId);
+    }
+
+    @Override
+    public int count() {
+        return compter(COMPTE);
+    }
+
+    @Override
+    public List<Oeuvre> findDisponibles() {
+        return connexions.executer(session -> lire(session.requete(DISPONIBLES)));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Servi par l'index {@code (disponible, id)}.
+     */
+    @Override
+    public int countDisponibles() {
+        return compter(COMPTE_DISPONIBLES);
+    }
+
+    @Override
+    public List<Oeuvre> findDisponiblesPage(long apresId, int limite) {
+        Pages.valider(apresId, limite);
+        return connexions.executer(session -> {
+            PreparedStatement requete = session.requete(PAGE_DISPONIBLES);
+            requete.setLong(1, apresId);
+            requete.setInt(2, limite);
+            return lire(requete);
+        });
+    }
+
+    @Override
+    public Stream<Oeuvre> streamDisponibles() {
+        return Pages.parcourir(this::findDisponiblesPage, Oeuvre::getId);
+    }
+
+    @Override
+    public void save(Oeuvre oeuvre) {
+        if (oeuvre == null) {
+            throw new IllegalArgumentException("L'œuvre ne peut pas être null");
+        }
+        ReentrantLock verrou = verrous.pour(oeuvre.getId());
+        verrou.lock();
+        try {
+            connexions.executer(session -> {
+                PreparedStatement requete = session.requete(ENREGISTREMENT);
+                lier(requete, oeuvre);
+                return requete.executeUpdate();
+            });
+        } finally {
+            verrou.unlock();
+        }
+        retenir(oeuvre);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les œuvres sont envoyées par lots de requêtes ({@code addBatch}),
+     * dans une seule transaction, sous les verrous de toutes les œuvres
+     * du lot.
+     */
+    @Override
+    public void saveAll(Collection<Oeuvre> oeuvres) {
+        if (oeuvres == null) {
+            throw new IllegalArgumentException("La collection d'œuvres ne peut pas être null");
+        }
+        for (Oeuvre oeuvre : oeuvres) {
+            if (oeuvre == null) {
+                throw new IllegalArgumentException("L'œuvre ne peut pas être null");
+            }
+        }
+        if (oeuvres.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(oeuvres.size());
+        for (Oeuvre oeuvre : oeuvres) {
+            ids.add(oeuvre.getId());
+        }
+        List<ReentrantLock> verrousLot = verrous.pourTous(ids);
+        verrousLot.forEach(ReentrantLock::lock);
+        try {
+            enregistrer(oeuvres);
+        } finally {
+            for (int i = verrousLot.size() - 1; i >= 0; i--) {
+                verrousLot.get(i).unlock();
+            }
+        }
+        for (Oeuvre oeuvre : oeuvres) {
+            retenir(oeuvre);
+        }
+    }
+
+    private void enregistrer(Collection<Oeuvre> oeuvres) {
+        connexions.transaction(session -> {
+            PreparedStatement requete = session.requete(ENREGISTREMENT);
+            int enAttente = 0;
+            for (Oeuvre oeuvre : oeuvres) {
+                lier(requete, oeuvre);
+                requete.addBatch();
+                if (++enAttente == RepositoriesJdbc.TAILLE_LOT) {
+                    requete.executeBatch();
+                    enAttente = 0;
+                }
+            }
+            if (enAttente > 0) {
+                requete.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    private int compter(String sql) {
+        return connexions.executer(session -> {
+            try (ResultSet resultat = session.requete(sql).executeQuery()) {
+                resultat.next();
+                return resultat.getInt(1);
+            }
+        });
+    }
+
+    private static void lier(PreparedStatement requete, Oeuvre oeuvre) throws SQLException {
+        requete.setLong(1, oeuvre.getId());
+        requete.setString(3, oeuvre.getTitre());
+        requete.setBoolean(8, oeuvre.isDisponible());
+        if (oeuvre instanceof Livre) {
+            Livre livre = (Livre) oeuvre;
+            requete.setString(2, LIVRE);
+            requete.setString(4, livre.getAuteur());
+            requete.setInt(5, livre.getIsbn());
+            requete.setNull(6, Types.VARCHAR);
+            requete.setNull(7, Types.INTEGER);
+        } else if (oeuvre instanceof Dvd) {
+            Dvd dvd = (Dvd) oeuvre;
+            requete.setString(2, DVD);
+            requete.setNull(4, Types.VARCHAR);
+            requete.setNull(5, Types.INTEGER);
+            requete.setString(6, dvd.getRealisateur());
+            requete.setInt(7, dvd.getDuree());
+        } else {
+            throw new IllegalArgumentException("Type d'œuvre non pris en charge : " + oeuvre.getClass().getName());
+        }
+    }
+
+    /**
+     * Lit les œuvres d'une requête, en retournant l'instance en cours
+     * d'utilisation de celles qui en ont une.
+     */
+    private List<Oeuvre> lire(PreparedStatement requete) throws SQLException {
+        List<Oeuvre> oeuvres = new ArrayList<>();
+        try (ResultSet resultat = requete.executeQuery()) {
+            while (resultat.next()) {
+                oeuvres.add(canonique(construire(resultat)));
+            }
+        }
+        return List.copyOf(oeuvres);
+    }
+
+    private static Oeuvre construire(ResultSet resultat) throws SQLException {
+        long id = resultat.getLong(1);
+        String type = resultat.getString(2);
+        String titre = resultat.getString(3);
+        Oeuvre oeuvre;
+        if (LIVRE.equals(type)) {
+            oeuvre = new Livre(id, titre, resultat.getString(4), resultat.getInt(5));
+        } else if (DVD.equals(type)) {
+            oeuvre = new Dvd(id, titre, resultat.getString(6), resultat.getInt(7));
+        } else {
+            throw new SQLException("Type d'œuvre inconnu pour l'œuvre " + id + " : " + type);
+        }
+        if (!resultat.getBoolean(8)) {
+            oeuvre.tenterMarquerIndisponible();
+        }
+        return oeuvre;
+    }
+
+    private Oeuvre instanceEnCours(long id) {
+        Instance instance = instances.get(id);
+        return instance == null ? null : instance.get();
+    }
+
+    /**
+     * Retourne l'instance en cours d'utilisation de l'œuvre lue, ou enregistre
+     * l'œuvre lue comme telle s'il n'y en a pas.
+     */
+    private Oeuvre canonique(Oeuvre lue) {
+        purger();
+        long id = lue.getId();
+        while (true) {
+            Instance instance = instances.get(id);
+            Oeuvre enCours = instance == null ? null : instance.get();
+            if (enCours != null) {
+                return enCours;
+            }
+            Instance nouvelle = new Instance(lue, liberees);
+            boolean enregistree = instance == null
+                    ? instances.putIfAbsent(id, nouvelle) == null
+                    : instances.replace(id, instance, nouvelle);
+            if (enregistree) {
+                return lue;
+            }
+        }
+    }
+
+    /**
+     * Fait de l'œuvre sauvegardée l'instance en cours d'utilisation de son identifiant.
+     */
+    private void retenir(Oeuvre oeuvre) {
+        purger();
+        Instance instance = instances.get(oeuvre.getId());
+        if (instance == null || instance.get() != oeuvre) {
+            instances.put(oeuvre.getId(), new Instance(oeuvre, liberees));
+        }
+    }
+
+    /**
+     * Retire de la table les entrées dont l'instance a été libérée.
+     */
+    private void purger() {
+        Instance liberee;
+        while ((liberee = (Instance) liberees.poll()) != null) {
+            instances.remove(liberee.id, liberee);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package exam.repo.jdbc;
+
+import exam.util.SeuilIdStore;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * {@link SeuilIdStore} adossé à la table {@code seuil_id}, une ligne par générateur.
+ */
+final class JdbcSeuilIdStore implements SeuilIdStore {
+
+    private static final String LECTURE = "SELECT valeur FROM seuil_id WHERE nom = ?";
+    private static final String ENREGISTREMENT = "MERGE INTO seuil_id (nom, valeur) KEY (nom) VALUES (?, ?)";
+
+    private final Connexions connexions;
+    private final String nom;
+
+    JdbcSeuilIdStore(Connexions connexions, String nom) {
+        this.connexions = connexions;
+        this.nom = nom;
+    }
+
+    @Override
+    public long charger() {
+        return connexions.executer(session -> {
+            PreparedStatement requete = session.requete(LECTURE);
+            requete.setString(1, nom);
+            try (ResultSet resultat = requete.executeQuery()) {
+                return resultat.next() ? resultat.getLong(1) : 1L;
+            }
+        });
+    }
+
+    @Override
+    public void enregistrer(long seuil) {
+        connexions.executer(session -> {
+            PreparedStatement requete = session.requete(ENREGISTREMENT);
+            requete.setString(1, nom);
+            requete.setLong(2, seuil);
+            return requete.executeUpdate();
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package exam.repo.jdbc;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Pagination par curseur des repositories JDBC.
+ * <p>
+ * Les pages sont lues par identifiant croissant ({@code WHERE id > ? ORDER BY id}),
+ * ce que sert directement l'index de la clé primaire.
+ */
+final class Pages {
+
+    /**
+     * Nombre de lignes lues par requête lors d'un parcours complet.
+     */
+    static final int TAILLE_PAGE = 1_000;
+
+    /**
+     * Lecture d'une page : au plus {@code limite} éléments d'identifiant supérieur à {@code apresId}.
+     */
+    interface Lecture<T> {
+        List<T> page(long apresId, int limite);
+    }
+
+    private Pages() {
+    }
+
+    /**
+     * @throws IllegalArgumentException si apresId < 0 ou limite <= 0
+     */
+    static void valider(long apresId, int limite) {
+        if (apresId < 0)
+            throw new IllegalArgumentException("Le curseur ne peut pas être négatif");
+        if (limite <= 0)
+            throw new IllegalArgumentException("La limite doit être strictement positive");
+    }
+
+    /**
+     * Parcourt toutes les lignes page par page. Aucune connexion n'est
+     * gardée entre deux pages : le flux n'a pas besoin d'être fermé et
+     * reflète les écritures faites pendant le parcours.
+     */
+    static <T> Stream<T> parcourir(Lecture<T> lecture, ToLongFunction<T> identifiant) {
+        Iterator<T> iterateur = new Iterator<>() {
+            private List<T> page;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                if (page == null) {
+                    page = lecture.page(0, TAILLE_PAGE);
+                }
+                if (position < page.size()) {
+                    return true;
+                }
+                if (page.size() < TAILLE_PAGE) {
+                    return false;
+                }
+                page = lecture.page(identifiant.applyAsLong(page.get(page.size() - 1)), TAILLE_PAGE);
+                position = 0;
+                return !page.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(position++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterateur,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+    }
+}
@@ -0,0 +1,144 @@
+package exam.repo.jdbc;
+
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+import exam.util.IdGenerator;
+
+import java.sql.Statement;
+
+/**
+ * Repositories adossés à une base de données relationnelle accédée par JDBC,
+ * typiquement une base embarquée dans le processus (H2 :
+ * {@code jdbc:h2:mem:mediatheque} ou {@code jdbc:h2:./donnees/mediatheque}).
+ * <p>
+ * Le schéma est créé à l'ouverture s'il n'existe pas. Les livres et les DVD
+ * partagent la table {@code oeuvre} ; les emprunts actifs d'un membre sont
+ * servis par un index. Les requêtes sont préparées une fois par connexion
+ * puis réutilisées, et les sauvegardes groupées sont envoyées par lots.
+ * <p>
+ * Les sauvegardes utilisent {@code MERGE INTO ... KEY}, propre à H2.
+ * Les repositories doivent être les seuls à écrire dans la base.
+ */
+public final class RepositoriesJdbc implements AutoCloseable {
+
+    /**
+     * Nombre de connexions ouvertes par défaut.
+     */
+    public static final int CONNEXIONS_PAR_DEFAUT = 4;
+
+    /**
+     * Nombre de lignes envoyées par lot lors d'une sauvegarde groupée.
+     */
+    static final int TAILLE_LOT = 1_000;
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS oeuvre ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "type VARCHAR(5) NOT NULL, "
+                    + "titre VARCHAR NOT NULL, "
+                    + "auteur VARCHAR, "
+                    + "isbn INT, "
+                    + "realisateur VARCHAR, "
+                    + "duree INT, "
+                    + "disponible BOOLEAN NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS oeuvre_disponible ON oeuvre (disponible, id)",
+            "CREATE TABLE IF NOT EXISTS membre ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "nom VARCHAR NOT NULL, "
+                    + "actif BOOLEAN NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS emprunt ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "id_membre BIGINT NOT NULL, "
+                    + "id_oeuvre BIGINT NOT NULL, "
+                    + "date_emprunt DATE NOT NULL, "
+                    + "date_retour DATE)",
+            "CREATE INDEX IF NOT EXISTS emprunt_actifs ON emprunt (id_membre, date_retour)",
+            "CREATE TABLE IF NOT EXISTS seuil_id ("
+                    + "nom VARCHAR(32) PRIMARY KEY, "
+                    + "valeur BIGINT NOT NULL)"
+    };
+
+    private final Connexions connexions;
+    private final OeuvreRepository oeuvres;
+    private final MembreRepository membres;
+    private final EmpruntRepository emprunts;
+    private final IdGenerator generateurEmprunts;
+
+    private RepositoriesJdbc(Connexions connexions) {
+        this.connexions = connexions;
+        this.oeuvres = new JdbcOeuvreRepository(connexions);
+        this.membres = new JdbcMembreRepository(connexions);
+        this.emprunts = new JdbcEmpruntRepository(connexions);
+        this.generateurEmprunts = new IdGenerator(new JdbcSeuilIdStore(connexions, "emprunt"),
+                IdGenerator.TAILLE_BLOC_PAR_DEFAUT);
+    }
+
+    /**
+     * Ouvre les repositories d'une base, en créant son schéma si besoin.
+     *
+     * @param url        URL JDBC de la base (non null)
+     * @param connexions nombre de connexions, donc d'accès simultanés à la base (> 0)
+     * @return les repositories
+     * @throws IllegalArgumentException si url est null ou connexions <= 0
+     * @throws AccesDonneesException    si la base ne peut pas être ouverte
+     */
+    public static RepositoriesJdbc ouvrir(String url, int connexions) {
+        if (url == null)
+            throw new IllegalArgumentException("L'URL de la base ne peut pas être null");
+        if (connexions <= 0)
+            throw new IllegalArgumentException("Le nombre de connexions doit être strictement positif");
+        Connexions ouvertes = Connexions.ouvrir(url, connexions);
+        try {
+            ouvertes.executer(session -> {
+                try (Statement instruction = session.connexion().createStatement()) {
+                    for (String ddl : SCHEMA) {
+                        instruction.execute(ddl);
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            ouvertes.fermer();
+            throw e;
+        }
+        return new RepositoriesJdbc(ouvertes);
+    }
+
+    /**
+     * Ouvre les repositories d'une base avec {@link #CONNEXIONS_PAR_DEFAUT} connexions.
+     *
+     * @param url URL JDBC de la base (non null)
+     * @return les repositories
+     */
+    public static RepositoriesJdbc ouvrir(String url) {
+        return ouvrir(url, CONNEXIONS_PAR_DEFAUT);
+    }
+
+    public OeuvreRepository oeuvres() {
+        return oeuvres;
+    }
+
+    public MembreRepository membres() {
+        return membres;
+    }
+
+    public EmpruntRepository emprunts() {
+        return emprunts;
+    }
+
+    /**
+     * @return le générateur d'identifiants d'emprunt, dont le seuil est conservé dans la base
+     */
+    public IdGenerator generateurEmprunts() {
+        return generateurEmprunts;
+    }
+
+    /**
+     * Ferme les connexions. Les repositories ne doivent plus être utilisés.
+     */
+    @Override
+    public void close() {
+        connexions.fermer();
+    }
+}
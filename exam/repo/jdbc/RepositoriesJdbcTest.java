@@ -0,0 +1,207 @@
+package exam.repo.jdbc;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.service.MediathequeService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests des repositories JDBC sur une base H2 embarquée : correspondance
+ * de la hiérarchie des œuvres avec une table unique, sauvegardes par lots,
+ * emprunts actifs par membre et emprunts concurrents via le service.
+ */
+class RepositoriesJdbcTest {
+
+    @TempDir
+    Path dossier;
+
+    private RepositoriesJdbc ouvrir() {
+        return RepositoriesJdbc.ouvrir("jdbc:h2:" + dossier.resolve("mediatheque").toAbsolutePath());
+    }
+
+    @Test
+    void ouvrir_apresRedemarrage_doitRestaurerLivresDvdMembresEtEmprunts() {
+        // Arrange : Premier démarrage avec quelques opérations du service
+        long empruntActif;
+        long empruntRendu;
+        try (RepositoriesJdbc repositories = ouvrir()) {
+            MediathequeService service = new MediathequeService(repositories.oeuvres(), repositories.membres(),
+                    repositories.emprunts(), repositories.generateurEmprunts());
+            service.ajouterMembre(new Membre(1, "Alice Martin"));
+            Membre inactif = new Membre(2, "Bob Dupont");
+            inactif.desactiver();
+            service.ajouterMembre(inactif);
+            service.ajouterOeuvre(new Livre(1, "Le Seigneur des Anneaux", "J.R.R. Tolkien", 2070612881));
+            service.ajouterOeuvre(new Dvd(2, "Inception", "Christopher Nolan", 148));
+
+            empruntRendu = service.emprunter(1, 1);
+            service.rendre(empruntRendu);
+            empruntActif = service.emprunter(1, 2);
+        }
+
+        // Act : Réouverture de la même base
+        try (RepositoriesJdbc repositories = ouvrir()) {
+            // Assert : Types et états restaurés depuis la table unique
+            Livre livre = (Livre) repositories.oeuvres().findById(1).orElseThrow();
+            assertEquals("J.R.R. Tolkien", livre.getAuteur());
+            assertEquals(2070612881, livre.getIsbn());
+            assertTrue(livre.isDisponible());
+            Dvd dvd = (Dvd) repositories.oeuvres().findById(2).orElseThrow();
+            assertEquals("Christopher Nolan", dvd.getRealisateur());
+            assertEquals(148, dvd.getDuree());
+            assertFalse(dvd.isDisponible());
+            assertEquals(2, repositories.oeuvres().count());
+            assertEquals(List.of(livre), repositories.oeuvres().findDisponibles());
+
+            assertFalse(repositories.membres().findById(2).orElseThrow().estActif());
+            assertFalse(repositories.emprunts().findById(empruntRendu).orElseThrow().estActif());
+            List<Emprunt> actifs = repositories.emprunts().findActifsByMembreId(1);
+            assertEquals(1, actifs.size());
+            assertEquals(empruntActif, actifs.get(0).getId());
+
+            // Assert : Le seuil des identifiants d'emprunt est conservé
+            long nouvelEmprunt = repositories.generateurEmprunts().nextId();
+            assertTrue(nouvelEmprunt > empruntActif && nouvelEmprunt > empruntRendu);
+        }
+    }
+
+    @Test
+    void saveAll_surPlusieursLots_doitEnregistrerEtParcourirToutLHistorique() {
+        try (RepositoriesJdbc repositories = ouvrir()) {
+            // Arrange : 2 500 emprunts, répartis entre 10 membres, dont un sur 100 actif
+            LocalDate date = LocalDate.of(2024, 3, 1);
+            List<Emprunt> emprunts = new ArrayList<>();
+            for (long id = 1; id <= 2_500; id++) {
+                Emprunt emprunt = new Emprunt(id, 1 + id % 10, id, date);
+                if (id % 100 != 0) {
+                    emprunt.marquerRetour(date.plusDays(7));
+                }
+                emprunts.add(emprunt);
+            }
+
+            // Act
+            repositories.emprunts().saveAll(emprunts);
+
+            // Assert
+            assertEquals(2_500, repositories.emprunts().count());
+            assertEquals(2_500, repositories.emprunts().stream().count());
+            List<Long> actifs = repositories.emprunts().findActifsByMembreId(1).stream()
+                    .map(Emprunt::getId)
+                    .collect(Collectors.toList());
+            assertEquals(List.of(100L, 200L, 300L, 400L, 500L, 600L, 700L, 800L, 900L, 1000L,
+                    1100L, 1200L, 1300L, 1400L, 1500L, 1600L, 1700L, 1800L, 1900L, 2000L,
+                    2100L, 2200L, 2300L, 2400L, 2500L), actifs);
+            assertEquals(25, repositories.emprunts().countActifsByMembreId(1));
+            assertEquals(0, repositories.emprunts().countActifsByMembreId(2));
+            assertEquals(LocalDate.of(2024, 3, 8), repositories.emprunts().findById(1).orElseThrow().getDateRetour());
+        }
+    }
+
+    @Test
+    void emprunter_quandPlusieursThreadsVisentLaMemeOeuvre_unSeulEmpruntReussit() throws Exception {
+        try (RepositoriesJdbc repositories = ouvrir()) {
+            // Arrange : Une œuvre, un membre par thread
+            MediathequeService service = new MediathequeService(repositories.oeuvres(), repositories.membres(),
+                    repositories.emprunts(), repositories.generateurEmprunts());
+            service.ajouterOeuvre(new Livre(1, "Dune", "Frank Herbert", 2070368229));
+            int threads = 8;
+            for (int i = 1; i <= threads; i++) {
+                service.ajouterMembre(new Membre(i, "Membre " + i));
+            }
+
+            // Act : Tous les threads tentent d'emprunter la même œuvre au même moment
+            ExecutorService executeur = Executors.newFixedThreadPool(threads);
+            CountDownLatch depart = new CountDownLatch(1);
+            List<Future<Boolean>> resultats = new ArrayList<>();
+            for (int i = 1; i <= threads; i++) {
+                long membreId = i;
+                resultats.add(executeur.submit(() -> {
+                    depart.await();
+                    try {
+                        service.emprunter(membreId, 1);
+                        return true;
+                    } catch (IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            depart.countDown();
+            int reussis = 0;
+            for (Future<Boolean> resultat : resultats) {
+                reussis += resultat.get() ? 1 : 0;
+            }
+            executeur.shutdown();
+
+            // Assert : Une seule réservation, enregistrée en base
+            assertEquals(1, reussis);
+            assertEquals(1, repositories.emprunts().count());
+            Oeuvre oeuvre = repositories.oeuvres().findById(1).orElseThrow();
+            assertFalse(oeuvre.isDisponible());
+            assertEquals(0, repositories.oeuvres().countDisponibles());
+        }
+    }
+
+    @Test
+    void emprunterRendre_quandPlusieursThreadsSeRelaient_laBaseDoitSuivreLeDernierEtat() throws Exception {
+        try (RepositoriesJdbc repositories = ouvrir()) {
+            // Arrange : Une œuvre que se disputent des membres différents
+            MediathequeService service = new MediathequeService(repositories.oeuvres(), repositories.membres(),
+                    repositories.emprunts(), repositories.generateurEmprunts());
+            service.ajouterOeuvre(new Livre(1, "Dune", "Frank Herbert", 2070368229));
+            int threads = 4;
+            for (int i = 1; i <= threads; i++) {
+                service.ajouterMembre(new Membre(i, "Membre " + i));
+            }
+
+            // Act : Retours et emprunts concurrents, sous les verrous de membres différents
+            ExecutorService executeur = Executors.newFixedThreadPool(threads);
+            CountDownLatch depart = new CountDownLatch(1);
+            List<Future<Integer>> resultats = new ArrayList<>();
+            for (int i = 1; i <= threads; i++) {
+                long membreId = i;
+                resultats.add(executeur.submit(() -> {
+                    depart.await();
+                    int reussis = 0;
+                    for (int n = 0; n < 200; n++) {
+                        try {
+                            service.rendre(service.emprunter(membreId, 1));
+                            reussis++;
+                        } catch (IllegalStateException e) {
+                            // Œuvre empruntée par un autre membre
+                        }
+                    }
+                    return reussis;
+                }));
+            }
+            depart.countDown();
+            int reussis = 0;
+            for (Future<Integer> resultat : resultats) {
+                reussis += resultat.get();
+            }
+            executeur.shutdown();
+
+            // Assert : Aucun emprunt actif, et la ligne dit l'œuvre disponible
+            assertTrue(reussis > 0);
+            assertEquals(0, repositories.emprunts().findAll().stream().filter(Emprunt::estActif).count());
+            assertEquals(1, repositories.oeuvres().countDisponibles());
+            assertEquals(List.of(1L), repositories.oeuvres().findDisponibles().stream()
+                    .map(Oeuvre::getId).collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package exam.repo.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connexion à la base et requêtes préparées déjà compilées sur cette connexion.
+ * <p>
+ * Une session n'est utilisée que par un thread à la fois (voir {@link Connexions}) :
+ * chaque requête n'est préparée qu'une fois, puis réutilisée par les appels suivants.
+ */
+final class Session {
+
+    private final Connection connexion;
+    private final Map<String, PreparedStatement> requetes = new HashMap<>();
+
+    Session(Connection connexion) {
+        this.connexion = connexion;
+    }
+
+    /**
+     * Retourne la requête préparée d'un texte SQL, en la préparant au premier appel.
+     * Ses paramètres sont ceux du dernier appel : ils doivent tous être redéfinis.
+     */
+    PreparedStatement requete(String sql) throws SQLException {
+        PreparedStatement requete = requetes.get(sql);
+        if (requete == null) {
+            requete = connexion.prepareStatement(sql);
+            requetes.put(sql, requete);
+        }
+        return requete;
+    }
+
+    Connection connexion() {
+        return connexion;
+    }
+
+    void fermer() throws SQLException {
+        for (PreparedStatement requete : requetes.values()) {
+            requete.close();
+        }
+        requetes.clear();
+        connexion.close();
+    }
+}
@@ -0,0 +1,152 @@
+package exam.repo.journal;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Encodage binaire des entités du domaine.
+ * <p>
+ * Chaque entité commence par un octet de type, suivi de ses champs.
+ * L'état mutable (disponibilité, statut, date de retour) est encodé
+ * avec l'entité : relire un enregistrement restitue l'état au moment
+ * de sa sauvegarde.
+ */
+final class CodecEntites {
+
+    private static final byte LIVRE = 1;
+    private static final byte DVD = 2;
+    private static final byte MEMBRE = 3;
+    private static final byte EMPRUNT = 4;
+
+    /**
+     * Valeur encodée pour une date de retour absente (emprunt actif).
+     */
+    private static final long SANS_DATE = Long.MIN_VALUE;
+
+    private CodecEntites() {
+    }
+
+    static void ecrireOeuvre(Oeuvre oeuvre, ByteBuffer tampon) {
+        if (oeuvre instanceof Livre) {
+            Livre livre = (Livre) oeuvre;
+            tampon.put(LIVRE);
+            ecrireEnteteOeuvre(livre, tampon);
+            ecrireTexte(livre.getAuteur(), tampon);
+            tampon.putInt(livre.getIsbn());
+        } else if (oeuvre instanceof Dvd) {
+            Dvd dvd = (Dvd) oeuvre;
+            tampon.put(DVD);
+            ecrireEnteteOeuvre(dvd, tampon);
+            ecrireTexte(dvd.getRealisateur(), tampon);
+            tampon.putInt(dvd.getDuree());
+        } else {
+            throw new IllegalArgumentException("Type d'œuvre non pris en charge : " + oeuvre.getClass().getName());
+        }
+    }
+
+    private static void ecrireEnteteOeuvre(Oeuvre oeuvre, ByteBuffer tampon) {
+        tampon.putLong(oeuvre.getId());
+        tampon.put((byte) (oeuvre.isDisponible() ? 1 : 0));
+        ecrireTexte(oeuvre.getTitre(), tampon);
+    }
+
+    static void ecrireMembre(Membre membre, ByteBuffer tampon) {
+        tampon.put(MEMBRE);
+        tampon.putLong(membre.getId());
+        tampon.put((byte) (membre.estActif() ? 1 : 0));
+        ecrireTexte(membre.getNom(), tampon);
+    }
+
+    static void ecrireEmprunt(Emprunt emprunt, ByteBuffer tampon) {
+        tampon.put(EMPRUNT);
+        tampon.putLong(emprunt.getId());
+        tampon.putLong(emprunt.getIdMembre());
+        tampon.putLong(emprunt.getIdOeuvre());
+        tampon.putLong(emprunt.getDateEmprunt().toEpochDay());
+        LocalDate dateRetour = emprunt.getDateRetour();
+        tampon.putLong(dateRetour == null ? SANS_DATE : dateRetour.toEpochDay());
+    }
+
+    /**
+     * Décode une entité et la sauvegarde dans le repository correspondant.
+     *
+     * @param tampon contenu d'un enregistrement
+     * @throws IllegalStateException si le type d'entité est inconnu
+     */
+    static void appliquer(ByteBuffer tampon, OeuvreRepository oeuvres,
+                          MembreRepository membres, EmpruntRepository emprunts) {
+        byte type = tampon.get();
+        switch (type) {
+            case LIVRE:
+            case DVD:
+                oeuvres.save(lireOeuvre(type, tampon));
+                break;
+            case MEMBRE:
+                membres.save(lireMembre(tampon));
+                break;
+            case EMPRUNT:
+                emprunts.save(lireEmprunt(tampon));
+                break;
+            default:
+                throw new IllegalStateException("Type d'enregistrement inconnu : " + type);
+        }
+    }
+
+    private static Oeuvre lireOeuvre(byte type, ByteBuffer tampon) {
+        long id = tampon.getLong();
+        boolean disponible = tampon.get() != 0;
+        String titre = lireTexte(tampon);
+        String texte = lireTexte(tampon);
+        int nombre = tampon.getInt();
+        Oeuvre oeuvre = type == LIVRE ? new Livre(id, titre, texte, nombre) : new Dvd(id, titre, texte, nombre);
+        if (!disponible) {
+            oeuvre.tenterMarquerIndisponible();
+        }
+        return oeuvre;
+    }
+
+    private static Membre lireMembre(ByteBuffer tampon) {
+        long id = tampon.getLong();
+        boolean actif = tampon.get() != 0;
+        Membre membre = new Membre(id, lireTexte(tampon));
+        if (!actif) {
+            membre.desactiver();
+        }
+        return membre;
+    }
+
+    private static Emprunt lireEmprunt(ByteBuffer tampon) {
+        long id = tampon.getLong();
+        long idMembre = tampon.getLong();
+        long idOeuvre = tampon.getLong();
+        LocalDate dateEmprunt = LocalDate.ofEpochDay(tampon.getLong());
+        long dateRetour = tampon.getLong();
+        Emprunt emprunt = new Emprunt(id, idMembre, idOeuvre, dateEmprunt);
+        if (dateRetour != SANS_DATE) {
+            emprunt.marquerRetour(LocalDate.ofEpochDay(dateRetour));
+        }
+        return emprunt;
+    }
+
+    private static void ecrireTexte(String texte, ByteBuffer tampon) {
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        tampon.putInt(octets.length);
+        tampon.put(octets);
+    }
+
+    private static String lireTexte(ByteBuffer tampon) {
+        byte[] octets = new byte[tampon.getInt()];
+        tampon.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,241 @@
+package exam.repo.journal;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané binaire de l'état des repositories.
+ * <p>
+ * Format du fichier :
+ * <pre>
+ * [magique:int][version:int][premierSegment:long]
+ * [bloc]...                                   entités encodées par {@link CodecEntites}
+ * [position:long][longueur:int][crc32:int]... table des blocs
+ * [positionTable:long][nombreBlocs:int][magique:int]
+ * </pre>
+ * Chaque bloc ne contient que des entités complètes : les blocs sont donc
+ * décodés indépendamment, en parallèle, à partir de projections mémoire
+ * du fichier. {@code premierSegment} est le numéro du premier segment de
+ * journal à rejouer après chargement.
+ * <p>
+ * L'instantané est écrit dans un fichier temporaire puis renommé
+ * atomiquement : un instantané présent est toujours complet.
+ */
+final class Instantane {
+
+    private static final int MAGIQUE = 0x4D454449; // "MEDI"
+    private static final int VERSION = 1;
+    private static final int TAILLE_ENTETE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int TAILLE_ENTREE_TABLE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int TAILLE_PIED = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /**
+     * Taille cible d'un bloc : assez petite pour répartir le décodage
+     * entre les cœurs, assez grande pour amortir la projection mémoire.
+     */
+    private static final int TAILLE_BLOC = 1 << 20;
+
+    private Instantane() {
+    }
+
+    /**
+     * Écrit un instantané d'un état capturé.
+     *
+     * @param fichier        chemin de l'instantané (remplacé s'il existe)
+     * @param premierSegment premier segment de journal non couvert par l'instantané
+     * @param oeuvres        œuvres capturées
+     * @param membres        membres capturés
+     * @param emprunts       emprunts capturés
+     * @throws UncheckedIOException si l'écriture échoue
+     */
+    static void ecrire(Path fichier, long premierSegment, Collection<Oeuvre> oeuvres,
+                       Collection<Membre> membres, Collection<Emprunt> emprunts) {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+            entete.putInt(MAGIQUE).putInt(VERSION).putLong(premierSegment).flip();
+            ecrireTout(canal, entete);
+
+            Redacteur redacteur = new Redacteur(canal);
+            redacteur.ecrire(oeuvres.stream(), CodecEntites::ecrireOeuvre);
+            redacteur.ecrire(membres.stream(), CodecEntites::ecrireMembre);
+            redacteur.ecrire(emprunts.stream(), CodecEntites::ecrireEmprunt);
+            redacteur.vider();
+
+            List<Bloc> blocs = redacteur.blocs;
+            long positionTable = canal.position();
+            ByteBuffer table = ByteBuffer.allocate(blocs.size() * TAILLE_ENTREE_TABLE + TAILLE_PIED);
+            for (Bloc bloc : blocs) {
+                table.putLong(bloc.position).putInt(bloc.longueur).putInt(bloc.crc);
+            }
+            table.putLong(positionTable).putInt(blocs.size()).putInt(MAGIQUE).flip();
+            ecrireTout(canal, table);
+            canal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'écrire l'instantané " + fichier, e);
+        }
+        try {
+            Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de remplacer l'instantané " + fichier, e);
+        }
+    }
+
+    /**
+     * Charge un instantané dans les repositories, en décodant ses blocs en parallèle.
+     *
+     * @param fichier chemin de l'instantané
+     * @return le premier segment de journal à rejouer, ou {@code 1} s'il n'y a pas d'instantané
+     * @throws IllegalStateException si l'instantané est corrompu
+     * @throws UncheckedIOException  si le fichier ne peut pas être lu
+     */
+    static long charger(Path fichier, OeuvreRepository oeuvres,
+                        MembreRepository membres, EmpruntRepository emprunts) {
+        if (!Files.exists(fichier))
+            return 1;
+
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille < TAILLE_ENTETE + TAILLE_PIED)
+                throw new IllegalStateException("Instantané tronqué : " + fichier);
+
+            ByteBuffer entete = lire(canal, 0, TAILLE_ENTETE);
+            if (entete.getInt() != MAGIQUE || entete.getInt() != VERSION)
+                throw new IllegalStateException("Format d'instantané non reconnu : " + fichier);
+            long premierSegment = entete.getLong();
+
+            ByteBuffer pied = lire(canal, taille - TAILLE_PIED, TAILLE_PIED);
+            long positionTable = pied.getLong();
+            int nombreBlocs = pied.getInt();
+            if (pied.getInt() != MAGIQUE
+                    || positionTable + (long) nombreBlocs * TAILLE_ENTREE_TABLE != taille - TAILLE_PIED)
+                throw new IllegalStateException("Table des blocs corrompue : " + fichier);
+
+            ByteBuffer table = lire(canal, positionTable, nombreBlocs * TAILLE_ENTREE_TABLE);
+            List<Bloc> blocs = new ArrayList<>(nombreBlocs);
+            for (int i = 0; i < nombreBlocs; i++) {
+                blocs.add(new Bloc(table.getLong(), table.getInt(), table.getInt()));
+            }
+
+            blocs.parallelStream().forEach(bloc -> decoder(canal, bloc, oeuvres, membres, emprunts));
+            return premierSegment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de lire l'instantané " + fichier, e);
+        }
+    }
+
+    private static void decoder(FileChannel canal, Bloc bloc, OeuvreRepository oeuvres,
+                                MembreRepository membres, EmpruntRepository emprunts) {
+        MappedByteBuffer projection;
+        try {
+            projection = canal.map(FileChannel.MapMode.READ_ONLY, bloc.position, bloc.longueur);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de projeter un bloc de l'instantané", e);
+        }
+        CRC32 controle = new CRC32();
+        controle.update(projection.duplicate());
+        if ((int) controle.getValue() != bloc.crc)
+            throw new IllegalStateException("Bloc d'instantané corrompu à la position " + bloc.position);
+
+        while (projection.hasRemaining()) {
+            CodecEntites.appliquer(projection, oeuvres, membres, emprunts);
+        }
+    }
+
+    private static ByteBuffer lire(FileChannel canal, long position, int longueur) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(longueur);
+        while (tampon.hasRemaining()) {
+            if (canal.read(tampon, position + tampon.position()) < 0)
+                throw new IllegalStateException("Instantané tronqué");
+        }
+        return tampon.flip();
+    }
+
+    private static void ecrireTout(FileChannel canal, ByteBuffer tampon) throws IOException {
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+    }
+
+    /**
+     * Position, longueur et somme de contrôle d'un bloc d'entités.
+     */
+    private static final class Bloc {
+        final long position;
+        final int longueur;
+        final int crc;
+
+        Bloc(long position, int longueur, int crc) {
+            this.position = position;
+            this.longueur = longueur;
+            this.crc = crc;
+        }
+    }
+
+    /**
+     * Regroupe les entités encodées en blocs et les écrit au fil de l'eau.
+     */
+    private static final class Redacteur {
+        private final FileChannel canal;
+        private final List<Bloc> blocs = new ArrayList<>();
+        private final CRC32 controle = new CRC32();
+        private ByteBuffer tampon = ByteBuffer.allocate(TAILLE_BLOC);
+
+        Redacteur(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        <T> void ecrire(Stream<T> entites, BiConsumer<T, ByteBuffer> encodeur) throws IOException {
+            for (T entite : (Iterable<T>) entites::iterator) {
+                while (true) {
+                    int debut = tampon.position();
+                    try {
+                        encodeur.accept(entite, tampon);
+                        break;
+                    } catch (BufferOverflowException e) {
+                        tampon.position(debut);
+                        if (debut == 0) {
+                            // Entité plus grande qu'un bloc entier
+                            tampon = ByteBuffer.allocate(tampon.capacity() * 2);
+                        } else {
+                            vider();
+                        }
+                    }
+                }
+            }
+        }
+
+        void vider() throws IOException {
+            if (tampon.position() == 0)
+                return;
+            tampon.flip();
+            controle.reset();
+            controle.update(tampon.array(), tampon.arrayOffset(), tampon.limit());
+            blocs.add(new Bloc(canal.position(), tampon.limit(), (int) controle.getValue()));
+            ecrireTout(canal, tampon);
+            tampon.clear();
+        }
+    }
+}
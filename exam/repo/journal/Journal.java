@@ -0,0 +1,414 @@
+package exam.repo.journal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'écriture anticipée (write-ahead log) en ajout seul.
+ * <p>
+ * Chaque enregistrement est stocké sous la forme
+ * {@code [longueur:int][contenu][crc32:int]}. À l'ouverture, les
+ * enregistrements existants sont relus dans l'ordre ; un enregistrement
+ * incomplet ou corrompu (écriture interrompue par une panne) marque la fin
+ * du journal, qui est tronqué à cet endroit.
+ * <p>
+ * Les enregistrements sont encodés sous verrou, dans un tampon partagé :
+ * l'ordre du journal est donc l'ordre des appels à {@link #ajouter(List)}.
+ * Selon le {@link ModeDurabilite}, le tampon est écrit et forcé sur disque
+ * par l'appelant lui-même ou par un thread d'écriture dédié, qui regroupe
+ * les enregistrements de nombreux appelants en un seul fsync.
+ * <p>
+ * Le journal peut être basculé vers un nouveau fichier (segment) sans
+ * interrompre les appelants au-delà de l'écriture du lot en cours.
+ */
+public final class Journal implements AutoCloseable {
+
+    /**
+     * Taille maximale d'un enregistrement relu (protection contre une longueur corrompue).
+     */
+    private static final int TAILLE_MAX_ENREGISTREMENT = 16 * 1024 * 1024;
+
+    /**
+     * Au-delà de ce volume en attente, le thread d'écriture n'attend plus
+     * la fin du délai de groupe.
+     */
+    private static final int SEUIL_ECRITURE = 256 * 1024;
+
+    private FileChannel canal;
+    private final ModeDurabilite mode;
+    private final long delaiGroupeNanos;
+
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Condition aEcrire = verrou.newCondition();
+    private final Condition ecrit = verrou.newCondition();
+
+    private ByteBuffer enAttente = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer enEcriture = ByteBuffer.allocate(64 * 1024);
+    private long sequenceAjoutee;
+    private long sequenceDurable;
+    private boolean ecritureEnCours;
+    private boolean ferme;
+    private IOException erreur;
+
+    private final Thread ecrivain;
+    private final CRC32 crc = new CRC32();
+
+    private Journal(FileChannel canal, ModeDurabilite mode, Duration delaiGroupe) {
+        this.canal = canal;
+        this.mode = mode;
+        this.delaiGroupeNanos = delaiGroupe.toNanos();
+        if (mode == ModeDurabilite.SYNCHRONE) {
+            this.ecrivain = null;
+        } else {
+            this.ecrivain = new Thread(this::boucleEcriture, "journal-ecriture");
+            this.ecrivain.setDaemon(true);
+            this.ecrivain.start();
+        }
+    }
+
+    /**
+     * Ouvre (ou crée) un journal, relit ses enregistrements puis le prépare
+     * pour de nouveaux ajouts.
+     *
+     * @param fichier     chemin du journal (non null)
+     * @param mode        mode de durabilité (non null)
+     * @param delaiGroupe attente maximale pour regrouper des écritures
+     *                    (mode GROUPE) ou période d'écriture (mode ASYNCHRONE) ; non null, positif ou nul
+     * @param lecteur     reçoit le contenu de chaque enregistrement existant, dans l'ordre (non null)
+     * @return le journal ouvert
+     * @throws IllegalArgumentException si un paramètre est null ou si le délai est négatif
+     * @throws UncheckedIOException     si le fichier ne peut pas être lu ou ouvert
+     */
+    public static Journal ouvrir(Path fichier, ModeDurabilite mode, Duration delaiGroupe,
+                                 Consumer<ByteBuffer> lecteur) {
+        if (fichier == null || mode == null || delaiGroupe == null || lecteur == null)
+            throw new IllegalArgumentException("Les paramètres du journal ne peuvent pas être null");
+        if (delaiGroupe.isNegative())
+            throw new IllegalArgumentException("Le délai de groupe ne peut pas être négatif");
+
+        try {
+            FileChannel canal = FileChannel.open(fichier,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long finValide = relire(canal, lecteur);
+            if (finValide < canal.size()) {
+                // Fin de journal incomplète : on repart du dernier enregistrement valide
+                canal.truncate(finValide);
+                canal.force(true);
+            }
+            canal.position(finValide);
+            return new Journal(canal, mode, delaiGroupe);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le journal " + fichier, e);
+        }
+    }
+
+    /**
+     * Relit les enregistrements valides d'un journal fermé (segment ancien),
+     * sans le modifier.
+     *
+     * @param fichier chemin du journal (non null)
+     * @param lecteur reçoit le contenu de chaque enregistrement, dans l'ordre (non null)
+     * @throws UncheckedIOException si le fichier ne peut pas être lu
+     */
+    static void relire(Path fichier, Consumer<ByteBuffer> lecteur) {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            relire(canal, lecteur);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de relire le journal " + fichier, e);
+        }
+    }
+
+    /**
+     * Relit les enregistrements valides d'un journal.
+     *
+     * @return la position qui suit le dernier enregistrement valide
+     */
+    private static long relire(FileChannel canal, Consumer<ByteBuffer> lecteur) throws IOException {
+        canal.position(0);
+        InputStream flux = new BufferedInputStream(Channels.newInputStream(canal), 1 << 16);
+        DataInputStream entree = new DataInputStream(flux);
+        CRC32 controle = new CRC32();
+        long position = 0;
+        while (true) {
+            try {
+                int longueur = entree.readInt();
+                if (longueur <= 0 || longueur > TAILLE_MAX_ENREGISTREMENT) {
+                    return position;
+                }
+                byte[] contenu = new byte[longueur];
+                entree.readFully(contenu);
+                int crcAttendu = entree.readInt();
+                controle.reset();
+                controle.update(contenu);
+                if ((int) controle.getValue() != crcAttendu) {
+                    return position;
+                }
+                lecteur.accept(ByteBuffer.wrap(contenu).asReadOnlyBuffer());
+                position += Integer.BYTES + longueur + Integer.BYTES;
+            } catch (EOFException e) {
+                return position;
+            }
+        }
+    }
+
+    /**
+     * Ajoute un enregistrement au journal.
+     *
+     * @param encodeur écrit le contenu de l'enregistrement dans le tampon fourni (non null)
+     * @throws IllegalStateException si le journal est fermé
+     * @throws UncheckedIOException  si l'écriture sur disque a échoué
+     */
+    public void ajouter(Consumer<ByteBuffer> encodeur) {
+        ajouter(List.of(encodeur));
+    }
+
+    /**
+     * Ajoute plusieurs enregistrements au journal, de façon contiguë.
+     * <p>
+     * Selon le mode, la méthode rend la main quand les enregistrements sont
+     * sur disque (SYNCHRONE, GROUPE) ou dès qu'ils sont en mémoire (ASYNCHRONE).
+     * Si un encodeur lève une exception, aucun des enregistrements de l'appel
+     * n'est ajouté et l'exception est propagée.
+     *
+     * @param encodeurs écrivent chacun le contenu d'un enregistrement (non null)
+     * @throws IllegalStateException si le journal est fermé
+     * @throws UncheckedIOException  si l'écriture sur disque a échoué
+     */
+    public void ajouter(List<? extends Consumer<ByteBuffer>> encodeurs) {
+        if (encodeurs == null)
+            throw new IllegalArgumentException("La liste des enregistrements ne peut pas être null");
+        if (encodeurs.isEmpty())
+            return;
+
+        verrou.lock();
+        try {
+            verifierUtilisable();
+            int debut = enAttente.position();
+            try {
+                for (Consumer<ByteBuffer> encodeur : encodeurs) {
+                    encoder(encodeur);
+                }
+            } catch (RuntimeException e) {
+                // Aucun enregistrement de l'appel ne doit rester en attente
+                enAttente.position(debut);
+                throw e;
+            }
+            long sequence = ++sequenceAjoutee;
+
+            if (mode == ModeDurabilite.SYNCHRONE) {
+                ecrireEtForcer(enAttente);
+                sequenceDurable = sequence;
+                return;
+            }
+
+            aEcrire.signal();
+            if (mode == ModeDurabilite.GROUPE) {
+                while (sequenceDurable < sequence && erreur == null) {
+                    ecrit.awaitUninterruptibly();
+                }
+                verifierUtilisable();
+            }
+        } catch (IOException e) {
+            erreur = e;
+            throw new UncheckedIOException("Échec d'écriture dans le journal", e);
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Encode un enregistrement à la fin du tampon en attente, en l'agrandissant si nécessaire.
+     */
+    private void encoder(Consumer<ByteBuffer> encodeur) {
+        while (true) {
+            int debut = enAttente.position();
+            try {
+                enAttente.putInt(0); // longueur, complétée après encodage
+                encodeur.accept(enAttente);
+                int longueur = enAttente.position() - debut - Integer.BYTES;
+                crc.reset();
+                crc.update(enAttente.array(), enAttente.arrayOffset() + debut + Integer.BYTES, longueur);
+                enAttente.putInt((int) crc.getValue());
+                enAttente.putInt(debut, longueur);
+                return;
+            } catch (BufferOverflowException e) {
+                enAttente.position(debut);
+                enAttente = agrandir(enAttente);
+            }
+        }
+    }
+
+    private static ByteBuffer agrandir(ByteBuffer tampon) {
+        ByteBuffer plusGrand = ByteBuffer.allocate(tampon.capacity() * 2);
+        tampon.flip();
+        plusGrand.put(tampon);
+        return plusGrand;
+    }
+
+    /**
+     * Écrit le contenu du tampon à la fin du journal, force l'écriture sur disque
+     * et vide le tampon.
+     */
+    private void ecrireEtForcer(ByteBuffer tampon) throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        canal.force(false);
+        tampon.clear();
+    }
+
+    /**
+     * Boucle du thread d'écriture (modes GROUPE et ASYNCHRONE).
+     */
+    private void boucleEcriture() {
+        while (true) {
+            long lot;
+            verrou.lock();
+            try {
+                while (enAttente.position() == 0 && !ferme) {
+                    aEcrire.awaitUninterruptibly();
+                }
+                if (enAttente.position() == 0) {
+                    return; // fermé et tout est écrit
+                }
+                // Laisser à d'autres écritures le temps de rejoindre le lot
+                long restant = delaiGroupeNanos;
+                while (restant > 0 && !ferme && enAttente.position() < SEUIL_ECRITURE) {
+                    try {
+                        restant = aEcrire.awaitNanos(restant);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                ByteBuffer plein = enAttente;
+                enAttente = enEcriture;
+                enEcriture = plein;
+                lot = sequenceAjoutee;
+                ecritureEnCours = true;
+            } finally {
+                verrou.unlock();
+            }
+
+            IOException echec = null;
+            try {
+                ecrireEtForcer(enEcriture);
+            } catch (IOException e) {
+                echec = e;
+            }
+
+            verrou.lock();
+            try {
+                ecritureEnCours = false;
+                if (echec != null) {
+                    erreur = echec;
+                } else {
+                    sequenceDurable = lot;
+                }
+                ecrit.signalAll();
+                if (echec != null) {
+                    return;
+                }
+            } finally {
+                verrou.unlock();
+            }
+        }
+    }
+
+    /**
+     * Bascule le journal vers un nouveau fichier.
+     * <p>
+     * Les enregistrements déjà ajoutés sont écrits et forcés dans le fichier
+     * courant, qui est ensuite fermé ; les ajouts suivants vont dans le
+     * nouveau fichier. Les appelants concurrents sont bloqués le temps
+     * de la bascule.
+     *
+     * @param nouveauFichier chemin du nouveau segment (non null, créé s'il n'existe pas)
+     * @throws IllegalStateException si le journal est fermé
+     * @throws UncheckedIOException  si l'écriture ou l'ouverture échoue
+     */
+    public void basculer(Path nouveauFichier) {
+        if (nouveauFichier == null)
+            throw new IllegalArgumentException("Le fichier ne peut pas être null");
+        verrou.lock();
+        try {
+            verifierUtilisable();
+            // Attendre que le thread d'écriture ait vidé le tampon en attente
+            while ((enAttente.position() > 0 && ecrivain != null) || ecritureEnCours) {
+                aEcrire.signal();
+                ecrit.awaitUninterruptibly();
+                verifierUtilisable();
+            }
+            if (enAttente.position() > 0) {
+                ecrireEtForcer(enAttente);
+            }
+            sequenceDurable = sequenceAjoutee;
+            FileChannel nouveau = FileChannel.open(nouveauFichier,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            nouveau.position(nouveau.size());
+            canal.force(true);
+            canal.close();
+            canal = nouveau;
+        } catch (IOException e) {
+            erreur = e;
+            throw new UncheckedIOException("Impossible de basculer le journal", e);
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void verifierUtilisable() {
+        if (erreur != null)
+            throw new UncheckedIOException("Le journal est inutilisable après un échec d'écriture", erreur);
+        if (ferme)
+            throw new IllegalStateException("Le journal est fermé");
+    }
+
+    /**
+     * Écrit les enregistrements en attente, force le journal sur disque et le ferme.
+     * Méthode idempotente.
+     *
+     * @throws UncheckedIOException si la fermeture échoue
+     */
+    @Override
+    public void close() {
+        verrou.lock();
+        try {
+            if (ferme)
+                return;
+            ferme = true;
+            aEcrire.signal();
+        } finally {
+            verrou.unlock();
+        }
+        try {
+            if (ecrivain != null) {
+                ecrivain.join(TimeUnit.SECONDS.toMillis(30));
+            }
+            canal.force(true);
+            canal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de fermer le journal", e);
+        }
+    }
+}
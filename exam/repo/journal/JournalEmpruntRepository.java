@@ -0,0 +1,121 @@
+package exam.repo.journal;
+
+import exam.domain.emprunt.Emprunt;
+import exam.repo.EmpruntRepository;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link EmpruntRepository} journalisé : chaque sauvegarde est ajoutée au
+ * journal avant d'être appliquée au repository délégué.
+ * <p>
+ * Les lectures sont servies directement par le repository délégué.
+ * <p>
+ * Chaque sauvegarde tient le verrou de lecture de la barrière des
+ * instantanés de l'ajout au journal jusqu'à l'application au délégué :
+ * un instantané ne peut pas basculer le journal entre les deux, et donc
+ * ni omettre ni supprimer une sauvegarde déjà acquittée.
+ */
+final class JournalEmpruntRepository implements EmpruntRepository {
+
+    private final EmpruntRepository delegue;
+    private final Journal journal;
+    private final Lock barriere;
+
+    JournalEmpruntRepository(EmpruntRepository delegue, Journal journal, Lock barriere) {
+        this.delegue = delegue;
+        this.journal = journal;
+        this.barriere = barriere;
+    }
+
+    @Override
+    public Optional<Emprunt> findById(long id) {
+        return delegue.findById(id);
+    }
+
+    @Override
+    public List<Emprunt> findAll() {
+        return delegue.findAll();
+    }
+
+    @Override
+    public List<Emprunt> findPage(long apresId, int limite) {
+        return delegue.findPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Emprunt> stream() {
+        return delegue.stream();
+    }
+
+    @Override
+    public int count() {
+        return delegue.count();
+    }
+
+    @Override
+    public List<Emprunt> findActifsByMembreId(long membreId) {
+        return delegue.findActifsByMembreId(membreId);
+    }
+
+    @Override
+    public int countActifsByMembreId(long membreId) {
+        return delegue.countActifsByMembreId(membreId);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * L'emprunt est journalisé (date de retour comprise) avant d'être
+     * appliqué au repository délégué.
+     *
+     * @throws IllegalArgumentException si l'emprunt est null
+     */
+    @Override
+    public void save(Emprunt emprunt) {
+        if (emprunt == null) {
+            throw new IllegalArgumentException("L'emprunt ne peut pas être null");
+        }
+        barriere.lock();
+        try {
+            journal.ajouter(tampon -> CodecEntites.ecrireEmprunt(emprunt, tampon));
+            delegue.save(emprunt);
+        } finally {
+            barriere.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Tous les emprunts sont journalisés en un seul ajout (une seule attente
+     * de durabilité), puis appliqués au repository délégué.
+     */
+    @Override
+    public void saveAll(Collection<Emprunt> emprunts) {
+        if (emprunts == null) {
+            throw new IllegalArgumentException("La collection d'emprunts ne peut pas être null");
+        }
+        List<Consumer<ByteBuffer>> encodeurs = new ArrayList<>(emprunts.size());
+        for (Emprunt emprunt : emprunts) {
+            if (emprunt == null) {
+                throw new IllegalArgumentException("L'emprunt ne peut pas être null");
+            }
+            encodeurs.add(tampon -> CodecEntites.ecrireEmprunt(emprunt, tampon));
+        }
+        barriere.lock();
+        try {
+            journal.ajouter(encodeurs);
+            delegue.saveAll(emprunts);
+        } finally {
+            barriere.unlock();
+        }
+    }
+}
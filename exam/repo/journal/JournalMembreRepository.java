@@ -0,0 +1,79 @@
+package exam.repo.journal;
+
+import exam.domain.membre.Membre;
+import exam.repo.MembreRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+/**
+ * {@link MembreRepository} journalisé : chaque sauvegarde est ajoutée au
+ * journal avant d'être appliquée au repository délégué.
+ * <p>
+ * Les lectures sont servies directement par le repository délégué.
+ * <p>
+ * Comme pour les emprunts, chaque sauvegarde tient la barrière des
+ * instantanés en lecture, de l'ajout au journal à l'application au délégué
+ * (voir {@link RepositoriesJournalises#instantane()}).
+ */
+final class JournalMembreRepository implements MembreRepository {
+
+    private final MembreRepository delegue;
+    private final Journal journal;
+    private final Lock barriere;
+
+    JournalMembreRepository(MembreRepository delegue, Journal journal, Lock barriere) {
+        this.delegue = delegue;
+        this.journal = journal;
+        this.barriere = barriere;
+    }
+
+    @Override
+    public Optional<Membre> findById(long id) {
+        return delegue.findById(id);
+    }
+
+    @Override
+    public List<Membre> findAll() {
+        return delegue.findAll();
+    }
+
+    @Override
+    public List<Membre> findPage(long apresId, int limite) {
+        return delegue.findPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Membre> stream() {
+        return delegue.stream();
+    }
+
+    @Override
+    public int count() {
+        return delegue.count();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Le membre est journalisé (statut compris) avant d'être appliqué
+     * au repository délégué.
+     *
+     * @throws IllegalArgumentException si le membre est null
+     */
+    @Override
+    public void save(Membre membre) {
+        if (membre == null) {
+            throw new IllegalArgumentException("Le membre ne peut pas être null");
+        }
+        barriere.lock();
+        try {
+            journal.ajouter(tampon -> CodecEntites.ecrireMembre(membre, tampon));
+            delegue.save(membre);
+        } finally {
+            barriere.unlock();
+        }
+    }
+}
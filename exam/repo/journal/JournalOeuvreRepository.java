@@ -0,0 +1,130 @@
+package exam.repo.journal;
+
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.OeuvreRepository;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link OeuvreRepository} journalisé : chaque sauvegarde est ajoutée au
+ * journal avant d'être appliquée au repository délégué.
+ * <p>
+ * Les lectures sont servies directement par le repository délégué.
+ * <p>
+ * Comme pour les emprunts, chaque sauvegarde tient la barrière des
+ * instantanés en lecture, de l'ajout au journal à l'application au délégué
+ * (voir {@link RepositoriesJournalises#instantane()}).
+ */
+final class JournalOeuvreRepository implements OeuvreRepository {
+
+    private final OeuvreRepository delegue;
+    private final Journal journal;
+    private final Lock barriere;
+
+    JournalOeuvreRepository(OeuvreRepository delegue, Journal journal, Lock barriere) {
+        this.delegue = delegue;
+        this.journal = journal;
+        this.barriere = barriere;
+    }
+
+    @Override
+    public Optional<Oeuvre> findById(long id) {
+        return delegue.findById(id);
+    }
+
+    @Override
+    public List<Oeuvre> findAll() {
+        return delegue.findAll();
+    }
+
+    @Override
+    public List<Oeuvre> findPage(long apresId, int limite) {
+        return delegue.findPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Oeuvre> stream() {
+        return delegue.stream();
+    }
+
+    @Override
+    public int count() {
+        return delegue.count();
+    }
+
+    @Override
+    public List<Oeuvre> findDisponibles() {
+        return delegue.findDisponibles();
+    }
+
+    @Override
+    public int countDisponibles() {
+        return delegue.countDisponibles();
+    }
+
+    @Override
+    public List<Oeuvre> findDisponiblesPage(long apresId, int limite) {
+        return delegue.findDisponiblesPage(apresId, limite);
+    }
+
+    @Override
+    public Stream<Oeuvre> streamDisponibles() {
+        return delegue.streamDisponibles();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * L'œuvre est journalisée (état de disponibilité compris) avant d'être
+     * appliquée au repository délégué.
+     *
+     * @throws IllegalArgumentException si l'œuvre est null
+     */
+    @Override
+    public void save(Oeuvre oeuvre) {
+        if (oeuvre == null) {
+            throw new IllegalArgumentException("L'œuvre ne peut pas être null");
+        }
+        barriere.lock();
+        try {
+            journal.ajouter(tampon -> CodecEntites.ecrireOeuvre(oeuvre, tampon));
+            delegue.save(oeuvre);
+        } finally {
+            barriere.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Toutes les œuvres sont journalisées en un seul ajout (une seule attente
+     * de durabilité), puis appliquées au repository délégué.
+     */
+    @Override
+    public void saveAll(Collection<Oeuvre> oeuvres) {
+        if (oeuvres == null) {
+            throw new IllegalArgumentException("La collection d'œuvres ne peut pas être null");
+        }
+        List<Consumer<ByteBuffer>> encodeurs = new ArrayList<>(oeuvres.size());
+        for (Oeuvre oeuvre : oeuvres) {
+            if (oeuvre == null) {
+                throw new IllegalArgumentException("L'œuvre ne peut pas être null");
+            }
+            encodeurs.add(tampon -> CodecEntites.ecrireOeuvre(oeuvre, tampon));
+        }
+        barriere.lock();
+        try {
+            journal.ajouter(encodeurs);
+            delegue.saveAll(oeuvres);
+        } finally {
+            barriere.unlock();
+        }
+    }
+}
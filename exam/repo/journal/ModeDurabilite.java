@@ -0,0 +1,28 @@
+package exam.repo.journal;
+
+/**
+ * Compromis durabilité / latence du journal d'écriture anticipée.
+ */
+public enum ModeDurabilite {
+
+    /**
+     * Chaque sauvegarde est écrite et forcée sur disque avant de rendre la main.
+     * Durabilité maximale, mais un fsync par opération.
+     */
+    SYNCHRONE,
+
+    /**
+     * Validation groupée : les sauvegardes concurrentes sont écrites et forcées
+     * sur disque ensemble par un thread dédié. Chaque appelant attend que son
+     * lot soit durable ; le délai de groupe borne l'attente supplémentaire
+     * consentie pour accumuler d'autres écritures.
+     */
+    GROUPE,
+
+    /**
+     * Écriture asynchrone : l'appelant rend la main dès que l'enregistrement
+     * est en mémoire ; le journal est forcé sur disque périodiquement.
+     * Une panne peut perdre les écritures du dernier délai.
+     */
+    ASYNCHRONE
+}
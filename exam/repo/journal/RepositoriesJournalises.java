@@ -0,0 +1,366 @@
+package exam.repo.journal;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.repo.EmpruntRepository;
+import exam.repo.MembreRepository;
+import exam.repo.OeuvreRepository;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.util.FichierSeuilIdStore;
+import exam.util.IdGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Repositories durables : état en mémoire, reconstruit au démarrage à partir
+ * d'un instantané et d'un journal d'écriture anticipée.
+ * <p>
+ * Le journal est découpé en segments numérotés. Un {@link #instantane()}
+ * bascule le journal sur un nouveau segment, écrit l'état courant dans un
+ * instantané binaire puis supprime les segments qu'il couvre. À l'ouverture,
+ * l'instantané est chargé (projection mémoire, décodage parallèle) et seuls
+ * les segments suivants sont rejoués : le temps de redémarrage dépend de la
+ * taille de l'état, plus de la longueur de l'historique.
+ * <p>
+ * Les repositories retournés journalisent chaque sauvegarde avant de
+ * l'appliquer. Le seuil des identifiants d'emprunt est conservé dans le
+ * même dossier.
+ */
+public final class RepositoriesJournalises implements AutoCloseable {
+
+    /**
+     * Nom du fichier instantané dans le dossier de données.
+     */
+    public static final String FICHIER_INSTANTANE = "mediatheque.instantane";
+
+    /**
+     * Préfixe et extension des segments de journal ({@code mediatheque-000001.journal}).
+     */
+    static final String PREFIXE_SEGMENT = "mediatheque-";
+    static final String EXTENSION_SEGMENT = ".journal";
+
+    /**
+     * Nom du fichier de seuil des identifiants d'emprunt.
+     */
+    public static final String FICHIER_SEUIL_EMPRUNTS = "emprunts.seuil";
+
+    /**
+     * Délai de groupe par défaut (mode GROUPE) : attente maximale consentie
+     * pour regrouper des écritures concurrentes dans un même fsync.
+     */
+    public static final Duration DELAI_GROUPE_PAR_DEFAUT = Duration.ofMillis(2);
+
+    private static final System.Logger JOURNAL = System.getLogger(RepositoriesJournalises.class.getName());
+
+    private final Path dossier;
+    private final Journal journal;
+    private final InMemoryOeuvreRepository etatOeuvres;
+    private final InMemoryMembreRepository etatMembres;
+    private final InMemoryEmpruntRepository etatEmprunts;
+    private final OeuvreRepository oeuvres;
+    private final MembreRepository membres;
+    private final EmpruntRepository emprunts;
+    private final IdGenerator generateurEmprunts;
+
+    /**
+     * Barrière des instantanés : les sauvegardes en tiennent le côté lecture
+     * de l'ajout au journal à l'application en mémoire, un instantané le côté
+     * écriture le temps de basculer le journal et de capturer l'état.
+     */
+    private final ReadWriteLock barriere = new ReentrantReadWriteLock();
+
+    private long segmentCourant;
+    private ScheduledExecutorService planificateur;
+
+    /**
+     * Échecs des instantanés planifiés : nombre et dernière cause.
+     */
+    private final AtomicLong echecsInstantanes = new AtomicLong();
+    private volatile RuntimeException dernierEchecInstantane;
+
+    private RepositoriesJournalises(Path dossier, Journal journal, long segmentCourant,
+                                   InMemoryOeuvreRepository oeuvres, InMemoryMembreRepository membres,
+                                   InMemoryEmpruntRepository emprunts, IdGenerator generateurEmprunts) {
+        this.dossier = dossier;
+        this.journal = journal;
+        this.segmentCourant = segmentCourant;
+        this.etatOeuvres = oeuvres;
+        this.etatMembres = membres;
+        this.etatEmprunts = emprunts;
+        this.oeuvres = new JournalOeuvreRepository(oeuvres, journal, barriere.readLock());
+        this.membres = new JournalMembreRepository(membres, journal, barriere.readLock());
+        this.emprunts = new JournalEmpruntRepository(emprunts, journal, barriere.readLock());
+        this.generateurEmprunts = generateurEmprunts;
+    }
+
+    /**
+     * Ouvre les repositories durables d'un dossier de données, en le créant si besoin.
+     *
+     * @param dossier     dossier de données (non null)
+     * @param mode        mode de durabilité du journal (non null)
+     * @param delaiGroupe délai de groupe (mode GROUPE) ou période d'écriture (mode ASYNCHRONE)
+     * @return les repositories, dont l'état est celui de la dernière exécution
+     * @throws IllegalArgumentException si un paramètre est null
+     * @throws UncheckedIOException     si le dossier ou le journal ne peuvent pas être ouverts
+     */
+    public static RepositoriesJournalises ouvrir(Path dossier, ModeDurabilite mode, Duration delaiGroupe) {
+        if (dossier == null)
+            throw new IllegalArgumentException("Le dossier de données ne peut pas être null");
+        try {
+            Files.createDirectories(dossier);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de créer le dossier " + dossier, e);
+        }
+
+        InMemoryOeuvreRepository oeuvres = new InMemoryOeuvreRepository();
+        InMemoryMembreRepository membres = new InMemoryMembreRepository();
+        InMemoryEmpruntRepository emprunts = new InMemoryEmpruntRepository();
+
+        long premierSegment = Instantane.charger(dossier.resolve(FICHIER_INSTANTANE), oeuvres, membres, emprunts);
+
+        // Segments à rejouer ; ceux qui précèdent l'instantané sont des restes
+        // d'une suppression interrompue
+        List<Long> aRejouer = new ArrayList<>();
+        for (long numero : segments(dossier)) {
+            if (numero < premierSegment) {
+                supprimer(segment(dossier, numero));
+            } else {
+                aRejouer.add(numero);
+            }
+        }
+        long dernier = aRejouer.isEmpty() ? premierSegment : aRejouer.get(aRejouer.size() - 1);
+        for (long numero : aRejouer) {
+            if (numero != dernier) {
+                Journal.relire(segment(dossier, numero),
+                        contenu -> CodecEntites.appliquer(contenu, oeuvres, membres, emprunts));
+            }
+        }
+        Journal journal = Journal.ouvrir(segment(dossier, dernier), mode, delaiGroupe,
+                contenu -> CodecEntites.appliquer(contenu, oeuvres, membres, emprunts));
+        reconcilierDisponibilites(oeuvres, emprunts);
+
+        IdGenerator generateur = new IdGenerator(
+                new FichierSeuilIdStore(dossier.resolve(FICHIER_SEUIL_EMPRUNTS)),
+                IdGenerator.TAILLE_BLOC_PAR_DEFAUT);
+
+        return new RepositoriesJournalises(dossier, journal, dernier, oeuvres, membres, emprunts, generateur);
+    }
+
+    /**
+     * Ouvre les repositories durables en mode GROUPE avec le délai par défaut.
+     *
+     * @param dossier dossier de données (non null)
+     * @return les repositories
+     */
+    public static RepositoriesJournalises ouvrir(Path dossier) {
+        return ouvrir(dossier, ModeDurabilite.GROUPE, DELAI_GROUPE_PAR_DEFAUT);
+    }
+
+    /**
+     * Aligne la disponibilité des œuvres sur les emprunts actifs.
+     * <p>
+     * Une panne entre la réservation d'une œuvre et la journalisation de
+     * l'emprunt (ou l'inverse) peut laisser un état où l'œuvre et ses emprunts
+     * se contredisent ; l'emprunt fait foi.
+     */
+    private static void reconcilierDisponibilites(InMemoryOeuvreRepository oeuvres,
+                                                  InMemoryEmpruntRepository emprunts) {
+        Set<Long> empruntees = new HashSet<>();
+        try (Stream<Emprunt> flux = emprunts.stream()) {
+            flux.filter(Emprunt::estActif).forEach(emprunt -> empruntees.add(emprunt.getIdOeuvre()));
+        }
+        List<Oeuvre> incoherentes;
+        try (Stream<Oeuvre> flux = oeuvres.stream()) {
+            incoherentes = flux.filter(oeuvre -> oeuvre.isDisponible() == empruntees.contains(oeuvre.getId()))
+                    .collect(Collectors.toList());
+        }
+        for (Oeuvre oeuvre : incoherentes) {
+            if (oeuvre.isDisponible()) {
+                oeuvre.tenterMarquerIndisponible();
+            } else {
+                oeuvre.tenterMarquerDisponible();
+            }
+            oeuvres.save(oeuvre);
+        }
+    }
+
+    /**
+     * Écrit un instantané de l'état courant et supprime les segments de
+     * journal qu'il rend inutiles.
+     * <p>
+     * Sous le côté écriture de la barrière, le journal bascule sur un
+     * nouveau segment et les entités sont capturées : toute sauvegarde
+     * journalisée dans un ancien segment est alors appliquée en mémoire, donc
+     * capturée. Les sauvegardes reprennent ensuite pendant l'écriture de
+     * l'instantané ; les entités étant modifiables, celui-ci peut contenir
+     * une partie de leurs effets, ce qui est sans conséquence puisque ces
+     * sauvegardes sont dans le nouveau segment et que chaque enregistrement
+     * porte l'état complet de son entité.
+     *
+     * @throws UncheckedIOException si l'écriture échoue ; l'instantané précédent reste alors valable
+     */
+    public synchronized void instantane() {
+        long nouveauSegment = segmentCourant + 1;
+        List<Oeuvre> oeuvresCapturees;
+        List<Membre> membresCaptures;
+        List<Emprunt> empruntsCaptures;
+        Lock ecriture = barriere.writeLock();
+        ecriture.lock();
+        try {
+            journal.basculer(segment(dossier, nouveauSegment));
+            segmentCourant = nouveauSegment;
+            oeuvresCapturees = etatOeuvres.findAll();
+            membresCaptures = etatMembres.findAll();
+            empruntsCaptures = etatEmprunts.findAll();
+        } finally {
+            ecriture.unlock();
+        }
+
+        Instantane.ecrire(dossier.resolve(FICHIER_INSTANTANE), nouveauSegment,
+                oeuvresCapturees, membresCaptures, empruntsCaptures);
+        for (long numero : segments(dossier)) {
+            if (numero < nouveauSegment) {
+                supprimer(segment(dossier, numero));
+            }
+        }
+    }
+
+    /**
+     * Écrit un instantané à intervalle régulier, dans un thread dédié.
+     * Un échec est journalisé ({@link System.Logger}, niveau WARNING, avec
+     * sa trace), compté ({@link #nombreEchecsInstantanes()}, {@link
+     * #dernierEchecInstantane()}) et l'instantané suivant est tenté à la
+     * période d'après.
+     *
+     * @param periode intervalle entre deux instantanés (non null, strictement positif)
+     * @throws IllegalArgumentException si la période est invalide
+     * @throws IllegalStateException    si des instantanés sont déjà planifiés
+     */
+    public synchronized void planifierInstantanes(Duration periode) {
+        if (periode == null || periode.isZero() || periode.isNegative())
+            throw new IllegalArgumentException("La période des instantanés doit être strictement positive");
+        if (planificateur != null)
+            throw new IllegalStateException("Les instantanés sont déjà planifiés");
+
+        planificateur = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "journal-instantane");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long nanos = periode.toNanos();
+        planificateur.scheduleWithFixedDelay(() -> {
+            try {
+                instantane();
+            } catch (RuntimeException e) {
+                echecsInstantanes.incrementAndGet();
+                dernierEchecInstantane = e;
+                JOURNAL.log(System.Logger.Level.WARNING, "Échec de l'instantané planifié dans " + dossier, e);
+            }
+        }, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return le nombre d'instantanés planifiés qui ont échoué depuis l'ouverture
+     */
+    public long nombreEchecsInstantanes() {
+        return echecsInstantanes.get();
+    }
+
+    /**
+     * @return la cause du dernier échec d'un instantané planifié, s'il y en a eu un
+     */
+    public Optional<RuntimeException> dernierEchecInstantane() {
+        return Optional.ofNullable(dernierEchecInstantane);
+    }
+
+    public OeuvreRepository oeuvres() {
+        return oeuvres;
+    }
+
+    public MembreRepository membres() {
+        return membres;
+    }
+
+    public EmpruntRepository emprunts() {
+        return emprunts;
+    }
+
+    /**
+     * @return le générateur d'identifiants d'emprunt, dont le seuil est persistant
+     */
+    public IdGenerator generateurEmprunts() {
+        return generateurEmprunts;
+    }
+
+    /**
+     * Arrête les instantanés planifiés, force les écritures en attente sur
+     * disque et ferme le journal.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService aArreter;
+        synchronized (this) {
+            aArreter = planificateur;
+        }
+        if (aArreter != null) {
+            // Un instantané en cours d'écriture est mené à son terme
+            aArreter.shutdown();
+            try {
+                aArreter.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        journal.close();
+    }
+
+    static Path segment(Path dossier, long numero) {
+        return dossier.resolve(String.format("%s%06d%s", PREFIXE_SEGMENT, numero, EXTENSION_SEGMENT));
+    }
+
+    /**
+     * @return les numéros des segments présents dans le dossier, par ordre croissant
+     */
+    private static List<Long> segments(Path dossier) {
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            return fichiers.map(fichier -> fichier.getFileName().toString())
+                    .filter(nom -> nom.startsWith(PREFIXE_SEGMENT) && nom.endsWith(EXTENSION_SEGMENT))
+                    .map(nom -> nom.substring(PREFIXE_SEGMENT.length(), nom.length() - EXTENSION_SEGMENT.length()))
+                    .filter(numero -> !numero.isEmpty() && numero.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de lister le dossier " + dossier, e);
+        }
+    }
+
+    private static void supprimer(Path fichier) {
+        try {
+            Files.deleteIfExists(fichier);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de supprimer " + fichier, e);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package exam.repo.journal;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.domain.oeuvre.Oeuvre;
+import exam.service.MediathequeService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests des repositories journalisés : restauration de l'état après
+ * redémarrage, tolérance à une fin de journal incomplète et validation
+ * groupée multi-threads.
+ */
+class RepositoriesJournalisesTest {
+
+    @TempDir
+    Path dossier;
+
+    @ParameterizedTest
+    @EnumSource(ModeDurabilite.class)
+    void ouvrir_apresRedemarrage_doitRestaurerLEtat(ModeDurabilite mode) {
+        // Arrange : Premier démarrage avec quelques opérations
+        long empruntActif;
+        long empruntRendu;
+        try (RepositoriesJournalises repositories = ouvrir(mode)) {
+            MediathequeService service = service(repositories);
+            service.ajouterMembre(new Membre(1, "Alice Martin"));
+            Membre inactif = new Membre(2, "Bob Dupont");
+            inactif.desactiver();
+            service.ajouterMembre(inactif);
+            service.ajouterOeuvre(new Livre(1, "Le Seigneur des Anneaux", "J.R.R. Tolkien", 2070612881));
+            service.ajouterOeuvre(new Dvd(2, "Inception", "Christopher Nolan", 148));
+
+            empruntRendu = service.emprunter(1, 1);
+            service.rendre(empruntRendu);
+            empruntActif = service.emprunter(1, 2);
+        }
+
+        // Act : Redémarrage sur le même dossier
+        try (RepositoriesJournalises repositories = ouvrir(mode)) {
+            MediathequeService service = service(repositories);
+
+            // Assert : Entités et états restaurés
+            assertFalse(repositories.membres().findById(2).orElseThrow().estActif());
+            Oeuvre livre = repositories.oeuvres().findById(1).orElseThrow();
+            assertTrue(livre.isDisponible());
+            assertEquals("J.R.R. Tolkien", ((Livre) livre).getAuteur());
+            assertFalse(repositories.oeuvres().findById(2).orElseThrow().isDisponible());
+            assertFalse(repositories.emprunts().findById(empruntRendu).orElseThrow().estActif());
+
+            List<Emprunt> actifs = service.listerEmpruntsActifsPourMembre(1);
+            assertEquals(1, actifs.size());
+            assertEquals(empruntActif, actifs.get(0).getId());
+            assertEquals(1, service.compterDisponibles());
+
+            // Assert : Les nouveaux identifiants ne réutilisent pas les anciens
+            long nouvelEmprunt = service.emprunter(1, 1);
+            assertNotEquals(empruntActif, nouvelEmprunt);
+            assertNotEquals(empruntRendu, nouvelEmprunt);
+        }
+    }
+
+    @Test
+    void ouvrir_quandFinDeJournalIncomplete_doitConserverLesEnregistrementsValides() throws Exception {
+        // Arrange : Un membre enregistré, puis une écriture interrompue simulée
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.SYNCHRONE)) {
+            repositories.membres().save(new Membre(1, "Alice Martin"));
+        }
+        Files.write(RepositoriesJournalises.segment(dossier, 1),
+                new byte[]{0, 0, 0, 40, 3, 0, 0},
+                StandardOpenOption.APPEND);
+
+        // Act : Redémarrage, puis nouvelle écriture
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.SYNCHRONE)) {
+            assertTrue(repositories.membres().findById(1).isPresent());
+            repositories.membres().save(new Membre(2, "Bob Dupont"));
+        }
+
+        // Assert : La nouvelle écriture suit directement les enregistrements valides
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.SYNCHRONE)) {
+            assertEquals(2, repositories.membres().findAll().size());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ModeDurabilite.class)
+    void ajouter_quandUnEncodeurEchoue_doitAbandonnerLAppelEtGarderLesSuivants(ModeDurabilite mode) {
+        // Arrange : Un lot dont le second encodeur échoue après avoir écrit
+        Path fichier = dossier.resolve("journal.log");
+        Consumer<ByteBuffer> valide = tampon -> tampon.putLong(1);
+        Consumer<ByteBuffer> defaillant = tampon -> {
+            tampon.putInt(7);
+            throw new IllegalStateException("Encodage impossible");
+        };
+        try (Journal journal = Journal.ouvrir(fichier, mode, Duration.ofMillis(1), tampon -> { })) {
+            // Act
+            assertThrows(IllegalStateException.class, () -> journal.ajouter(List.of(valide, defaillant)));
+            journal.ajouter(tampon -> tampon.putLong(2));
+        }
+
+        // Assert : Seul l'enregistrement ajouté après l'échec est relu
+        List<Long> relus = new ArrayList<>();
+        Journal.relire(fichier, contenu -> relus.add(contenu.getLong()));
+        assertEquals(List.of(2L), relus);
+    }
+
+    @Test
+    void save_quandPlusieursThreadsEnModeGroupe_toutesLesEcrituresSontDurables() throws Exception {
+        // Arrange
+        int threads = 8;
+        int parThread = 250;
+
+        // Act : Écritures concurrentes regroupées
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.GROUPE)) {
+            List<Thread> travailleurs = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int decalage = t * parThread;
+                Thread thread = new Thread(() -> {
+                    for (int i = 1; i <= parThread; i++) {
+                        repositories.membres().save(new Membre(decalage + i, "Membre " + (decalage + i)));
+                    }
+                });
+                travailleurs.add(thread);
+                thread.start();
+            }
+            for (Thread thread : travailleurs) {
+                thread.join();
+            }
+        }
+
+        // Assert : Tout est relu au redémarrage
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.GROUPE)) {
+            assertEquals(threads * parThread, repositories.membres().findAll().size());
+        }
+    }
+
+    @Test
+    void instantane_puisRedemarrage_doitChargerLInstantaneEtRejouerLaQueue() {
+        // Arrange : Assez d'entités pour remplir plusieurs blocs, puis un instantané
+        int nombreMembres = 50_000;
+        long empruntAvant;
+        long empruntApres;
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.ASYNCHRONE)) {
+            MediathequeService service = service(repositories);
+            for (int i = 1; i <= nombreMembres; i++) {
+                service.ajouterMembre(new Membre(i, "Membre numéro " + i));
+            }
+            service.ajouterOeuvre(new Livre(1, "Le Seigneur des Anneaux", "J.R.R. Tolkien", 2070612881));
+            service.ajouterOeuvre(new Dvd(2, "Inception", "Christopher Nolan", 148));
+            empruntAvant = service.emprunter(1, 1);
+
+            repositories.instantane();
+
+            // Opérations après l'instantané : elles ne sont que dans la queue du journal
+            service.rendre(empruntAvant);
+            empruntApres = service.emprunter(2, 2);
+        }
+
+        // Act
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.ASYNCHRONE)) {
+            MediathequeService service = service(repositories);
+
+            // Assert : État de l'instantané complété par la queue du journal
+            assertEquals(nombreMembres, repositories.membres().findAll().size());
+            assertFalse(repositories.emprunts().findById(empruntAvant).orElseThrow().estActif());
+            assertTrue(repositories.oeuvres().findById(1).orElseThrow().isDisponible());
+            assertFalse(repositories.oeuvres().findById(2).orElseThrow().isDisponible());
+            assertEquals(empruntApres, service.listerEmpruntsActifsPourMembre(2).get(0).getId());
+            assertEquals(1, service.compterDisponibles());
+        }
+
+        // Assert : Les segments couverts par l'instantané ont été supprimés
+        assertFalse(Files.exists(RepositoriesJournalises.segment(dossier, 1)));
+        assertTrue(Files.exists(dossier.resolve(RepositoriesJournalises.FICHIER_INSTANTANE)));
+    }
+
+    @Test
+    void instantane_pendantUneSauvegarde_doitAttendreQuElleSoitAppliquee() throws Exception {
+        // Arrange : Un lot qui se bloque entre sa journalisation et son application
+        CountDownLatch journalise = new CountDownLatch(1);
+        CountDownLatch reprise = new CountDownLatch(1);
+        List<Emprunt> lot = new AbstractList<>() {
+            private final Emprunt emprunt = new Emprunt(1, 1, 1, LocalDate.of(2024, 3, 1));
+            private int parcours;
+
+            @Override
+            public Iterator<Emprunt> iterator() {
+                // Premier parcours : encodage ; second : application au repository délégué
+                if (++parcours == 2) {
+                    journalise.countDown();
+                    try {
+                        reprise.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return super.iterator();
+            }
+
+            @Override
+            public Emprunt get(int index) {
+                return emprunt;
+            }
+
+            @Override
+            public int size() {
+                return 1;
+            }
+        };
+
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.GROUPE)) {
+            Thread sauvegarde = new Thread(() -> repositories.emprunts().saveAll(lot));
+            sauvegarde.start();
+            assertTrue(journalise.await(5, TimeUnit.SECONDS));
+
+            // Act : Instantané demandé alors que l'emprunt n'est que dans le journal
+            Thread instantane = new Thread(repositories::instantane);
+            instantane.start();
+            instantane.join(200);
+            boolean instantaneBloque = instantane.isAlive();
+            reprise.countDown();
+            sauvegarde.join(5_000);
+            instantane.join(5_000);
+
+            // Assert : L'instantané a attendu l'application de la sauvegarde
+            assertTrue(instantaneBloque);
+            assertFalse(instantane.isAlive());
+        }
+
+        // Assert : Après redémarrage, l'emprunt acquitté n'est pas perdu
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.GROUPE)) {
+            assertTrue(repositories.emprunts().findById(1).orElseThrow().estActif());
+            assertFalse(Files.exists(RepositoriesJournalises.segment(dossier, 1)));
+        }
+    }
+
+    @Test
+    void ouvrir_quandOeuvreIndisponibleSansEmpruntActif_doitLaRendreDisponible() {
+        // Arrange : Œuvre réservée dont l'emprunt n'a jamais été journalisé (panne simulée)
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.SYNCHRONE)) {
+            Oeuvre oeuvre = new Livre(1, "Dune", "Frank Herbert", 226623320);
+            oeuvre.tenterMarquerIndisponible();
+            repositories.oeuvres().save(oeuvre);
+            repositories.instantane();
+        }
+
+        // Act
+        try (RepositoriesJournalises repositories = ouvrir(ModeDurabilite.SYNCHRONE)) {
+            // Assert
+            assertTrue(repositories.oeuvres().findById(1).orElseThrow().isDisponible());
+            assertEquals(1, repositories.oeuvres().countDisponibles());
+        }
+    }
+
+    private RepositoriesJournalises ouvrir(ModeDurabilite mode) {
+        return RepositoriesJournalises.ouvrir(dossier, mode, Duration.ofMillis(1));
+    }
+
+    private static MediathequeService service(RepositoriesJournalises repositories) {
+        return new MediathequeService(repositories.oeuvres(), repositories.membres(),
+                repositories.emprunts(), repositories.generateurEmprunts());
+    }
+}
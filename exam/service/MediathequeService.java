@@ -3,29 +3,75 @@ package exam.service;
 import exam.domain.emprunt.Emprunt;
 import exam.domain.membre.Membre;
 import exam.domain.oeuvre.Oeuvre;
+import exam.evenement.BusEvenements;
+import exam.evenement.TypeEvenement;
+import exam.metrique.MetriquesService;
+import exam.metrique.MotifRefus;
+import exam.metrique.Operation;
+import exam.recherche.MembreRepositoryIndexe;
+import exam.recherche.OeuvreRepositoryIndexe;
 import exam.repo.EmpruntRepository;
 import exam.repo.MembreRepository;
 import exam.repo.OeuvreRepository;
 import exam.util.IdGenerator;
+import exam.util.StripedLock;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service métier de la médiathèque.
  * <p>
  * Cette classe orchestre les opérations métier en coordonnant les repositories.
  * Toute la logique métier complexe est centralisée ici.
+ * <p>
+ * Le service peut être appelé par plusieurs threads simultanément, à condition
+ * que les repositories fournis soient eux-mêmes sûrs en accès concurrent.
+ * Les emprunts et retours sont sérialisés par membre au moyen de verrous
+ * répartis, ce qui rend atomiques la vérification du quota et l'écriture
+ * de l'emprunt. La disponibilité d'une œuvre est réservée sans verrou,
+ * par compare-and-set sur l'œuvre elle-même.
+ * <p>
+ * Les repositories sont utilisés tels quels. La recherche et la complétion
+ * ne sont disponibles que si l'appelant fournit un repository des œuvres
+ * décoré par un index plein texte ({@link OeuvreRepositoryIndexe}) et un
+ * repository des membres décoré par un index de leurs noms
+ * ({@link MembreRepositoryIndexe}) : construire ces index parcourt tout le
+ * catalogue et tous les membres, ce que seul l'appelant peut décider.
+ * <p>
+ * Chaque opération publique est mesurée (latence, issue) et chaque refus
+ * compté par motif ; voir {@link #metriques()}.
+ * <p>
+ * Si un {@link BusEvenements} est fourni, chaque emprunt, retour, ajout
+ * d'œuvre ou de membre réussi y est publié, une fois enregistré. Emprunts
+ * et retours sont publiés sous le verrou du membre : les événements d'un
+ * même membre arrivent dans l'ordre des opérations.
  */
 public class MediathequeService {
 
+    /**
+     * Nombre de verrous répartis entre les membres.
+     */
+    private static final int NOMBRE_VERROUS = 1024;
+
     private final OeuvreRepository oeuvreRepository;
     private final MembreRepository membreRepository;
     private final EmpruntRepository empruntRepository;
     private final IdGenerator idGenerator;
+    private final StripedLock verrousMembres;
+    private final MetriquesService metriques;
+    private final BusEvenements evenements;
 
     /**
      * Crée une nouvelle instance du service.
+     * <p>
+     * Les identifiants d'emprunt sont générés à partir de 1, sans persistance.
      *
      * @param oeuvreRepository  repository des œuvres (non null)
      * @param membreRepository  repository des membres (non null)
@@ -35,14 +81,130 @@ public class MediathequeService {
             OeuvreRepository oeuvreRepository,
             MembreRepository membreRepository,
             EmpruntRepository empruntRepository
+    ) {
+        this(oeuvreRepository, membreRepository, empruntRepository, new IdGenerator());
+    }
+
+    /**
+     * Crée une nouvelle instance du service avec un générateur d'identifiants
+     * d'emprunt fourni (par exemple adossé à un seuil persistant).
+     *
+     * @param oeuvreRepository  repository des œuvres (non null)
+     * @param membreRepository  repository des membres (non null)
+     * @param empruntRepository repository des emprunts (non null)
+     * @param idGenerator       générateur des identifiants d'emprunt (non null)
+     */
+    public MediathequeService(
+            OeuvreRepository oeuvreRepository,
+            MembreRepository membreRepository,
+            EmpruntRepository empruntRepository,
+            IdGenerator idGenerator
+    ) {
+        this(oeuvreRepository, membreRepository, empruntRepository, idGenerator, null);
+    }
+
+    /**
+     * Crée une nouvelle instance du service qui publie ses événements
+     * (emprunts, retours, ajouts) sur un bus.
+     *
+     * @param oeuvreRepository  repository des œuvres (non null)
+     * @param membreRepository  repository des membres (non null)
+     * @param empruntRepository repository des emprunts (non null)
+     * @param idGenerator       générateur des identifiants d'emprunt (non null)
+     * @param evenements        bus des événements, ou null pour n'en publier aucun
+     */
+    public MediathequeService(
+            OeuvreRepository oeuvreRepository,
+            MembreRepository membreRepository,
+            EmpruntRepository empruntRepository,
+            IdGenerator idGenerator,
+            BusEvenements evenements
     ) {
         if (oeuvreRepository == null || membreRepository == null || empruntRepository == null) {
             throw new IllegalArgumentException("Les repositories ne peuvent pas être null");
         }
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("Le générateur d'identifiants ne peut pas être null");
+        }
         this.oeuvreRepository = oeuvreRepository;
         this.membreRepository = membreRepository;
         this.empruntRepository = empruntRepository;
-        this.idGenerator = new IdGenerator();
+        this.idGenerator = idGenerator;
+        this.verrousMembres = new StripedLock(NOMBRE_VERROUS);
+        this.metriques = new MetriquesService(this.oeuvreRepository, this.membreRepository, empruntRepository);
+        this.evenements = evenements;
+    }
+
+    /**
+     * Retourne les mesures du service, à publier en JMX au besoin
+     * ({@link MetriquesService#publier()}).
+     *
+     * @return les mesures du service
+     */
+    public MetriquesService metriques() {
+        return metriques;
+    }
+
+    /**
+     * Recherche des œuvres par mots du titre, de l'auteur ou du réalisateur.
+     * <p>
+     * La recherche ignore les accents, la casse et les mots vides ; seules
+     * les œuvres contenant tous les mots de la requête sont retournées,
+     * les plus pertinentes en premier (mots du titre avant ceux de l'auteur).
+     *
+     * @param requete mots recherchés (non null)
+     * @param limite  nombre maximal de résultats (strictement positif)
+     * @return les œuvres trouvées (jamais null)
+     * @throws IllegalArgumentException si requete est null ou limite <= 0
+     * @throws IllegalStateException    si le repository des œuvres n'est pas indexé
+     */
+    public List<Oeuvre> rechercher(String requete, int limite) {
+        return metriques.mesurer(Operation.RECHERCHER, () -> indexOeuvres().rechercher(requete, limite));
+    }
+
+    /**
+     * Recherche des œuvres par titre approché, en tolérant les fautes de
+     * frappe (une pour un titre court, deux au-delà).
+     * <p>
+     * Les titres sont comparés sans accents, casse, ponctuation ni mots
+     * vides ; les plus proches sont retournés en premier.
+     *
+     * @param titre  titre recherché (non null)
+     * @param limite nombre maximal de résultats (strictement positif)
+     * @return les œuvres trouvées (jamais null)
+     * @throws IllegalArgumentException si titre est null ou limite <= 0
+     * @throws IllegalStateException    si le repository des œuvres n'est pas indexé
+     */
+    public List<Oeuvre> rechercherTitreApproche(String titre, int limite) {
+        return metriques.mesurer(Operation.RECHERCHER_TITRE_APPROCHE,
+                () -> indexOeuvres().rechercherTitreApproche(titre, limite));
+    }
+
+    /**
+     * Complète un début de titre, titres les plus courts d'abord.
+     *
+     * @param prefixe début du titre (non null)
+     * @param limite  nombre maximal de résultats (strictement positif, plafonné à 16)
+     * @return les œuvres trouvées (jamais null)
+     * @throws IllegalArgumentException si prefixe est null ou limite <= 0
+     * @throws IllegalStateException    si le repository des œuvres n'est pas indexé
+     */
+    public List<Oeuvre> completerTitre(String prefixe, int limite) {
+        return metriques.mesurer(Operation.COMPLETER_TITRE, () -> indexOeuvres().completerTitre(prefixe, limite));
+    }
+
+    /**
+     * Complète un début de nom de membre (prénom ou nom de famille),
+     * noms les plus courts d'abord.
+     *
+     * @param prefixe début d'un mot du nom (non null)
+     * @param limite  nombre maximal de résultats (strictement positif, plafonné à 16)
+     * @return les membres trouvés (jamais null)
+     * @throws IllegalArgumentException si prefixe est null ou limite <= 0
+     * @throws IllegalStateException    si le repository des membres n'est pas indexé
+     */
+    public List<Membre> completerNomMembre(String prefixe, int limite) {
+        return metriques.mesurer(Operation.COMPLETER_NOM_MEMBRE, () -> indexMembres().completerNom(prefixe, limite));
     }
 
     /**
@@ -51,7 +213,51 @@ public class MediathequeService {
      * @return liste des œuvres disponibles (jamais null)
      */
     public List<Oeuvre> disponibles() {
-        return oeuvreRepository.findDisponibles();
+        return metriques.mesurer(Operation.DISPONIBLES, oeuvreRepository::findDisponibles);
+    }
+
+    /**
+     * Retourne une page d'œuvres disponibles, par pagination à curseur.
+     * <p>
+     * Permet de parcourir un grand catalogue par pages de taille fixe,
+     * sans jamais copier la liste complète.
+     *
+     * @param apresId identifiant de la dernière œuvre reçue, ou 0 pour la première page
+     * @param limite  nombre maximal d'œuvres (strictement positif)
+     * @return la page (jamais null, vide après la dernière œuvre)
+     * @throws IllegalArgumentException si apresId < 0 ou limite <= 0
+     */
+    public List<Oeuvre> disponibles(long apresId, int limite) {
+        return metriques.mesurer(Operation.DISPONIBLES_PAGE, () -> oeuvreRepository.findDisponiblesPage(apresId, limite));
+    }
+
+    /**
+     * Retourne le nombre d'œuvres disponibles.
+     *
+     * @return nombre d'œuvres disponibles (positif ou nul)
+     */
+    public int compterDisponibles() {
+        return metriques.mesurer(Operation.COMPTER_DISPONIBLES, oeuvreRepository::countDisponibles);
+    }
+
+    /**
+     * Indique si une œuvre est disponible (portique antivol, borne de retour).
+     *
+     * @param oeuvreId identifiant de l'œuvre
+     * @return true si l'œuvre peut être empruntée
+     * @throws IllegalArgumentException si oeuvreId <= 0
+     * @throws IllegalStateException    si l'œuvre n'existe pas
+     */
+    public boolean estDisponible(long oeuvreId) {
+        return metriques.mesurer(Operation.EST_DISPONIBLE, () -> {
+            if (oeuvreId <= 0) {
+                throw new IllegalArgumentException("L'identifiant de l'œuvre doit être strictement positif");
+            }
+
+            return oeuvreRepository.findById(oeuvreId)
+                    .orElseThrow(() -> refus(MotifRefus.OEUVRE_INEXISTANTE, "L'œuvre avec l'ID " + oeuvreId + " n'existe pas"))
+                    .isDisponible();
+        });
     }
 
     /**
@@ -61,6 +267,11 @@ public class MediathequeService {
      * - Le membre existe et est actif
      * - L'œuvre existe et est disponible
      * - Le membre n'a pas atteint son quota d'emprunts actifs
+     * <p>
+     * Les vérifications liées au membre (statut, quota) et l'enregistrement
+     * de l'emprunt sont effectués sous le verrou du membre. L'œuvre est
+     * réservée par un changement de disponibilité atomique : si plusieurs
+     * membres empruntent la même œuvre simultanément, un seul réussit.
      *
      * @param membreId identifiant du membre
      * @param oeuvreId identifiant de l'œuvre
@@ -71,139 +282,324 @@ public class MediathequeService {
      *                                  ou si le membre a atteint son quota d'emprunts
      */
     public long emprunter(long membreId, long oeuvreId) {
-        if (membreId <= 0 || oeuvreId <= 0) {
-            throw new IllegalArgumentException("Les identifiants doivent être strictement positifs");
-        }
+        return metriques.mesurer(Operation.EMPRUNTER, () -> {
+            if (membreId <= 0 || oeuvreId <= 0) {
+                throw new IllegalArgumentException("Les identifiants doivent être strictement positifs");
+            }
+
+            Lock verrouMembre = verrousMembres.pour(membreId);
+            verrouMembre.lock();
+            try {
+                return emprunterSousVerrou(membreId, oeuvreId);
+            } finally {
+                verrouMembre.unlock();
+            }
+        });
+    }
 
+    /**
+     * Corps de {@link #emprunter(long, long)}, exécuté sous le verrou du membre.
+     */
+    private long emprunterSousVerrou(long membreId, long oeuvreId) {
         // Vérifier que le membre existe et est actif
         Membre membre = membreRepository.findById(membreId)
-                .orElseThrow(() -> new IllegalStateException("Le membre avec l'ID " + membreId + " n'existe pas"));
+                .orElseThrow(() -> refus(MotifRefus.MEMBRE_INEXISTANT, "Le membre avec l'ID " + membreId + " n'existe pas"));
 
         if (!membre.estActif()) {
-            throw new IllegalStateException("Le membre avec l'ID " + membreId + " est inactif");
+            throw refus(MotifRefus.MEMBRE_INACTIF, "Le membre avec l'ID " + membreId + " est inactif");
         }
 
-        // Vérifier que l'œuvre existe et est disponible
+        // Vérifier que l'œuvre existe et est disponible (refus rapide, sans réservation)
         Oeuvre oeuvre = oeuvreRepository.findById(oeuvreId)
-                .orElseThrow(() -> new IllegalStateException("L'œuvre avec l'ID " + oeuvreId + " n'existe pas"));
+                .orElseThrow(() -> refus(MotifRefus.OEUVRE_INEXISTANTE, "L'œuvre avec l'ID " + oeuvreId + " n'existe pas"));
 
         if (!oeuvre.isDisponible()) {
-            throw new IllegalStateException("L'œuvre avec l'ID " + oeuvreId + " n'est pas disponible");
+            throw refus(MotifRefus.OEUVRE_INDISPONIBLE, "L'œuvre avec l'ID " + oeuvreId + " n'est pas disponible");
         }
 
         // Vérifier le quota d'emprunts actifs
-        List<Emprunt> empruntsActifs = empruntRepository.findActifsByMembreId(membreId);
-        if (!EmpruntPolicy.peutEmprunter(empruntsActifs.size())) {
-            throw new IllegalStateException("Le membre a atteint son quota d'emprunts actifs");
+        if (!EmpruntPolicy.peutEmprunter(empruntRepository.countActifsByMembreId(membreId))) {
+            throw refus(MotifRefus.QUOTA_ATTEINT, "Le membre a atteint son quota d'emprunts actifs");
         }
 
-        // Créer l'emprunt
+        // Réserver l'œuvre : un seul emprunteur concurrent peut réussir
+        if (!oeuvre.tenterMarquerIndisponible()) {
+            throw refus(MotifRefus.OEUVRE_INDISPONIBLE, "L'œuvre avec l'ID " + oeuvreId + " n'est pas disponible");
+        }
+
+        // Créer l'emprunt, en libérant l'œuvre si l'enregistrement échoue
         long empruntId = idGenerator.nextId();
-        Emprunt emprunt = new Emprunt(empruntId, membreId, oeuvreId, LocalDate.now());
-        empruntRepository.save(emprunt);
+        try {
+            Emprunt emprunt = new Emprunt(empruntId, membreId, oeuvreId, LocalDate.now());
+            empruntRepository.save(emprunt);
+        } catch (RuntimeException e) {
+            oeuvre.tenterMarquerDisponible();
+            throw e;
+        }
+        oeuvreRepository.save(oeuvre);
+        publier(TypeEvenement.EMPRUNT_CREE, empruntId, membreId, oeuvreId);
 
-        // Marquer l'œuvre comme indisponible
-        // Note: On doit récupérer l'œuvre depuis le repository car on ne peut pas modifier directement
-        // Pour cela, on utilise une approche où on recrée l'œuvre avec le même état mais disponible=false
-        // En réalité, on devrait avoir une méthode dans Oeuvre pour changer la disponibilité
-        // Pour l'instant, on va utiliser une approche simple : sauvegarder à nouveau l'œuvre
-        // qui sera marquée comme indisponible via la méthode marquerIndisponible()
-        // Mais comme Oeuvre.marquerIndisponible() est protected, on doit passer par le domaine
-        // En fait, on devrait avoir une méthode publique dans Oeuvre ou un service pour gérer cela
-        // Pour simplifier, on va supposer qu'il y a une méthode publique ou qu'on peut modifier l'état
-        
-        // Solution temporaire : on va devoir modifier l'œuvre pour la marquer comme indisponible
-        // Mais comme on ne peut pas modifier directement, on va utiliser une approche différente
-        // En fait, le mieux serait d'avoir une méthode dans le repository ou le service pour gérer cela
-        // Pour l'instant, on va créer une nouvelle instance... mais ce n'est pas idéal
-        
-        // En regardant le code, Oeuvre.marquerIndisponible() est protected, donc on ne peut pas l'appeler
-        // On doit trouver une autre solution. Peut-être que le domaine devrait exposer une méthode publique
-        // ou que le repository devrait gérer cela.
-        
-        // Pour l'instant, on va supposer qu'il y a une méthode publique ou qu'on peut passer par le domaine
-        // En fait, regardons si on peut utiliser une méthode package-private ou publique
-        
-        // Solution : on va créer une méthode dans le service qui gère cela, ou on va modifier le domaine
-        // Pour l'instant, on va utiliser une approche simple : on va supposer que l'œuvre peut être modifiée
-        // via une méthode publique dans le domaine ou via le repository
-        
-        // En fait, le mieux serait d'avoir une méthode dans Oeuvre qui permet de changer la disponibilité
-        // Mais comme c'est protected, on ne peut pas l'utiliser directement depuis le service
-        
-        // Solution temporaire : on va utiliser une réflexion ou créer une méthode publique
-        // Mais pour l'instant, on va supposer qu'il y a une méthode publique dans Oeuvre
-        
-        // En regardant le code d'Oeuvre, marquerIndisponible() est protected, donc on ne peut pas l'appeler
-        // On doit trouver une autre solution. Peut-être que le domaine devrait exposer une méthode publique
-        // ou que le repository devrait gérer cela.
-        
-        // Pour l'instant, on va créer une méthode dans le service qui gère cela
-        marquerOeuvreIndisponible(oeuvre);
-        
         return empruntId;
     }
 
     /**
-     * Marque une œuvre comme indisponible.
-     * Cette méthode utilise la réflexion pour accéder à la méthode protected.
-     * Une meilleure solution serait d'avoir une méthode publique dans Oeuvre.
+     * Rend une œuvre empruntée.
+     * <p>
+     * Vérifie que l'emprunt existe et n'a pas déjà été retourné.
+     * Le retour est effectué sous le verrou du membre concerné par l'emprunt,
+     * et l'œuvre est libérée par un changement de disponibilité atomique
+     * avant que l'emprunt ne soit marqué retourné : si l'œuvre est déjà
+     * disponible, le retour est refusé et l'emprunt reste actif.
+     * L'emprunt est relu sous le verrou : un repository peut retourner une
+     * copie, qui ne refléterait pas un retour concurrent.
+     *
+     * @param empruntId identifiant de l'emprunt
+     * @throws IllegalArgumentException si empruntId <= 0
+     * @throws IllegalStateException    si l'emprunt n'existe pas ou a déjà été retourné,
+     *                                  ou si l'œuvre est déjà disponible
      */
-    private void marquerOeuvreIndisponible(Oeuvre oeuvre) {
-        try {
-            // Utiliser la réflexion pour appeler marquerIndisponible()
-            java.lang.reflect.Method method = Oeuvre.class.getDeclaredMethod("marquerIndisponible");
-            method.setAccessible(true);
-            method.invoke(oeuvre);
-            oeuvreRepository.save(oeuvre);
-        } catch (Exception e) {
-            throw new IllegalStateException("Impossible de marquer l'œuvre comme indisponible", e);
+    public void rendre(long empruntId) {
+        metriques.executer(Operation.RENDRE, () -> {
+            if (empruntId <= 0) {
+                throw new IllegalArgumentException("L'identifiant de l'emprunt doit être strictement positif");
+            }
+
+            Emprunt emprunt = empruntRepository.findById(empruntId)
+                    .orElseThrow(() -> refus(MotifRefus.EMPRUNT_INEXISTANT, "L'emprunt avec l'ID " + empruntId + " n'existe pas"));
+
+            Lock verrouMembre = verrousMembres.pour(emprunt.getIdMembre());
+            verrouMembre.lock();
+            try {
+                rendreSousVerrou(empruntId);
+            } finally {
+                verrouMembre.unlock();
+            }
+        });
+    }
+
+    /**
+     * Corps de {@link #rendre(long)}, exécuté sous le verrou du membre de l'emprunt.
+     */
+    private void rendreSousVerrou(long empruntId) {
+        Emprunt emprunt = empruntRepository.findById(empruntId)
+                .orElseThrow(() -> refus(MotifRefus.EMPRUNT_INEXISTANT, "L'emprunt avec l'ID " + empruntId + " n'existe pas"));
+        if (!emprunt.estActif()) {
+            throw refus(MotifRefus.EMPRUNT_DEJA_RETOURNE, "L'emprunt avec l'ID " + empruntId + " a déjà été retourné");
         }
+
+        // Marquer l'œuvre comme disponible, avant de toucher à l'emprunt
+        Oeuvre oeuvre = oeuvreRepository.findById(emprunt.getIdOeuvre())
+                .orElseThrow(() -> refus(MotifRefus.OEUVRE_INEXISTANTE, "L'œuvre avec l'ID " + emprunt.getIdOeuvre() + " n'existe plus"));
+        if (!oeuvre.tenterMarquerDisponible()) {
+            throw refus(MotifRefus.OEUVRE_DEJA_DISPONIBLE, "L'œuvre avec l'ID " + oeuvre.getId() + " est déjà disponible");
+        }
+
+        // Marquer l'emprunt comme retourné
+        emprunt.marquerRetour(LocalDate.now());
+        empruntRepository.save(emprunt);
+        oeuvreRepository.save(oeuvre);
+        publier(TypeEvenement.EMPRUNT_RENDU, empruntId, emprunt.getIdMembre(), emprunt.getIdOeuvre());
+    }
+
+    /**
+     * Emprunte plusieurs œuvres pour un même membre (borne libre-service).
+     * <p>
+     * Le membre est vérifié une seule fois, la date d'emprunt est commune
+     * à tout le lot et le quota est appliqué au lot entier : les œuvres
+     * sont traitées dans l'ordre et celles qui dépasseraient le quota sont
+     * refusées. Chaque œuvre fait l'objet d'un résultat propre ; un refus
+     * n'interrompt pas le traitement des suivantes. Les emprunts créés et
+     * les œuvres réservées sont enregistrés en une seule passe.
+     *
+     * @param membreId  identifiant du membre
+     * @param oeuvreIds identifiants des œuvres, dans l'ordre de traitement (non null)
+     * @return un résultat par œuvre demandée, dans le même ordre
+     * @throws IllegalArgumentException si membreId <= 0 ou oeuvreIds est null
+     */
+    public List<ResultatOperation> emprunterEnLot(long membreId, List<Long> oeuvreIds) {
+        return metriques.mesurer(Operation.EMPRUNTER_EN_LOT, () -> {
+            if (membreId <= 0) {
+                throw new IllegalArgumentException("L'identifiant du membre doit être strictement positif");
+            }
+            if (oeuvreIds == null) {
+                throw new IllegalArgumentException("La liste des œuvres ne peut pas être null");
+            }
+
+            Lock verrouMembre = verrousMembres.pour(membreId);
+            verrouMembre.lock();
+            try {
+                return emprunterEnLotSousVerrou(membreId, oeuvreIds);
+            } finally {
+                verrouMembre.unlock();
+            }
+        });
     }
 
     /**
-     * Marque une œuvre comme disponible.
+     * Corps de {@link #emprunterEnLot(long, List)}, exécuté sous le verrou du membre.
      */
-    private void marquerOeuvreDisponible(Oeuvre oeuvre) {
+    private List<ResultatOperation> emprunterEnLotSousVerrou(long membreId, List<Long> oeuvreIds) {
+        List<ResultatOperation> resultats = new ArrayList<>(oeuvreIds.size());
+
+        // Vérifier une seule fois que le membre existe et est actif
+        Membre membre = membreRepository.findById(membreId).orElse(null);
+        if (membre == null || !membre.estActif()) {
+            MotifRefus motif = membre == null ? MotifRefus.MEMBRE_INEXISTANT : MotifRefus.MEMBRE_INACTIF;
+            String message = membre == null
+                    ? "Le membre avec l'ID " + membreId + " n'existe pas"
+                    : "Le membre avec l'ID " + membreId + " est inactif";
+            for (Long oeuvreId : oeuvreIds) {
+                resultats.add(echec(motif, oeuvreId == null ? 0 : oeuvreId, message));
+            }
+            return resultats;
+        }
+
+        LocalDate dateEmprunt = LocalDate.now();
+        int empruntsActifs = empruntRepository.countActifsByMembreId(membreId);
+        List<Emprunt> emprunts = new ArrayList<>();
+        List<Oeuvre> reservees = new ArrayList<>();
+
+        for (Long idDemande : oeuvreIds) {
+            long oeuvreId = idDemande == null ? 0 : idDemande;
+            if (oeuvreId <= 0) {
+                resultats.add(echec(MotifRefus.IDENTIFIANT_INVALIDE, oeuvreId, "L'identifiant de l'œuvre doit être strictement positif"));
+                continue;
+            }
+            Oeuvre oeuvre = oeuvreRepository.findById(oeuvreId).orElse(null);
+            if (oeuvre == null) {
+                resultats.add(echec(MotifRefus.OEUVRE_INEXISTANTE, oeuvreId, "L'œuvre avec l'ID " + oeuvreId + " n'existe pas"));
+                continue;
+            }
+            if (!EmpruntPolicy.peutEmprunter(empruntsActifs)) {
+                resultats.add(echec(MotifRefus.QUOTA_ATTEINT, oeuvreId, "Le membre a atteint son quota d'emprunts actifs"));
+                continue;
+            }
+            if (!oeuvre.tenterMarquerIndisponible()) {
+                resultats.add(echec(MotifRefus.OEUVRE_INDISPONIBLE, oeuvreId, "L'œuvre avec l'ID " + oeuvreId + " n'est pas disponible"));
+                continue;
+            }
+
+            long empruntId = idGenerator.nextId();
+            emprunts.add(new Emprunt(empruntId, membreId, oeuvreId, dateEmprunt));
+            reservees.add(oeuvre);
+            empruntsActifs++;
+            resultats.add(ResultatOperation.succes(oeuvreId, empruntId));
+        }
+
+        // Enregistrer le lot en une passe, en libérant les œuvres si l'écriture échoue
         try {
-            java.lang.reflect.Method method = Oeuvre.class.getDeclaredMethod("marquerDisponible");
-            method.setAccessible(true);
-            method.invoke(oeuvre);
-            oeuvreRepository.save(oeuvre);
-        } catch (Exception e) {
-            throw new IllegalStateException("Impossible de marquer l'œuvre comme disponible", e);
+            empruntRepository.saveAll(emprunts);
+        } catch (RuntimeException e) {
+            for (Oeuvre oeuvre : reservees) {
+                oeuvre.tenterMarquerDisponible();
+            }
+            throw e;
+        }
+        oeuvreRepository.saveAll(reservees);
+        for (Emprunt emprunt : emprunts) {
+            publier(TypeEvenement.EMPRUNT_CREE, emprunt.getId(), membreId, emprunt.getIdOeuvre());
         }
+
+        return resultats;
     }
 
     /**
-     * Rend une œuvre empruntée.
+     * Rend plusieurs emprunts (boîte de retour).
      * <p>
-     * Vérifie que l'emprunt existe et n'a pas déjà été retourné.
+     * La date de retour est commune à tout le lot. Chaque emprunt fait
+     * l'objet d'un résultat propre ; un refus (emprunt inexistant ou déjà
+     * retourné, œuvre déjà disponible) n'interrompt pas le traitement des
+     * suivants et, comme pour {@link #rendre(long)}, laisse l'emprunt actif. Les emprunts
+     * retournés et les œuvres libérées sont enregistrés en une seule passe.
+     * <p>
+     * Les verrous de tous les membres concernés sont pris, dans un ordre
+     * global, jusqu'à l'enregistrement : les emprunts sont relus sous verrou
+     * et un retour concurrent du même emprunt est refusé, même si le
+     * repository retourne des copies.
      *
-     * @param empruntId identifiant de l'emprunt
-     * @throws IllegalArgumentException si empruntId <= 0
-     * @throws IllegalStateException    si l'emprunt n'existe pas ou a déjà été retourné
+     * @param empruntIds identifiants des emprunts à rendre (non null)
+     * @return un résultat par emprunt demandé, dans le même ordre
+     * @throws IllegalArgumentException si empruntIds est null
      */
-    public void rendre(long empruntId) {
-        if (empruntId <= 0) {
-            throw new IllegalArgumentException("L'identifiant de l'emprunt doit être strictement positif");
+    public List<ResultatOperation> rendreEnLot(List<Long> empruntIds) {
+        return metriques.mesurer(Operation.RENDRE_EN_LOT, () -> rendreLot(empruntIds));
+    }
+
+    /**
+     * Corps de {@link #rendreEnLot(List)}.
+     */
+    private List<ResultatOperation> rendreLot(List<Long> empruntIds) {
+        if (empruntIds == null) {
+            throw new IllegalArgumentException("La liste des emprunts ne peut pas être null");
         }
 
-        Emprunt emprunt = empruntRepository.findById(empruntId)
-                .orElseThrow(() -> new IllegalStateException("L'emprunt avec l'ID " + empruntId + " n'existe pas"));
+        LocalDate dateRetour = LocalDate.now();
+        ResultatOperation[] resultats = new ResultatOperation[empruntIds.size()];
+        List<Long> membresConcernes = new ArrayList<>();
 
-        if (!emprunt.estActif()) {
-            throw new IllegalStateException("L'emprunt avec l'ID " + empruntId + " a déjà été retourné");
+        // Premier passage, sans verrou : identifiants invalides et membres concernés
+        for (int i = 0; i < resultats.length; i++) {
+            Long idDemande = empruntIds.get(i);
+            long empruntId = idDemande == null ? 0 : idDemande;
+            if (empruntId <= 0) {
+                resultats[i] = echec(MotifRefus.IDENTIFIANT_INVALIDE, empruntId, "L'identifiant de l'emprunt doit être strictement positif");
+                continue;
+            }
+            Emprunt emprunt = empruntRepository.findById(empruntId).orElse(null);
+            if (emprunt == null) {
+                resultats[i] = echec(MotifRefus.EMPRUNT_INEXISTANT, empruntId, "L'emprunt avec l'ID " + empruntId + " n'existe pas");
+                continue;
+            }
+            membresConcernes.add(emprunt.getIdMembre());
         }
 
-        // Marquer l'emprunt comme retourné
-        emprunt.marquerRetour(LocalDate.now());
-        empruntRepository.save(emprunt);
+        List<ReentrantLock> verrous = verrousMembres.pourTous(membresConcernes);
+        verrous.forEach(Lock::lock);
+        try {
+            List<Emprunt> retournes = new ArrayList<>();
+            List<Oeuvre> liberees = new ArrayList<>();
+            Set<Long> traites = new HashSet<>();
+            for (int i = 0; i < resultats.length; i++) {
+                if (resultats[i] != null) {
+                    continue;
+                }
+                long empruntId = empruntIds.get(i);
+                Emprunt emprunt = empruntRepository.findById(empruntId).orElse(null);
+                if (emprunt == null) {
+                    resultats[i] = echec(MotifRefus.EMPRUNT_INEXISTANT, empruntId, "L'emprunt avec l'ID " + empruntId + " n'existe pas");
+                    continue;
+                }
+                if (!traites.add(empruntId) || !emprunt.estActif()) {
+                    resultats[i] = echec(MotifRefus.EMPRUNT_DEJA_RETOURNE, empruntId, "L'emprunt avec l'ID " + empruntId + " a déjà été retourné");
+                    continue;
+                }
+                Oeuvre oeuvre = oeuvreRepository.findById(emprunt.getIdOeuvre()).orElse(null);
+                if (oeuvre == null) {
+                    resultats[i] = echec(MotifRefus.OEUVRE_INEXISTANTE, empruntId, "L'œuvre avec l'ID " + emprunt.getIdOeuvre() + " n'existe plus");
+                    continue;
+                }
+                if (!oeuvre.tenterMarquerDisponible()) {
+                    resultats[i] = echec(MotifRefus.OEUVRE_DEJA_DISPONIBLE, empruntId, "L'œuvre avec l'ID " + oeuvre.getId() + " est déjà disponible");
+                    continue;
+                }
+                emprunt.marquerRetour(dateRetour);
+                retournes.add(emprunt);
+                liberees.add(oeuvre);
+                resultats[i] = ResultatOperation.succes(empruntId, empruntId);
+            }
 
-        // Marquer l'œuvre comme disponible
-        Oeuvre oeuvre = oeuvreRepository.findById(emprunt.getIdOeuvre())
-                .orElseThrow(() -> new IllegalStateException("L'œuvre avec l'ID " + emprunt.getIdOeuvre() + " n'existe plus"));
-        marquerOeuvreDisponible(oeuvre);
+            empruntRepository.saveAll(retournes);
+            oeuvreRepository.saveAll(liberees);
+            for (Emprunt emprunt : retournes) {
+                publier(TypeEvenement.EMPRUNT_RENDU, emprunt.getId(), emprunt.getIdMembre(), emprunt.getIdOeuvre());
+            }
+        } finally {
+            for (int i = verrous.size() - 1; i >= 0; i--) {
+                verrous.get(i).unlock();
+            }
+        }
+
+        return Arrays.asList(resultats);
     }
 
     /**
@@ -214,11 +610,13 @@ public class MediathequeService {
      * @throws IllegalArgumentException si membreId <= 0
      */
     public List<Emprunt> listerEmpruntsActifsPourMembre(long membreId) {
-        if (membreId <= 0) {
-            throw new IllegalArgumentException("L'identifiant du membre doit être strictement positif");
-        }
+        return metriques.mesurer(Operation.LISTER_EMPRUNTS_ACTIFS, () -> {
+            if (membreId <= 0) {
+                throw new IllegalArgumentException("L'identifiant du membre doit être strictement positif");
+            }
 
-        return empruntRepository.findActifsByMembreId(membreId);
+            return empruntRepository.findActifsByMembreId(membreId);
+        });
     }
 
     /**
@@ -228,10 +626,13 @@ public class MediathequeService {
      * @throws IllegalArgumentException si l'œuvre est null
      */
     public void ajouterOeuvre(Oeuvre oeuvre) {
-        if (oeuvre == null) {
-            throw new IllegalArgumentException("L'œuvre ne peut pas être null");
-        }
-        oeuvreRepository.save(oeuvre);
+        metriques.executer(Operation.AJOUTER_OEUVRE, () -> {
+            if (oeuvre == null) {
+                throw new IllegalArgumentException("L'œuvre ne peut pas être null");
+            }
+            oeuvreRepository.save(oeuvre);
+            publier(TypeEvenement.OEUVRE_AJOUTEE, 0, 0, oeuvre.getId());
+        });
     }
 
     /**
@@ -241,9 +642,57 @@ public class MediathequeService {
      * @throws IllegalArgumentException si le membre est null
      */
     public void ajouterMembre(Membre membre) {
-        if (membre == null) {
-            throw new IllegalArgumentException("Le membre ne peut pas être null");
+        metriques.executer(Operation.AJOUTER_MEMBRE, () -> {
+            if (membre == null) {
+                throw new IllegalArgumentException("Le membre ne peut pas être null");
+            }
+            membreRepository.save(membre);
+            publier(TypeEvenement.MEMBRE_AJOUTE, 0, membre.getId(), 0);
+        });
+    }
+
+    /**
+     * Retourne l'index de recherche des œuvres, s'il a été fourni.
+     */
+    private OeuvreRepositoryIndexe indexOeuvres() {
+        if (!(oeuvreRepository instanceof OeuvreRepositoryIndexe)) {
+            throw new IllegalStateException("La recherche d'œuvres exige un OeuvreRepositoryIndexe");
+        }
+        return (OeuvreRepositoryIndexe) oeuvreRepository;
+    }
+
+    /**
+     * Retourne l'index des noms de membres, s'il a été fourni.
+     */
+    private MembreRepositoryIndexe indexMembres() {
+        if (!(membreRepository instanceof MembreRepositoryIndexe)) {
+            throw new IllegalStateException("La complétion des noms exige un MembreRepositoryIndexe");
+        }
+        return (MembreRepositoryIndexe) membreRepository;
+    }
+
+    /**
+     * Publie un événement sur le bus du service, s'il en a un.
+     */
+    private void publier(TypeEvenement type, long empruntId, long membreId, long oeuvreId) {
+        if (evenements != null) {
+            evenements.publier(type, empruntId, membreId, oeuvreId);
         }
-        membreRepository.save(membre);
+    }
+
+    /**
+     * Compte un refus et construit l'exception qui le signale.
+     */
+    private IllegalStateException refus(MotifRefus motif, String message) {
+        metriques.compterRefus(motif);
+        return new IllegalStateException(message);
+    }
+
+    /**
+     * Compte le refus d'un élément de lot et construit son résultat.
+     */
+    private ResultatOperation echec(MotifRefus motif, long id, String message) {
+        metriques.compterRefus(motif);
+        return ResultatOperation.echec(id, message);
     }
 }
@@ -0,0 +1,111 @@
+package exam.service;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.oeuvre.Oeuvre;
+import exam.util.ThreadsVirtuels;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Façade asynchrone du {@link MediathequeService}, pour les guichets et
+ * bornes qui ne doivent pas immobiliser un thread pendant les accès à un
+ * repository persistant.
+ * <p>
+ * Chaque appel s'exécute sur son propre thread virtuel (Java 21 et plus) :
+ * un thread virtuel bloqué sur une entrée-sortie libère son thread porteur,
+ * si bien que des milliers d'appels simultanés ne demandent ni pool de
+ * threads à dimensionner ni threads de plateforme. Sur une JVM plus
+ * ancienne, les appels s'exécutent sur un pool borné de threads de
+ * plateforme ({@link ThreadsVirtuels#executeurParTache(String)}).
+ * <p>
+ * Les règles métier sont celles du service synchrone : un refus ou un
+ * argument invalide termine le futur en erreur, avec pour cause
+ * l'{@link IllegalStateException} ou l'{@link IllegalArgumentException}
+ * du service.
+ */
+public class MediathequeServiceAsynchrone implements AutoCloseable {
+
+    private final MediathequeService service;
+    private final ExecutorService executeur;
+
+    /**
+     * Crée la façade asynchrone d'un service.
+     *
+     * @param service service exécuté (non null)
+     * @throws IllegalArgumentException si service est null
+     */
+    public MediathequeServiceAsynchrone(MediathequeService service) {
+        if (service == null)
+            throw new IllegalArgumentException("Le service ne peut pas être null");
+        this.service = service;
+        this.executeur = ThreadsVirtuels.executeurParTache("mediatheque-async");
+    }
+
+    /**
+     * @return le service synchrone exécuté par cette façade
+     */
+    public MediathequeService service() {
+        return service;
+    }
+
+    /**
+     * Emprunte une œuvre pour un membre ; voir {@link MediathequeService#emprunter(long, long)}.
+     *
+     * @param membreId identifiant du membre
+     * @param oeuvreId identifiant de l'œuvre
+     * @return futur de l'identifiant de l'emprunt créé
+     */
+    public CompletableFuture<Long> emprunter(long membreId, long oeuvreId) {
+        return CompletableFuture.supplyAsync(() -> service.emprunter(membreId, oeuvreId), executeur);
+    }
+
+    /**
+     * Rend une œuvre empruntée ; voir {@link MediathequeService#rendre(long)}.
+     *
+     * @param empruntId identifiant de l'emprunt
+     * @return futur terminé une fois le retour enregistré
+     */
+    public CompletableFuture<Void> rendre(long empruntId) {
+        return CompletableFuture.runAsync(() -> service.rendre(empruntId), executeur);
+    }
+
+    /**
+     * Liste les œuvres disponibles ; voir {@link MediathequeService#disponibles()}.
+     *
+     * @return futur de la liste des œuvres disponibles
+     */
+    public CompletableFuture<List<Oeuvre>> disponibles() {
+        return CompletableFuture.supplyAsync(service::disponibles, executeur);
+    }
+
+    /**
+     * Liste les emprunts actifs d'un membre ; voir
+     * {@link MediathequeService#listerEmpruntsActifsPourMembre(long)}.
+     *
+     * @param membreId identifiant du membre
+     * @return futur de la liste des emprunts actifs
+     */
+    public CompletableFuture<List<Emprunt>> listerEmpruntsActifsPourMembre(long membreId) {
+        return CompletableFuture.supplyAsync(() -> service.listerEmpruntsActifsPourMembre(membreId), executeur);
+    }
+
+    /**
+     * Refuse les nouveaux appels et attend la fin de ceux en cours.
+     *
+     * @throws IllegalStateException si le thread est interrompu pendant l'attente
+     */
+    @Override
+    public void close() {
+        executeur.shutdown();
+        try {
+            executeur.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executeur.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompu pendant l'arrêt du service asynchrone", e);
+        }
+    }
+}
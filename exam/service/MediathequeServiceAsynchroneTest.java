@@ -0,0 +1,87 @@
+package exam.service;
+
+import exam.domain.emprunt.Emprunt;
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Livre;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la façade asynchrone du service : appels simultanés nombreux
+ * et erreurs transmises par les futurs.
+ */
+class MediathequeServiceAsynchroneTest {
+
+    private static final int SESSIONS = 2_000;
+
+    private MediathequeServiceAsynchrone service;
+
+    @BeforeEach
+    void setUp() {
+        MediathequeService synchrone = new MediathequeService(
+                new InMemoryOeuvreRepository(), new InMemoryMembreRepository(), new InMemoryEmpruntRepository());
+        for (long id = 1; id <= SESSIONS; id++) {
+            synchrone.ajouterMembre(new Membre(id, "Membre " + id));
+            synchrone.ajouterOeuvre(new Livre(id, "Titre " + id, "Auteur", (int) id));
+        }
+        service = new MediathequeServiceAsynchrone(synchrone);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void emprunterPuisRendre_depuisDeNombreusesSessionsSimultanees_doitToutEnregistrer() {
+        // Arrange & Act : Chaque session emprunte une œuvre, consulte ses emprunts puis rend l'œuvre
+        List<CompletableFuture<Long>> sessions = new ArrayList<>();
+        for (long id = 1; id <= SESSIONS; id++) {
+            long membreId = id;
+            sessions.add(service.emprunter(membreId, id)
+                    .thenCompose(emprunt -> service.listerEmpruntsActifsPourMembre(membreId)
+                            .thenApply(actifs -> {
+                                assertEquals(List.of(emprunt), actifs.stream().map(Emprunt::getId).toList());
+                                return emprunt;
+                            }))
+                    .thenCompose(emprunt -> service.rendre(emprunt).thenApply(rien -> emprunt)));
+        }
+        Set<Long> emprunts = new HashSet<>();
+        for (CompletableFuture<Long> session : sessions) {
+            emprunts.add(session.join());
+        }
+
+        // Assert : Emprunts distincts, toutes les œuvres de nouveau disponibles
+        assertEquals(SESSIONS, emprunts.size());
+        assertEquals(SESSIONS, service.disponibles().join().size());
+    }
+
+    @Test
+    void emprunter_quandRefuse_doitTerminerLeFuturEnErreur() {
+        // Arrange
+        service.emprunter(1, 1).join();
+
+        // Act
+        CompletableFuture<Long> refus = service.emprunter(2, 1);
+        CompletableFuture<Long> invalide = service.emprunter(0, 1);
+
+        // Assert : Les exceptions du service sont les causes des échecs
+        ExecutionException exception = assertThrows(ExecutionException.class, refus::get);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        exception = assertThrows(ExecutionException.class, invalide::get);
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+    }
+}
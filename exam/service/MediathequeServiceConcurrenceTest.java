@@ -0,0 +1,165 @@
+package exam.service;
+
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Livre;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests multi-threads pour MediathequeService.
+ * <p>
+ * Vérifie qu'aucune œuvre n'est prêtée deux fois et qu'aucun quota n'est
+ * dépassé lorsque plusieurs threads empruntent et rendent simultanément.
+ * Le débit selon le nombre de threads est mesuré par le banc JMH
+ * {@code ServiceBenchmark} (profil {@code bench}).
+ */
+class MediathequeServiceConcurrenceTest {
+
+    private static final int NOMBRE_THREADS = 8;
+
+    private MediathequeService service;
+    private InMemoryOeuvreRepository oeuvreRepository;
+    private InMemoryMembreRepository membreRepository;
+    private InMemoryEmpruntRepository empruntRepository;
+
+    @BeforeEach
+    void setUp() {
+        oeuvreRepository = new InMemoryOeuvreRepository();
+        membreRepository = new InMemoryMembreRepository();
+        empruntRepository = new InMemoryEmpruntRepository();
+        service = new MediathequeService(oeuvreRepository, membreRepository, empruntRepository);
+    }
+
+    @Test
+    void emprunter_quandPlusieursThreadsVisentLaMemeOeuvre_unSeulEmpruntReussit() throws Exception {
+        // Arrange : Une œuvre, un membre par thread
+        service.ajouterOeuvre(new Livre(1, "Dune", "Frank Herbert", 2070368229));
+        for (int i = 1; i <= NOMBRE_THREADS; i++) {
+            service.ajouterMembre(new Membre(i, "Membre " + i));
+        }
+
+        // Act : Tous les threads tentent d'emprunter la même œuvre au même moment
+        List<Boolean> resultats = executerEnParallele(NOMBRE_THREADS, indice -> () -> {
+            try {
+                service.emprunter(indice + 1, 1);
+                return true;
+            } catch (IllegalStateException e) {
+                return false;
+            }
+        });
+
+        // Assert : Exactement un gagnant
+        assertEquals(1, resultats.stream().filter(Boolean::booleanValue).count());
+        assertEquals(1, empruntRepository.findAll().size());
+        assertFalse(oeuvreRepository.findById(1).orElseThrow().isDisponible());
+    }
+
+    @Test
+    void tenterMarquerIndisponible_quandPlusieursThreads_unSeulGagnant() throws Exception {
+        // Arrange : Une œuvre disponible
+        Livre livre = new Livre(1, "Dune", "Frank Herbert", 2070368229);
+
+        // Act : Tous les threads tentent de la réserver
+        List<Boolean> resultats = executerEnParallele(NOMBRE_THREADS, indice -> livre::tenterMarquerIndisponible);
+
+        // Assert : Une seule réservation aboutit, et une seule libération est possible
+        assertEquals(1, resultats.stream().filter(Boolean::booleanValue).count());
+        assertTrue(livre.tenterMarquerDisponible());
+        assertFalse(livre.tenterMarquerDisponible());
+    }
+
+    @Test
+    void emprunter_quandPlusieursThreadsPourLeMemeMembre_quotaRespecte() throws Exception {
+        // Arrange : Un membre, une œuvre distincte par thread
+        service.ajouterMembre(new Membre(1, "Alice Martin"));
+        for (int i = 1; i <= NOMBRE_THREADS; i++) {
+            service.ajouterOeuvre(new Livre(i, "Livre " + i, "Auteur " + i, 1000 + i));
+        }
+
+        // Act : Tous les threads empruntent pour le même membre
+        List<Boolean> resultats = executerEnParallele(NOMBRE_THREADS, indice -> () -> {
+            try {
+                service.emprunter(1, indice + 1);
+                return true;
+            } catch (IllegalStateException e) {
+                return false;
+            }
+        });
+
+        // Assert : Le quota n'est jamais dépassé
+        assertEquals(EmpruntPolicy.getQuotaMax(), resultats.stream().filter(Boolean::booleanValue).count());
+        assertEquals(EmpruntPolicy.getQuotaMax(), service.listerEmpruntsActifsPourMembre(1).size());
+        assertEquals(NOMBRE_THREADS - EmpruntPolicy.getQuotaMax(), service.compterDisponibles());
+    }
+
+    @Test
+    void emprunterRendre_enParallele_doitLaisserUnEtatCoherent() throws Exception {
+        // Arrange : Un membre et une œuvre par thread pour éviter la contention métier
+        int cyclesParThread = 2_000;
+        for (int i = 1; i <= NOMBRE_THREADS; i++) {
+            service.ajouterMembre(new Membre(i, "Membre " + i));
+            service.ajouterOeuvre(new Livre(i, "Livre " + i, "Auteur " + i, 1000 + i));
+        }
+
+        // Act : Cycles emprunter/rendre en parallèle
+        List<Boolean> resultats = executerEnParallele(NOMBRE_THREADS, indice -> () -> {
+            long id = indice + 1;
+            for (int n = 0; n < cyclesParThread; n++) {
+                service.rendre(service.emprunter(id, id));
+            }
+            return true;
+        });
+
+        // Assert : Toutes les opérations ont abouti et l'état final est cohérent
+        assertTrue(resultats.stream().allMatch(Boolean::booleanValue));
+        assertEquals(NOMBRE_THREADS, service.compterDisponibles());
+        assertEquals((long) NOMBRE_THREADS * cyclesParThread, empruntRepository.count());
+        for (long id = 1; id <= NOMBRE_THREADS; id++) {
+            assertTrue(service.listerEmpruntsActifsPourMembre(id).isEmpty());
+        }
+    }
+
+    /**
+     * Lance une tâche par thread, toutes libérées au même instant,
+     * et retourne leurs résultats dans l'ordre des indices.
+     */
+    private static <T> List<T> executerEnParallele(int threads, IntFunction<Callable<T>> tache)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch depart = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<T> callable = tache.apply(i);
+                futures.add(executor.submit(() -> {
+                    depart.await();
+                    return callable.call();
+                }));
+            }
+            depart.countDown();
+
+            List<T> resultats = new ArrayList<>();
+            for (Future<T> future : futures) {
+                resultats.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return resultats;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -5,18 +5,31 @@ import exam.domain.membre.Membre;
 import exam.domain.oeuvre.Dvd;
 import exam.domain.oeuvre.Livre;
 import exam.domain.oeuvre.Oeuvre;
+import exam.evenement.BusEvenements;
+import exam.evenement.Saturation;
+import exam.metrique.MetriquesOperation;
+import exam.metrique.MotifRefus;
+import exam.metrique.Operation;
+import exam.recherche.MembreRepositoryIndexe;
+import exam.recherche.OeuvreRepositoryIndexe;
 import exam.repo.EmpruntRepository;
 import exam.repo.MembreRepository;
 import exam.repo.OeuvreRepository;
 import exam.repo.impl.InMemoryEmpruntRepository;
 import exam.repo.impl.InMemoryMembreRepository;
 import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.util.IdGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -302,6 +315,23 @@ class MediathequeServiceTest {
         assertTrue(exception.getMessage().contains("n'existe pas"));
     }
 
+    @Test
+    void rendre_quandOeuvreDejaDisponible_doitRefuserEtLaisserLEmpruntActif() {
+        // Arrange : Un emprunt actif sur une œuvre restée disponible
+        empruntRepository.save(new Emprunt(50, membreActif.getId(), livre1.getId(), LocalDate.now()));
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> service.rendre(50)
+        );
+
+        // Assert : Refus compté, emprunt inchangé
+        assertTrue(exception.getMessage().contains("déjà disponible"));
+        assertEquals(1, service.metriques().refus(MotifRefus.OEUVRE_DEJA_DISPONIBLE).getNombre());
+        assertTrue(empruntRepository.findById(50).orElseThrow().estActif());
+    }
+
     @Test
     void retour_doitLibererPlaceDansQuota() {
         // Arrange : Atteindre le quota maximum
@@ -360,6 +390,99 @@ class MediathequeServiceTest {
         }
     }
 
+    // ========== Tests des opérations en lot ==========
+
+    @Test
+    void emprunterEnLot_doitAppliquerLeQuotaSurLeLotEtRetournerUnResultatParOeuvre() {
+        // Arrange : Une œuvre supplémentaire pour dépasser le quota
+        Livre livre3 = new Livre(4, "Dune", "Frank Herbert", 2070368229);
+        oeuvreRepository.save(livre3);
+
+        // Act : Quatre œuvres demandées pour un quota de trois
+        List<ResultatOperation> resultats = service.emprunterEnLot(membreActif.getId(),
+                List.of(livre1.getId(), livre2.getId(), dvd1.getId(), livre3.getId()));
+
+        // Assert : Les trois premières sont empruntées, la dernière refusée
+        assertEquals(4, resultats.size());
+        assertTrue(resultats.get(1).estSucces());
+        assertTrue(resultats.get(1).estSucces());
+        assertTrue(resultats.get(2).estSucces());
+        assertFalse(resultats.get(3).estSucces());
+        assertTrue(resultats.get(3).getErreur().contains("quota"));
+        assertEquals(3, service.listerEmpruntsActifsPourMembre(membreActif.getId()).size());
+        assertTrue(livre3.isDisponible());
+        assertFalse(livre1.isDisponible());
+    }
+
+    @Test
+    void emprunterEnLot_quandOeuvreIndisponibleOuInexistante_doitContinuerLeLot() {
+        // Arrange : livre1 déjà emprunté par un autre membre
+        Membre autreMembre = new Membre(3, "Charlie Durand");
+        membreRepository.save(autreMembre);
+        service.emprunter(autreMembre.getId(), livre1.getId());
+
+        // Act
+        List<ResultatOperation> resultats = service.emprunterEnLot(membreActif.getId(),
+                List.of(livre1.getId(), 999L, livre2.getId()));
+
+        // Assert : Seule la dernière œuvre est empruntée
+        assertTrue(resultats.get(0).getErreur().contains("pas disponible"));
+        assertTrue(resultats.get(1).getErreur().contains("n'existe pas"));
+        assertTrue(resultats.get(2).estSucces());
+        Emprunt emprunt = empruntRepository.findById(resultats.get(2).getEmpruntId()).orElse(null);
+        assertNotNull(emprunt);
+        assertEquals(livre2.getId(), emprunt.getIdOeuvre());
+    }
+
+    @Test
+    void emprunterEnLot_quandMembreInactif_doitRefuserChaqueOeuvre() {
+        // Act
+        List<ResultatOperation> resultats = service.emprunterEnLot(membreInactif.getId(),
+                List.of(livre1.getId(), livre2.getId()));
+
+        // Assert
+        assertEquals(2, resultats.size());
+        assertTrue(resultats.stream().noneMatch(ResultatOperation::estSucces));
+        assertTrue(resultats.get(0).getErreur().contains("inactif"));
+        assertEquals(3, service.compterDisponibles());
+    }
+
+    @Test
+    void rendreEnLot_doitRendreLesEmpruntsValidesEtSignalerLesAutres() {
+        // Arrange : Deux emprunts, dont un déjà retourné
+        long emprunt1 = service.emprunter(membreActif.getId(), livre1.getId());
+        long emprunt2 = service.emprunter(membreActif.getId(), livre2.getId());
+        service.rendre(emprunt1);
+
+        // Act
+        List<ResultatOperation> resultats = service.rendreEnLot(List.of(emprunt1, emprunt2, 999L));
+
+        // Assert
+        assertTrue(resultats.get(0).getErreur().contains("déjà été retourné"));
+        assertTrue(resultats.get(1).estSucces());
+        assertTrue(resultats.get(2).getErreur().contains("n'existe pas"));
+        assertTrue(service.listerEmpruntsActifsPourMembre(membreActif.getId()).isEmpty());
+        assertEquals(3, service.compterDisponibles());
+    }
+
+    @Test
+    void rendreEnLot_quandOeuvreDejaDisponible_doitRefuserCommeRendre() {
+        // Arrange : Un emprunt actif sur une œuvre restée disponible, un emprunt normal
+        empruntRepository.save(new Emprunt(50, membreActif.getId(), livre1.getId(), LocalDate.now()));
+        long emprunt2 = service.emprunter(membreActif.getId(), livre2.getId());
+
+        // Act
+        List<ResultatOperation> resultats = service.rendreEnLot(List.of(50L, emprunt2));
+
+        // Assert : Même refus que rendre, l'emprunt fautif reste actif
+        assertFalse(resultats.get(0).estSucces());
+        assertTrue(resultats.get(0).getErreur().contains("déjà disponible"));
+        assertTrue(resultats.get(1).estSucces());
+        assertEquals(1, service.metriques().refus(MotifRefus.OEUVRE_DEJA_DISPONIBLE).getNombre());
+        assertTrue(empruntRepository.findById(50).orElseThrow().estActif());
+        assertFalse(empruntRepository.findById(emprunt2).orElseThrow().estActif());
+    }
+
     // ========== Tests supplémentaires pour la robustesse ==========
 
     @Test
@@ -378,6 +501,43 @@ class MediathequeServiceTest {
         assertFalse(disponibles.contains(livre2)); // Empruntée, donc indisponible
     }
 
+    @Test
+    void disponiblesPagine_doitParcourirToutesLesOeuvresDisponibles() {
+        // Arrange : livre2 emprunté, restent livre1 et dvd1
+        service.emprunter(membreActif.getId(), livre2.getId());
+
+        // Act : Pages d'une seule œuvre
+        List<Oeuvre> page1 = service.disponibles(0, 1);
+        List<Oeuvre> page2 = service.disponibles(page1.get(0).getId(), 1);
+        List<Oeuvre> page3 = service.disponibles(page2.get(0).getId(), 1);
+
+        // Assert
+        assertEquals(List.of(livre1), page1);
+        assertEquals(List.of(dvd1), page2);
+        assertTrue(page3.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.disponibles(0, 0));
+    }
+
+    @Test
+    void compterDisponibles_doitSuivreEmpruntsEtRetours() {
+        // Arrange : Trois œuvres disponibles au départ
+        assertEquals(3, service.compterDisponibles());
+
+        // Act : Emprunter une œuvre
+        long empruntId = service.emprunter(membreActif.getId(), livre1.getId());
+
+        // Assert : Une œuvre de moins
+        assertEquals(2, service.compterDisponibles());
+        assertEquals(service.disponibles().size(), service.compterDisponibles());
+
+        // Act : Rendre l'œuvre
+        service.rendre(empruntId);
+
+        // Assert : L'œuvre est de nouveau comptée
+        assertEquals(3, service.compterDisponibles());
+        assertTrue(service.disponibles().contains(livre1));
+    }
+
     @Test
     void listerEmpruntsActifsPourMembre_doitRetournerEmpruntsActifs() {
         // Arrange : Créer plusieurs emprunts
@@ -445,4 +605,109 @@ class MediathequeServiceTest {
                 () -> service.listerEmpruntsActifsPourMembre(membreIdInvalide)
         );
     }
+
+    // ========== Tests des mesures ==========
+
+    @Test
+    void metriques_doiventCompterLesIssuesEtLesMotifsDeRefus() {
+        // Arrange
+        long empruntId = service.emprunter(membreActif.getId(), livre1.getId());
+
+        // Act : Un succès, deux refus et un argument invalide
+        service.rendre(empruntId);
+        assertThrows(IllegalStateException.class, () -> service.rendre(empruntId));
+        assertThrows(IllegalStateException.class, () -> service.emprunter(membreInactif.getId(), livre2.getId()));
+        assertThrows(IllegalArgumentException.class, () -> service.rendre(0));
+
+        // Assert
+        MetriquesOperation rendre = service.metriques().operation(Operation.RENDRE);
+        assertEquals(3, rendre.getNombreAppels());
+        assertEquals(1, rendre.getNombreSucces());
+        assertEquals(1, rendre.getNombreRefus());
+        assertEquals(1, rendre.getNombreArgumentsInvalides());
+        assertEquals(3, rendre.latences().repartition().nombre());
+        assertTrue(rendre.getLatenceP99Ns() > 0);
+        assertEquals(1, service.metriques().refus(MotifRefus.EMPRUNT_DEJA_RETOURNE).getNombre());
+        assertEquals(1, service.metriques().refus(MotifRefus.MEMBRE_INACTIF).getNombre());
+        assertEquals(0, service.metriques().refus(MotifRefus.QUOTA_ATTEINT).getNombre());
+    }
+
+    @Test
+    void metriques_quandPubliees_doiventEtreLisiblesEnJmx() throws Exception {
+        // Arrange
+        MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+        service.emprunter(membreActif.getId(), livre1.getId());
+
+        // Act
+        service.metriques().publier();
+        try {
+            // Assert
+            ObjectName emprunter = new ObjectName("exam:type=MediathequeService,operation=emprunter");
+            ObjectName repositories = new ObjectName("exam:type=MediathequeService,name=Repositories");
+            assertEquals(1L, serveur.getAttribute(emprunter, "NombreSucces"));
+            assertEquals(3, serveur.getAttribute(repositories, "NombreOeuvres"));
+            assertEquals(2, serveur.getAttribute(repositories, "NombreOeuvresDisponibles"));
+            assertEquals(1, serveur.getAttribute(repositories, "NombreEmprunts"));
+        } finally {
+            service.metriques().retirer();
+        }
+        assertFalse(serveur.isRegistered(new ObjectName("exam:type=MediathequeService,operation=emprunter")));
+    }
+
+    @Test
+    void evenements_doiventEtrePubliesDansLOrdreDesOperationsReussies() {
+        // Arrange : Un service relié à un bus qui consigne les événements reçus
+        List<String> recus = Collections.synchronizedList(new ArrayList<>());
+        MediathequeService serviceEvenements;
+        try (BusEvenements bus = new BusEvenements(64, Saturation.BLOQUER)) {
+            bus.abonner("test", (evenement, sequence, finDeLot) -> recus.add(evenement.toString()));
+            bus.demarrer();
+            serviceEvenements = new MediathequeService(oeuvreRepository, membreRepository, empruntRepository,
+                    new IdGenerator(), bus);
+
+            // Act : Opérations réussies et refusées
+            long emprunt = serviceEvenements.emprunter(membreActif.getId(), livre1.getId());
+            assertThrows(IllegalStateException.class,
+                    () -> serviceEvenements.emprunter(membreInactif.getId(), livre2.getId()));
+            serviceEvenements.rendre(emprunt);
+            serviceEvenements.ajouterMembre(new Membre(3, "Chloé Bernard"));
+            serviceEvenements.ajouterOeuvre(new Livre(4, "Dune", "Frank Herbert", 2070368229));
+        }
+
+        // Assert : La fermeture du bus attend le traitement ; les refus ne publient rien
+        assertEquals(List.of(
+                "EMPRUNT_CREE{emprunt=1, membre=1, oeuvre=1}",
+                "EMPRUNT_RENDU{emprunt=1, membre=1, oeuvre=1}",
+                "MEMBRE_AJOUTE{emprunt=0, membre=3, oeuvre=0}",
+                "OEUVRE_AJOUTEE{emprunt=0, membre=0, oeuvre=4}"), recus);
+    }
+
+    @Test
+    void rechercher_quandRepositoriesNonIndexes_doitLeverIllegalStateException() {
+        // Arrange : setUp fournit des repositories en mémoire sans index
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> service.rechercher("dune", 10));
+        assertThrows(IllegalStateException.class, () -> service.rechercherTitreApproche("dune", 10));
+        assertThrows(IllegalStateException.class, () -> service.completerTitre("du", 10));
+        assertThrows(IllegalStateException.class, () -> service.completerNomMembre("al", 10));
+    }
+
+    @Test
+    void rechercher_quandRepositoriesIndexes_doitUtiliserLesIndex() {
+        // Arrange : Les décorateurs indexent le contenu existant
+        MediathequeService serviceIndexe = new MediathequeService(
+                new OeuvreRepositoryIndexe(oeuvreRepository),
+                new MembreRepositoryIndexe(membreRepository),
+                empruntRepository);
+        serviceIndexe.ajouterOeuvre(new Livre(4, "Dune", "Frank Herbert", 2070368229));
+
+        // Act
+        List<Oeuvre> resultats = serviceIndexe.rechercher("dune", 10);
+
+        // Assert
+        assertEquals(List.of(4L), resultats.stream().map(Oeuvre::getId).toList());
+        assertEquals(List.of(membreActif.getId()),
+                serviceIndexe.completerNomMembre("mart", 10).stream().map(Membre::getId).toList());
+    }
 }
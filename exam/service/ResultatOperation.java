@@ -0,0 +1,84 @@
+package exam.service;
+
+/**
+ * Résultat d'une opération unitaire au sein d'un lot (emprunt ou retour).
+ * <p>
+ * Une opération réussie porte l'identifiant de l'emprunt concerné ;
+ * une opération refusée porte le message de l'erreur rencontrée.
+ */
+public final class ResultatOperation {
+
+    private final long cible;
+    private final long empruntId;
+    private final String erreur;
+
+    private ResultatOperation(long cible, long empruntId, String erreur) {
+        this.cible = cible;
+        this.empruntId = empruntId;
+        this.erreur = erreur;
+    }
+
+    /**
+     * Crée un résultat de succès.
+     *
+     * @param cible     identifiant demandé (œuvre pour un emprunt, emprunt pour un retour)
+     * @param empruntId identifiant de l'emprunt créé ou retourné
+     * @return le résultat
+     */
+    public static ResultatOperation succes(long cible, long empruntId) {
+        return new ResultatOperation(cible, empruntId, null);
+    }
+
+    /**
+     * Crée un résultat d'échec.
+     *
+     * @param cible   identifiant demandé (œuvre pour un emprunt, emprunt pour un retour)
+     * @param message message d'erreur (non null)
+     * @return le résultat
+     */
+    public static ResultatOperation echec(long cible, String message) {
+        if (message == null)
+            throw new IllegalArgumentException("Le message d'erreur ne peut pas être null");
+        return new ResultatOperation(cible, 0, message);
+    }
+
+    /**
+     * @return true si l'opération a réussi
+     */
+    public boolean estSucces() {
+        return erreur == null;
+    }
+
+    /**
+     * @return l'identifiant demandé (œuvre pour un emprunt, emprunt pour un retour)
+     */
+    public long getCible() {
+        return cible;
+    }
+
+    /**
+     * @return l'identifiant de l'emprunt, ou 0 si l'opération a échoué
+     */
+    public long getEmpruntId() {
+        return empruntId;
+    }
+
+    /**
+     * @return le message d'erreur, ou null si l'opération a réussi
+     */
+    public String getErreur() {
+        return erreur;
+    }
+
+    /**
+     * Représentation lisible du résultat.
+     *
+     * @return chaîne contenant la cible et l'emprunt ou l'erreur
+     */
+    @Override
+    public String toString() {
+        return estSucces()
+                ? "ResultatOperation{cible=" + cible + ", emprunt=" + empruntId + "}"
+                : "ResultatOperation{cible=" + cible + ", erreur='" + erreur + "'}";
+    }
+}
@@ -0,0 +1,288 @@
+package exam.tcp;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Client du protocole binaire de {@link ServeurBinaire}, sur une connexion
+ * bloquante. Un client n'est pas thread-safe : une connexion par terminal.
+ * <p>
+ * Les méthodes {@link #emprunter}, {@link #rendre}, {@link #estDisponible}
+ * et {@link #compterDisponibles} envoient une requête et attendent sa
+ * réponse ; elles signalent les erreurs comme le service, par une
+ * {@link IllegalArgumentException} ou une {@link IllegalStateException}.
+ * <p>
+ * Pour enchaîner plusieurs requêtes sans attendre (pipelining), les
+ * méthodes {@code demander...} les accumulent, {@link #envoyer()} les
+ * transmet, puis chaque appel à {@link #recevoir()} lit la réponse
+ * suivante, dans l'ordre des requêtes. Comme le serveur cesse de lire un
+ * client qui ne lit pas ses réponses, le nombre de requêtes en attente
+ * doit rester borné (quelques milliers au plus).
+ */
+public final class ClientBinaire implements AutoCloseable {
+
+    private static final int TAILLE_MAX_REQUETE = Protocole.ENTETE + 1 + 2 * Long.BYTES;
+
+    private final SocketChannel canal;
+    private final ByteBuffer sortie = ByteBuffer.allocateDirect(Protocole.TAILLE_TAMPON);
+
+    /**
+     * Réponses reçues, en mode lecture entre deux appels à {@link #recevoir()}.
+     */
+    private final ByteBuffer entree = ByteBuffer.allocateDirect(Protocole.TAILLE_TAMPON).flip();
+
+    private int enAttente;
+    private long valeur;
+    private int debutMessage;
+    private int longueurMessage;
+
+    private ClientBinaire(SocketChannel canal) {
+        this.canal = canal;
+    }
+
+    /**
+     * Ouvre une connexion vers un serveur.
+     *
+     * @param adresse adresse du serveur (non null)
+     * @return le client connecté
+     * @throws IllegalArgumentException si adresse est null
+     * @throws UncheckedIOException     si la connexion échoue
+     */
+    public static ClientBinaire connecter(InetSocketAddress adresse) {
+        if (adresse == null)
+            throw new IllegalArgumentException("L'adresse ne peut pas être null");
+        try {
+            SocketChannel canal = SocketChannel.open(adresse);
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            return new ClientBinaire(canal);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Connexion impossible à " + adresse, e);
+        }
+    }
+
+    /**
+     * Emprunte une œuvre pour un membre.
+     *
+     * @return l'identifiant de l'emprunt créé
+     * @throws IllegalArgumentException si un identifiant est invalide
+     * @throws IllegalStateException    si l'emprunt est refusé
+     * @see exam.service.MediathequeService#emprunter(long, long)
+     */
+    public long emprunter(long membreId, long oeuvreId) {
+        exigerAucuneAttente();
+        demanderEmprunt(membreId, oeuvreId);
+        return attendre();
+    }
+
+    /**
+     * Rend un emprunt.
+     *
+     * @throws IllegalArgumentException si l'identifiant est invalide
+     * @throws IllegalStateException    si le retour est refusé
+     * @see exam.service.MediathequeService#rendre(long)
+     */
+    public void rendre(long empruntId) {
+        exigerAucuneAttente();
+        demanderRetour(empruntId);
+        attendre();
+    }
+
+    /**
+     * @return true si l'œuvre est disponible
+     * @throws IllegalArgumentException si l'identifiant est invalide
+     * @throws IllegalStateException    si l'œuvre n'existe pas
+     * @see exam.service.MediathequeService#estDisponible(long)
+     */
+    public boolean estDisponible(long oeuvreId) {
+        exigerAucuneAttente();
+        demanderDisponibilite(oeuvreId);
+        return attendre() != 0;
+    }
+
+    /**
+     * @return le nombre d'œuvres disponibles
+     * @see exam.service.MediathequeService#compterDisponibles()
+     */
+    public int compterDisponibles() {
+        exigerAucuneAttente();
+        demanderCompteDisponibles();
+        return (int) attendre();
+    }
+
+    /**
+     * Ajoute une demande d'emprunt aux requêtes à envoyer ; la réponse porte
+     * l'identifiant de l'emprunt.
+     */
+    public void demanderEmprunt(long membreId, long oeuvreId) {
+        commencer(Protocole.EMPRUNTER, 2 * Long.BYTES);
+        sortie.putLong(membreId);
+        sortie.putLong(oeuvreId);
+    }
+
+    /**
+     * Ajoute un retour aux requêtes à envoyer.
+     */
+    public void demanderRetour(long empruntId) {
+        commencer(Protocole.RENDRE, Long.BYTES);
+        sortie.putLong(empruntId);
+    }
+
+    /**
+     * Ajoute une question de disponibilité aux requêtes à envoyer ; la valeur
+     * de la réponse vaut 1 si l'œuvre est disponible, 0 sinon.
+     */
+    public void demanderDisponibilite(long oeuvreId) {
+        commencer(Protocole.EST_DISPONIBLE, Long.BYTES);
+        sortie.putLong(oeuvreId);
+    }
+
+    /**
+     * Ajoute un comptage des œuvres disponibles aux requêtes à envoyer.
+     */
+    public void demanderCompteDisponibles() {
+        commencer(Protocole.COMPTER_DISPONIBLES, 0);
+    }
+
+    /**
+     * Transmet les requêtes accumulées.
+     *
+     * @throws UncheckedIOException si la connexion est rompue
+     */
+    public void envoyer() {
+        sortie.flip();
+        try {
+            while (sortie.hasRemaining()) {
+                canal.write(sortie);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            sortie.clear();
+        }
+    }
+
+    /**
+     * Attend et lit la réponse à la plus ancienne requête envoyée.
+     *
+     * @return le statut de la réponse ; sa valeur ({@link #valeur()}) ou son
+     * message ({@link #message()}) restent lisibles jusqu'au prochain appel
+     * @throws IllegalStateException si aucune requête n'est en attente
+     * @throws UncheckedIOException  si la connexion est rompue
+     */
+    public Statut recevoir() {
+        if (enAttente == 0) {
+            throw new IllegalStateException("Aucune requête en attente de réponse");
+        }
+        if (sortie.position() > 0) {
+            envoyer();
+        }
+        remplir(Protocole.ENTETE);
+        int longueur = entree.getInt(entree.position());
+        if (longueur < 1 || longueur > Protocole.TAILLE_MAX_REPONSE - Protocole.ENTETE) {
+            throw new IllegalStateException("Réponse de longueur invalide : " + longueur);
+        }
+        remplir(Protocole.ENTETE + longueur);
+        int debut = entree.position() + Protocole.ENTETE;
+        entree.position(debut + longueur);
+        enAttente--;
+
+        Statut statut = Protocole.statut(entree.get(debut));
+        if (statut == Statut.OK) {
+            valeur = entree.getLong(debut + 1);
+            longueurMessage = 0;
+        } else {
+            valeur = 0;
+            debutMessage = debut + 1;
+            longueurMessage = longueur - 1;
+        }
+        return statut;
+    }
+
+    /**
+     * @return la valeur de la dernière réponse reçue, si elle est un succès
+     */
+    public long valeur() {
+        return valeur;
+    }
+
+    /**
+     * @return le message de la dernière réponse reçue, si elle est un échec
+     */
+    public String message() {
+        return Protocole.lireTexte(entree, debutMessage, longueurMessage);
+    }
+
+    /**
+     * @return le nombre de requêtes dont la réponse n'a pas encore été lue
+     */
+    public int enAttente() {
+        return enAttente;
+    }
+
+    @Override
+    public void close() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void commencer(byte code, int tailleArguments) {
+        if (sortie.remaining() < TAILLE_MAX_REQUETE) {
+            envoyer();
+        }
+        sortie.putInt(1 + tailleArguments);
+        sortie.put(code);
+        enAttente++;
+    }
+
+    /**
+     * Envoie la requête préparée, lit sa réponse et la convertit comme le service.
+     */
+    private long attendre() {
+        Statut statut = recevoir();
+        switch (statut) {
+            case OK:
+                return valeur;
+            case ARGUMENT_INVALIDE:
+                throw new IllegalArgumentException(message());
+            case REFUS:
+                throw new IllegalStateException(message());
+            default:
+                throw new IllegalStateException("Erreur du serveur : " + message());
+        }
+    }
+
+    private void exigerAucuneAttente() {
+        if (enAttente > 0) {
+            throw new IllegalStateException("Des réponses sont en attente : appeler recevoir() d'abord");
+        }
+    }
+
+    /**
+     * Lit le réseau jusqu'à disposer d'au moins {@code octets} octets de réponse.
+     */
+    private void remplir(int octets) {
+        if (entree.remaining() >= octets) {
+            return;
+        }
+        entree.compact();
+        try {
+            while (entree.position() < octets) {
+                if (canal.read(entree) < 0) {
+                    throw new EOFException("Connexion fermée par le serveur");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            entree.flip();
+        }
+    }
+}
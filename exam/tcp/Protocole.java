@@ -0,0 +1,118 @@
+package exam.tcp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Format des trames du protocole binaire, commun au serveur et au client.
+ * <p>
+ * Chaque trame commence par sa longueur (entier 32 bits, en-tête exclu),
+ * suivie de son contenu ; les entiers sont gros-boutistes.
+ * <pre>
+ * requête : longueur | code (1 octet) | arguments
+ *   EMPRUNTER            membreId (8) | oeuvreId (8)
+ *   RENDRE               empruntId (8)
+ *   EST_DISPONIBLE       oeuvreId (8)
+ *   COMPTER_DISPONIBLES  -
+ * réponse : longueur | statut (1 octet) | valeur (8)     si statut OK
+ *                    | statut (1 octet) | message UTF-8  sinon
+ * </pre>
+ * La valeur est l'identifiant de l'emprunt créé, 1 ou 0 pour une
+ * disponibilité, le nombre d'œuvres disponibles, ou 0 pour un retour.
+ * Les réponses arrivent dans l'ordre des requêtes : un client peut en
+ * envoyer plusieurs sans attendre.
+ */
+final class Protocole {
+
+    static final byte EMPRUNTER = 1;
+    static final byte RENDRE = 2;
+    static final byte EST_DISPONIBLE = 3;
+    static final byte COMPTER_DISPONIBLES = 4;
+
+    /**
+     * Taille de l'en-tête de longueur d'une trame.
+     */
+    static final int ENTETE = Integer.BYTES;
+
+    /**
+     * Longueur maximale du contenu d'une requête ; au-delà, la connexion est fermée.
+     */
+    static final int LONGUEUR_MAX_REQUETE = 64;
+
+    /**
+     * Longueur maximale, en octets, du message d'une réponse en échec (tronqué au-delà).
+     */
+    static final int LONGUEUR_MAX_MESSAGE = 255;
+
+    /**
+     * Taille maximale d'une réponse, en-tête compris.
+     */
+    static final int TAILLE_MAX_REPONSE = ENTETE + 1 + LONGUEUR_MAX_MESSAGE;
+
+    /**
+     * Taille des tampons de lecture et d'écriture de chaque connexion.
+     */
+    static final int TAILLE_TAMPON = 64 * 1024;
+
+    private static final Statut[] STATUTS = Statut.values();
+
+    private Protocole() {
+    }
+
+    /**
+     * @return le statut de code donné
+     * @throws IllegalStateException si le code est inconnu
+     */
+    static Statut statut(byte code) {
+        if (code < 0 || code >= STATUTS.length) {
+            throw new IllegalStateException("Statut de réponse inconnu : " + code);
+        }
+        return STATUTS[code];
+    }
+
+    /**
+     * Écrit un texte en UTF-8 à la position du tampon, sans allocation,
+     * tronqué à {@link #LONGUEUR_MAX_MESSAGE} octets (sans couper un caractère).
+     */
+    static void ecrireTexte(ByteBuffer tampon, String texte) {
+        if (texte == null) {
+            return;
+        }
+        int limite = tampon.position() + LONGUEUR_MAX_MESSAGE;
+        for (int i = 0; i < texte.length(); i++) {
+            int c = texte.charAt(i);
+            if (Character.isHighSurrogate((char) c) && i + 1 < texte.length()
+                    && Character.isLowSurrogate(texte.charAt(i + 1))) {
+                c = Character.toCodePoint((char) c, texte.charAt(++i));
+            }
+            int taille = c < 0x80 ? 1 : c < 0x800 ? 2 : c < 0x10000 ? 3 : 4;
+            if (tampon.position() + taille > limite) {
+                return;
+            }
+            if (taille == 1) {
+                tampon.put((byte) c);
+            } else if (taille == 2) {
+                tampon.put((byte) (0xC0 | c >> 6));
+                tampon.put((byte) (0x80 | c & 0x3F));
+            } else if (taille == 3) {
+                tampon.put((byte) (0xE0 | c >> 12));
+                tampon.put((byte) (0x80 | c >> 6 & 0x3F));
+                tampon.put((byte) (0x80 | c & 0x3F));
+            } else {
+                tampon.put((byte) (0xF0 | c >> 18));
+                tampon.put((byte) (0x80 | c >> 12 & 0x3F));
+                tampon.put((byte) (0x80 | c >> 6 & 0x3F));
+                tampon.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Lit un texte UTF-8 de {@code longueur} octets à partir de l'index {@code debut}.
+     */
+    static String lireTexte(ByteBuffer tampon, int debut, int longueur) {
+        byte[] octets = new byte[longueur];
+        tampon.get(debut, octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+}
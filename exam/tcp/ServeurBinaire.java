@@ -0,0 +1,368 @@
+package exam.tcp;
+
+import exam.service.MediathequeService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Serveur du protocole binaire ({@link Protocole}) pour les portiques RFID
+ * et les bornes de prêt, qui expose {@code emprunter}, {@code rendre} et
+ * les disponibilités du {@link MediathequeService}.
+ * <p>
+ * Chaque boucle d'événements est un thread qui sert ses connexions par un
+ * {@link Selector} : elle décode toutes les requêtes complètes reçues,
+ * appelle le service, écrit les réponses dans le tampon de sortie de la
+ * connexion, puis l'envoie en une fois. Un client peut ainsi enchaîner
+ * ses requêtes sans attendre les réponses (pipelining). Les tampons sont
+ * directs et alloués une fois par connexion : une requête traitée avec
+ * succès n'alloue rien dans la couche réseau.
+ * <p>
+ * Le service est appelé sur le thread de la boucle : ce serveur convient
+ * aux repositories en mémoire ou en cache. Quand un client ne lit plus ses
+ * réponses, sa connexion cesse d'être lue jusqu'à ce que le tampon de
+ * sortie se vide.
+ */
+public final class ServeurBinaire implements AutoCloseable {
+
+    private final MediathequeService service;
+    private final ServerSocketChannel ecoute;
+    private final Boucle[] boucles;
+    private volatile boolean actif = true;
+
+    private ServeurBinaire(MediathequeService service, ServerSocketChannel ecoute, int nombreBoucles) throws IOException {
+        this.service = service;
+        this.ecoute = ecoute;
+        this.boucles = new Boucle[nombreBoucles];
+        for (int i = 0; i < nombreBoucles; i++) {
+            boucles[i] = new Boucle(i);
+        }
+    }
+
+    /**
+     * Démarre un serveur avec une boucle d'événements par processeur.
+     *
+     * @see #demarrer(MediathequeService, InetSocketAddress, int)
+     */
+    public static ServeurBinaire demarrer(MediathequeService service, InetSocketAddress adresse) {
+        return demarrer(service, adresse, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Démarre un serveur.
+     *
+     * @param service       service exposé (non null)
+     * @param adresse       adresse d'écoute ; port 0 pour un port libre choisi par le système
+     * @param nombreBoucles nombre de boucles d'événements (> 0), entre lesquelles les connexions sont réparties
+     * @return le serveur démarré
+     * @throws IllegalArgumentException si service ou adresse est null, ou nombreBoucles <= 0
+     * @throws UncheckedIOException     si l'adresse ne peut pas être ouverte
+     */
+    public static ServeurBinaire demarrer(MediathequeService service, InetSocketAddress adresse, int nombreBoucles) {
+        if (service == null || adresse == null)
+            throw new IllegalArgumentException("Le service et l'adresse ne peuvent pas être null");
+        if (nombreBoucles <= 0)
+            throw new IllegalArgumentException("Le nombre de boucles doit être strictement positif");
+        ServerSocketChannel ecoute = null;
+        try {
+            ecoute = ServerSocketChannel.open();
+            ecoute.bind(adresse);
+            ecoute.configureBlocking(false);
+            ServeurBinaire serveur = new ServeurBinaire(service, ecoute, nombreBoucles);
+            // La première boucle accepte aussi les connexions
+            ecoute.register(serveur.boucles[0].selecteur, SelectionKey.OP_ACCEPT);
+            for (Boucle boucle : serveur.boucles) {
+                boucle.thread.start();
+            }
+            return serveur;
+        } catch (IOException e) {
+            fermerSilencieusement(ecoute);
+            throw new UncheckedIOException("Impossible d'écouter sur " + adresse, e);
+        }
+    }
+
+    /**
+     * @return le port d'écoute
+     */
+    public int port() {
+        return ecoute.socket().getLocalPort();
+    }
+
+    /**
+     * Arrête le serveur : les connexions sont fermées, les requêtes reçues
+     * mais pas encore traitées sont abandonnées.
+     */
+    @Override
+    public void close() {
+        actif = false;
+        for (Boucle boucle : boucles) {
+            boucle.selecteur.wakeup();
+        }
+        for (Boucle boucle : boucles) {
+            try {
+                boucle.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fermerSilencieusement(ecoute);
+    }
+
+    private static void fermerSilencieusement(AutoCloseable ressource) {
+        if (ressource == null) {
+            return;
+        }
+        try {
+            ressource.close();
+        } catch (Exception e) {
+            // Fermeture au mieux : il n'y a rien à faire de plus
+        }
+    }
+
+    /**
+     * Boucle d'événements : un thread, un sélecteur et les connexions qui lui sont confiées.
+     */
+    private final class Boucle implements Runnable {
+
+        private final Selector selecteur;
+        private final Thread thread;
+
+        /**
+         * Connexions acceptées par la première boucle, en attente d'enregistrement.
+         */
+        private final Queue<SocketChannel> nouvelles = new ConcurrentLinkedQueue<>();
+
+        private int suivante;
+
+        Boucle(int numero) throws IOException {
+            this.selecteur = Selector.open();
+            this.thread = new Thread(this, "tcp-" + numero);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (actif) {
+                    selecteur.select();
+                    enregistrerNouvelles();
+                    for (SelectionKey cle : selecteur.selectedKeys()) {
+                        traiterEvenement(cle);
+                    }
+                    selecteur.selectedKeys().clear();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                for (SelectionKey cle : selecteur.keys()) {
+                    fermerSilencieusement(cle.channel());
+                }
+                fermerSilencieusement(selecteur);
+            }
+        }
+
+        private void traiterEvenement(SelectionKey cle) {
+            if (!cle.isValid()) {
+                return;
+            }
+            if (cle.isAcceptable()) {
+                accepter();
+                return;
+            }
+            Connexion connexion = (Connexion) cle.attachment();
+            try {
+                if (cle.isWritable()) {
+                    connexion.vider();
+                }
+                if (cle.isReadable()) {
+                    connexion.lire();
+                }
+            } catch (IOException | ProtocoleInvalide e) {
+                cle.cancel();
+                fermerSilencieusement(cle.channel());
+            }
+        }
+
+        private void accepter() {
+            SocketChannel canal;
+            try {
+                while ((canal = ecoute.accept()) != null) {
+                    canal.configureBlocking(false);
+                    canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    Boucle boucle = boucles[suivante];
+                    suivante = (suivante + 1) % boucles.length;
+                    boucle.nouvelles.add(canal);
+                    if (boucle != this) {
+                        boucle.selecteur.wakeup();
+                    }
+                }
+            } catch (IOException e) {
+                // Connexion abandonnée par le client avant d'être acceptée
+            }
+            enregistrerNouvelles();
+        }
+
+        private void enregistrerNouvelles() {
+            SocketChannel canal;
+            while ((canal = nouvelles.poll()) != null) {
+                try {
+                    SelectionKey cle = canal.register(selecteur, SelectionKey.OP_READ);
+                    cle.attach(new Connexion(canal, cle));
+                } catch (IOException e) {
+                    fermerSilencieusement(canal);
+                }
+            }
+        }
+    }
+
+    /**
+     * Connexion d'un client, avec ses tampons directs.
+     * <p>
+     * Le tampon d'entrée reste en mode écriture entre deux lectures ; celui
+     * de sortie accumule les réponses qui n'ont pas encore été envoyées.
+     */
+    private final class Connexion {
+
+        private final SocketChannel canal;
+        private final SelectionKey cle;
+        private final ByteBuffer entree = ByteBuffer.allocateDirect(Protocole.TAILLE_TAMPON);
+        private final ByteBuffer sortie = ByteBuffer.allocateDirect(Protocole.TAILLE_TAMPON);
+
+        Connexion(SocketChannel canal, SelectionKey cle) {
+            this.canal = canal;
+            this.cle = cle;
+        }
+
+        void lire() throws IOException {
+            if (canal.read(entree) < 0) {
+                throw new IOException("Connexion fermée par le client");
+            }
+            traiterRequetes();
+        }
+
+        /**
+         * Envoie les réponses en attente, puis reprend les requêtes laissées
+         * en attente faute de place pour leurs réponses.
+         */
+        void vider() throws IOException {
+            envoyer();
+            if (sortie.position() == 0) {
+                traiterRequetes();
+            }
+        }
+
+        private void traiterRequetes() throws IOException {
+            entree.flip();
+            while (entree.remaining() >= Protocole.ENTETE) {
+                if (sortie.remaining() < Protocole.TAILLE_MAX_REPONSE && !ecrire()) {
+                    // Le client ne lit plus : reprise quand le tampon de sortie sera vidé
+                    break;
+                }
+                int longueur = entree.getInt(entree.position());
+                if (longueur < 1 || longueur > Protocole.LONGUEUR_MAX_REQUETE) {
+                    throw new ProtocoleInvalide();
+                }
+                if (entree.remaining() < Protocole.ENTETE + longueur) {
+                    break;
+                }
+                int debut = entree.position() + Protocole.ENTETE;
+                entree.position(debut + longueur);
+                executer(debut, longueur);
+            }
+            entree.compact();
+            envoyer();
+        }
+
+        /**
+         * Envoie ce que le système accepte du tampon de sortie, et ne lit plus
+         * la connexion tant qu'il reste des réponses à envoyer.
+         */
+        private void envoyer() throws IOException {
+            ecrire();
+            cle.interestOps(sortie.position() == 0 ? SelectionKey.OP_READ : SelectionKey.OP_WRITE);
+        }
+
+        /**
+         * @return true s'il y a de nouveau place pour la plus grande réponse
+         */
+        private boolean ecrire() throws IOException {
+            sortie.flip();
+            canal.write(sortie);
+            sortie.compact();
+            return sortie.remaining() >= Protocole.TAILLE_MAX_REPONSE;
+        }
+
+        /**
+         * Exécute la requête {@code [debut, debut + longueur[} du tampon d'entrée
+         * et écrit sa réponse dans le tampon de sortie.
+         */
+        private void executer(int debut, int longueur) {
+            int reponse = sortie.position();
+            sortie.position(reponse + Protocole.ENTETE);
+            try {
+                long valeur = appeler(entree.get(debut), debut + 1, longueur - 1);
+                sortie.put((byte) Statut.OK.ordinal());
+                sortie.putLong(valeur);
+            } catch (IllegalArgumentException e) {
+                echec(reponse, Statut.ARGUMENT_INVALIDE, e.getMessage());
+            } catch (IllegalStateException e) {
+                echec(reponse, Statut.REFUS, e.getMessage());
+            } catch (RuntimeException e) {
+                echec(reponse, Statut.ERREUR, "Erreur interne");
+            }
+            sortie.putInt(reponse, sortie.position() - reponse - Protocole.ENTETE);
+        }
+
+        private long appeler(byte code, int arguments, int taille) {
+            switch (code) {
+                case Protocole.EMPRUNTER:
+                    exigerTaille(taille, 2 * Long.BYTES);
+                    return service.emprunter(entree.getLong(arguments), entree.getLong(arguments + Long.BYTES));
+                case Protocole.RENDRE:
+                    exigerTaille(taille, Long.BYTES);
+                    service.rendre(entree.getLong(arguments));
+                    return 0;
+                case Protocole.EST_DISPONIBLE:
+                    exigerTaille(taille, Long.BYTES);
+                    return service.estDisponible(entree.getLong(arguments)) ? 1 : 0;
+                case Protocole.COMPTER_DISPONIBLES:
+                    exigerTaille(taille, 0);
+                    return service.compterDisponibles();
+                default:
+                    throw new IllegalArgumentException("Code de requête inconnu : " + code);
+            }
+        }
+
+        private void echec(int reponse, Statut statut, String message) {
+            sortie.position(reponse + Protocole.ENTETE);
+            sortie.put((byte) statut.ordinal());
+            Protocole.ecrireTexte(sortie, message);
+        }
+    }
+
+    private static void exigerTaille(int recue, int attendue) {
+        if (recue != attendue) {
+            throw new IllegalArgumentException("Arguments de " + recue + " octets au lieu de " + attendue);
+        }
+    }
+
+    /**
+     * Trame de longueur invalide : le flux ne peut plus être découpé, la connexion est fermée.
+     */
+    private static final class ProtocoleInvalide extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ProtocoleInvalide() {
+            super(null, null, false, false);
+        }
+    }
+}
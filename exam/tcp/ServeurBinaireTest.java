@@ -0,0 +1,95 @@
+package exam.tcp;
+
+import exam.domain.membre.Membre;
+import exam.domain.oeuvre.Dvd;
+import exam.domain.oeuvre.Livre;
+import exam.repo.impl.InMemoryEmpruntRepository;
+import exam.repo.impl.InMemoryMembreRepository;
+import exam.repo.impl.InMemoryOeuvreRepository;
+import exam.service.MediathequeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests du protocole binaire sur l'interface de bouclage : appels
+ * synchrones, puis requêtes enchaînées sans attendre les réponses.
+ */
+class ServeurBinaireTest {
+
+    private ServeurBinaire serveur;
+    private ClientBinaire client;
+
+    @BeforeEach
+    void setUp() {
+        MediathequeService service = new MediathequeService(
+                new InMemoryOeuvreRepository(), new InMemoryMembreRepository(), new InMemoryEmpruntRepository());
+        service.ajouterMembre(new Membre(1, "Alice Martin"));
+        service.ajouterOeuvre(new Livre(1, "Dune", "Frank Herbert", 2070368229));
+        service.ajouterOeuvre(new Dvd(2, "Inception", "Christopher Nolan", 148));
+        serveur = ServeurBinaire.demarrer(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        client = ClientBinaire.connecter(new InetSocketAddress(InetAddress.getLoopbackAddress(), serveur.port()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        serveur.close();
+    }
+
+    @Test
+    void emprunterPuisRendre_doitSuivreLeParcoursCompletEtSignalerLesRefus() {
+        // Act & Assert : Emprunt
+        assertTrue(client.estDisponible(1));
+        long empruntId = client.emprunter(1, 1);
+        assertFalse(client.estDisponible(1));
+        assertEquals(1, client.compterDisponibles());
+
+        // Act & Assert : Refus et argument invalide, comme le service
+        IllegalStateException refus = assertThrows(IllegalStateException.class, () -> client.emprunter(1, 1));
+        assertEquals("L'œuvre avec l'ID 1 n'est pas disponible", refus.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> client.rendre(0));
+        assertThrows(IllegalStateException.class, () -> client.estDisponible(99));
+
+        // Act & Assert : Retour
+        client.rendre(empruntId);
+        assertTrue(client.estDisponible(1));
+        assertEquals(2, client.compterDisponibles());
+    }
+
+    @Test
+    void recevoir_apresPlusieursRequetesEnchainees_doitRepondreDansLOrdre() {
+        // Arrange : Assez de requêtes pour déborder des tampons de 64 Kio
+        int paires = 2_000;
+        for (int i = 0; i < paires; i++) {
+            client.demanderEmprunt(1, 2);
+            client.demanderDisponibilite(2);
+        }
+        client.demanderEmprunt(1, 2);
+
+        // Act : Tout est envoyé avant de lire la première réponse
+        client.envoyer();
+
+        // Assert : Une réponse par requête, dans l'ordre
+        assertEquals(Statut.OK, client.recevoir());
+        long premierEmprunt = client.valeur();
+        assertEquals(Statut.OK, client.recevoir());
+        assertEquals(0, client.valeur());
+        for (int i = 1; i < paires; i++) {
+            assertEquals(Statut.REFUS, client.recevoir());
+            assertEquals(Statut.OK, client.recevoir());
+        }
+        assertEquals(Statut.REFUS, client.recevoir());
+        assertTrue(client.message().contains("n'est pas disponible"));
+        assertEquals(0, client.enAttente());
+
+        // Assert : La connexion reste utilisable en mode synchrone
+        client.rendre(premierEmprunt);
+        assertTrue(client.estDisponible(2));
+    }
+}
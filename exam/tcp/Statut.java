@@ -0,0 +1,24 @@
+package exam.tcp;
+
+/**
+ * Statut d'une réponse du protocole binaire ; son rang est son code sur le réseau.
+ */
+public enum Statut {
+
+    OK,
+
+    /**
+     * Argument rejeté par le service ({@link IllegalArgumentException}) ou requête mal formée.
+     */
+    ARGUMENT_INVALIDE,
+
+    /**
+     * Refus métier ({@link IllegalStateException}) : quota atteint, œuvre indisponible...
+     */
+    REFUS,
+
+    /**
+     * Erreur inattendue du serveur.
+     */
+    ERREUR
+}
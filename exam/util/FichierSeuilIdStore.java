@@ -0,0 +1,79 @@
+package exam.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stockage du seuil haut des identifiants dans un fichier.
+ * <p>
+ * Chaque enregistrement écrit le seuil dans un fichier temporaire, le force
+ * sur disque, puis le renomme atomiquement à la place du fichier cible :
+ * après un arrêt brutal, le fichier contient toujours un seuil complet.
+ */
+public final class FichierSeuilIdStore implements SeuilIdStore {
+
+    private final Path fichier;
+    private final Path fichierTemporaire;
+
+    /**
+     * Crée un stockage sur le fichier indiqué.
+     *
+     * @param fichier chemin du fichier de seuil (non null, créé au premier enregistrement)
+     * @throws IllegalArgumentException si fichier est null
+     */
+    public FichierSeuilIdStore(Path fichier) {
+        if (fichier == null)
+            throw new IllegalArgumentException("Le fichier ne peut pas être null");
+        this.fichier = fichier;
+        this.fichierTemporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException si le fichier existe mais ne peut pas être lu
+     */
+    @Override
+    public long charger() {
+        if (!Files.exists(fichier)) {
+            return 1;
+        }
+        try {
+            byte[] contenu = Files.readAllBytes(fichier);
+            if (contenu.length != Long.BYTES)
+                throw new IllegalStateException("Fichier de seuil corrompu : " + fichier);
+            return Math.max(1, ByteBuffer.wrap(contenu).getLong());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de lire le seuil d'identifiants", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException si l'écriture ou le renommage échoue
+     */
+    @Override
+    public void enregistrer(long seuil) {
+        ByteBuffer tampon = ByteBuffer.allocate(Long.BYTES).putLong(seuil).flip();
+        try {
+            try (FileChannel canal = FileChannel.open(fichierTemporaire,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (tampon.hasRemaining()) {
+                    canal.write(tampon);
+                }
+                canal.force(true);
+            }
+            Files.move(fichierTemporaire, fichier,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'enregistrer le seuil d'identifiants", e);
+        }
+    }
+}
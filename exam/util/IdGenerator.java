@@ -1,13 +1,81 @@
 package exam.util;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Générateur d'identifiants uniques.
  * <p>
- * Génère des identifiants séquentiels à partir de 1.
+ * Chaque thread reçoit un bloc d'identifiants consécutifs qu'il distribue
+ * localement, sans synchronisation ; le compteur partagé n'est sollicité
+ * qu'une fois par bloc. Les identifiants sont donc uniques et croissants
+ * pour un thread donné, mais pas globalement ordonnés, et les identifiants
+ * non consommés d'un bloc (thread terminé, redémarrage) sont perdus.
+ * <p>
+ * Le seuil haut de chaque bloc est enregistré dans un {@link SeuilIdStore}
+ * avant que le premier identifiant du bloc ne soit distribué : après un
+ * redémarrage, le générateur repart de ce seuil et ne redistribue jamais
+ * un identifiant.
+ * <p>
+ * Les threads virtuels, créés pour une seule tâche, partagent un bloc
+ * commun protégé par un verrou : un bloc par thread virtuel louerait (et
+ * enregistrerait) un bloc entier par emprunt. Les verrous sont des
+ * {@link ReentrantLock}, qui libèrent le thread porteur d'un thread
+ * virtuel en attente, contrairement à {@code synchronized} en Java 21.
  */
 public class IdGenerator {
 
-    private long nextId = 1;
+    /**
+     * Nombre d'identifiants réservés à la fois par un thread.
+     */
+    public static final int TAILLE_BLOC_PAR_DEFAUT = 1024;
+
+    private final SeuilIdStore store;
+    private final int tailleBloc;
+
+    /**
+     * Premier identifiant du prochain bloc à louer.
+     */
+    private final AtomicLong prochainBloc;
+
+    /**
+     * Dernier seuil enregistré dans le store (protégé par {@link #verrouStore}).
+     */
+    private long seuilEnregistre;
+    private final ReentrantLock verrouStore = new ReentrantLock();
+
+    private final ThreadLocal<Bloc> blocCourant = ThreadLocal.withInitial(Bloc::new);
+
+    /**
+     * Bloc des threads virtuels (protégé par {@link #verrouBlocPartage}).
+     */
+    private final Bloc blocPartage = new Bloc();
+    private final ReentrantLock verrouBlocPartage = new ReentrantLock();
+
+    /**
+     * Crée un générateur sans persistance, qui démarre à 1.
+     */
+    public IdGenerator() {
+        this(SeuilIdStore.enMemoire(), TAILLE_BLOC_PAR_DEFAUT);
+    }
+
+    /**
+     * Crée un générateur qui reprend au seuil enregistré dans le store.
+     *
+     * @param store      stockage du seuil haut (non null)
+     * @param tailleBloc nombre d'identifiants loués à la fois par thread (> 0)
+     * @throws IllegalArgumentException si store est null ou tailleBloc <= 0
+     */
+    public IdGenerator(SeuilIdStore store, int tailleBloc) {
+        if (store == null)
+            throw new IllegalArgumentException("Le store ne peut pas être null");
+        if (tailleBloc <= 0)
+            throw new IllegalArgumentException("La taille de bloc doit être strictement positive");
+        this.store = store;
+        this.tailleBloc = tailleBloc;
+        this.seuilEnregistre = Math.max(1, store.charger());
+        this.prochainBloc = new AtomicLong(seuilEnregistre);
+    }
 
     /**
      * Génère et retourne le prochain identifiant unique.
@@ -15,6 +83,56 @@ public class IdGenerator {
      * @return le prochain identifiant (strictement positif)
      */
     public long nextId() {
-        return nextId++;
+        if (ThreadsVirtuels.courantEstVirtuel()) {
+            return nextIdPartage();
+        }
+        Bloc bloc = blocCourant.get();
+        if (bloc.suivant == bloc.fin) {
+            louerBloc(bloc);
+        }
+        return bloc.suivant++;
+    }
+
+    /**
+     * Distribue le prochain identifiant du bloc partagé par les threads virtuels.
+     */
+    private long nextIdPartage() {
+        verrouBlocPartage.lock();
+        try {
+            if (blocPartage.suivant == blocPartage.fin) {
+                louerBloc(blocPartage);
+            }
+            return blocPartage.suivant++;
+        } finally {
+            verrouBlocPartage.unlock();
+        }
+    }
+
+    /**
+     * Réserve un nouveau bloc et enregistre son seuil.
+     */
+    private void louerBloc(Bloc bloc) {
+        long debut = prochainBloc.getAndAdd(tailleBloc);
+        long fin = debut + tailleBloc;
+        verrouStore.lock();
+        try {
+            // Les blocs peuvent être loués dans le désordre : seul le plus haut seuil compte
+            if (fin > seuilEnregistre) {
+                store.enregistrer(fin);
+                seuilEnregistre = fin;
+            }
+        } finally {
+            verrouStore.unlock();
+        }
+        bloc.suivant = debut;
+        bloc.fin = fin;
+    }
+
+    /**
+     * Bloc d'identifiants propre à un thread (ou partagé par les threads virtuels) : [suivant, fin[.
+     */
+    private static final class Bloc {
+        private long suivant;
+        private long fin;
     }
 }
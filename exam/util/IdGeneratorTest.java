@@ -0,0 +1,111 @@
+package exam.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests unitaires pour IdGenerator.
+ */
+class IdGeneratorTest {
+
+    @Test
+    void nextId_doitDemarrerAUnEtEtreSequentielPourUnThread() {
+        // Arrange
+        IdGenerator generateur = new IdGenerator();
+
+        // Act & Assert
+        assertEquals(1, generateur.nextId());
+        assertEquals(2, generateur.nextId());
+        assertEquals(3, generateur.nextId());
+    }
+
+    @Test
+    void nextId_quandPlusieursThreads_identifiantsUniques() throws Exception {
+        // Arrange : Petits blocs pour forcer de nombreuses locations concurrentes
+        IdGenerator generateur = new IdGenerator(SeuilIdStore.enMemoire(), 16);
+        Set<Long> identifiants = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int parThread = 10_000;
+
+        // Act
+        List<Thread> travailleurs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < parThread; i++) {
+                    identifiants.add(generateur.nextId());
+                }
+            });
+            travailleurs.add(thread);
+            thread.start();
+        }
+        for (Thread thread : travailleurs) {
+            thread.join();
+        }
+
+        // Assert : Aucun doublon
+        assertEquals(threads * parThread, identifiants.size());
+    }
+
+    @Test
+    void nextId_apresRedemarrage_neRedistribueJamaisUnIdentifiant(@TempDir Path dossier) {
+        // Arrange : Premier démarrage, quelques identifiants consommés
+        Path fichier = dossier.resolve("emprunts.seuil");
+        IdGenerator premier = new IdGenerator(new FichierSeuilIdStore(fichier), 100);
+        Set<Long> distribues = new HashSet<>();
+        for (int i = 0; i < 150; i++) {
+            distribues.add(premier.nextId());
+        }
+
+        // Act : Redémarrage sur le même fichier
+        IdGenerator second = new IdGenerator(new FichierSeuilIdStore(fichier), 100);
+        long suivant = second.nextId();
+
+        // Assert : Le nouvel identifiant dépasse tous ceux déjà distribués
+        assertFalse(distribues.contains(suivant));
+        assertTrue(suivant > distribues.stream().mapToLong(Long::longValue).max().orElseThrow());
+    }
+
+    @Test
+    void nextId_depuisDesThreadsVirtuels_doitPartagerUnSeulBloc() throws Exception {
+        // Arrange : Un thread virtuel par identifiant (Java 21 et plus)
+        assumeTrue(ThreadsVirtuels.disponibles(), "Threads virtuels indisponibles sur cette JVM");
+        SeuilIdStore store = SeuilIdStore.enMemoire();
+        IdGenerator generateur = new IdGenerator(store, 1024);
+        List<Future<Long>> resultats = new ArrayList<>();
+
+        // Act
+        ExecutorService executeur = ThreadsVirtuels.executeurParTache("test");
+        for (int i = 0; i < 1_000; i++) {
+            resultats.add(executeur.submit(generateur::nextId));
+        }
+        Set<Long> identifiants = new HashSet<>();
+        for (Future<Long> resultat : resultats) {
+            identifiants.add(resultat.get());
+        }
+        executeur.shutdown();
+
+        // Assert : Identifiants 1 à 1 000, tirés d'un seul bloc enregistré
+        assertEquals(1_000, identifiants.size());
+        assertEquals(1, identifiants.stream().mapToLong(Long::longValue).min().orElseThrow());
+        assertEquals(1_000, identifiants.stream().mapToLong(Long::longValue).max().orElseThrow());
+        assertEquals(1_025, store.charger());
+    }
+
+    @Test
+    void constructeur_quandTailleBlocInvalide_doitLeverIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(SeuilIdStore.enMemoire(), 0));
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(null, 10));
+    }
+}
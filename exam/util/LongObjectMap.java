@@ -0,0 +1,208 @@
+package exam.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Table associative à clés {@code long} primitives, en adressage ouvert.
+ * <p>
+ * Les entrées sont rangées dans des tableaux denses, dans l'ordre
+ * d'insertion ({@code long[]} des clés, {@code Object[]} des valeurs) ;
+ * une table de hachage de {@code int} à sondage linéaire donne la position
+ * de chaque clé. Aucune clé n'est encapsulée dans un {@link Long} et une
+ * recherche ne suit aucun pointeur de nœud : elle lit quelques cases
+ * contiguës puis la clé et la valeur.
+ * <p>
+ * Les lectures sont sans verrou ; les écritures sont sérialisées.
+ * Une valeur remplacée garde sa position d'insertion. La suppression
+ * n'est pas prise en charge : les repositories ne suppriment jamais.
+ *
+ * @param <V> type des valeurs
+ */
+public final class LongObjectMap<V> {
+
+    private static final VarHandle CASES = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle VALEURS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private static final int CAPACITE_INITIALE = 16;
+
+    /**
+     * Tableaux d'une génération de la table ; remplacés d'un bloc à chaque agrandissement.
+     */
+    private static final class Tableaux {
+        final long[] cles;
+        final Object[] valeurs;
+        /**
+         * Position + 1 de l'entrée dans les tableaux denses, 0 pour une case libre.
+         * Deux fois plus de cases que d'entrées : taux de remplissage au plus 1/2.
+         */
+        final int[] cases;
+        final int masque;
+
+        Tableaux(int capacite) {
+            this.cles = new long[capacite];
+            this.valeurs = new Object[capacite];
+            this.cases = new int[capacite * 2];
+            this.masque = cases.length - 1;
+        }
+    }
+
+    private volatile Tableaux tableaux = new Tableaux(CAPACITE_INITIALE);
+
+    /**
+     * Nombre d'entrées publiées : les positions inférieures sont entièrement écrites.
+     */
+    private volatile int taille;
+
+    /**
+     * Retourne la valeur associée à une clé, sans verrou ni allocation.
+     *
+     * @param cle clé recherchée
+     * @return la valeur, ou null si la clé est absente
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long cle) {
+        Tableaux t = tableaux;
+        int position = chercher(t, cle);
+        return position < 0 ? null : (V) VALEURS.getAcquire(t.valeurs, position);
+    }
+
+    /**
+     * @param cle clé recherchée
+     * @return true si la clé est présente
+     */
+    public boolean containsKey(long cle) {
+        return chercher(tableaux, cle) >= 0;
+    }
+
+    /**
+     * Retourne la position d'insertion d'une clé.
+     *
+     * @param cle clé recherchée
+     * @return la position (de 0 à {@code size() - 1}), ou -1 si la clé est absente
+     */
+    public int position(long cle) {
+        return chercher(tableaux, cle);
+    }
+
+    /**
+     * Associe une valeur à une clé. Une clé déjà présente garde sa position.
+     *
+     * @param cle    clé
+     * @param valeur valeur (non null)
+     * @return la valeur précédente, ou null si la clé était absente
+     * @throws IllegalArgumentException si la valeur est null
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V put(long cle, V valeur) {
+        if (valeur == null)
+            throw new IllegalArgumentException("La valeur ne peut pas être null");
+        Tableaux t = tableaux;
+        int position = chercher(t, cle);
+        if (position >= 0) {
+            V precedente = (V) t.valeurs[position];
+            VALEURS.setRelease(t.valeurs, position, valeur);
+            return precedente;
+        }
+
+        position = taille;
+        if (position == t.cles.length) {
+            t = agrandir(t, position);
+        }
+        t.cles[position] = cle;
+        VALEURS.setRelease(t.valeurs, position, valeur);
+        // La case n'est visible qu'une fois la clé et la valeur écrites
+        CASES.setRelease(t.cases, caseLibre(t, cle), position + 1);
+        taille = position + 1;
+        return null;
+    }
+
+    /**
+     * @return le nombre d'entrées
+     */
+    public int size() {
+        return taille;
+    }
+
+    /**
+     * @return true si la table est vide
+     */
+    public boolean isEmpty() {
+        return taille == 0;
+    }
+
+    /**
+     * Retourne la valeur à une position d'insertion.
+     *
+     * @param position position, de 0 à {@code size() - 1}
+     * @return la valeur
+     * @throws IndexOutOfBoundsException si la position est invalide
+     */
+    @SuppressWarnings("unchecked")
+    public V valeurA(int position) {
+        if (position < 0 || position >= taille)
+            throw new IndexOutOfBoundsException("Position invalide : " + position);
+        return (V) VALEURS.getAcquire(tableaux.valeurs, position);
+    }
+
+    /**
+     * Parcourt les valeurs dans l'ordre d'insertion, sans copie.
+     * <p>
+     * Le flux est faiblement cohérent : il voit les valeurs remplacées
+     * et les entrées ajoutées pendant le parcours.
+     *
+     * @return flux des valeurs
+     */
+    public Stream<V> valeurs() {
+        return IntStream.iterate(0, position -> position < taille, position -> position + 1)
+                .mapToObj(this::valeurA);
+    }
+
+    private static int chercher(Tableaux t, long cle) {
+        for (int indice = melanger(cle) & t.masque; ; indice = (indice + 1) & t.masque) {
+            int valeur = (int) CASES.getAcquire(t.cases, indice);
+            if (valeur == 0) {
+                return -1;
+            }
+            if (t.cles[valeur - 1] == cle) {
+                return valeur - 1;
+            }
+        }
+    }
+
+    private static int caseLibre(Tableaux t, long cle) {
+        int indice = melanger(cle) & t.masque;
+        while (t.cases[indice] != 0) {
+            indice = (indice + 1) & t.masque;
+        }
+        return indice;
+    }
+
+    /**
+     * Construit et publie des tableaux deux fois plus grands, contenant les entrées existantes.
+     */
+    private Tableaux agrandir(Tableaux ancien, int nombre) {
+        if (ancien.cles.length >= (1 << 29))
+            throw new IllegalStateException("Capacité maximale atteinte");
+        Tableaux nouveau = new Tableaux(ancien.cles.length * 2);
+        System.arraycopy(ancien.cles, 0, nouveau.cles, 0, nombre);
+        System.arraycopy(ancien.valeurs, 0, nouveau.valeurs, 0, nombre);
+        for (int position = 0; position < nombre; position++) {
+            nouveau.cases[caseLibre(nouveau, nouveau.cles[position])] = position + 1;
+        }
+        tableaux = nouveau;
+        return nouveau;
+    }
+
+    private static int melanger(long cle) {
+        long h = cle * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+
+    @Override
+    public String toString() {
+        return "LongObjectMap{taille=" + taille + ", capacite=" + tableaux.cles.length + "}";
+    }
+}
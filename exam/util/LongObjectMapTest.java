@@ -0,0 +1,87 @@
+package exam.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour LongObjectMap.
+ */
+class LongObjectMapTest {
+
+    @Test
+    void put_puisGet_doitRetrouverLesValeursEtConserverLOrdreDInsertion() {
+        // Arrange
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        // Act
+        assertNull(map.put(30, "trente"));
+        assertNull(map.put(-5, "moins cinq"));
+        assertNull(map.put(0, "zéro"));
+        String precedente = map.put(30, "TRENTE");
+
+        // Assert : Le remplacement garde la position d'origine
+        assertEquals("trente", precedente);
+        assertEquals("TRENTE", map.get(30));
+        assertEquals("moins cinq", map.get(-5));
+        assertEquals("zéro", map.get(0));
+        assertNull(map.get(31));
+        assertEquals(3, map.size());
+        assertEquals(0, map.position(30));
+        assertEquals(-1, map.position(31));
+        assertEquals(List.of("TRENTE", "moins cinq", "zéro"), map.valeurs().collect(Collectors.toList()));
+    }
+
+    @Test
+    void put_auDelaDeLaCapaciteInitiale_doitConserverToutesLesEntrees() {
+        // Arrange
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        int nombre = 100_000;
+
+        // Act : Clés espacées, qui collisionneraient avec un hachage naïf
+        for (long i = 1; i <= nombre; i++) {
+            map.put(i << 20, i);
+        }
+
+        // Assert
+        assertEquals(nombre, map.size());
+        for (long i = 1; i <= nombre; i++) {
+            assertEquals(i, map.get(i << 20));
+        }
+        assertEquals(nombre, map.valeurA(nombre - 1));
+    }
+
+    @Test
+    void get_pendantDesInsertionsConcurrentes_doitToujoursVoirLesEntreesPubliees() throws Exception {
+        // Arrange
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        int nombre = 200_000;
+        AtomicInteger erreurs = new AtomicInteger();
+
+        // Act : Un lecteur vérifie chaque entrée publiée pendant les agrandissements
+        Thread lecteur = new Thread(() -> {
+            int verifiees = 0;
+            while (verifiees < nombre) {
+                int publiees = map.size();
+                for (; verifiees < publiees; verifiees++) {
+                    Long valeur = map.get(verifiees + 1L);
+                    if (valeur == null || valeur != verifiees + 1L) {
+                        erreurs.incrementAndGet();
+                    }
+                }
+            }
+        });
+        lecteur.start();
+        for (long i = 1; i <= nombre; i++) {
+            map.put(i, i);
+        }
+        lecteur.join();
+
+        // Assert
+        assertEquals(0, erreurs.get());
+    }
+}
@@ -0,0 +1,53 @@
+package exam.util;
+
+/**
+ * Stockage du seuil haut des identifiants distribués par un {@link IdGenerator}.
+ * <p>
+ * Le seuil est une borne exclusive : tout identifiant déjà distribué est
+ * strictement inférieur au dernier seuil enregistré. Au redémarrage, le
+ * générateur repart de ce seuil et ne peut donc jamais redistribuer un
+ * identifiant, sans avoir à parcourir les données existantes.
+ */
+public interface SeuilIdStore {
+
+    /**
+     * Lit le dernier seuil enregistré.
+     *
+     * @return le seuil enregistré, ou 1 si aucun seuil n'a encore été enregistré
+     */
+    long charger();
+
+    /**
+     * Enregistre un nouveau seuil.
+     * <p>
+     * Lorsque la méthode retourne, le seuil doit survivre à un arrêt brutal
+     * de l'application.
+     *
+     * @param seuil nouveau seuil (strictement positif, croissant d'un appel à l'autre)
+     */
+    void enregistrer(long seuil);
+
+    /**
+     * Retourne un stockage volatil, sans persistance.
+     * <p>
+     * Adapté aux tests et aux repositories en mémoire, dont le contenu
+     * disparaît lui aussi au redémarrage.
+     *
+     * @return un stockage qui repart de 1 à chaque création
+     */
+    static SeuilIdStore enMemoire() {
+        return new SeuilIdStore() {
+            private volatile long seuil = 1;
+
+            @Override
+            public long charger() {
+                return seuil;
+            }
+
+            @Override
+            public void enregistrer(long nouveauSeuil) {
+                seuil = nouveauSeuil;
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package exam.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ensemble de verrous répartis par identifiant (lock striping).
+ * <p>
+ * Chaque identifiant est associé de façon déterministe à l'un des verrous
+ * d'un tableau de taille fixe. Deux opérations portant sur des identifiants
+ * différents ont donc de fortes chances de ne pas se bloquer mutuellement,
+ * sans avoir à créer un verrou par entité.
+ */
+public final class StripedLock {
+
+    private final ReentrantLock[] verrous;
+    private final int masque;
+
+    /**
+     * Crée un ensemble de verrous.
+     *
+     * @param nombreMinimal nombre minimal de verrous (arrondi à la puissance de 2 supérieure)
+     * @throws IllegalArgumentException si nombreMinimal <= 0
+     */
+    public StripedLock(int nombreMinimal) {
+        if (nombreMinimal <= 0)
+            throw new IllegalArgumentException("Le nombre de verrous doit être strictement positif");
+        int taille = Integer.highestOneBit(Math.min(nombreMinimal, 1 << 16) - 1) << 1;
+        taille = Math.max(taille, 1);
+        this.verrous = new ReentrantLock[taille];
+        for (int i = 0; i < taille; i++) {
+            verrous[i] = new ReentrantLock();
+        }
+        this.masque = taille - 1;
+    }
+
+    /**
+     * Retourne le verrou associé à un identifiant.
+     *
+     * @param id identifiant de l'entité
+     * @return le verrou (toujours le même pour un identifiant donné)
+     */
+    public ReentrantLock pour(long id) {
+        return verrous[indice(id)];
+    }
+
+    /**
+     * Retourne les verrous associés à plusieurs identifiants, sans doublon
+     * et toujours dans le même ordre global : les acquérir dans l'ordre de
+     * la liste évite tout interblocage entre appelants.
+     *
+     * @param ids identifiants des entités (non null)
+     * @return les verrous distincts, dans l'ordre d'acquisition
+     */
+    public List<ReentrantLock> pourTous(Collection<Long> ids) {
+        BitSet indices = new BitSet(verrous.length);
+        for (long id : ids) {
+            indices.set(indice(id));
+        }
+        List<ReentrantLock> resultat = new ArrayList<>(indices.cardinality());
+        for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+            resultat.add(verrous[i]);
+        }
+        return resultat;
+    }
+
+    private int indice(long id) {
+        // Mélange des bits pour répartir des identifiants séquentiels
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & masque;
+    }
+
+    /**
+     * @return le nombre de verrous
+     */
+    public int taille() {
+        return verrous.length;
+    }
+}
@@ -0,0 +1,115 @@
+package exam.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accès aux threads virtuels (Java 21) depuis un code compilé pour une
+ * version antérieure.
+ * <p>
+ * Les threads virtuels exigent une JVM 21 ou plus récente. Les méthodes de
+ * Java 21 sont recherchées une fois, au chargement de la classe ; sur une
+ * JVM plus ancienne (Java 17, la version de compilation),
+ * {@link #disponibles()} est faux et {@link #executeurParTache(String)} se
+ * replie sur un pool borné de threads de plateforme, dimensionné par la
+ * propriété système {@value #PROPRIETE_THREADS_MAX}.
+ */
+public final class ThreadsVirtuels {
+
+    /**
+     * Propriété système : nombre maximal de threads de plateforme de chaque
+     * exécuteur de repli. Par défaut, quatre par processeur et au moins seize.
+     */
+    public static final String PROPRIETE_THREADS_MAX = "mediatheque.threads.max";
+
+    private static final MethodHandle EXECUTEUR_VIRTUEL = rechercher(
+            Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class), true);
+
+    private static final MethodHandle EST_VIRTUEL = rechercher(
+            Thread.class, "isVirtual", MethodType.methodType(boolean.class), false);
+
+    private ThreadsVirtuels() {
+    }
+
+    /**
+     * @return vrai si la JVM courante prend en charge les threads virtuels
+     */
+    public static boolean disponibles() {
+        return EXECUTEUR_VIRTUEL != null && EST_VIRTUEL != null;
+    }
+
+    /**
+     * Indique si le thread courant est virtuel.
+     *
+     * @return vrai si le thread courant est virtuel (toujours faux avant Java 21)
+     */
+    public static boolean courantEstVirtuel() {
+        if (EST_VIRTUEL == null) {
+            return false;
+        }
+        try {
+            return (boolean) EST_VIRTUEL.invokeExact(Thread.currentThread());
+        } catch (Throwable e) {
+            throw new IllegalStateException("Thread.isVirtual a échoué", e);
+        }
+    }
+
+    /**
+     * Crée un exécuteur qui lance chaque tâche sur un nouveau thread
+     * virtuel, ou, avant Java 21, sur un pool de threads démons borné à
+     * {@value #PROPRIETE_THREADS_MAX} : au-delà, les tâches attendent dans
+     * une file, et les threads inactifs depuis une minute sont arrêtés.
+     *
+     * @param nom préfixe du nom des threads de repli (non null)
+     * @return l'exécuteur, à arrêter après usage
+     * @throws IllegalArgumentException si {@value #PROPRIETE_THREADS_MAX} n'est pas strictement positive
+     */
+    public static ExecutorService executeurParTache(String nom) {
+        if (EXECUTEUR_VIRTUEL != null) {
+            try {
+                return (ExecutorService) EXECUTEUR_VIRTUEL.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("Impossible de créer l'exécuteur de threads virtuels", e);
+            }
+        }
+        AtomicInteger numero = new AtomicInteger();
+        ThreadFactory fabrique = tache -> {
+            Thread thread = new Thread(tache, nom + "-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        int threadsMax = threadsMax();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threadsMax, threadsMax, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), fabrique);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static int threadsMax() {
+        Integer threadsMax = Integer.getInteger(PROPRIETE_THREADS_MAX);
+        if (threadsMax == null) {
+            return Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+        }
+        if (threadsMax <= 0) {
+            throw new IllegalArgumentException("La propriété " + PROPRIETE_THREADS_MAX + " doit être strictement positive");
+        }
+        return threadsMax;
+    }
+
+    private static MethodHandle rechercher(Class<?> classe, String methode, MethodType type, boolean statique) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            return statique ? lookup.findStatic(classe, methode, type) : lookup.findVirtual(classe, methode, type);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
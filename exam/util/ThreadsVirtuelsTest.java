@@ -0,0 +1,63 @@
+package exam.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Tests unitaires pour ThreadsVirtuels : exécuteur de repli avant Java 21.
+ */
+class ThreadsVirtuelsTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(ThreadsVirtuels.PROPRIETE_THREADS_MAX);
+    }
+
+    @Test
+    void executeurParTache_sansThreadsVirtuels_doitBornerLesThreadsDePlateforme() throws Exception {
+        // Arrange : Repli limité à deux threads, cinq tâches bloquées
+        assumeFalse(ThreadsVirtuels.disponibles(), "Threads virtuels disponibles : pas de repli");
+        System.setProperty(ThreadsVirtuels.PROPRIETE_THREADS_MAX, "2");
+        ExecutorService executeur = ThreadsVirtuels.executeurParTache("test");
+        AtomicInteger demarrees = new AtomicInteger();
+        CountDownLatch liberation = new CountDownLatch(1);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            executeur.execute(() -> {
+                demarrees.incrementAndGet();
+                try {
+                    liberation.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        Thread.sleep(200);
+
+        // Assert : Deux tâches en cours, les autres attendent puis s'exécutent
+        assertEquals(2, demarrees.get());
+        liberation.countDown();
+        executeur.shutdown();
+        assertTrue(executeur.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(5, demarrees.get());
+    }
+
+    @Test
+    void executeurParTache_quandProprieteNonPositive_doitLeverIllegalArgumentException() {
+        // Arrange
+        assumeFalse(ThreadsVirtuels.disponibles(), "Threads virtuels disponibles : pas de repli");
+        System.setProperty(ThreadsVirtuels.PROPRIETE_THREADS_MAX, "0");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ThreadsVirtuels.executeurParTache("test"));
+    }
+}